@@ -2,12 +2,10 @@ package jaicore.logic.fol.structure;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +17,10 @@ import jaicore.logic.fol.util.LogicUtil;
 /**
  * A literal defines a property over parameters. Note that literals can be cloned using the clone() methods.
  * 
+ * The property is interned as a {@link Symbol}, so literals are compared by the identity of their property symbols and parameter
+ * symbols. The hash code is computed once and then cached, so the parameters of a literal must not be changed after it has been
+ * used (e.g. inserted into a set).
+ * 
  * @author Felix Mohr
  */
 @SuppressWarnings("serial")
@@ -26,40 +28,28 @@ public class Literal implements Serializable {
 
 	private static Logger logger = LoggerFactory.getLogger(Literal.class);
 
-	// private short getIntProperty(String property) {
-	// boolean isNegated = property.startsWith("!");
-	// String propertyName = !isNegated ? property : property.substring(1);
-	// if (!ext2int.containsKey(propertyName)) {
-	// short id = counter ++;
-	// if (id < 0)
-	// throw new IllegalArgumentException("No support for more than " + Short.MAX_VALUE + " predicates!");
-	// ext2int.put(propertyName, id);
-	// int2ext.put(id, propertyName);
-	// }
-	// return (short)(ext2int.get(propertyName) * (isNegated ? -1 : 1));
-	// }
-
-	private String property;
+	private Symbol property; // the property including the sign
+	private Symbol propertyName; // the property without the sign
+	private boolean negated;
+	private transient int hashCode; // 0 if not computed yet
 	protected List<LiteralParam> parameters;
 
 	public Literal(Literal l, Map<? extends LiteralParam, ? extends LiteralParam> map) {
-		this(l.getProperty());
-		for (LiteralParam p : l.getParameters()) {
+		this(l, new ArrayList<>(l.parameters.size()));
+		for (LiteralParam p : l.parameters) {
 			parameters.add(map.containsKey(p) ? map.get(p) : p);
 		}
 	}
 
 	/**
-	 * Creates a monadic literal (with only one parameter).
-	 * 
-	 * @param property
-	 *            The property defined by this literal.
-	 * @param parameter
-	 *            The parameter of this literal.
+	 * Creates a literal with the property of the given literal without parsing the property. The given list becomes the parameter list of the literal.
 	 */
-	public Literal(String property, LiteralParam parameter) {
-		this(property);
-		this.parameters.add(parameter);
+	private Literal(Literal l, ArrayList<LiteralParam> parameters) {
+		super();
+		this.property = l.property;
+		this.propertyName = l.propertyName;
+		this.negated = l.negated;
+		this.parameters = parameters;
 	}
 
 	/**
@@ -70,15 +60,10 @@ public class Literal implements Serializable {
 	 * @param parameter
 	 *            The parameter of this literal.
 	 */
-	// private Literal(short property, List<LiteralParam> parameters) {
-	// this(property);
-	// this.parameters.addAll(parameters);
-	// }
-	//
-	// private Literal(short property) {
-	// this.parameters = new ArrayList<>();
-	// this.property = property;
-	// }
+	public Literal(String property, LiteralParam parameter) {
+		this(property);
+		this.parameters.add(parameter);
+	}
 
 	/**
 	 * Creates a literal with a list of parameters.
@@ -101,12 +86,13 @@ public class Literal implements Serializable {
 	public Literal(final String pPropertyWithParams) {
 		super();
 		this.parameters = new ArrayList<>();
+		String property = null;
 
 		/* detect special predicates = or != */
 		if (pPropertyWithParams.contains("=")) {
 			String[] params = StringUtil.explode(pPropertyWithParams, "=");
 			boolean isNegated = params.length > 0 && params[0].endsWith("!");
-			this.property = isNegated ? "!=" : "=";
+			property = isNegated ? "!=" : "=";
 			if (params.length == 2) {
 				int p1Length = isNegated ? params[0].length() - 1 : params[0].length();
 				this.parameters.add(LogicUtil.parseParamName(params[0].substring(0, p1Length).trim()));
@@ -119,7 +105,7 @@ public class Literal implements Serializable {
 		else {
 
 			boolean isPositive = true;
-			String propertyWithParams = new String(pPropertyWithParams);
+			String propertyWithParams = pPropertyWithParams;
 			if (pPropertyWithParams.startsWith("!")) {
 				isPositive = false;
 				propertyWithParams = pPropertyWithParams.substring(1);
@@ -129,22 +115,30 @@ public class Literal implements Serializable {
 			if (propertyWithParams.contains("(")) {
 				if (propertyWithParams.contains(")")) {
 					int index = propertyWithParams.indexOf('(');
-					this.property = propertyWithParams.substring(0, index);
+					property = propertyWithParams.substring(0, index);
 					if (index < propertyWithParams.length() - 2) {
-						this.parameters.addAll(Arrays.asList(StringUtil.explode(propertyWithParams.substring(index + 1, propertyWithParams.length() - 1), ",")).stream().map(s -> {
-							return LogicUtil.parseParamName(s.trim());
-						}).collect(Collectors.toList()));
+						for (String param : StringUtil.explode(propertyWithParams.substring(index + 1, propertyWithParams.length() - 1), ",")) {
+							this.parameters.add(LogicUtil.parseParamName(param.trim()));
+						}
 					}
 				}
 			} else {
-				this.property = propertyWithParams;
+				property = propertyWithParams;
 			}
-			if (!isPositive) {
-				this.property = "!" + this.property;
+			if (!isPositive && property != null) {
+				property = "!" + property;
 			}
 		}
-		if (this.property == null)
+		if (property == null)
 			throw new IllegalArgumentException("Given string \"" + pPropertyWithParams + "\" causes a NULL property!");
+		this.setProperty(property);
+	}
+
+	private void setProperty(String property) {
+		this.negated = property.startsWith("!");
+		this.property = Symbol.of(property);
+		this.propertyName = this.negated ? Symbol.of(property.substring(1)) : this.property;
+		this.hashCode = 0;
 	}
 
 	public Literal(String property2, boolean isPositive) {
@@ -169,14 +163,21 @@ public class Literal implements Serializable {
 	 * Returns a String representation of the property stated by this literal.
 	 */
 	public final String getProperty() {
-		return (isNegated() ? "!" : "") + getPropertyName();
+		return property.getName();
 	}
 
 	/**
 	 * Returns only the property name of this literal.
 	 */
 	public final String getPropertyName() {
-		return isNegated() ? property.substring(1) : property;
+		return propertyName.getName();
+	}
+
+	/**
+	 * @return The interned property (including the sign) of this literal.
+	 */
+	public final Symbol getPropertySymbol() {
+		return property;
 	}
 
 	/**
@@ -187,11 +188,11 @@ public class Literal implements Serializable {
 	}
 
 	public final boolean isNegated() {
-		return property.startsWith("!");
+		return negated;
 	}
 
 	public Literal toggleNegation() {
-		property = isNegated() ? getPropertyName() : "!" + getPropertyName();
+		setProperty(isNegated() ? getPropertyName() : "!" + getPropertyName());
 		return this;
 	}
 
@@ -216,10 +217,14 @@ public class Literal implements Serializable {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((parameters == null) ? 0 : parameters.hashCode());
-		result = prime * result + ((property == null) ? 0 : property.hashCode());
+		int result = hashCode;
+		if (result == 0) {
+			final int prime = 31;
+			result = 1;
+			result = prime * result + ((parameters == null) ? 0 : parameters.hashCode());
+			result = prime * result + property.hashCode();
+			hashCode = result;
+		}
 		return result;
 	}
 
@@ -232,22 +237,16 @@ public class Literal implements Serializable {
 		if (getClass() != obj.getClass())
 			return false;
 		Literal other = (Literal) obj;
-		if (parameters == null) {
-			if (other.parameters != null)
-				return false;
-		} else if (!parameters.equals(other.parameters))
-			return false;
-		if (property == null) {
-			if (other.property != null)
-				return false;
-		} else if (!property.equals(other.property))
+		if (property != other.property || hashCode() != other.hashCode())
 			return false;
-		return true;
+		if (parameters == null)
+			return other.parameters == null;
+		return parameters.equals(other.parameters);
 	}
 
 	@Override
 	public Literal clone() {
-		return new Literal(this.property, this.parameters);
+		return new Literal(this, new ArrayList<>(this.parameters));
 	}
 
 	/**
@@ -259,7 +258,7 @@ public class Literal implements Serializable {
 	 */
 	public Literal clone(Map<? extends VariableParam, ? extends LiteralParam> mapping) {
 		logger.debug("start cloning");
-		Literal clone = new Literal(this.property);
+		Literal clone = new Literal(this, new ArrayList<>(this.parameters.size()));
 
 		// add parameters corresponding to mapping
 		for (LiteralParam v : this.getParameters()) {
@@ -284,7 +283,7 @@ public class Literal implements Serializable {
 	public String toString(boolean printTypesOfParams) {
 
 		StringBuilder sb = new StringBuilder();
-		sb.append(property + "(");
+		sb.append(property.getName()).append("(");
 
 		// iterate through parameter list
 		int params = this.parameters.size();
@@ -301,7 +300,7 @@ public class Literal implements Serializable {
 	}
 
 	public boolean isNegationOf(Literal l) {
-		return l.getPropertyName().equals(this.getPropertyName()) && l.getParameters().equals(this.parameters) && l.isNegated() != this.isNegated();
+		return l.propertyName == this.propertyName && l.isNegated() != this.isNegated() && l.parameters.equals(this.parameters);
 	}
 
 	public boolean isPositive() {
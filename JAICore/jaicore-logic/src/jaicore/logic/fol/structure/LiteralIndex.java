@@ -0,0 +1,142 @@
+package jaicore.logic.fol.structure;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index over the literals of a {@link LiteralSet}. Literals are indexed by their property (predicate name including the sign) and,
+ * for each argument position, by the parameter at that position. In addition, the number of occurrences of each constant is
+ * maintained.
+ *
+ * The index is created by {@link LiteralSet#getIndex()} and then kept up to date by the literal set.
+ *
+ * @author agent
+ *
+ */
+public class LiteralIndex {
+
+	private static class PropertyIndex {
+		private final Set<Literal> literals = new HashSet<>();
+		private final List<Map<LiteralParam, Set<Literal>>> literalsByParameterAtPosition = new ArrayList<>();
+	}
+
+	private final Map<String, PropertyIndex> propertyIndices = new HashMap<>();
+	private final Map<ConstantParam, Integer> numberOfOccurrencesOfConstants = new HashMap<>();
+
+	LiteralIndex() {
+		super();
+	}
+
+	LiteralIndex(final Collection<Literal> literals) {
+		this();
+		for (Literal l : literals) {
+			this.add(l);
+		}
+	}
+
+	void add(final Literal literal) {
+		PropertyIndex propertyIndex = this.propertyIndices.computeIfAbsent(literal.getProperty(), p -> new PropertyIndex());
+		propertyIndex.literals.add(literal);
+		List<LiteralParam> params = literal.getParameters();
+		for (int i = 0; i < params.size(); i++) {
+			LiteralParam param = params.get(i);
+			if (propertyIndex.literalsByParameterAtPosition.size() <= i) {
+				propertyIndex.literalsByParameterAtPosition.add(new HashMap<>());
+			}
+			propertyIndex.literalsByParameterAtPosition.get(i).computeIfAbsent(param, p -> new HashSet<>()).add(literal);
+			if (param instanceof ConstantParam) {
+				this.numberOfOccurrencesOfConstants.merge((ConstantParam) param, 1, Integer::sum);
+			}
+		}
+	}
+
+	void remove(final Literal literal) {
+		String property = literal.getProperty();
+		PropertyIndex propertyIndex = this.propertyIndices.get(property);
+		if (propertyIndex == null || !propertyIndex.literals.remove(literal)) {
+			return;
+		}
+		if (propertyIndex.literals.isEmpty()) {
+			this.propertyIndices.remove(property);
+		}
+		List<LiteralParam> params = literal.getParameters();
+		for (int i = 0; i < params.size(); i++) {
+			LiteralParam param = params.get(i);
+			Map<LiteralParam, Set<Literal>> literalsByParameter = propertyIndex.literalsByParameterAtPosition.get(i);
+			Set<Literal> literalsWithParameter = literalsByParameter.get(param);
+			literalsWithParameter.remove(literal);
+			if (literalsWithParameter.isEmpty()) {
+				literalsByParameter.remove(param);
+			}
+			if (param instanceof ConstantParam) {
+				this.numberOfOccurrencesOfConstants.computeIfPresent((ConstantParam) param, (c, n) -> n > 1 ? n - 1 : null);
+			}
+		}
+	}
+
+	/**
+	 * @param property
+	 *            The property, i.e. the predicate name preceded by "!" for negated literals
+	 * @return The literals with the given property
+	 */
+	public Collection<Literal> getLiteralsWithProperty(final String property) {
+		PropertyIndex propertyIndex = this.propertyIndices.get(property);
+		return propertyIndex != null ? Collections.unmodifiableSet(propertyIndex.literals) : Collections.emptySet();
+	}
+
+	/**
+	 * Determines the literals that may be unified with the given literal, i.e. that have the same property and the same constants at
+	 * the positions where the given literal has constants. Among the literals that have the same property and share at least one
+	 * constant position, the smallest such set is returned. So the returned literals are a superset of the unifiable ones.
+	 *
+	 * @param literal
+	 * @return Candidates for literals that can be unified with the given literal
+	 */
+	public Collection<Literal> getCandidatesForUnification(final Literal literal) {
+		PropertyIndex propertyIndex = this.propertyIndices.get(literal.getProperty());
+		if (propertyIndex == null) {
+			return Collections.emptySet();
+		}
+		Set<Literal> candidates = propertyIndex.literals;
+		List<LiteralParam> params = literal.getParameters();
+		for (int i = 0; i < params.size() && i < propertyIndex.literalsByParameterAtPosition.size(); i++) {
+			LiteralParam param = params.get(i);
+			if (!(param instanceof ConstantParam)) {
+				continue;
+			}
+			Set<Literal> literalsWithParameter = propertyIndex.literalsByParameterAtPosition.get(i).get(param);
+			if (literalsWithParameter == null) {
+				return Collections.emptySet();
+			}
+			if (literalsWithParameter.size() < candidates.size()) {
+				candidates = literalsWithParameter;
+			}
+		}
+		return Collections.unmodifiableSet(candidates);
+	}
+
+	/**
+	 * @param literal
+	 * @return The number of literals returned by {@link #getCandidatesForUnification(Literal)}
+	 */
+	public int getNumberOfCandidatesForUnification(final Literal literal) {
+		return this.getCandidatesForUnification(literal).size();
+	}
+
+	public boolean containsConstant(final ConstantParam constant) {
+		return this.numberOfOccurrencesOfConstants.containsKey(constant);
+	}
+
+	/**
+	 * @return The constants that occur in the indexed literals
+	 */
+	public Set<ConstantParam> getConstantParams() {
+		return Collections.unmodifiableSet(this.numberOfOccurrencesOfConstants.keySet());
+	}
+}
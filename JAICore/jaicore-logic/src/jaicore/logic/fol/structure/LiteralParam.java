@@ -5,12 +5,16 @@ import java.io.Serializable;
 /**
  * The parameter of a literal.
  * 
+ * The name of the parameter is interned as a {@link Symbol}, so parameters are compared by the identity of their symbols and their
+ * hash code is computed only once.
+ * 
  * @author mbunse
  */
 @SuppressWarnings("serial")
 public abstract class LiteralParam implements Serializable {
 
-	private String name;
+	private final Symbol symbol;
+	private final int hashCode;
 	protected Type type;
 
 	/**
@@ -18,7 +22,8 @@ public abstract class LiteralParam implements Serializable {
 	 *            The name of this parameter;
 	 */
 	public LiteralParam(String name) {
-		this.name = name;
+		this.symbol = name != null ? Symbol.of(name) : null;
+		this.hashCode = 31 + ((name == null) ? 0 : this.symbol.hashCode());
 	}
 
 	/**
@@ -32,10 +37,7 @@ public abstract class LiteralParam implements Serializable {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((name == null) ? 0 : name.hashCode());
-		return result;
+		return this.hashCode;
 	}
 
 	/**
@@ -53,16 +55,18 @@ public abstract class LiteralParam implements Serializable {
 		if (getClass() != obj.getClass())
 			return false;
 		LiteralParam other = (LiteralParam) obj;
-		if (name == null) {
-			if (other.name != null)
-				return false;
-		} else if (!name.equals(other.name))
-			return false;
-		return true;
+		return this.symbol == other.symbol;
 	}
 
 	public String getName() {
-		return name;
+		return symbol != null ? symbol.getName() : null;
+	}
+
+	/**
+	 * @return The interned name of this parameter
+	 */
+	public Symbol getSymbol() {
+		return symbol;
 	}
 
 	public Type getType() {
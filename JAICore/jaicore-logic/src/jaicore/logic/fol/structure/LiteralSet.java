@@ -3,6 +3,7 @@ package jaicore.logic.fol.structure;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,6 +28,7 @@ public class LiteralSet extends HashSet<Literal> {
 	 */
 	private static final long serialVersionUID = 6767454041686262363L;
 	private static Logger logger = LoggerFactory.getLogger(LiteralSet.class);
+	private transient volatile LiteralIndex index; // created on first request and then updated on every modification
 	
 	/**
 	 * Creates an empty literal set. Literals can be added later.
@@ -92,6 +94,88 @@ public class LiteralSet extends HashSet<Literal> {
 		}
 	}
 
+	/**
+	 * Returns an index of the literals in this set, which is created on the first call and then kept up to date with the set.
+	 * 
+	 * Literals in the set must not be modified while they are in the set (which is already required by the set itself).
+	 * 
+	 * @return The index of the literals in this set.
+	 */
+	public LiteralIndex getIndex() {
+		LiteralIndex currentIndex = this.index;
+		if (currentIndex == null) {
+			synchronized (this) {
+				currentIndex = this.index;
+				if (currentIndex == null) {
+					currentIndex = new LiteralIndex(this);
+					this.index = currentIndex;
+				}
+			}
+		}
+		return currentIndex;
+	}
+
+	@Override
+	public boolean add(Literal literal) {
+		boolean added = super.add(literal);
+		if (added && this.index != null) {
+			this.index.add(literal);
+		}
+		return added;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		boolean removed = super.remove(o);
+		if (removed && this.index != null) {
+			this.index.remove((Literal) o);
+		}
+		return removed;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		this.index = null;
+	}
+
+	@Override
+	public Iterator<Literal> iterator() {
+		Iterator<Literal> iterator = super.iterator();
+		return new Iterator<Literal>() {
+			private Literal current;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Literal next() {
+				this.current = iterator.next();
+				return this.current;
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				if (LiteralSet.this.index != null) {
+					LiteralSet.this.index.remove(this.current);
+				}
+			}
+		};
+	}
+
+	/**
+	 * The clone does not share the index with this set; it creates its own one on demand.
+	 */
+	@Override
+	public Object clone() {
+		LiteralSet clone = (LiteralSet) super.clone();
+		clone.index = null;
+		return clone;
+	}
+
 	/**
 	 * @param conclusion
 	 *            Another literal set that may be concluded by this literal set.
@@ -167,6 +251,10 @@ public class LiteralSet extends HashSet<Literal> {
 	}
 
 	public Set<ConstantParam> getConstantParams() {
+		LiteralIndex currentIndex = this.index;
+		if (currentIndex != null) {
+			return new HashSet<>(currentIndex.getConstantParams());
+		}
 		Set<ConstantParam> constants = new HashSet<>();
 		for (Literal literal : this)
 			constants.addAll(literal.getConstantParams());
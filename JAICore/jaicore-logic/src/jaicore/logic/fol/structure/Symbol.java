@@ -0,0 +1,97 @@
+package jaicore.logic.fol.structure;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * An interned name of a predicate or parameter. There is at most one symbol for each name, so symbols can be compared by identity
+ * or by their integer id, and their hash code is computed only once.
+ *
+ * Symbols are interned weakly, i.e. symbols that are not used anymore are reclaimed by the garbage collector. Recently requested
+ * symbols are additionally kept in a small cache of fixed size, which makes looking up frequently used names cheap. The id of a
+ * symbol is unique among all symbols that ever existed in the JVM but is not stable across JVMs, so it must not be persisted.
+ *
+ * @author agent
+ *
+ */
+public final class Symbol implements Serializable {
+
+	private static final long serialVersionUID = -3542378011564962237L;
+	private static final Interner<Symbol> INTERNER = Interners.newWeakInterner();
+	private static final AtomicInteger ID_COUNTER = new AtomicInteger();
+	private static final int CACHE_SIZE = 1 << 12;
+	private static final Symbol[] CACHE = new Symbol[CACHE_SIZE]; // races are benign, because symbols are immutable
+
+	private final String name;
+	private final int hashCode;
+	private final transient int id;
+
+	private Symbol(final String name) {
+		this.name = name;
+		this.hashCode = name.hashCode();
+		this.id = ID_COUNTER.getAndIncrement();
+	}
+
+	/**
+	 * @param name
+	 * @return The symbol for the given name
+	 */
+	public static Symbol of(final String name) {
+		int hashCode = name.hashCode();
+		int slot = (hashCode ^ (hashCode >>> 16)) & (CACHE_SIZE - 1);
+		Symbol cached = CACHE[slot];
+		if (cached != null && cached.hashCode == hashCode && cached.name.equals(name)) {
+			return cached;
+		}
+		Symbol symbol = INTERNER.intern(new Symbol(name));
+		CACHE[slot] = symbol;
+		return symbol;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * The hash code of a symbol is the hash code of its name.
+	 */
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	/**
+	 * This equality is only used for interning. Interned symbols are equal iff they are identical.
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Symbol)) {
+			return false;
+		}
+		Symbol other = (Symbol) obj;
+		return this.hashCode == other.hashCode && this.name.equals(other.name);
+	}
+
+	/**
+	 * Deserialized symbols are replaced by the interned symbol with the same name.
+	 */
+	private Object readResolve() throws ObjectStreamException {
+		return of(this.name);
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+}
@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jaicore.basic.algorithm.AAlgorithm;
+import jaicore.basic.algorithm.IAlgorithmConfig;
 import jaicore.basic.algorithm.events.AlgorithmEvent;
 import jaicore.logic.fol.structure.Literal;
 import jaicore.logic.fol.structure.LiteralParam;
@@ -51,6 +52,14 @@ public class ForwardChainer extends AAlgorithm<ForwardChainingProblem, Collectio
 		assert !problem.getConclusion().isEmpty() : "Ill defined forward chaining problem with empty conclusion!";
 	}
 
+	/**
+	 * Creates a forward chainer for a sub-problem that uses the configuration of its parent, which avoids creating a new configuration in every recursion.
+	 */
+	private ForwardChainer(ForwardChainingProblem problem, IAlgorithmConfig config) {
+		super(problem, config);
+		assert !problem.getConclusion().isEmpty() : "Ill defined forward chaining problem with empty conclusion!";
+	}
+
 	@Override
 	/**
 	 * This is a recursive algorithm. It will only identify solutions for one of the
@@ -179,7 +188,7 @@ public class ForwardChainer extends AAlgorithm<ForwardChainingProblem, Collectio
 				long startRecursiveCall = System.currentTimeMillis();
 	//			Collection<Map<VariableParam, LiteralParam>> subsolutions = getSubstitutionsThatEnableForwardChaining(factbase, currentGroundRemainingConclusion);
 				logger.debug("Finished recursion of {}-conclusion. Computation took {}ms", currentGroundRemainingConclusion.size(), System.currentTimeMillis() - startRecursiveCall);
-				currentlyActiveSubFC = new ForwardChainer(subProblem);
+				currentlyActiveSubFC = new ForwardChainer(subProblem, getConfig());
 				return new ForwardChainerRecursionEvent(this.chosenLiteral, currentGroundRemainingConclusion);
 			}
 		}
@@ -258,10 +267,11 @@ public class ForwardChainer extends AAlgorithm<ForwardChainingProblem, Collectio
 
 		/*
 		 * otherwise, select literal from the factbase that could be used for
-		 * unification
+		 * unification; if the factbase is indexed, only the candidates of the index are considered
 		 */
 		else {
-			for (Literal fact : factbase) {
+			Collection<Literal> candidates = factbase instanceof LiteralSet ? ((LiteralSet) factbase).getIndex().getCandidatesForUnification(l) : factbase;
+			for (Literal fact : candidates) {
 				if (!fact.getPropertyName().equals(l.getPropertyName()) || fact.isPositive() != l.isPositive())
 					continue;
 				logger.trace("Considering known literal {} as a literal that can be used for grounding", fact);
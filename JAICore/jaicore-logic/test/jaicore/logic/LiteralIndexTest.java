@@ -0,0 +1,81 @@
+package jaicore.logic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import jaicore.logic.fol.structure.ConstantParam;
+import jaicore.logic.fol.structure.Literal;
+import jaicore.logic.fol.structure.LiteralIndex;
+import jaicore.logic.fol.structure.Monom;
+import jaicore.logic.fol.util.ForwardChainer;
+import jaicore.logic.fol.util.ForwardChainingProblem;
+
+public class LiteralIndexTest {
+
+	@Test
+	public void testCandidatesForUnification() {
+		Monom factbase = new Monom("P('a', 'b') & P('a', 'c') & P('b', 'c') & !P('a', 'd') & Q('a')");
+		LiteralIndex index = factbase.getIndex();
+		assertEquals(new HashSet<>(Arrays.asList(new Literal("P('a', 'b')"), new Literal("P('a', 'c')"))), new HashSet<>(index.getCandidatesForUnification(new Literal("P('a', y)"))));
+		assertEquals(3, index.getNumberOfCandidatesForUnification(new Literal("P(x, y)")));
+		assertEquals(1, index.getNumberOfCandidatesForUnification(new Literal("P(x, 'b')")));
+		assertEquals(1, index.getNumberOfCandidatesForUnification(new Literal("!P(x, y)")));
+		assertEquals(0, index.getNumberOfCandidatesForUnification(new Literal("P('d', y)")));
+		assertEquals(0, index.getNumberOfCandidatesForUnification(new Literal("R(x)")));
+	}
+
+	@Test
+	public void testIndexIsUpdatedWithSet() {
+		Monom factbase = new Monom("P('a', 'b') & P('b', 'c') & Q('c')");
+		LiteralIndex index = factbase.getIndex();
+		assertTrue(index.containsConstant(new ConstantParam("a")));
+
+		factbase.remove(new Literal("P('a', 'b')"));
+		assertFalse(index.containsConstant(new ConstantParam("a")));
+		assertTrue(index.containsConstant(new ConstantParam("b")));
+		assertEquals(1, index.getNumberOfCandidatesForUnification(new Literal("P(x, y)")));
+
+		factbase.add(new Literal("P('d', 'c')"));
+		assertEquals(2, index.getNumberOfCandidatesForUnification(new Literal("P(x, 'c')")));
+
+		factbase.removeAll(Arrays.asList(new Literal("Q('c')")));
+		assertEquals(0, index.getNumberOfCandidatesForUnification(new Literal("Q(x)")));
+
+		for (Iterator<Literal> iterator = factbase.iterator(); iterator.hasNext();) {
+			if (iterator.next().getParameters().contains(new ConstantParam("d"))) {
+				iterator.remove();
+			}
+		}
+		assertFalse(index.containsConstant(new ConstantParam("d")));
+		assertEquals(factbase.getConstantParams(), new HashSet<>(Arrays.asList(new ConstantParam("b"), new ConstantParam("c"))));
+
+		/* the clone has its own index */
+		Monom clone = (Monom) factbase.clone();
+		clone.add(new Literal("Q('e')"));
+		assertNotSame(index, clone.getIndex());
+		assertTrue(clone.getIndex().containsConstant(new ConstantParam("e")));
+		assertFalse(index.containsConstant(new ConstantParam("e")));
+
+		factbase.clear();
+		assertEquals(0, factbase.getIndex().getNumberOfCandidatesForUnification(new Literal("P(x, y)")));
+	}
+
+	@Test
+	public void testForwardChainingOnModifiedFactbase() throws Exception {
+		Monom factbase = new Monom("P('a', 'b') & P('b', 'c') & Q('b', 'c')");
+		Monom conclusion = new Monom("P(x, y) & Q(y, z)");
+		assertEquals(1, new ForwardChainer(new ForwardChainingProblem(factbase, conclusion, false)).call().size());
+		factbase.add(new Literal("Q('c', 'a')"));
+		assertEquals(2, new ForwardChainer(new ForwardChainingProblem(factbase, conclusion, false)).call().size());
+		factbase.remove(new Literal("P('a', 'b')"));
+		assertEquals(1, new ForwardChainer(new ForwardChainingProblem(factbase, conclusion, false)).call().size());
+	}
+}
@@ -1,8 +1,15 @@
 package jaicore.logic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -11,6 +18,7 @@ import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 
+import jaicore.logic.fol.structure.ConstantParam;
 import jaicore.logic.fol.structure.Literal;
 import jaicore.logic.fol.structure.LiteralParam;
 import jaicore.logic.fol.structure.Type;
@@ -70,4 +78,40 @@ public class LiteralTest {
 
 	} // testMappingConstructor
 
+	/**
+	 * Tests that literals created in different ways are equal and have the hash code that is defined by their property and parameters.
+	 */
+	@Test
+	public void testEqualityOfInternedLiterals() {
+		Literal parsed = new Literal("!p('a', x)");
+		Literal constructed = new Literal("p", Arrays.asList(new ConstantParam("a"), new VariableParam("x")), false);
+		Literal toggled = new Literal("p('a', x)").toggleNegation();
+		assertEquals(parsed, constructed);
+		assertEquals(parsed, toggled);
+		assertEquals(parsed, constructed.clone());
+		assertSame(parsed.getPropertySymbol(), constructed.getPropertySymbol());
+		assertEquals(31 * (31 + Arrays.asList(new ConstantParam("a"), new VariableParam("x")).hashCode()) + "!p".hashCode(), parsed.hashCode());
+		assertEquals("p", parsed.getPropertyName());
+		assertTrue(parsed.isNegationOf(new Literal("p('a', x)")));
+
+		/* constants and variables of the same name are different */
+		assertFalse(parsed.equals(new Literal("!p(a, x)")));
+		assertFalse(parsed.equals(new Literal("p('a', x)")));
+	}
+
+	@Test
+	public void testSerializationOfInternedLiterals() throws Exception {
+		Literal literal = new Literal("p('a', x)");
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+			oos.writeObject(literal);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+			Literal deserialized = (Literal) ois.readObject();
+			assertEquals(literal, deserialized);
+			assertEquals(literal.hashCode(), deserialized.hashCode());
+			assertSame(literal.getPropertySymbol(), deserialized.getPropertySymbol());
+		}
+	}
+
 }
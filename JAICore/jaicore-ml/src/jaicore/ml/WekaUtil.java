@@ -738,72 +738,36 @@ public class WekaUtil {
 	}
 
 	
+	/**
+	 * Creates a stratified split of the given data. The split is computed on the indices of the instances via {@link #getStratifiedSplitIndexArrays(Instances, long, double...)}, so each instance is copied exactly once. If the
+	 * data are {@link ReproducibleInstances}, the folds are {@link ReproducibleInstances} as well and their history is updated to track the split.
+	 * 
+	 * @param data - Input data
+	 * @param seed - random seed
+	 * @param portions - ratios to split
+	 * @return the folds of the split
+	 */
 	public static List<Instances> getStratifiedSplit(final Instances data, final long seed, final double... portions) {
-		// if data should be reproducible use other method. 
-		if(data instanceof ReproducibleInstances) {
-			List<ReproducibleInstances> reproducibleInstancesResult = getStratifiedSplit((ReproducibleInstances)data, seed, portions);
-			ArrayList<Instances> result = new ArrayList<>(reproducibleInstancesResult.size());
-			for (int i = 0; i < reproducibleInstancesResult.size(); i++) {
-				result.add(reproducibleInstancesResult.get(i));
-			}
-			return result; 
-		}
-		Random rand = new Random(seed);
-		/* check that portions sum up to s.th. smaller than 1 */
-		double sum = 0;
-		for (double p : portions) {
-			sum += p;
-		}
-		if (sum > 1) {
-			throw new IllegalArgumentException("Portions must sum up to at most 1.");
-		}
-
-		Instances shuffledData = new Instances(data);
-		shuffledData.randomize(rand);
-		List<Instances> instances = new ArrayList<>();
-		Instances emptyInstances = new Instances(shuffledData);
-		emptyInstances.clear();
-
-		/* compute instances per class */
-		Map<String, Instances> classWiseSeparation = getInstancesPerClass(shuffledData);
-
-		Map<String, Integer> classCapacities = new HashMap<>(classWiseSeparation.size());
-		for (String c : classWiseSeparation.keySet()) {
-			classCapacities.put(c, classWiseSeparation.get(c).size());
-		}
-
-		/* first assign one item of each class to each fold */
-		for (int i = 0; i <= portions.length; i++) {
-			Instances instancesForSplit = new Instances(emptyInstances);
-			for (String c : classWiseSeparation.keySet()) {
-				Instances availableInstances = classWiseSeparation.get(c);
-				if (!availableInstances.isEmpty()) {
-					instancesForSplit.add(availableInstances.get(0));
-					availableInstances.remove(0);
-				}
-			}
-			instances.add(instancesForSplit);
-		}
+		return realizeStratifiedSplit(data, getStratifiedSplitIndexArrays(data, seed, portions), seed, portions);
+	}
 
-		/* now distribute remaining instances over the folds */
-		for (int i = 0; i <= portions.length; i++) {
-			double portion = i < portions.length ? portions[i] : 1 - sum;
-			Instances instancesForSplit = instances.get(i);
-			for (String c : classWiseSeparation.keySet()) {
-				Instances availableInstances = classWiseSeparation.get(c);
-				int items = (int) Math.min(availableInstances.size(), Math.ceil(portion * classCapacities.get(c)));
-				for (int j = 0; j < items; j++) {
-					instancesForSplit.add(availableInstances.get(0));
-					availableInstances.remove(0);
-				}
-			}
-			instancesForSplit.randomize(rand);
+	/**
+	 * Creates the same stratified split as {@link #getStratifiedSplit(Instances, long, double...)}, but the folds are read-only {@link SubInstances} views on the given data instead of copies. Since views cannot track a
+	 * history, {@link ReproducibleInstances} are still split into copies.
+	 * 
+	 * @param data - Input data
+	 * @param seed - random seed
+	 * @param portions - ratios to split
+	 * @return the folds of the split
+	 */
+	public static List<Instances> getStratifiedSplitAsSubInstances(final Instances data, final long seed, final double... portions) {
+		int[][] split = getStratifiedSplitIndexArrays(data, seed, portions);
+		if (data instanceof ReproducibleInstances) {
+			return realizeStratifiedSplit(data, split, seed, portions);
 		}
-		assert instances.stream().mapToInt(l -> l.size()).sum() == data.size() : "The number of instances in the folds does not equal the number of instances in the original dataset";
-		return instances;
+		return realizeSplitAsSubInstances(data, split);
 	}
 
-	
 	/**
 	 * Creates a stratified split for a given {@link ReproducibleInstances} Object. The history will be updated to track the split.
 	 * 
@@ -825,6 +789,24 @@ public class WekaUtil {
 	 * @return a List of {@link ReproducibleInstances}. For each of them the history will be updated to track the split
 	 */
 	public static List<ReproducibleInstances> getStratifiedSplit(final ReproducibleInstances data, final long seed, final double... portions) {
+		List<Instances> folds = realizeStratifiedSplit(data, getStratifiedSplitIndexArrays(data, seed, portions), seed, portions);
+		List<ReproducibleInstances> instances = new ArrayList<>(folds.size());
+		for (Instances fold : folds) {
+			instances.add((ReproducibleInstances) fold);
+		}
+		return instances;
+	}
+
+	/**
+	 * Computes the indices of the instances in each fold of the stratified split that {@link #getStratifiedSplit(Instances, long, double...)} creates for the same arguments. No instance is copied, so the result can be
+	 * cached and realized later via {@link #realizeStratifiedSplit(Instances, int[][], long, double...)}.
+	 * 
+	 * @param data - Input data
+	 * @param seed - random seed
+	 * @param portions - ratios to split
+	 * @return for each fold, the indices of its instances in data (in the order of the fold)
+	 */
+	public static int[][] getStratifiedSplitIndexArrays(final Instances data, final long seed, final double... portions) {
 		Random rand = new Random(seed);
 		/* check that portions sum up to s.th. smaller than 1 */
 		double sum = 0;
@@ -835,56 +817,225 @@ public class WekaUtil {
 			throw new IllegalArgumentException("Portions must sum up to at most 1.");
 		}
 
-		Instances shuffledData = new Instances(data);
-		shuffledData.randomize(rand);
-		List<ReproducibleInstances> instances = new ArrayList<>();
-		ReproducibleInstances emptyInstances = new ReproducibleInstances(data);
-		emptyInstances.clear(); // leaves History untouched
-		
-		/* compute instances per class */
-		Map<String, Instances> classWiseSeparation = getInstancesPerClass(shuffledData);
+		/* shuffle the indices exactly as Instances.randomize shuffles the instances */
+		int n = data.size();
+		int[] shuffledIndices = new int[n];
+		for (int i = 0; i < n; i++) {
+			shuffledIndices[i] = i;
+		}
+		shuffle(shuffledIndices, n, rand);
 
-		Map<String, Integer> classCapacities = new HashMap<>(classWiseSeparation.size());
-		for (String c : classWiseSeparation.keySet()) {
-			classCapacities.put(c, classWiseSeparation.get(c).size());
+		/* compute indices per class. The classes are iterated in the same order as the keys of getInstancesPerClass */
+		Map<String, Integer> classIds = new HashMap<>();
+		int[] classOfShuffledIndex = new int[n];
+		int[] classCapacities = new int[n];
+		boolean nominalClass = data.classAttribute().isNominal();
+		int[] classIdOfValue = new int[nominalClass ? data.classAttribute().numValues() : 0];
+		Arrays.fill(classIdOfValue, -1);
+		for (int i = 0; i < n; i++) {
+			int value = (int) data.get(shuffledIndices[i]).classValue();
+			int classId = nominalClass ? classIdOfValue[value] : -1;
+			if (classId < 0) {
+				String assignedClass = data.classAttribute().value(value);
+				Integer knownClassId = classIds.get(assignedClass);
+				if (knownClassId == null) {
+					knownClassId = classIds.size();
+					classIds.put(assignedClass, knownClassId);
+				}
+				classId = knownClassId;
+				if (nominalClass) {
+					classIdOfValue[value] = classId;
+				}
+			}
+			classOfShuffledIndex[i] = classId;
+			classCapacities[classId]++;
+		}
+		int numClasses = classIds.size();
+		int[][] classWiseSeparation = new int[numClasses][];
+		for (int c = 0; c < numClasses; c++) {
+			classWiseSeparation[c] = new int[classCapacities[c]];
+		}
+		int[] nextAvailable = new int[numClasses];
+		for (int i = 0; i < n; i++) {
+			int c = classOfShuffledIndex[i];
+			classWiseSeparation[c][nextAvailable[c]++] = shuffledIndices[i];
+		}
+		Arrays.fill(nextAvailable, 0);
+		int[] classOrder = new int[numClasses];
+		int pos = 0;
+		for (Integer classId : classIds.values()) {
+			classOrder[pos++] = classId;
 		}
 
 		/* first assign one item of each class to each fold */
-		for (int i = 0; i <= portions.length; i++) {
-			ReproducibleInstances instancesForSplit = new ReproducibleInstances(emptyInstances); // Will have the same history as data but is empty
-			
-			for (String c : classWiseSeparation.keySet()) {
-				Instances availableInstances = classWiseSeparation.get(c);
-				if (!availableInstances.isEmpty()) {
-					instancesForSplit.add(availableInstances.get(0));
-					availableInstances.remove(0);
+		int[][] folds = new int[portions.length + 1][n];
+		int[] foldSizes = new int[folds.length];
+		for (int i = 0; i < folds.length; i++) {
+			for (int c : classOrder) {
+				if (nextAvailable[c] < classCapacities[c]) {
+					folds[i][foldSizes[i]++] = classWiseSeparation[c][nextAvailable[c]++];
 				}
 			}
-			instances.add(instancesForSplit);
 		}
 
 		/* now distribute remaining instances over the folds */
-		for (int i = 0; i <= portions.length; i++) {
+		for (int i = 0; i < folds.length; i++) {
 			double portion = i < portions.length ? portions[i] : 1 - sum;
-			ReproducibleInstances instancesForSplit = instances.get(i);
-			for (String c : classWiseSeparation.keySet()) {
-				Instances availableInstances = classWiseSeparation.get(c);
-				int items = (int) Math.min(availableInstances.size(), Math.ceil(portion * classCapacities.get(c)));
+			for (int c : classOrder) {
+				int items = (int) Math.min(classCapacities[c] - nextAvailable[c], Math.ceil(portion * classCapacities[c]));
 				for (int j = 0; j < items; j++) {
-					instancesForSplit.add(availableInstances.get(0));
-					availableInstances.remove(0);
+					folds[i][foldSizes[i]++] = classWiseSeparation[c][nextAvailable[c]++];
 				}
 			}
-			instancesForSplit.randomize(rand);
+			shuffle(folds[i], foldSizes[i], rand);
+			folds[i] = Arrays.copyOf(folds[i], foldSizes[i]);
 		}
-		assert instances.stream().mapToInt(l -> l.size()).sum() == data.size() : "The number of instances in the folds does not equal the number of instances in the original dataset";
-		
-		/* update ReproducibleInstanes history */
+		assert Arrays.stream(folds).mapToInt(f -> f.length).sum() == data.size() : "The number of instances in the folds does not equal the number of instances in the original dataset";
+		return folds;
+	}
+
+	/**
+	 * Computes the indices of the instances in each of the folds of a stratified cross-validation in O(n). The instances are shuffled, sorted by class (stably), and then dealt over the folds one after the other, so that
+	 * the class distribution in each fold deviates from the one of the data by at most one instance per class.
+	 * 
+	 * @param data - Input data with a nominal class attribute
+	 * @param numberOfFolds - number of folds
+	 * @param seed - random seed
+	 * @return for each fold, the indices of its instances in data
+	 */
+	public static int[][] getStratifiedFoldIndexArrays(final Instances data, final int numberOfFolds, final long seed) {
+		if (numberOfFolds < 2 || numberOfFolds > data.size()) {
+			throw new IllegalArgumentException("The number of folds must be at least 2 and at most the number of instances.");
+		}
+		if (!data.classAttribute().isNominal()) {
+			throw new IllegalArgumentException("Stratification requires a nominal class attribute.");
+		}
+		int n = data.size();
+		int[] shuffledIndices = new int[n];
+		for (int i = 0; i < n; i++) {
+			shuffledIndices[i] = i;
+		}
+		shuffle(shuffledIndices, n, new Random(seed));
+
+		/* sort the shuffled indices by class via counting sort */
+		int numClasses = data.classAttribute().numValues();
+		int[] offsets = new int[numClasses + 1];
+		for (int i = 0; i < n; i++) {
+			offsets[(int) data.get(i).classValue() + 1]++;
+		}
+		for (int c = 0; c < numClasses; c++) {
+			offsets[c + 1] += offsets[c];
+		}
+		int[] indicesByClass = new int[n];
+		for (int index : shuffledIndices) {
+			indicesByClass[offsets[(int) data.get(index).classValue()]++] = index;
+		}
+
+		/* deal the instances over the folds */
+		int[][] folds = new int[numberOfFolds][];
+		for (int f = 0; f < numberOfFolds; f++) {
+			folds[f] = new int[n / numberOfFolds + (f < n % numberOfFolds ? 1 : 0)];
+		}
+		for (int i = 0; i < n; i++) {
+			folds[i % numberOfFolds][i / numberOfFolds] = indicesByClass[i];
+		}
+		return folds;
+	}
+
+	/**
+	 * Computes the indices of the instances in each fold of a random (not stratified) split in O(n). Each fold i &lt; portions.length receives floor(portions[i] * n) instances, and the last fold receives the rest.
+	 * 
+	 * @param data - Input data
+	 * @param seed - random seed
+	 * @param portions - ratios to split
+	 * @return for each fold, the indices of its instances in data
+	 */
+	public static int[][] getArbitrarySplitIndexArrays(final Instances data, final long seed, final double... portions) {
+		double sum = 0;
+		for (double p : portions) {
+			sum += p;
+		}
+		if (sum > 1) {
+			throw new IllegalArgumentException("Portions must sum up to at most 1.");
+		}
+		int n = data.size();
+		int[] shuffledIndices = new int[n];
+		for (int i = 0; i < n; i++) {
+			shuffledIndices[i] = i;
+		}
+		shuffle(shuffledIndices, n, new Random(seed));
+		int[][] folds = new int[portions.length + 1][];
+		int from = 0;
+		for (int i = 0; i < portions.length; i++) {
+			int to = from + (int) Math.floor(n * portions[i]);
+			folds[i] = Arrays.copyOfRange(shuffledIndices, from, to);
+			from = to;
+		}
+		folds[portions.length] = Arrays.copyOfRange(shuffledIndices, from, n);
+		return folds;
+	}
+
+	/**
+	 * Creates read-only {@link SubInstances} views on the given data for the folds of a split. No instance is copied.
+	 * 
+	 * @param data - Input data
+	 * @param split - the indices of the instances in each fold
+	 * @return the folds of the split
+	 */
+	public static List<Instances> realizeSplitAsSubInstances(final Instances data, final int[][] split) {
+		List<Instances> folds = new ArrayList<>(split.length);
+		for (int[] foldIndices : split) {
+			folds.add(new SubInstances(data, foldIndices));
+		}
+		return folds;
+	}
+
+	/**
+	 * Shuffles the first n entries of the array in the same way as {@link Instances#randomize(Random)} shuffles instances.
+	 */
+	private static void shuffle(final int[] array, final int n, final Random rand) {
+		for (int j = n - 1; j > 0; j--) {
+			int k = rand.nextInt(j + 1);
+			int tmp = array[j];
+			array[j] = array[k];
+			array[k] = tmp;
+		}
+	}
+
+	/**
+	 * Creates the folds of a split computed by {@link #getStratifiedSplitIndexArrays(Instances, long, double...)}. If the data are {@link ReproducibleInstances}, the folds are {@link ReproducibleInstances} as well and their
+	 * history is updated to track the split just as in {@link #getStratifiedSplit(ReproducibleInstances, long, double...)}.
+	 * 
+	 * @param data - Input data
+	 * @param split - the indices of the instances in each fold
+	 * @param seed - random seed the split has been computed with
+	 * @param portions - ratios the split has been computed with
+	 * @return the folds of the split
+	 */
+	public static List<Instances> realizeStratifiedSplit(final Instances data, final int[][] split, final long seed, final double... portions) {
+		List<Instances> folds = new ArrayList<>(split.length);
 		String ratiosAsString = Arrays.toString(portions);
-		for(int i = 0; i < instances.size(); i++) {
-			instances.get(i).addInstruction(new SplitInstruction(ratiosAsString, seed, i));
+		ReproducibleInstances emptyInstances = null;
+		if (data instanceof ReproducibleInstances) {
+			emptyInstances = new ReproducibleInstances((ReproducibleInstances) data);
+			emptyInstances.clear(); // leaves History untouched
+		}
+		for (int i = 0; i < split.length; i++) {
+			Instances fold;
+			if (emptyInstances != null) {
+				fold = new ReproducibleInstances(emptyInstances); // Will have the same history as data but is empty
+			} else {
+				fold = new Instances(data, split[i].length);
+			}
+			for (int index : split[i]) {
+				fold.add(data.get(index));
+			}
+			if (data instanceof ReproducibleInstances) {
+				((ReproducibleInstances) fold).addInstruction(new SplitInstruction(ratiosAsString, seed, i));
+			}
+			folds.add(fold);
 		}
-		return instances;
+		return folds;
 	}
 
 	
@@ -1101,20 +1252,27 @@ public class WekaUtil {
 	/**
 	 * Compute indices of instances of the original data set that are contained in the given subset. This does only work for data sets that contain an instance at most once!
 	 *
+	 * The instances of the data set are hashed by their attribute values, so the indices are computed in O(n + m). String and relational attributes are hashed by their values rather than by their indices, which
+	 * are local to each data set. Only instances whose values are not found this way are searched linearly.
+	 *
 	 * @param dataset
 	 * @param subset
 	 * @return
 	 */
 	public static int[] getIndicesOfContainedInstances(final Instances dataset, final Instances subset) {
 		int[] indices = new int[subset.size()];
+		Map<InstanceValues, Integer> indexOfValues = new HashMap<>(2 * dataset.size());
+		for (int j = 0; j < dataset.size(); j++) {
+			indexOfValues.putIfAbsent(new InstanceValues(dataset.get(j)), j);
+		}
 		InstanceComparator comp = new InstanceComparator();
 		for (int i = 0; i < indices.length; i++) {
 			Instance inst = subset.get(i);
-			int index = -1;
-			for (int j = 0; j < dataset.size(); j++) {
+			Integer knownIndex = indexOfValues.get(new InstanceValues(inst));
+			int index = knownIndex != null ? knownIndex : -1;
+			for (int j = 0; index == -1 && j < dataset.size(); j++) {
 				if (comp.compare(inst, dataset.get(j)) == 0) {
 					index = j;
-					break;
 				}
 			}
 			if (index == -1) {
@@ -1159,26 +1317,95 @@ public class WekaUtil {
 		return AbstractClassifier.makeCopy(c);
 	}
 
+	/**
+	 * Computes the (ascending) rows of the data that occur in the subset, where instances are identified by their attribute values. An instance occurring k times in the subset is matched with the first row that has
+	 * the same values, which is then contained k times in the result. Entries for instances of the subset that do not occur in the data remain 0 at the end of the result.
+	 *
+	 * As in {@link #getIndicesOfContainedInstances(Instances, Instances)}, the instances are hashed by their values, and only instances whose values are not found this way are compared linearly with every row.
+	 *
+	 * @param data
+	 * @param subset
+	 * @return
+	 */
 	public static int[] getIndicesOfSubset(final Instances data, final Instances subset) {
 
-		InstanceComparator comp = new InstanceComparator();
-		List<Instance> copy = new ArrayList<>(subset);
+		/* group the instances of the subset by their values */
+		Map<InstanceValues, List<Instance>> occurrences = new HashMap<>(2 * subset.size());
+		for (Instance inst : subset) {
+			occurrences.computeIfAbsent(new InstanceValues(inst), v -> new ArrayList<>()).add(inst);
+		}
 
 		/* init rows object */
 		int[] result = new int[subset.size()];
 		int row = 0;
 		int i = 0;
 		for (Instance ref : data) {
-			for (int j = 0; j < copy.size(); j++) {
-				Instance inst = copy.get(j);
-				if (inst != null && comp.compare(inst, ref) == 0) {
+			List<Instance> matches = occurrences.isEmpty() ? null : occurrences.remove(new InstanceValues(ref));
+			if (matches != null) {
+				for (int j = 0; j < matches.size(); j++) {
 					result[i++] = row;
-					copy.remove(j--);
 				}
 			}
 			row++;
-			System.out.println(i + "/" + copy.size());
+		}
+
+		/* search the instances whose values have not been found in the data */
+		if (!occurrences.isEmpty()) {
+			InstanceComparator comp = new InstanceComparator();
+			List<Instance> remaining = new ArrayList<>();
+			occurrences.values().forEach(remaining::addAll);
+			row = 0;
+			for (Instance ref : data) {
+				for (int j = 0; j < remaining.size(); j++) {
+					if (comp.compare(remaining.get(j), ref) == 0) {
+						result[i++] = row;
+						remaining.remove(j--);
+					}
+				}
+				row++;
+			}
+			Arrays.sort(result, 0, i);
 		}
 		return result;
 	}
+
+	/**
+	 * Hash key of an instance that is defined by its attribute values (missing values being equal to each other). The values of string and relational attributes are given by their strings, since their internal
+	 * values are indices into a table of the respective data set.
+	 */
+	private static class InstanceValues {
+		private final double[] values;
+		private final String[] strings;
+		private final int hashCode;
+
+		InstanceValues(final Instance instance) {
+			this.values = instance.toDoubleArray();
+			String[] stringsOfInstance = null;
+			for (int att = 0; att < this.values.length; att++) {
+				if ((instance.attribute(att).isString() || instance.attribute(att).isRelationValued()) && !instance.isMissing(att)) {
+					if (stringsOfInstance == null) {
+						stringsOfInstance = new String[this.values.length];
+					}
+					stringsOfInstance[att] = instance.stringValue(att);
+					this.values[att] = 0;
+				}
+			}
+			this.strings = stringsOfInstance;
+			this.hashCode = 31 * Arrays.hashCode(this.values) + Arrays.hashCode(this.strings);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof InstanceValues)) {
+				return false;
+			}
+			InstanceValues other = (InstanceValues) obj;
+			return this.hashCode == other.hashCode && Arrays.equals(this.values, other.values) && Arrays.equals(this.strings, other.strings);
+		}
+	}
 }
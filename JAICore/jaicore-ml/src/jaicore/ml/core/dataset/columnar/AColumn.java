@@ -0,0 +1,136 @@
+package jaicore.ml.core.dataset.columnar;
+
+import jaicore.ml.core.dataset.ContainsNonNumericAttributesException;
+import jaicore.ml.core.dataset.attribute.IAttributeType;
+import jaicore.ml.core.dataset.attribute.IAttributeValue;
+import jaicore.ml.core.dataset.attribute.categorical.ICategoricalAttributeType;
+import jaicore.ml.core.dataset.attribute.primitive.NumericAttributeType;
+import jaicore.ml.core.dataset.attribute.timeseries.TimeSeriesAttributeType;
+
+/**
+ * A column of a {@link ColumnarDataset} storing the values of one attribute for
+ * all instances in a primitive array.
+ *
+ * @author agent
+ */
+abstract class AColumn {
+
+	/**
+	 * Creates an empty column for the given attribute type.
+	 *
+	 * @param type
+	 *            The type of the attribute whose values are stored in the column.
+	 * @param capacity
+	 *            The initial number of rows the column is able to hold.
+	 * @return The column for the attribute type.
+	 */
+	static AColumn create(final IAttributeType<?> type, final int capacity) {
+		if (type instanceof NumericAttributeType) {
+			return new NumericColumn((NumericAttributeType) type, capacity);
+		} else if (type instanceof ICategoricalAttributeType) {
+			return new CategoricalColumn((ICategoricalAttributeType) type, capacity);
+		} else if (type instanceof TimeSeriesAttributeType) {
+			return new TimeSeriesColumn((TimeSeriesAttributeType) type, capacity);
+		}
+		throw new IllegalArgumentException("Attribute type " + type + " is not supported by a columnar dataset.");
+	}
+
+	/**
+	 * @return The type of the attribute whose values are stored in this column.
+	 */
+	abstract IAttributeType<?> getType();
+
+	/**
+	 * Grows the column such that it is able to hold at least the given number of
+	 * rows.
+	 *
+	 * @param capacity
+	 *            The minimum number of rows.
+	 */
+	abstract void ensureCapacity(int capacity);
+
+	/**
+	 * Shrinks the backing array of the column to exactly the given number of rows.
+	 *
+	 * @param size
+	 *            The number of rows in use.
+	 */
+	abstract void trimToSize(int size);
+
+	/**
+	 * Resets the given row to the missing value of the column.
+	 *
+	 * @param row
+	 *            The row to be reset.
+	 */
+	abstract void clear(int row);
+
+	/**
+	 * Stores the value of a (boxed) attribute value in the given row.
+	 *
+	 * @param row
+	 *            The row to store the value in.
+	 * @param value
+	 *            The attribute value to be stored.
+	 */
+	abstract void set(int row, IAttributeValue<?> value);
+
+	/**
+	 * Copies a value from a column of the same kind without boxing it.
+	 *
+	 * @param source
+	 *            The column to copy the value from.
+	 * @param sourceRow
+	 *            The row of the value in the source column.
+	 * @param row
+	 *            The row to store the value in.
+	 */
+	abstract void copy(AColumn source, int sourceRow, int row);
+
+	/**
+	 * Creates a boxed attribute value for the given row.
+	 *
+	 * @param row
+	 *            The row whose value is returned.
+	 * @return The attribute value of the row.
+	 */
+	abstract IAttributeValue<?> getAttributeValue(int row);
+
+	/**
+	 * @return The number of entries the column contributes to the double vector
+	 *         representation of an instance.
+	 * @throws ContainsNonNumericAttributesException
+	 *             Thrown if the column cannot be represented as doubles.
+	 */
+	abstract int getDoubleVectorLength() throws ContainsNonNumericAttributesException;
+
+	/**
+	 * Writes the double representation of a row into a zero-initialized vector.
+	 *
+	 * @param row
+	 *            The row to be written.
+	 * @param vector
+	 *            The vector to write to.
+	 * @param offset
+	 *            The position in the vector at which the row's representation
+	 *            starts.
+	 * @return The position directly behind the written representation.
+	 * @throws ContainsNonNumericAttributesException
+	 *             Thrown if the column cannot be represented as doubles.
+	 */
+	abstract int writeDoubleVector(int row, double[] vector, int offset) throws ContainsNonNumericAttributesException;
+
+	/**
+	 * Computes the new capacity of a backing array that has to hold at least
+	 * <code>minCapacity</code> rows, growing by half of the current capacity.
+	 *
+	 * @param currentCapacity
+	 *            The current length of the backing array.
+	 * @param minCapacity
+	 *            The minimal number of rows.
+	 * @return The new length of the backing array.
+	 */
+	static int grow(final int currentCapacity, final int minCapacity) {
+		return Math.max(minCapacity, currentCapacity + (currentCapacity >> 1) + 1);
+	}
+}
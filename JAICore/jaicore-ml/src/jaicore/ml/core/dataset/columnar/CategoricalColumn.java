@@ -0,0 +1,143 @@
+package jaicore.ml.core.dataset.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jaicore.ml.core.dataset.attribute.IAttributeValue;
+import jaicore.ml.core.dataset.attribute.categorical.CategoricalAttributeValue;
+import jaicore.ml.core.dataset.attribute.categorical.ICategoricalAttributeType;
+
+/**
+ * Column storing categorical values dictionary-encoded in an <code>int[]</code>.
+ * The code of a value is its index within the domain of the attribute type,
+ * missing values are represented by {@link CategoricalColumn#MISSING}.
+ *
+ * @author agent
+ */
+class CategoricalColumn extends AColumn {
+
+	/** Code of a missing value. */
+	static final int MISSING = -1;
+
+	/** The type of the attribute. */
+	private final ICategoricalAttributeType type;
+
+	/** The dictionary mapping codes to the values of the domain. */
+	private final String[] domain;
+
+	/** The dictionary mapping the values of the domain to their codes. */
+	private final Map<String, Integer> codes;
+
+	/** The codes of all rows. */
+	private int[] values;
+
+	CategoricalColumn(final ICategoricalAttributeType type, final int capacity) {
+		this.type = type;
+		List<String> typeDomain = type.getDomain();
+		this.domain = typeDomain.toArray(new String[typeDomain.size()]);
+		this.codes = new HashMap<>();
+		for (int i = 0; i < this.domain.length; i++) {
+			this.codes.put(this.domain[i], i);
+		}
+		this.values = new int[capacity];
+	}
+
+	/**
+	 * @return The backing array of the column.
+	 */
+	int[] getValues() {
+		return this.values;
+	}
+
+	/**
+	 * @return The values of the domain indexed by their codes.
+	 */
+	String[] getDomain() {
+		return this.domain;
+	}
+
+	/**
+	 * Looks up the code of a value of the domain.
+	 *
+	 * @param value
+	 *            The value to be encoded.
+	 * @return The code of the value.
+	 */
+	int encode(final String value) {
+		if (value == null) {
+			return MISSING;
+		}
+		Integer code = this.codes.get(value);
+		if (code == null) {
+			throw new IllegalArgumentException("Value " + value + " is not contained in the domain " + Arrays.toString(this.domain) + ".");
+		}
+		return code;
+	}
+
+	int get(final int row) {
+		return this.values[row];
+	}
+
+	void set(final int row, final int code) {
+		if (code < MISSING || code >= this.domain.length) {
+			throw new IllegalArgumentException("Code " + code + " is out of the range of the domain.");
+		}
+		this.values[row] = code;
+	}
+
+	@Override
+	ICategoricalAttributeType getType() {
+		return this.type;
+	}
+
+	@Override
+	void ensureCapacity(final int capacity) {
+		if (capacity > this.values.length) {
+			this.values = Arrays.copyOf(this.values, grow(this.values.length, capacity));
+		}
+	}
+
+	@Override
+	void trimToSize(final int size) {
+		if (size != this.values.length) {
+			this.values = Arrays.copyOf(this.values, size);
+		}
+	}
+
+	@Override
+	void clear(final int row) {
+		this.values[row] = MISSING;
+	}
+
+	@Override
+	void set(final int row, final IAttributeValue<?> value) {
+		this.values[row] = this.encode(value == null ? null : (String) value.getValue());
+	}
+
+	@Override
+	void copy(final AColumn source, final int sourceRow, final int row) {
+		this.values[row] = ((CategoricalColumn) source).values[sourceRow];
+	}
+
+	@Override
+	IAttributeValue<String> getAttributeValue(final int row) {
+		int code = this.values[row];
+		return code == MISSING ? new CategoricalAttributeValue(this.type) : new CategoricalAttributeValue(this.type, this.domain[code]);
+	}
+
+	@Override
+	int getDoubleVectorLength() {
+		return this.domain.length;
+	}
+
+	@Override
+	int writeDoubleVector(final int row, final double[] vector, final int offset) {
+		int code = this.values[row];
+		if (code != MISSING) {
+			vector[offset + code] = 1.0;
+		}
+		return offset + this.domain.length;
+	}
+}
@@ -0,0 +1,470 @@
+package jaicore.ml.core.dataset.columnar;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.AbstractList;
+import java.util.List;
+
+import jaicore.ml.core.dataset.ContainsNonNumericAttributesException;
+import jaicore.ml.core.dataset.IInstance;
+import jaicore.ml.core.dataset.IListDataset;
+import jaicore.ml.core.dataset.InstanceSchema;
+import jaicore.ml.core.dataset.attribute.IAttributeType;
+
+/**
+ * Dataset storing its values column-wise in primitive arrays instead of boxed
+ * attribute values: numeric attributes are stored in a <code>double[]</code>,
+ * categorical attributes dictionary-encoded in an <code>int[]</code> and time
+ * series attributes as a <code>double[][]</code> matrix holding each time
+ * series in one contiguous array. Thus, a numeric value occupies 8 bytes
+ * instead of a {@link jaicore.ml.core.dataset.attribute.primitive.NumericAttributeValue}
+ * wrapping a {@link Double}.
+ *
+ * The instances of the dataset are lightweight {@link ColumnarInstance} views
+ * on a row of the columns. Boxed attribute values are only created on demand
+ * when accessing an instance via the {@link IInstance} interface. The dataset
+ * is append-only, i.e. instances can be added but not removed.
+ *
+ * Supported attribute types are
+ * {@link jaicore.ml.core.dataset.attribute.primitive.NumericAttributeType},
+ * {@link jaicore.ml.core.dataset.attribute.categorical.ICategoricalAttributeType}
+ * and
+ * {@link jaicore.ml.core.dataset.attribute.timeseries.TimeSeriesAttributeType}.
+ *
+ * @author agent
+ */
+public class ColumnarDataset extends AbstractList<ColumnarInstance> implements IListDataset<ColumnarInstance> {
+
+	/** The number of rows the columns are able to hold initially. */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** The schema of the instances. */
+	private final InstanceSchema instanceSchema;
+
+	/** The columns of the attributes. */
+	private final AColumn[] columns;
+
+	/** The column of the target attribute or null if there is no target. */
+	private final AColumn targetColumn;
+
+	/** The number of instances contained in the dataset. */
+	private int size;
+
+	/**
+	 * Constructor creating an empty dataset for the given schema.
+	 *
+	 * @param instanceSchema
+	 *            The schema of the instances.
+	 */
+	public ColumnarDataset(final InstanceSchema instanceSchema) {
+		this(instanceSchema, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor creating an empty dataset for the given schema.
+	 *
+	 * @param instanceSchema
+	 *            The schema of the instances.
+	 * @param initialCapacity
+	 *            The number of instances the dataset is able to hold before its
+	 *            columns have to grow.
+	 */
+	public ColumnarDataset(final InstanceSchema instanceSchema, final int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("The initial capacity must not be negative.");
+		}
+		this.instanceSchema = instanceSchema;
+		List<IAttributeType<?>> attributeTypes = instanceSchema.getAttributeTypeList();
+		this.columns = new AColumn[attributeTypes.size()];
+		for (int i = 0; i < this.columns.length; i++) {
+			this.columns[i] = AColumn.create(attributeTypes.get(i), initialCapacity);
+		}
+		this.targetColumn = instanceSchema.getTargetType() == null ? null : AColumn.create(instanceSchema.getTargetType(), initialCapacity);
+	}
+
+	@Override
+	public <T> IAttributeType<T> getTargetType(final Class<T> clazz) {
+		return this.instanceSchema.getTargetType(clazz);
+	}
+
+	@Override
+	public IAttributeType<?> getTargetType() {
+		return this.instanceSchema.getTargetType();
+	}
+
+	@Override
+	public List<IAttributeType<?>> getAttributeTypes() {
+		return this.instanceSchema.getAttributeTypeList();
+	}
+
+	@Override
+	public int getNumberOfAttributes() {
+		return this.columns.length;
+	}
+
+	/**
+	 * @return The schema of the instances.
+	 */
+	public InstanceSchema getInstanceSchema() {
+		return this.instanceSchema;
+	}
+
+	@Override
+	public ColumnarInstance get(final int index) {
+		this.checkIndex(index);
+		return new ColumnarInstance(this, index);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Appends an instance by copying its values into the columns. Values of a
+	 * {@link ColumnarInstance} of a dataset with the same schema are copied
+	 * without boxing them.
+	 *
+	 * @param instance
+	 *            The instance to be added.
+	 * @return Always true.
+	 */
+	@Override
+	public boolean add(final ColumnarInstance instance) {
+		return this.addInstance(instance);
+	}
+
+	/**
+	 * Appends an arbitrary instance by copying its values into the columns.
+	 *
+	 * @param instance
+	 *            The instance to be added.
+	 * @return Always true.
+	 */
+	public boolean addInstance(final IInstance instance) {
+		if (instance.getNumberOfAttributes() != this.columns.length) {
+			throw new IllegalArgumentException("The instance has " + instance.getNumberOfAttributes() + " attributes but the dataset requires " + this.columns.length + ".");
+		}
+		int row = this.appendRow();
+		try {
+			if (instance instanceof ColumnarInstance && ((ColumnarInstance) instance).getDataset().hasSameColumns(this)) {
+				ColumnarInstance source = (ColumnarInstance) instance;
+				ColumnarDataset sourceDataset = source.getDataset();
+				for (int i = 0; i < this.columns.length; i++) {
+					this.columns[i].copy(sourceDataset.columns[i], source.getRow(), row);
+				}
+				if (this.targetColumn != null) {
+					this.targetColumn.copy(sourceDataset.targetColumn, source.getRow(), row);
+				}
+			} else {
+				for (int i = 0; i < this.columns.length; i++) {
+					this.columns[i].set(row, instance.getAttributeValue(i, Object.class));
+				}
+				if (this.targetColumn != null) {
+					this.targetColumn.set(row, instance.getTargetValue(Object.class));
+				}
+			}
+		} catch (RuntimeException e) {
+			this.size--;
+			throw e;
+		}
+		return true;
+	}
+
+	/**
+	 * Appends an instance whose values are all missing, i.e. NaN for numeric
+	 * attributes and null for categorical and time series attributes. The values
+	 * can be set without boxing via the setters of the returned view.
+	 *
+	 * @return The view on the new instance.
+	 */
+	public ColumnarInstance addEmptyInstance() {
+		return new ColumnarInstance(this, this.appendRow());
+	}
+
+	/**
+	 * Removes all instances while keeping the capacity of the columns.
+	 * Previously returned views and arrays must not be used anymore.
+	 */
+	@Override
+	public void clear() {
+		this.size = 0;
+		this.modCount++;
+	}
+
+	/**
+	 * Shrinks the columns to the number of instances, such that the arrays
+	 * returned by the column accessors have exactly one entry per instance.
+	 * This reallocates each column whose capacity exceeds the number of
+	 * instances, i.e. it copies the values once. Adding further instances grows
+	 * the columns again.
+	 */
+	public void trimToSize() {
+		for (AColumn column : this.columns) {
+			column.trimToSize(this.size);
+		}
+		if (this.targetColumn != null) {
+			this.targetColumn.trimToSize(this.size);
+		}
+	}
+
+	/**
+	 * Returns the values of a numeric attribute. The returned array is the
+	 * backing array of the column, i.e. no values are copied and the array may
+	 * be longer than the number of instances, in which case only the first
+	 * {@link ColumnarDataset#size()} entries are valid. Call
+	 * {@link ColumnarDataset#trimToSize()} before if an array of exactly one
+	 * entry per instance is required. Changes to the array are reflected in the
+	 * dataset as long as no further instances are added.
+	 *
+	 * @param attribute
+	 *            The position of the attribute.
+	 * @return The values of the attribute in the first
+	 *         {@link ColumnarDataset#size()} entries.
+	 */
+	public double[] getNumericColumn(final int attribute) {
+		return this.getColumn(attribute, NumericColumn.class).getValues();
+	}
+
+	/**
+	 * Returns the codes of a categorical attribute, i.e. the indices of the
+	 * values within the domain of the attribute type or -1 for missing values.
+	 * The returned array is the backing array of the column (see
+	 * {@link ColumnarDataset#getNumericColumn(int)}).
+	 *
+	 * @param attribute
+	 *            The position of the attribute.
+	 * @return The codes of the attribute in the first
+	 *         {@link ColumnarDataset#size()} entries.
+	 */
+	public int[] getCategoricalColumn(final int attribute) {
+		return this.getColumn(attribute, CategoricalColumn.class).getValues();
+	}
+
+	/**
+	 * Returns the time series of a time series attribute as a matrix as it is
+	 * used by the time series classifiers (see
+	 * {@link jaicore.ml.tsc.dataset.TimeSeriesDataset}). The returned matrix is
+	 * the backing matrix of the column, i.e. no values are copied and it may
+	 * have more rows than instances (see
+	 * {@link ColumnarDataset#getNumericColumn(int)}).
+	 *
+	 * @param attribute
+	 *            The position of the attribute.
+	 * @return The matrix of the shape <code>[c, l]</code> where <code>c</code> is
+	 *         at least the number of instances and <code>l</code> the length of
+	 *         the time series.
+	 */
+	public double[][] getTimeSeriesMatrix(final int attribute) {
+		return this.getColumn(attribute, TimeSeriesColumn.class).getValues();
+	}
+
+	/**
+	 * Returns the target values of a numeric target. The returned array is the
+	 * backing array of the target column (see
+	 * {@link ColumnarDataset#getNumericColumn(int)}).
+	 *
+	 * @return The target values in the first {@link ColumnarDataset#size()}
+	 *         entries.
+	 */
+	public double[] getNumericTargets() {
+		if (!(this.targetColumn instanceof NumericColumn)) {
+			throw new IllegalStateException("The target attribute is not numeric.");
+		}
+		return ((NumericColumn) this.targetColumn).getValues();
+	}
+
+	/**
+	 * Returns the targets as class indices as they are used by the time series
+	 * classifiers. For a categorical target, the backing array of codes of the
+	 * target column is returned (see
+	 * {@link ColumnarDataset#getCategoricalColumn(int)}). Numeric targets are
+	 * converted to integers in a new array of one entry per instance, where
+	 * missing (NaN) targets get the code -1 as missing categorical targets do.
+	 *
+	 * @return The class indices in the first {@link ColumnarDataset#size()}
+	 *         entries.
+	 */
+	public int[] getTargetCodes() {
+		if (this.targetColumn instanceof CategoricalColumn) {
+			return ((CategoricalColumn) this.targetColumn).getValues();
+		} else if (this.targetColumn instanceof NumericColumn) {
+			double[] targets = ((NumericColumn) this.targetColumn).getValues();
+			int[] codes = new int[this.size];
+			for (int i = 0; i < this.size; i++) {
+				codes[i] = Double.isNaN(targets[i]) ? CategoricalColumn.MISSING : (int) targets[i];
+			}
+			return codes;
+		}
+		throw new IllegalStateException("The target attribute is neither categorical nor numeric.");
+	}
+
+	/**
+	 * Returns the double vector representations of all instances in which
+	 * categorical attributes are one-hot encoded (see
+	 * {@link ColumnarInstance#getAsDoubleVector()}).
+	 *
+	 * @return The matrix of the shape <code>[n, d]</code> where <code>n</code> is
+	 *         the number of instances.
+	 * @throws ContainsNonNumericAttributesException
+	 *             Thrown if the dataset contains time series attributes.
+	 */
+	public double[][] getAsDoubleMatrix() throws ContainsNonNumericAttributesException {
+		int length = this.getDoubleVectorLength();
+		double[][] matrix = new double[this.size][];
+		for (int row = 0; row < this.size; row++) {
+			matrix[row] = this.writeDoubleVector(row, new double[length]);
+		}
+		return matrix;
+	}
+
+	/**
+	 * @return The length of the double vector representation of an instance.
+	 * @throws ContainsNonNumericAttributesException
+	 *             Thrown if the dataset contains time series attributes.
+	 */
+	int getDoubleVectorLength() throws ContainsNonNumericAttributesException {
+		int length = 0;
+		for (AColumn column : this.columns) {
+			length += column.getDoubleVectorLength();
+		}
+		return length;
+	}
+
+	/**
+	 * Writes the double vector representation of a row into a zero-initialized
+	 * vector.
+	 *
+	 * @param row
+	 *            The row to be written.
+	 * @param vector
+	 *            The vector to write to.
+	 * @return The given vector.
+	 * @throws ContainsNonNumericAttributesException
+	 *             Thrown if the dataset contains time series attributes.
+	 */
+	double[] writeDoubleVector(final int row, final double[] vector) throws ContainsNonNumericAttributesException {
+		int offset = 0;
+		for (AColumn column : this.columns) {
+			offset = column.writeDoubleVector(row, vector, offset);
+		}
+		return vector;
+	}
+
+	/**
+	 * Getter for the column of an attribute.
+	 *
+	 * @param attribute
+	 *            The position of the attribute.
+	 * @return The column of the attribute.
+	 */
+	AColumn getColumn(final int attribute) {
+		return this.columns[attribute];
+	}
+
+	/**
+	 * Getter for the column of an attribute of a certain kind.
+	 *
+	 * @param attribute
+	 *            The position of the attribute.
+	 * @param columnClass
+	 *            The expected kind of column.
+	 * @return The column of the attribute.
+	 */
+	<C extends AColumn> C getColumn(final int attribute, final Class<C> columnClass) {
+		AColumn column = this.columns[attribute];
+		if (!columnClass.isInstance(column)) {
+			throw new IllegalArgumentException("Attribute " + attribute + " of type " + column.getType() + " is not stored in a " + columnClass.getSimpleName() + ".");
+		}
+		return columnClass.cast(column);
+	}
+
+	/**
+	 * @return The column of the target attribute or null if there is no target.
+	 */
+	AColumn getTargetColumn() {
+		return this.targetColumn;
+	}
+
+	/**
+	 * Checks whether the given index refers to an instance of this dataset.
+	 *
+	 * @param index
+	 *            The index to be checked.
+	 */
+	void checkIndex(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+	}
+
+	/**
+	 * Adds a row with missing values to all columns.
+	 *
+	 * @return The index of the new row.
+	 */
+	private int appendRow() {
+		int row = this.size;
+		for (AColumn column : this.columns) {
+			column.ensureCapacity(row + 1);
+			column.clear(row);
+		}
+		if (this.targetColumn != null) {
+			this.targetColumn.ensureCapacity(row + 1);
+			this.targetColumn.clear(row);
+		}
+		this.size++;
+		this.modCount++;
+		return row;
+	}
+
+	/**
+	 * Checks whether the columns of the given dataset store the same attribute
+	 * types as the columns of this dataset such that values can be copied
+	 * without boxing them.
+	 *
+	 * @param other
+	 *            The dataset to be compared.
+	 * @return True, if all columns are compatible.
+	 */
+	private boolean hasSameColumns(final ColumnarDataset other) {
+		if (other == this || other.instanceSchema == this.instanceSchema) {
+			return true;
+		}
+		if (other.columns.length != this.columns.length || (other.targetColumn == null) != (this.targetColumn == null)) {
+			return false;
+		}
+		for (int i = 0; i < this.columns.length; i++) {
+			if (other.columns[i].getType() != this.columns[i].getType()) {
+				return false;
+			}
+		}
+		return this.targetColumn == null || other.targetColumn.getType() == this.targetColumn.getType();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(this.instanceSchema.toString());
+
+		sb.append("\n");
+		sb.append("%instances");
+		sb.append("\n");
+		for (ColumnarInstance inst : this) {
+			sb.append(inst);
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void serialize(final OutputStream out) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void deserialize(final InputStream in) {
+		throw new UnsupportedOperationException();
+	}
+
+}
@@ -0,0 +1,255 @@
+package jaicore.ml.core.dataset.columnar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jaicore.ml.core.dataset.ContainsNonNumericAttributesException;
+import jaicore.ml.core.dataset.IInstance;
+import jaicore.ml.core.dataset.attribute.IAttributeValue;
+
+/**
+ * Instance of a {@link ColumnarDataset} being a view on one row of the columns
+ * of the dataset. The instance does not hold any values itself; boxed
+ * attribute values are created on each access via the {@link IInstance}
+ * interface, whereas the primitive getters and setters directly access the
+ * columns.
+ *
+ * @author agent
+ */
+public class ColumnarInstance implements IInstance {
+
+	/** The dataset holding the values of the instance. */
+	private final ColumnarDataset dataset;
+
+	/** The row of the instance within the columns of the dataset. */
+	private final int row;
+
+	/**
+	 * Constructor creating a view on a row of the given dataset.
+	 *
+	 * @param dataset
+	 *            The dataset holding the values of the instance.
+	 * @param row
+	 *            The row of the instance.
+	 */
+	ColumnarInstance(final ColumnarDataset dataset, final int row) {
+		this.dataset = dataset;
+		this.row = row;
+	}
+
+	/**
+	 * @return The dataset holding the values of the instance.
+	 */
+	public ColumnarDataset getDataset() {
+		return this.dataset;
+	}
+
+	/**
+	 * @return The row of the instance within the dataset.
+	 */
+	public int getRow() {
+		return this.row;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> IAttributeValue<T> getAttributeValue(final int position, final Class<T> type) {
+		return (IAttributeValue<T>) this.dataset.getColumn(position).getAttributeValue(this.row);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> IAttributeValue<T> getTargetValue(final Class<T> type) {
+		AColumn targetColumn = this.dataset.getTargetColumn();
+		return targetColumn == null ? null : (IAttributeValue<T>) targetColumn.getAttributeValue(this.row);
+	}
+
+	/**
+	 * Attribute values cannot be removed from a single row as all instances of
+	 * a columnar dataset share the same columns.
+	 *
+	 * @return Always false.
+	 */
+	@Override
+	public boolean removeAttributeValue(final int position) {
+		return false;
+	}
+
+	@Override
+	public int getNumberOfAttributes() {
+		return this.dataset.getNumberOfAttributes();
+	}
+
+	@Override
+	public List<IAttributeValue<?>> getAttributeValues() {
+		List<IAttributeValue<?>> values = new ArrayList<>(this.getNumberOfAttributes());
+		for (int i = 0; i < this.getNumberOfAttributes(); i++) {
+			values.add(this.dataset.getColumn(i).getAttributeValue(this.row));
+		}
+		return values;
+	}
+
+	/**
+	 * Getter for the value of a numeric attribute.
+	 *
+	 * @param position
+	 *            The position of the attribute.
+	 * @return The value of the attribute or NaN if it is missing.
+	 */
+	public double getNumericValue(final int position) {
+		return this.dataset.getColumn(position, NumericColumn.class).get(this.row);
+	}
+
+	/**
+	 * Setter for the value of a numeric attribute.
+	 *
+	 * @param position
+	 *            The position of the attribute.
+	 * @param value
+	 *            The new value of the attribute.
+	 */
+	public void setNumericValue(final int position, final double value) {
+		this.dataset.getColumn(position, NumericColumn.class).set(this.row, value);
+	}
+
+	/**
+	 * Getter for the code of a categorical attribute, i.e. the index of its
+	 * value within the domain of the attribute type.
+	 *
+	 * @param position
+	 *            The position of the attribute.
+	 * @return The code of the value or -1 if it is missing.
+	 */
+	public int getCategoricalCode(final int position) {
+		return this.dataset.getColumn(position, CategoricalColumn.class).get(this.row);
+	}
+
+	/**
+	 * Setter for the value of a categorical attribute.
+	 *
+	 * @param position
+	 *            The position of the attribute.
+	 * @param value
+	 *            The new value of the attribute which has to be part of the
+	 *            domain of the attribute type.
+	 */
+	public void setCategoricalValue(final int position, final String value) {
+		CategoricalColumn column = this.dataset.getColumn(position, CategoricalColumn.class);
+		column.set(this.row, column.encode(value));
+	}
+
+	/**
+	 * Getter for the values of a time series attribute. The returned array is
+	 * the row of the backing matrix of the column, i.e. no values are copied.
+	 *
+	 * @param position
+	 *            The position of the attribute.
+	 * @return The time series or null if it is missing.
+	 */
+	public double[] getTimeSeries(final int position) {
+		return this.dataset.getColumn(position, TimeSeriesColumn.class).get(this.row);
+	}
+
+	/**
+	 * Setter for the values of a time series attribute. The given array is
+	 * stored without copying it.
+	 *
+	 * @param position
+	 *            The position of the attribute.
+	 * @param timeSeries
+	 *            The time series having the length of the attribute type.
+	 */
+	public void setTimeSeries(final int position, final double[] timeSeries) {
+		this.dataset.getColumn(position, TimeSeriesColumn.class).set(this.row, timeSeries);
+	}
+
+	/**
+	 * Getter for the value of a numeric target.
+	 *
+	 * @return The target value or NaN if it is missing.
+	 */
+	public double getNumericTarget() {
+		return this.getTargetColumn(NumericColumn.class).get(this.row);
+	}
+
+	/**
+	 * Setter for the value of a numeric target.
+	 *
+	 * @param value
+	 *            The new target value.
+	 */
+	public void setNumericTarget(final double value) {
+		this.getTargetColumn(NumericColumn.class).set(this.row, value);
+	}
+
+	/**
+	 * Getter for the code of a categorical target.
+	 *
+	 * @return The code of the target value or -1 if it is missing.
+	 */
+	public int getTargetCode() {
+		return this.getTargetColumn(CategoricalColumn.class).get(this.row);
+	}
+
+	/**
+	 * Setter for the value of a categorical target.
+	 *
+	 * @param value
+	 *            The new target value which has to be part of the domain of the
+	 *            target type.
+	 */
+	public void setCategoricalTarget(final String value) {
+		CategoricalColumn column = this.getTargetColumn(CategoricalColumn.class);
+		column.set(this.row, column.encode(value));
+	}
+
+	/**
+	 * Returns the instance as a double vector in which numeric attributes take one
+	 * entry and categorical attributes are one-hot encoded.
+	 *
+	 * @return The double vector representation of the instance.
+	 * @throws ContainsNonNumericAttributesException
+	 *             Thrown if the instance contains time series attributes.
+	 */
+	public double[] getAsDoubleVector() throws ContainsNonNumericAttributesException {
+		return this.dataset.writeDoubleVector(this.row, new double[this.dataset.getDoubleVectorLength()]);
+	}
+
+	private <C extends AColumn> C getTargetColumn(final Class<C> columnClass) {
+		AColumn targetColumn = this.dataset.getTargetColumn();
+		if (!columnClass.isInstance(targetColumn)) {
+			throw new IllegalStateException("The target is not stored in a " + columnClass.getSimpleName() + ".");
+		}
+		return columnClass.cast(targetColumn);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ColumnarInstance)) {
+			return false;
+		}
+		ColumnarInstance other = (ColumnarInstance) obj;
+		return this.dataset == other.dataset && this.row == other.row;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(this.dataset) + this.row;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (IAttributeValue<?> val : this.getAttributeValues()) {
+			sb.append(val.getValue());
+			sb.append(";");
+		}
+		IAttributeValue<Object> targetValue = this.getTargetValue(Object.class);
+		sb.append(targetValue == null ? null : targetValue.getValue());
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,96 @@
+package jaicore.ml.core.dataset.columnar;
+
+import java.util.Arrays;
+
+import jaicore.ml.core.dataset.attribute.IAttributeValue;
+import jaicore.ml.core.dataset.attribute.primitive.NumericAttributeType;
+import jaicore.ml.core.dataset.attribute.primitive.NumericAttributeValue;
+
+/**
+ * Column storing numeric values in a <code>double[]</code>. Missing values are
+ * represented by {@link Double#NaN}.
+ *
+ * @author agent
+ */
+class NumericColumn extends AColumn {
+
+	/** The type of the attribute. */
+	private final NumericAttributeType type;
+
+	/** The values of all rows. */
+	private double[] values;
+
+	NumericColumn(final NumericAttributeType type, final int capacity) {
+		this.type = type;
+		this.values = new double[capacity];
+	}
+
+	/**
+	 * @return The backing array of the column.
+	 */
+	double[] getValues() {
+		return this.values;
+	}
+
+	double get(final int row) {
+		return this.values[row];
+	}
+
+	void set(final int row, final double value) {
+		this.values[row] = value;
+	}
+
+	@Override
+	NumericAttributeType getType() {
+		return this.type;
+	}
+
+	@Override
+	void ensureCapacity(final int capacity) {
+		if (capacity > this.values.length) {
+			this.values = Arrays.copyOf(this.values, grow(this.values.length, capacity));
+		}
+	}
+
+	@Override
+	void trimToSize(final int size) {
+		if (size != this.values.length) {
+			this.values = Arrays.copyOf(this.values, size);
+		}
+	}
+
+	@Override
+	void clear(final int row) {
+		this.values[row] = Double.NaN;
+	}
+
+	@Override
+	void set(final int row, final IAttributeValue<?> value) {
+		Object number = value == null ? null : value.getValue();
+		if (number != null && !(number instanceof Number)) {
+			throw new IllegalArgumentException("Value " + number + " is not numeric.");
+		}
+		this.values[row] = number == null ? Double.NaN : ((Number) number).doubleValue();
+	}
+
+	@Override
+	void copy(final AColumn source, final int sourceRow, final int row) {
+		this.values[row] = ((NumericColumn) source).values[sourceRow];
+	}
+
+	@Override
+	IAttributeValue<Double> getAttributeValue(final int row) {
+		return new NumericAttributeValue(this.type, this.values[row]);
+	}
+
+	@Override
+	int getDoubleVectorLength() {
+		return 1;
+	}
+
+	@Override
+	int writeDoubleVector(final int row, final double[] vector, final int offset) {
+		vector[offset] = this.values[row];
+		return offset + 1;
+	}
+}
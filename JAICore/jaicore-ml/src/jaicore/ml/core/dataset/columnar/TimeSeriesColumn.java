@@ -0,0 +1,110 @@
+package jaicore.ml.core.dataset.columnar;
+
+import java.util.Arrays;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import jaicore.ml.core.dataset.ContainsNonNumericAttributesException;
+import jaicore.ml.core.dataset.attribute.IAttributeValue;
+import jaicore.ml.core.dataset.attribute.timeseries.TimeSeriesAttributeType;
+import jaicore.ml.core.dataset.attribute.timeseries.TimeSeriesAttributeValue;
+
+/**
+ * Column storing the time series of all rows as a <code>double[][]</code>
+ * matrix, i.e. the values of each time series are held in one contiguous
+ * <code>double[]</code>. This is the representation used by the time series
+ * classifiers such that the matrix can be handed over without copying any
+ * values. Missing time series are represented by <code>null</code> rows.
+ *
+ * @author agent
+ */
+class TimeSeriesColumn extends AColumn {
+
+	/** The type of the attribute. */
+	private final TimeSeriesAttributeType type;
+
+	/** The time series of all rows. */
+	private double[][] values;
+
+	TimeSeriesColumn(final TimeSeriesAttributeType type, final int capacity) {
+		this.type = type;
+		this.values = new double[capacity][];
+	}
+
+	/**
+	 * @return The backing matrix of the column.
+	 */
+	double[][] getValues() {
+		return this.values;
+	}
+
+	double[] get(final int row) {
+		return this.values[row];
+	}
+
+	void set(final int row, final double[] timeSeries) {
+		if (timeSeries != null && timeSeries.length != this.type.getLength()) {
+			throw new IllegalArgumentException("The time series has length " + timeSeries.length + " but the attribute requires length " + this.type.getLength() + ".");
+		}
+		this.values[row] = timeSeries;
+	}
+
+	@Override
+	TimeSeriesAttributeType getType() {
+		return this.type;
+	}
+
+	@Override
+	void ensureCapacity(final int capacity) {
+		if (capacity > this.values.length) {
+			this.values = Arrays.copyOf(this.values, grow(this.values.length, capacity));
+		}
+	}
+
+	@Override
+	void trimToSize(final int size) {
+		if (size != this.values.length) {
+			this.values = Arrays.copyOf(this.values, size);
+		}
+	}
+
+	@Override
+	void clear(final int row) {
+		this.values[row] = null;
+	}
+
+	@Override
+	void set(final int row, final IAttributeValue<?> value) {
+		Object timeSeries = value == null ? null : value.getValue();
+		if (timeSeries != null && !(timeSeries instanceof INDArray)) {
+			throw new IllegalArgumentException("Value " + timeSeries + " is not a time series.");
+		}
+		this.set(row, timeSeries == null ? null : ((INDArray) timeSeries).toDoubleVector());
+	}
+
+	@Override
+	void copy(final AColumn source, final int sourceRow, final int row) {
+		double[] timeSeries = ((TimeSeriesColumn) source).values[sourceRow];
+		this.values[row] = timeSeries == null ? null : timeSeries.clone();
+	}
+
+	@Override
+	IAttributeValue<INDArray> getAttributeValue(final int row) {
+		double[] timeSeries = this.values[row];
+		if (timeSeries == null) {
+			return new TimeSeriesAttributeValue(this.type);
+		}
+		return new TimeSeriesAttributeValue(this.type, Nd4j.create(timeSeries, new int[] { timeSeries.length }));
+	}
+
+	@Override
+	int getDoubleVectorLength() throws ContainsNonNumericAttributesException {
+		throw new ContainsNonNumericAttributesException("Could not convert the time series attribute to a double vector representation.");
+	}
+
+	@Override
+	int writeDoubleVector(final int row, final double[] vector, final int offset) throws ContainsNonNumericAttributesException {
+		throw new ContainsNonNumericAttributesException("Could not convert the time series attribute to a double vector representation.");
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * This package contains a dataset implementation storing the attribute values
+ * column-wise in primitive arrays together with instances being views on the
+ * rows of these columns.
+ *
+ * @author agent
+ */
+package jaicore.ml.core.dataset.columnar;
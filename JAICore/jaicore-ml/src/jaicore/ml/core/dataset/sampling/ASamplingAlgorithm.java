@@ -1,13 +1,271 @@
 package jaicore.ml.core.dataset.sampling;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import jaicore.basic.algorithm.AAlgorithm;
+import jaicore.basic.algorithm.AlgorithmExecutionCanceledException;
+import jaicore.basic.algorithm.events.AlgorithmEvent;
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.basic.algorithm.exceptions.DelayedCancellationCheckException;
+import jaicore.basic.algorithm.exceptions.DelayedTimeoutCheckException;
 import jaicore.ml.core.dataset.IDataset;
+import jaicore.ml.core.dataset.IInstance;
+import jaicore.ml.core.dataset.InstanceSchema;
+import jaicore.ml.core.dataset.columnar.ColumnarDataset;
+import jaicore.ml.core.dataset.standard.SimpleDataset;
+import jaicore.ml.core.dataset.standard.SimpleInstance;
 
 /**
  * An abstract class for sampling algorithms providing basic functionality of an algorithm.
  *
+ * The input dataset is processed in one or more {@link PartitionedPass}es. If the input dataset is a {@link List} and the algorithm may use more than one CPU, each pass splits
+ * the dataset into one partition per CPU which are processed in parallel. Otherwise, the dataset is streamed once per pass by its iterator such that datasets which do not fit
+ * into memory can be sampled as well. After each chunk of instances, a {@link SamplingProgressEvent} is emitted and the termination of the algorithm is checked, i.e. the
+ * sampling can be stopped early by canceling the algorithm or by a timeout.
+ *
  * @author wever
  */
 public abstract class ASamplingAlgorithm extends AAlgorithm<IDataset, IDataset> {
 
+	/** The default number of instances processed per partition between two events. */
+	public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private Logger logger = LoggerFactory.getLogger(ASamplingAlgorithm.class);
+
+	/** The number of instances to be sampled. */
+	protected final int sampleSize;
+
+	/** The seed of the random number generators. */
+	protected final long seed;
+
+	/** The number of instances processed per partition between two events. */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/** The pool processing the partitions in parallel. */
+	private ExecutorService pool;
+
+	/** The number of instances processed so far. */
+	private long numberOfProcessedInstances;
+
+	/** The sample which is available as soon as the algorithm has finished. */
+	private IDataset sample;
+
+	/**
+	 * Constructor of a sampling algorithm.
+	 *
+	 * @param input
+	 *            The dataset to be sampled.
+	 * @param sampleSize
+	 *            The number of instances to be sampled.
+	 * @param seed
+	 *            The seed of the random number generators.
+	 */
+	protected ASamplingAlgorithm(final IDataset<?> input, final int sampleSize, final long seed) {
+		super(input);
+		if (sampleSize < 1) {
+			throw new IllegalArgumentException("The sample size must be at least 1.");
+		}
+		this.sampleSize = sampleSize;
+		this.seed = seed;
+	}
+
+	@Override
+	public AlgorithmEvent nextWithException() throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException, AlgorithmException {
+		switch (this.getState()) {
+		case created:
+			return this.activate();
+		case active:
+			try {
+				this.checkTermination();
+				if (this.nextStep()) {
+					AlgorithmEvent event = new SamplingProgressEvent(this.numberOfProcessedInstances);
+					this.post(event);
+					return event;
+				}
+				List<IInstance> sampledInstances = this.getSampledInstances();
+				this.logger.info("Sampled {} of {} processed instances.", sampledInstances.size(), this.numberOfProcessedInstances);
+				this.sample = this.createSample(sampledInstances);
+			} catch (InterruptedException | AlgorithmExecutionCanceledException | TimeoutException | AlgorithmException | RuntimeException e) {
+				/* the algorithm cannot be resumed after an exception, so release the threads of the pool */
+				this.shutdownPool();
+				throw e;
+			}
+			return this.terminate();
+		default:
+			throw new IllegalStateException("Cannot do anything in state " + this.getState());
+		}
+	}
+
+	@Override
+	public IDataset call() throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException, AlgorithmException {
+		while (this.hasNext()) {
+			this.nextWithException();
+		}
+		return this.sample;
+	}
+
+	/**
+	 * Performs the next step of the algorithm, usually processing the next chunk of a pass over the input dataset.
+	 *
+	 * @return True, if there are further steps to be performed before the sample can be collected.
+	 * @throws InterruptedException
+	 *             Thrown if the algorithm has been interrupted.
+	 * @throws AlgorithmException
+	 *             Thrown if the step could not be performed.
+	 */
+	protected abstract boolean nextStep() throws InterruptedException, AlgorithmException;
+
+	/**
+	 * @return The instances of the sample, called once after the last step has been performed.
+	 * @throws AlgorithmException
+	 *             Thrown if the sample could not be collected.
+	 */
+	protected abstract List<IInstance> getSampledInstances() throws AlgorithmException;
+
+	/**
+	 * Creates a pass over the input dataset using one partition per CPU.
+	 *
+	 * @param stateFactory
+	 *            The factory creating the states of the partitions.
+	 * @param processor
+	 *            The processor updating the state of a partition with an instance.
+	 * @return The pass over the input dataset.
+	 */
+	<S> PartitionedPass<S> createPass(final PartitionedPass.IPartitionStateFactory<S> stateFactory, final PartitionedPass.IInstanceProcessor<S> processor) {
+		return new PartitionedPass<>(this.getInput(), this.getConfig().cpus(), stateFactory, processor);
+	}
+
+	/**
+	 * Processes the next chunk of the given pass.
+	 *
+	 * @param pass
+	 *            The pass to be continued.
+	 * @return True, if the pass has not been finished yet.
+	 * @throws InterruptedException
+	 *             Thrown if the algorithm has been interrupted.
+	 * @throws AlgorithmException
+	 *             Thrown if an instance could not be processed.
+	 */
+	boolean processChunk(final PartitionedPass<?> pass) throws InterruptedException, AlgorithmException {
+		this.numberOfProcessedInstances += pass.processChunk(this.getPool(), this.chunkSize);
+		return !pass.isFinished();
+	}
+
+	/**
+	 * Creates the output dataset of the same kind as the input dataset holding the given instances. Instances of a {@link SimpleDataset} are shared with the sample, whereas
+	 * the values of any other dataset are copied into a {@link ColumnarDataset}.
+	 *
+	 * @param instances
+	 *            The instances of the sample.
+	 * @return The sample.
+	 */
+	protected IDataset createSample(final List<IInstance> instances) {
+		IDataset<?> input = this.getInput();
+		if (input instanceof SimpleDataset) {
+			SimpleDataset simpleSample = new SimpleDataset(new InstanceSchema(input.getAttributeTypes(), input.getTargetType()));
+			for (IInstance instance : instances) {
+				simpleSample.add((SimpleInstance) instance);
+			}
+			return simpleSample;
+		}
+		InstanceSchema schema = input instanceof ColumnarDataset ? ((ColumnarDataset) input).getInstanceSchema() : new InstanceSchema(input.getAttributeTypes(), input.getTargetType());
+		ColumnarDataset columnarSample = new ColumnarDataset(schema, instances.size());
+		for (IInstance instance : instances) {
+			columnarSample.addInstance(instance);
+		}
+		return columnarSample;
+	}
+
+	/**
+	 * The threads of the pool are daemon threads such that they do not keep the JVM alive if the caller stops iterating over the algorithm without canceling it.
+	 */
+	private ExecutorService getPool() {
+		if (this.pool == null && this.getConfig().cpus() > 1) {
+			this.pool = Executors.newFixedThreadPool(this.getConfig().cpus(), r -> {
+				Thread t = new Thread(r, "sampling-" + THREAD_COUNTER.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return this.pool;
+	}
+
+	private void shutdownPool() {
+		if (this.pool != null) {
+			this.pool.shutdownNow();
+		}
+	}
+
+	@Override
+	protected void checkTermination() throws TimeoutException, AlgorithmExecutionCanceledException, InterruptedException {
+		try {
+			super.checkTermination();
+		} catch (DelayedTimeoutCheckException e) {
+			this.logger.warn("CheckTermination was called with delay. Message: \"{}\"", e.getMessage());
+			throw e.getException();
+		} catch (DelayedCancellationCheckException e) {
+			this.logger.warn("CheckTermination was called with delay. Message: \"{}\"", e.getMessage());
+			throw e.getException();
+		}
+	}
+
+	@Override
+	protected void shutdown() {
+		super.shutdown();
+		this.shutdownPool();
+	}
+
+	/**
+	 * @return The sample or null if the algorithm has not finished yet.
+	 */
+	public IDataset getSample() {
+		return this.sample;
+	}
+
+	/**
+	 * @return The number of instances to be sampled.
+	 */
+	public int getSampleSize() {
+		return this.sampleSize;
+	}
+
+	/**
+	 * @return The number of instances processed so far, summed over all passes over the input dataset.
+	 */
+	public long getNumberOfProcessedInstances() {
+		return this.numberOfProcessedInstances;
+	}
+
+	/**
+	 * @return The number of instances processed per partition between two events.
+	 */
+	public int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	/**
+	 * @param chunkSize
+	 *            The number of instances processed per partition between two events.
+	 */
+	public void setChunkSize(final int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be at least 1.");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public void setLoggerName(final String name) {
+		super.setLoggerName(name);
+		this.logger = LoggerFactory.getLogger(name);
+	}
 }
@@ -0,0 +1,254 @@
+package jaicore.ml.core.dataset.sampling;
+
+import java.util.List;
+import java.util.Random;
+
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.ml.core.dataset.ContainsNonNumericAttributesException;
+import jaicore.ml.core.dataset.IDataset;
+import jaicore.ml.core.dataset.IInstance;
+import jaicore.ml.core.dataset.columnar.ColumnarInstance;
+import jaicore.ml.core.dataset.standard.SimpleInstance;
+
+/**
+ * Cluster-based sampling which clusters the input dataset by k-means and draws
+ * a stratified sample using the clusters as strata (see
+ * {@link StratifiedSampling}), i.e. each region of the instance space is
+ * represented in the sample proportionally to its number of instances.
+ *
+ * The initial centroids are drawn by a {@link Reservoir} in a first pass. Each
+ * iteration of Lloyd's algorithm is one pass over the input dataset in which
+ * the partitions accumulate the sums of their instances per cluster, such that
+ * the assignment step runs in parallel and does not store the assignments.
+ * The instances are compared by their double vector representation in which
+ * categorical attributes are one-hot encoded. Missing values, i.e. NaN, are
+ * ignored when computing distances, and instances with missing values are
+ * neither drawn as initial centroids nor used to update the centroids.
+ *
+ * @author agent
+ */
+public class ClusterSampling extends StratifiedSampling {
+
+	/** The default maximal number of iterations of k-means. */
+	public static final int DEFAULT_MAX_ITERATIONS = 10;
+
+	/**
+	 * The sums of the instances and the number of instances per cluster of a
+	 * partition.
+	 */
+	private static class PartitionClusters {
+		private final double[][] sums;
+		private final long[] counts;
+
+		private PartitionClusters(final int numberOfClusters) {
+			this.sums = new double[numberOfClusters][];
+			this.counts = new long[numberOfClusters];
+		}
+	}
+
+	/** The number of clusters. */
+	private final int numberOfClusters;
+
+	/** The maximal number of iterations of k-means. */
+	private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+	/** The pass drawing the initial centroids. */
+	private PartitionedPass<Reservoir> initializationPass;
+
+	/** The pass of the current iteration of k-means. */
+	private PartitionedPass<PartitionClusters> iterationPass;
+
+	/** The number of finished iterations of k-means. */
+	private int iteration;
+
+	/** Flag whether k-means has converged. */
+	private boolean converged;
+
+	/** The current centroids of the clusters. */
+	private double[][] centroids;
+
+	/**
+	 * Constructor of the cluster-based sampling.
+	 *
+	 * @param input
+	 *            The dataset to be sampled.
+	 * @param sampleSize
+	 *            The number of instances to be sampled.
+	 * @param numberOfClusters
+	 *            The number of clusters used as strata.
+	 * @param seed
+	 *            The seed of the random number generators.
+	 */
+	public ClusterSampling(final IDataset<?> input, final int sampleSize, final int numberOfClusters, final long seed) {
+		super(input, sampleSize, seed, false);
+		if (numberOfClusters < 1) {
+			throw new IllegalArgumentException("The number of clusters must be at least 1.");
+		}
+		this.numberOfClusters = numberOfClusters;
+	}
+
+	@Override
+	protected boolean nextStep() throws InterruptedException, AlgorithmException {
+		if (this.centroids == null) {
+			if (this.initializationPass == null) {
+				this.initializationPass = this.createPass((partition, startIndex, size) -> new Reservoir(this.numberOfClusters, new Random(this.seed + partition + 1)), (reservoir, index, instance) -> {
+					if (!hasMissingValues(toDoubleVector(instance))) {
+						reservoir.offer(instance);
+					}
+				});
+			}
+			if (this.processChunk(this.initializationPass)) {
+				return true;
+			}
+			List<IInstance> initialCentroids = Reservoir.merge(this.initializationPass.getStates(), this.numberOfClusters, new Random(this.seed));
+			if (initialCentroids.isEmpty()) {
+				throw new AlgorithmException("Could not cluster the instances as all of them contain missing values.");
+			}
+			this.centroids = new double[initialCentroids.size()][];
+			for (int i = 0; i < this.centroids.length; i++) {
+				this.centroids[i] = toDoubleVector(initialCentroids.get(i));
+			}
+			this.initializationPass = null;
+			return true;
+		}
+
+		if (!this.converged && this.iteration < this.maxIterations) {
+			if (this.iterationPass == null) {
+				this.iterationPass = this.createPass((partition, startIndex, size) -> new PartitionClusters(this.centroids.length), this::assign);
+			}
+			if (!this.processChunk(this.iterationPass)) {
+				this.updateCentroids(this.iterationPass.getStates());
+				this.iterationPass = null;
+				this.iteration++;
+			}
+			return true;
+		}
+
+		return super.nextStep();
+	}
+
+	private void assign(final PartitionClusters clusters, final long index, final IInstance instance) throws AlgorithmException {
+		double[] vector = toDoubleVector(instance);
+		if (hasMissingValues(vector)) {
+			return;
+		}
+		int cluster = this.getNearestCentroid(vector);
+		if (clusters.sums[cluster] == null) {
+			clusters.sums[cluster] = new double[vector.length];
+		}
+		for (int i = 0; i < vector.length; i++) {
+			clusters.sums[cluster][i] += vector[i];
+		}
+		clusters.counts[cluster]++;
+	}
+
+	private void updateCentroids(final List<PartitionClusters> partitionClusters) {
+		boolean changed = false;
+		for (int c = 0; c < this.centroids.length; c++) {
+			double[] sum = new double[this.centroids[c].length];
+			long count = 0;
+			for (PartitionClusters clusters : partitionClusters) {
+				if (clusters.counts[c] > 0) {
+					for (int i = 0; i < sum.length; i++) {
+						sum[i] += clusters.sums[c][i];
+					}
+					count += clusters.counts[c];
+				}
+			}
+			/* keep the centroid of an empty cluster */
+			if (count == 0) {
+				continue;
+			}
+			for (int i = 0; i < sum.length; i++) {
+				double value = sum[i] / count;
+				if (value != this.centroids[c][i]) {
+					this.centroids[c][i] = value;
+					changed = true;
+				}
+			}
+		}
+		this.converged = !changed;
+	}
+
+	private int getNearestCentroid(final double[] vector) {
+		int nearest = 0;
+		double nearestDistance = Double.POSITIVE_INFINITY;
+		for (int c = 0; c < this.centroids.length; c++) {
+			double distance = 0;
+			for (int i = 0; i < vector.length && distance < nearestDistance; i++) {
+				double diff = vector[i] - this.centroids[c][i];
+				if (!Double.isNaN(diff)) {
+					distance += diff * diff;
+				}
+			}
+			if (distance < nearestDistance) {
+				nearest = c;
+				nearestDistance = distance;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Uses the nearest centroid as the stratum of the instance.
+	 */
+	@Override
+	protected Object getStratum(final IInstance instance) throws AlgorithmException {
+		return this.getNearestCentroid(toDoubleVector(instance));
+	}
+
+	private static boolean hasMissingValues(final double[] vector) {
+		for (double value : vector) {
+			if (Double.isNaN(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static double[] toDoubleVector(final IInstance instance) throws AlgorithmException {
+		try {
+			if (instance instanceof ColumnarInstance) {
+				return ((ColumnarInstance) instance).getAsDoubleVector();
+			} else if (instance instanceof SimpleInstance) {
+				return ((SimpleInstance) instance).getAsDoubleVector();
+			}
+		} catch (ContainsNonNumericAttributesException e) {
+			throw new AlgorithmException(e, "Could not cluster the instances as they contain non-numeric attributes.");
+		}
+		throw new AlgorithmException("Could not cluster instances of type " + instance.getClass().getName() + " as they provide no double vector representation.");
+	}
+
+	/**
+	 * @return The centroids of the clusters or null if they have not been
+	 *         initialized yet.
+	 */
+	public double[][] getCentroids() {
+		return this.centroids;
+	}
+
+	/**
+	 * @return The number of clusters.
+	 */
+	public int getNumberOfClusters() {
+		return this.numberOfClusters;
+	}
+
+	/**
+	 * @return The maximal number of iterations of k-means.
+	 */
+	public int getMaxIterations() {
+		return this.maxIterations;
+	}
+
+	/**
+	 * @param maxIterations
+	 *            The maximal number of iterations of k-means.
+	 */
+	public void setMaxIterations(final int maxIterations) {
+		if (maxIterations < 0) {
+			throw new IllegalArgumentException("The maximal number of iterations must not be negative.");
+		}
+		this.maxIterations = maxIterations;
+	}
+}
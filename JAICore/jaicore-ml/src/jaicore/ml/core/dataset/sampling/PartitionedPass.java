@@ -0,0 +1,204 @@
+package jaicore.ml.core.dataset.sampling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.ml.core.dataset.IDataset;
+import jaicore.ml.core.dataset.IInstance;
+
+/**
+ * A single pass over the instances of a dataset which is split into
+ * contiguous partitions. Each partition holds its own state such that the
+ * partitions can be processed in parallel without synchronization. The pass
+ * is performed chunk-wise in order to allow a sampling algorithm to emit
+ * events and to check for its termination in between.
+ *
+ * Datasets implementing {@link List} are split into the requested number of
+ * partitions. Any other dataset is processed as one partition by a single
+ * iterator, i.e. in one streaming pass.
+ *
+ * @author agent
+ *
+ * @param <S>
+ *            The type of the state of a partition.
+ */
+class PartitionedPass<S> {
+
+	/**
+	 * Factory creating the state of a partition.
+	 */
+	@FunctionalInterface
+	interface IPartitionStateFactory<S> {
+
+		/**
+		 * @param partition
+		 *            The index of the partition.
+		 * @param startIndex
+		 *            The index of the first instance of the partition within the
+		 *            dataset.
+		 * @param size
+		 *            The number of instances of the partition or -1 if it is
+		 *            unknown.
+		 * @return The state of the partition.
+		 */
+		S create(int partition, long startIndex, long size);
+	}
+
+	/**
+	 * Processor updating the state of a partition with an instance.
+	 */
+	@FunctionalInterface
+	interface IInstanceProcessor<S> {
+
+		/**
+		 * @param state
+		 *            The state of the partition the instance belongs to.
+		 * @param index
+		 *            The index of the instance within the dataset.
+		 * @param instance
+		 *            The instance to be processed.
+		 * @throws AlgorithmException
+		 *             Thrown if the instance could not be processed.
+		 */
+		void process(S state, long index, IInstance instance) throws AlgorithmException;
+	}
+
+	/**
+	 * A partition of the dataset together with its state.
+	 */
+	private class Partition implements Callable<Long> {
+		private final S state;
+		private final Iterator<? extends IInstance> iterator;
+		private long nextIndex;
+		private int chunkSize;
+
+		private Partition(final S state, final Iterator<? extends IInstance> iterator, final long startIndex) {
+			this.state = state;
+			this.iterator = iterator;
+			this.nextIndex = startIndex;
+		}
+
+		@Override
+		public Long call() throws AlgorithmException {
+			long processed = 0;
+			while (processed < this.chunkSize && this.iterator.hasNext()) {
+				PartitionedPass.this.processor.process(this.state, this.nextIndex++, this.iterator.next());
+				processed++;
+			}
+			return processed;
+		}
+	}
+
+	/** The processor updating the states of the partitions. */
+	private final IInstanceProcessor<S> processor;
+
+	/** The partitions of the dataset. */
+	private final List<Partition> partitions = new ArrayList<>();
+
+	/**
+	 * Creates a pass over the given dataset.
+	 *
+	 * @param dataset
+	 *            The dataset whose instances are processed.
+	 * @param numberOfPartitions
+	 *            The maximal number of partitions.
+	 * @param stateFactory
+	 *            The factory creating the states of the partitions.
+	 * @param processor
+	 *            The processor updating the state of a partition with an
+	 *            instance.
+	 */
+	@SuppressWarnings("unchecked")
+	PartitionedPass(final IDataset<?> dataset, final int numberOfPartitions, final IPartitionStateFactory<S> stateFactory, final IInstanceProcessor<S> processor) {
+		this.processor = processor;
+		if (dataset instanceof List && numberOfPartitions > 1) {
+			List<? extends IInstance> instances = (List<? extends IInstance>) dataset;
+			int size = instances.size();
+			int partitionCount = Math.max(1, Math.min(numberOfPartitions, size));
+			for (int i = 0; i < partitionCount; i++) {
+				int start = (int) ((long) size * i / partitionCount);
+				int end = (int) ((long) size * (i + 1) / partitionCount);
+				this.partitions.add(new Partition(stateFactory.create(i, start, end - start), instances.subList(start, end).iterator(), start));
+			}
+		} else {
+			long size = dataset instanceof Collection ? ((Collection<?>) dataset).size() : -1;
+			this.partitions.add(new Partition(stateFactory.create(0, 0, size), dataset.iterator(), 0));
+		}
+	}
+
+	/**
+	 * Processes the next chunk of instances of each partition.
+	 *
+	 * @param pool
+	 *            The pool processing the partitions in parallel or null if the
+	 *            partitions are to be processed in the current thread.
+	 * @param chunkSize
+	 *            The maximal number of instances processed per partition.
+	 * @return The number of processed instances.
+	 * @throws InterruptedException
+	 *             Thrown if the current thread has been interrupted while waiting
+	 *             for the partitions.
+	 * @throws AlgorithmException
+	 *             Thrown if an instance could not be processed.
+	 */
+	long processChunk(final ExecutorService pool, final int chunkSize) throws InterruptedException, AlgorithmException {
+		List<Partition> remainingPartitions = new ArrayList<>();
+		for (Partition partition : this.partitions) {
+			if (partition.iterator.hasNext()) {
+				partition.chunkSize = chunkSize;
+				remainingPartitions.add(partition);
+			}
+		}
+
+		long processed = 0;
+		if (pool == null || remainingPartitions.size() == 1) {
+			for (Partition partition : remainingPartitions) {
+				processed += partition.call();
+			}
+			return processed;
+		}
+
+		for (Future<Long> future : pool.invokeAll(remainingPartitions)) {
+			try {
+				processed += future.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof AlgorithmException) {
+					throw (AlgorithmException) e.getCause();
+				}
+				throw new AlgorithmException(e.getCause(), "Could not process a partition of the dataset.");
+			}
+		}
+		return processed;
+	}
+
+	/**
+	 * @return True, if all instances have been processed.
+	 */
+	boolean isFinished() {
+		for (Partition partition : this.partitions) {
+			if (partition.iterator.hasNext()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The states of the partitions in the order of the partitions within
+	 *         the dataset.
+	 */
+	List<S> getStates() {
+		List<S> states = new ArrayList<>(this.partitions.size());
+		for (Partition partition : this.partitions) {
+			states.add(partition.state);
+		}
+		return states;
+	}
+}
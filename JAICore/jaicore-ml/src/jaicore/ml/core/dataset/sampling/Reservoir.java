@@ -0,0 +1,146 @@
+package jaicore.ml.core.dataset.sampling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import jaicore.ml.core.dataset.IInstance;
+
+/**
+ * Reservoir holding a uniform random sample of fixed capacity of a stream of
+ * instances. The reservoir is filled by Li's algorithm L which draws the number
+ * of instances to be skipped until the next replacement, such that random
+ * numbers are only drawn for the O(k log(n/k)) replacements instead of for each
+ * of the n offered instances.
+ *
+ * @author agent
+ */
+class Reservoir {
+
+	/** The maximal number of instances held by the reservoir. */
+	private final int capacity;
+
+	/** The random number generator. */
+	private final Random random;
+
+	/** The instances held by the reservoir. */
+	private final List<IInstance> instances;
+
+	/** The number of offered instances. */
+	private long count;
+
+	/** The current weight of algorithm L. */
+	private double weight;
+
+	/** The number of instances to be skipped until the next replacement. */
+	private long skip;
+
+	Reservoir(final int capacity, final Random random) {
+		this.capacity = capacity;
+		this.random = random;
+		this.instances = new ArrayList<>();
+	}
+
+	/**
+	 * Offers an instance of the stream to the reservoir.
+	 *
+	 * @param instance
+	 *            The next instance of the stream.
+	 */
+	void offer(final IInstance instance) {
+		this.count++;
+		if (this.instances.size() < this.capacity) {
+			this.instances.add(instance);
+			if (this.instances.size() == this.capacity) {
+				this.weight = Math.exp(Math.log(this.nextUniform()) / this.capacity);
+				this.drawSkip();
+			}
+		} else if (this.skip > 0) {
+			this.skip--;
+		} else {
+			this.instances.set(this.random.nextInt(this.capacity), instance);
+			this.weight *= Math.exp(Math.log(this.nextUniform()) / this.capacity);
+			this.drawSkip();
+		}
+	}
+
+	/**
+	 * @return The number of offered instances.
+	 */
+	long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @return The instances held by the reservoir.
+	 */
+	List<IInstance> getInstances() {
+		return this.instances;
+	}
+
+	private void drawSkip() {
+		this.skip = (long) Math.floor(Math.log(this.nextUniform()) / Math.log(1 - this.weight));
+	}
+
+	/**
+	 * @return A random number in (0, 1].
+	 */
+	private double nextUniform() {
+		return 1 - this.random.nextDouble();
+	}
+
+	/**
+	 * Draws a uniform random sample of the union of the streams offered to the
+	 * given reservoirs. First, the number of instances taken from each reservoir
+	 * is drawn according to the multivariate hypergeometric distribution defined
+	 * by the numbers of offered instances. Then, the respective number of
+	 * instances is drawn uniformly from each reservoir. This requires the
+	 * capacity of each reservoir to be at least the size of the sample.
+	 *
+	 * @param reservoirs
+	 *            The reservoirs to be merged.
+	 * @param size
+	 *            The size of the sample.
+	 * @param random
+	 *            The random number generator.
+	 * @return The sample of the given size or all instances if less instances
+	 *         have been offered.
+	 */
+	static List<IInstance> merge(final List<Reservoir> reservoirs, final int size, final Random random) {
+		long[] remaining = new long[reservoirs.size()];
+		long total = 0;
+		for (int i = 0; i < remaining.length; i++) {
+			remaining[i] = reservoirs.get(i).count;
+			total += remaining[i];
+		}
+
+		int[] draws = new int[remaining.length];
+		long sampleSize = Math.min(size, total);
+		for (long n = 0; n < sampleSize; n++) {
+			long r = (long) (random.nextDouble() * total);
+			int i = 0;
+			while (r >= remaining[i]) {
+				r -= remaining[i++];
+			}
+			draws[i]++;
+			remaining[i]--;
+			total--;
+		}
+
+		List<IInstance> sample = new ArrayList<>((int) sampleSize);
+		for (int i = 0; i < draws.length; i++) {
+			List<IInstance> instances = reservoirs.get(i).instances;
+			if (draws[i] == instances.size()) {
+				sample.addAll(instances);
+				continue;
+			}
+			List<IInstance> candidates = new ArrayList<>(instances);
+			for (int j = 0; j < draws[i]; j++) {
+				Collections.swap(candidates, j, j + random.nextInt(candidates.size() - j));
+				sample.add(candidates.get(j));
+			}
+		}
+		return sample;
+	}
+}
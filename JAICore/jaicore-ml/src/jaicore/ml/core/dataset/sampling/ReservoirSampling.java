@@ -0,0 +1,52 @@
+package jaicore.ml.core.dataset.sampling;
+
+import java.util.List;
+import java.util.Random;
+
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.ml.core.dataset.IDataset;
+import jaicore.ml.core.dataset.IInstance;
+
+/**
+ * Simple random sampling without replacement by reservoir sampling. The input
+ * dataset is processed in a single pass holding at most
+ * <code>sampleSize</code> instances per partition, such that datasets whose
+ * iterator streams the instances from disk are sampled without loading them
+ * into memory. The reservoirs of the partitions are merged into a uniform
+ * sample of the whole dataset. For a fixed seed the sample is deterministic
+ * given the number of CPUs.
+ *
+ * @author agent
+ */
+public class ReservoirSampling extends ASamplingAlgorithm {
+
+	/** The pass filling one reservoir per partition. */
+	private PartitionedPass<Reservoir> pass;
+
+	/**
+	 * Constructor of the reservoir sampling.
+	 *
+	 * @param input
+	 *            The dataset to be sampled.
+	 * @param sampleSize
+	 *            The number of instances to be sampled.
+	 * @param seed
+	 *            The seed of the random number generators.
+	 */
+	public ReservoirSampling(final IDataset<?> input, final int sampleSize, final long seed) {
+		super(input, sampleSize, seed);
+	}
+
+	@Override
+	protected boolean nextStep() throws InterruptedException, AlgorithmException {
+		if (this.pass == null) {
+			this.pass = this.createPass((partition, startIndex, size) -> new Reservoir(this.sampleSize, new Random(this.seed + partition + 1)), (reservoir, index, instance) -> reservoir.offer(instance));
+		}
+		return this.processChunk(this.pass);
+	}
+
+	@Override
+	protected List<IInstance> getSampledInstances() {
+		return Reservoir.merge(this.pass.getStates(), this.sampleSize, new Random(this.seed));
+	}
+}
@@ -0,0 +1,35 @@
+package jaicore.ml.core.dataset.sampling;
+
+import jaicore.basic.algorithm.events.AlgorithmEvent;
+
+/**
+ * Event emitted by an {@link ASamplingAlgorithm} after processing a chunk of
+ * instances of the input dataset. Listeners may cancel the algorithm in order
+ * to stop the sampling early.
+ *
+ * @author agent
+ */
+public class SamplingProgressEvent implements AlgorithmEvent {
+
+	/** The number of instances processed so far. */
+	private final long numberOfProcessedInstances;
+
+	/**
+	 * Constructor of the event.
+	 *
+	 * @param numberOfProcessedInstances
+	 *            The number of instances processed so far, summed over all
+	 *            passes over the input dataset.
+	 */
+	public SamplingProgressEvent(final long numberOfProcessedInstances) {
+		this.numberOfProcessedInstances = numberOfProcessedInstances;
+	}
+
+	/**
+	 * @return The number of instances processed so far, summed over all passes
+	 *         over the input dataset.
+	 */
+	public long getNumberOfProcessedInstances() {
+		return this.numberOfProcessedInstances;
+	}
+}
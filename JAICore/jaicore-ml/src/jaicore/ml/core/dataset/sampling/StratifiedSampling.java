@@ -0,0 +1,163 @@
+package jaicore.ml.core.dataset.sampling;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.ml.core.dataset.IDataset;
+import jaicore.ml.core.dataset.IInstance;
+import jaicore.ml.core.dataset.attribute.IAttributeValue;
+import jaicore.ml.core.dataset.attribute.categorical.ICategoricalAttributeType;
+
+/**
+ * Stratified sampling with proportional allocation. The input dataset is
+ * processed in a single pass maintaining one reservoir per stratum and
+ * partition (see {@link ReservoirSampling}). Afterwards, each stratum gets a
+ * share of the sample proportional to its number of instances, where the
+ * remaining instances due to rounding are assigned to the strata with the
+ * largest remainders. By default, the strata are given by the categorical
+ * target values of the instances, i.e. the class distribution of the input
+ * dataset is preserved. Subclasses may define other strata by overriding
+ * {@link #getStratum(IInstance)}.
+ *
+ * @author agent
+ */
+public class StratifiedSampling extends ASamplingAlgorithm {
+
+	/**
+	 * The reservoirs of the strata of a partition sharing the random number
+	 * generator of the partition.
+	 */
+	private static class PartitionStrata {
+		private final Random random;
+		private final Map<Object, Reservoir> reservoirs = new LinkedHashMap<>();
+
+		private PartitionStrata(final Random random) {
+			this.random = random;
+		}
+	}
+
+	/** The pass filling the reservoirs of the strata per partition. */
+	private PartitionedPass<PartitionStrata> stratificationPass;
+
+	/**
+	 * Constructor of the stratified sampling using the target values as strata.
+	 *
+	 * @param input
+	 *            The dataset to be sampled.
+	 * @param sampleSize
+	 *            The number of instances to be sampled.
+	 * @param seed
+	 *            The seed of the random number generators.
+	 * @throws IllegalArgumentException
+	 *             Thrown if the target of the input dataset is not categorical,
+	 *             as every distinct target value would form its own stratum.
+	 */
+	public StratifiedSampling(final IDataset<?> input, final int sampleSize, final long seed) {
+		this(input, sampleSize, seed, true);
+	}
+
+	/**
+	 * Constructor for subclasses which define their own strata.
+	 *
+	 * @param input
+	 *            The dataset to be sampled.
+	 * @param sampleSize
+	 *            The number of instances to be sampled.
+	 * @param seed
+	 *            The seed of the random number generators.
+	 * @param targetStrata
+	 *            Whether the strata are given by the target values, which
+	 *            requires the target to be categorical.
+	 */
+	protected StratifiedSampling(final IDataset<?> input, final int sampleSize, final long seed, final boolean targetStrata) {
+		super(input, sampleSize, seed);
+		if (targetStrata && !(input.getTargetType() instanceof ICategoricalAttributeType)) {
+			throw new IllegalArgumentException("Stratifying by the target values requires a categorical target, but the target is " + input.getTargetType() + ".");
+		}
+	}
+
+	/**
+	 * Determines the stratum of an instance. Called concurrently for instances of
+	 * different partitions.
+	 *
+	 * @param instance
+	 *            The instance whose stratum is determined.
+	 * @return The key of the stratum.
+	 * @throws AlgorithmException
+	 *             Thrown if the stratum could not be determined.
+	 */
+	protected Object getStratum(final IInstance instance) throws AlgorithmException {
+		IAttributeValue<Object> target = instance.getTargetValue(Object.class);
+		return target == null ? null : target.getValue();
+	}
+
+	@Override
+	protected boolean nextStep() throws InterruptedException, AlgorithmException {
+		if (this.stratificationPass == null) {
+			this.stratificationPass = this.createPass((partition, startIndex, size) -> new PartitionStrata(new Random(this.seed + partition + 1)), this::offer);
+		}
+		return this.processChunk(this.stratificationPass);
+	}
+
+	private void offer(final PartitionStrata strata, final long index, final IInstance instance) throws AlgorithmException {
+		Object stratum = this.getStratum(instance);
+		Reservoir reservoir = strata.reservoirs.get(stratum);
+		if (reservoir == null) {
+			reservoir = new Reservoir(this.sampleSize, strata.random);
+			strata.reservoirs.put(stratum, reservoir);
+		}
+		reservoir.offer(instance);
+	}
+
+	@Override
+	protected List<IInstance> getSampledInstances() {
+		/* collect the reservoirs of each stratum over all partitions */
+		Map<Object, List<Reservoir>> strata = new LinkedHashMap<>();
+		long total = 0;
+		for (PartitionStrata partitionStrata : this.stratificationPass.getStates()) {
+			for (Entry<Object, Reservoir> entry : partitionStrata.reservoirs.entrySet()) {
+				strata.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(entry.getValue());
+				total += entry.getValue().getCount();
+			}
+		}
+
+		/* allocate the sample proportionally to the sizes of the strata */
+		List<List<Reservoir>> stratumReservoirs = new ArrayList<>(strata.values());
+		int[] allocation = new int[stratumReservoirs.size()];
+		double[] remainders = new double[allocation.length];
+		long sampleSizeToAllocate = Math.min(this.sampleSize, total);
+		long allocated = 0;
+		for (int i = 0; i < allocation.length; i++) {
+			long stratumSize = 0;
+			for (Reservoir reservoir : stratumReservoirs.get(i)) {
+				stratumSize += reservoir.getCount();
+			}
+			double share = (double) sampleSizeToAllocate * stratumSize / total;
+			allocation[i] = (int) Math.floor(share);
+			remainders[i] = share - allocation[i];
+			allocated += allocation[i];
+		}
+		for (; allocated < sampleSizeToAllocate; allocated++) {
+			int largest = 0;
+			for (int i = 1; i < remainders.length; i++) {
+				if (remainders[i] > remainders[largest]) {
+					largest = i;
+				}
+			}
+			allocation[largest]++;
+			remainders[largest] = -1;
+		}
+
+		Random random = new Random(this.seed);
+		List<IInstance> sample = new ArrayList<>((int) sampleSizeToAllocate);
+		for (int i = 0; i < allocation.length; i++) {
+			sample.addAll(Reservoir.merge(stratumReservoirs.get(i), allocation[i], random));
+		}
+		return sample;
+	}
+}
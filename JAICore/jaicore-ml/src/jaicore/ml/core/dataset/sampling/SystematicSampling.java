@@ -0,0 +1,126 @@
+package jaicore.ml.core.dataset.sampling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.ml.core.dataset.IDataset;
+import jaicore.ml.core.dataset.IInstance;
+
+/**
+ * Systematic sampling selecting every <code>n/k</code>-th instance of the
+ * input dataset of size <code>n</code> starting at a random offset within the
+ * first interval, where <code>k</code> is the sample size. The order of the
+ * instances is preserved in the sample. If the size of the input dataset is
+ * not known, i.e. the dataset is no {@link Collection}, the instances are
+ * counted in an additional pass.
+ *
+ * @author agent
+ */
+public class SystematicSampling extends ASamplingAlgorithm {
+
+	/**
+	 * The selected instances of a partition together with the index of the next
+	 * instance to be selected.
+	 */
+	private static class PartitionSelection {
+		private final List<IInstance> instances = new ArrayList<>();
+		private long next;
+		private long nextIndex;
+	}
+
+	/** The pass counting the instances if the size of the input is unknown. */
+	private PartitionedPass<long[]> countingPass;
+
+	/** The pass selecting the instances. */
+	private PartitionedPass<PartitionSelection> selectionPass;
+
+	/** The number of instances of the input dataset. */
+	private long size = -1;
+
+	/** The offset of the first selected instance. */
+	private double start;
+
+	/** The distance between two selected instances. */
+	private double step;
+
+	/** The number of instances to be selected. */
+	private long numberOfSelections;
+
+	/**
+	 * Constructor of the systematic sampling.
+	 *
+	 * @param input
+	 *            The dataset to be sampled.
+	 * @param sampleSize
+	 *            The number of instances to be sampled.
+	 * @param seed
+	 *            The seed of the random number generator drawing the offset.
+	 */
+	public SystematicSampling(final IDataset<?> input, final int sampleSize, final long seed) {
+		super(input, sampleSize, seed);
+		if (input instanceof Collection) {
+			this.size = ((Collection<?>) input).size();
+		}
+	}
+
+	@Override
+	protected boolean nextStep() throws InterruptedException, AlgorithmException {
+		if (this.size < 0) {
+			if (this.countingPass == null) {
+				this.countingPass = this.createPass((partition, startIndex, partitionSize) -> new long[1], (count, index, instance) -> count[0]++);
+			}
+			if (this.processChunk(this.countingPass)) {
+				return true;
+			}
+			this.size = 0;
+			for (long[] count : this.countingPass.getStates()) {
+				this.size += count[0];
+			}
+		}
+
+		if (this.selectionPass == null) {
+			this.numberOfSelections = Math.min(this.sampleSize, this.size);
+			this.step = this.numberOfSelections == 0 ? 1 : (double) this.size / this.numberOfSelections;
+			this.start = new Random(this.seed).nextDouble() * this.step;
+			this.selectionPass = this.createPass(this::createSelection, this::select);
+		}
+		return this.processChunk(this.selectionPass);
+	}
+
+	private PartitionSelection createSelection(final int partition, final long startIndex, final long partitionSize) {
+		PartitionSelection selection = new PartitionSelection();
+		selection.next = Math.max(0, (long) Math.ceil((startIndex - this.start) / this.step));
+		while (selection.next > 0 && this.getIndexOfSelection(selection.next - 1) >= startIndex) {
+			selection.next--;
+		}
+		while (selection.next < this.numberOfSelections && this.getIndexOfSelection(selection.next) < startIndex) {
+			selection.next++;
+		}
+		selection.nextIndex = selection.next < this.numberOfSelections ? this.getIndexOfSelection(selection.next) : -1;
+		return selection;
+	}
+
+	private void select(final PartitionSelection selection, final long index, final IInstance instance) {
+		if (index == selection.nextIndex) {
+			selection.instances.add(instance);
+			selection.next++;
+			selection.nextIndex = selection.next < this.numberOfSelections ? this.getIndexOfSelection(selection.next) : -1;
+		}
+	}
+
+	private long getIndexOfSelection(final long selection) {
+		return (long) Math.floor(this.start + selection * this.step);
+	}
+
+	@Override
+	protected List<IInstance> getSampledInstances() {
+		List<IInstance> sample = new ArrayList<>((int) this.numberOfSelections);
+		for (PartitionSelection selection : this.selectionPass.getStates()) {
+			sample.addAll(selection.instances);
+		}
+		return sample;
+	}
+}
@@ -85,14 +85,12 @@ public class SimpleInstance implements IInstance {
 
 	@Override
 	public int getNumberOfAttributes() {
-		// TODO Auto-generated method stub
-		return 0;
+		return this.attributeValues.size();
 	}
 
 	@Override
 	public List<IAttributeValue<?>> getAttributeValues() {
-		// TODO Auto-generated method stub
-		return null;
+		return this.attributeValues;
 	}
 
 }
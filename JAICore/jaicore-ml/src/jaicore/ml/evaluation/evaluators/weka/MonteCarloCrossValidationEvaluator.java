@@ -1,14 +1,28 @@
 package jaicore.ml.evaluation.evaluators.weka;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import jaicore.basic.algorithm.exceptions.ObjectEvaluationFailedException;
 import jaicore.ml.WekaUtil;
 import weka.classifiers.Classifier;
+import weka.core.Attribute;
+import weka.core.Instance;
 import weka.core.Instances;
 
 /**
@@ -16,30 +30,50 @@ import weka.core.Instances;
  * the given dataset. Thereby, it uses the
  * {@link AbstractEvaluatorMeasureBridge} to evaluate the classifier on a random
  * split of the dataset.
- * 
+ *
+ * The indices of the splits only depend on the dataset, the seed and the training portion. They are computed once and shared among all evaluators that work on the same data object (up to a maximum number of splits per
+ * data object). Since the data object may be changed in between, the cached indices are only reused if the number of instances and their classes are still the same.
+ *
+ * If more than one thread is granted, the repeats are evaluated in parallel, each on its own clone of the classifier. The bridge must then be thread-safe.
+ *
  * @author joshua
  *
  */
 public class MonteCarloCrossValidationEvaluator implements IClassifierEvaluator {
 
 	static final Logger logger = LoggerFactory.getLogger(MonteCarloCrossValidationEvaluator.class);
-	private boolean canceled = false;
+
+	/* split indices per data object (compared by identity) and class labels/seed/portion */
+	private static final int MAX_CACHED_SPLITS_PER_DATASET = 1000;
+	private static final Cache<Instances, Cache<String, int[][]>> splitCache = CacheBuilder.newBuilder().weakKeys().build();
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+
+	private volatile boolean canceled = false;
 	private final int repeats;
 	private final Instances data;
 	private final double trainingPortion;
 	private final long seed;
+	private final int numberOfThreads;
 	/* Can either compute the loss or cache it */
 	private final AbstractEvaluatorMeasureBridge<Double, Double> bridge;
 
 	private final DescriptiveStatistics stats = new DescriptiveStatistics();
 
 	public MonteCarloCrossValidationEvaluator(AbstractEvaluatorMeasureBridge<Double, Double> bridge, final int repeats, final Instances data, final double trainingPortion, final long seed) {
+		this(bridge, repeats, data, trainingPortion, seed, 1);
+	}
+
+	public MonteCarloCrossValidationEvaluator(AbstractEvaluatorMeasureBridge<Double, Double> bridge, final int repeats, final Instances data, final double trainingPortion, final long seed, final int numberOfThreads) {
 		super();
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive.");
+		}
 		this.repeats = repeats;
 		this.bridge = bridge;
 		this.data = data;
 		this.trainingPortion = trainingPortion;
 		this.seed = seed;
+		this.numberOfThreads = numberOfThreads;
 	}
 
 	public void cancel() {
@@ -55,18 +89,23 @@ public class MonteCarloCrossValidationEvaluator implements IClassifierEvaluator
 
 		/* perform random stratified split */
 		logger.info("Starting evaluation of {}", pl);
-		for (int i = 0; i < this.repeats && !this.canceled && !Thread.currentThread().isInterrupted(); i++) {
-			logger.debug("Obtaining predictions of {} for split #{}/{}", pl, i + 1, this.repeats);
-			List<Instances> split = WekaUtil.getStratifiedSplit(data, seed + i, trainingPortion);
-			try {
-				double score = bridge.evaluateSplit(pl, split.get(0), split.get(1));
-				logger.info("Score for evaluation of {} with split #{}/{}: {}", pl, i + 1, this.repeats, score);
-				stats.addValue(score);
-			}
+		String classLabels = getClassLabelFingerprint(this.data);
+		if (this.numberOfThreads > 1 && this.repeats > 1) {
+			this.evaluateInParallel(pl, classLabels);
+		} else {
+			for (int i = 0; i < this.repeats && !this.canceled && !Thread.currentThread().isInterrupted(); i++) {
+				logger.debug("Obtaining predictions of {} for split #{}/{}", pl, i + 1, this.repeats);
+				List<Instances> split = this.getSplit(i, classLabels);
+				try {
+					double score = bridge.evaluateSplit(pl, split.get(0), split.get(1));
+					logger.info("Score for evaluation of {} with split #{}/{}: {}", pl, i + 1, this.repeats, score);
+					stats.addValue(score);
+				}
 
-			catch (Exception e) {
-				throw new ObjectEvaluationFailedException(e, "Could not evaluate classifier!");
+				catch (Exception e) {
+					throw new ObjectEvaluationFailedException(e, "Could not evaluate classifier!");
 
+				}
 			}
 		}
 		if (Thread.currentThread().isInterrupted())
@@ -77,6 +116,89 @@ public class MonteCarloCrossValidationEvaluator implements IClassifierEvaluator
 		return score;
 	}
 
+	/**
+	 * Evaluates all repeats in parallel, each on a clone of the given classifier. Returns as soon as all repeats are finished or the evaluator is canceled; remaining repeats are interrupted then.
+	 */
+	private void evaluateInParallel(final Classifier pl, final String classLabels) throws ObjectEvaluationFailedException, InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.numberOfThreads, this.repeats), r -> {
+			Thread t = new Thread(r, "MCCV-" + threadCounter.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		CompletionService<Double> completionService = new ExecutorCompletionService<>(pool);
+		List<Future<Double>> futures = new ArrayList<>(this.repeats);
+		try {
+			for (int i = 0; i < this.repeats; i++) {
+				final int repeat = i;
+				futures.add(completionService.submit(() -> {
+					logger.debug("Obtaining predictions of {} for split #{}/{}", pl, repeat + 1, this.repeats);
+					List<Instances> split = this.getSplit(repeat, classLabels);
+					double score = bridge.evaluateSplit(WekaUtil.cloneClassifier(pl), split.get(0), split.get(1));
+					logger.info("Score for evaluation of {} with split #{}/{}: {}", pl, repeat + 1, this.repeats, score);
+					return score;
+				}));
+			}
+
+			/* collect the scores on this thread, checking for cancel regularly */
+			int finishedRepeats = 0;
+			while (finishedRepeats < this.repeats) {
+				if (this.canceled) {
+					logger.info("Evaluation of {} has been canceled after {}/{} splits.", pl, finishedRepeats, this.repeats);
+					return;
+				}
+				Future<Double> finishedRepeat = completionService.poll(100, TimeUnit.MILLISECONDS);
+				if (finishedRepeat == null) {
+					continue;
+				}
+				finishedRepeats++;
+				try {
+					stats.addValue(finishedRepeat.get());
+				} catch (ExecutionException e) {
+					throw new ObjectEvaluationFailedException(e.getCause(), "Could not evaluate classifier!");
+				}
+			}
+		} finally {
+			futures.forEach(f -> f.cancel(true));
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Materializes the split for the given repeat from the cached split indices (computing them if necessary).
+	 *
+	 * @param repeat
+	 *            The repeat the split is created for
+	 * @param classLabels
+	 *            The fingerprint of the class labels of the data, see {@link #getClassLabelFingerprint(Instances)}
+	 */
+	private List<Instances> getSplit(final int repeat, final String classLabels) throws ObjectEvaluationFailedException {
+		long splitSeed = this.seed + repeat;
+		int[][] split;
+		try {
+			Cache<String, int[][]> splitsOfData = splitCache.get(this.data, () -> CacheBuilder.newBuilder().maximumSize(MAX_CACHED_SPLITS_PER_DATASET).build());
+			split = splitsOfData.get(classLabels + "/" + splitSeed + "/" + this.trainingPortion, () -> WekaUtil.getStratifiedSplitIndexArrays(this.data, splitSeed, this.trainingPortion));
+		} catch (ExecutionException e) {
+			throw new ObjectEvaluationFailedException(e.getCause(), "Could not compute split!");
+		}
+		return WekaUtil.realizeStratifiedSplit(this.data, split, splitSeed, this.trainingPortion);
+	}
+
+	/**
+	 * Computes a fingerprint of everything the split indices depend on, i.e. the number of instances, the class attribute and the class of every instance. This takes linear time like the realization of a split, but no
+	 * instances are copied.
+	 */
+	private static String getClassLabelFingerprint(final Instances data) {
+		Attribute classAttribute = data.classAttribute();
+		long hash = classAttribute.name().hashCode();
+		for (int i = 0; i < classAttribute.numValues(); i++) {
+			hash = 31 * hash + classAttribute.value(i).hashCode();
+		}
+		for (Instance instance : data) {
+			hash = 31 * hash + Double.hashCode(instance.classValue());
+		}
+		return data.size() + "/" + data.classIndex() + "/" + Long.toHexString(hash);
+	}
+
 	public DescriptiveStatistics getStats() {
 		return stats;
 	}
@@ -84,4 +206,8 @@ public class MonteCarloCrossValidationEvaluator implements IClassifierEvaluator
 	public AbstractEvaluatorMeasureBridge<Double, Double> getBridge() {
 		return bridge;
 	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
 }
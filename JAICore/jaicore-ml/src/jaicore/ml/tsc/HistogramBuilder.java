@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.util.LongIntOpenHashMap;
 
 /**
  * @author Helen Beierling
@@ -39,4 +40,22 @@ public class HistogramBuilder {
 		return histogram;
 	}
 	
+	/**
+	 * Counts the packed SFA words of an instance (cf. {@link jaicore.ml.tsc.filter.SlidingSFA}) with the same numerosity
+	 * reduction as {@link #histogramForInstance(TimeSeriesDataset)}. As the words are compared by their exact packed value
+	 * there are no collisions of different words as with hash codes.
+	 * @param words The words of the sliding windows of an instance in the order of the windows.
+	 * @return A new histogram which maps each word to its count.
+	 */
+	public static LongIntOpenHashMap histogramForWords(long[] words) {
+		LongIntOpenHashMap wordHistogram = new LongIntOpenHashMap();
+		for(int i = 0; i < words.length; i++) {
+			// Successive duplicates are not added because of numerosity reduction.
+			if(i == 0 || words[i] != words[i-1]) {
+				wordHistogram.add(words[i], 1);
+			}
+		}
+		return wordHistogram;
+	}
+	
 }
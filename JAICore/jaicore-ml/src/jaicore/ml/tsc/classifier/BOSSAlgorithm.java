@@ -1,7 +1,6 @@
 package jaicore.ml.tsc.classifier;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -12,11 +11,8 @@ import jaicore.basic.algorithm.IAlgorithmConfig;
 import jaicore.basic.algorithm.events.AlgorithmEvent;
 import jaicore.basic.algorithm.exceptions.AlgorithmException;
 import jaicore.ml.tsc.HistogramBuilder;
-import jaicore.ml.tsc.dataset.TimeSeriesDataset;
-import jaicore.ml.tsc.exceptions.NoneFittedFilterExeception;
-import jaicore.ml.tsc.filter.SFA;
-import jaicore.ml.tsc.filter.SlidingWindowBuilder;
-import jaicore.ml.tsc.filter.ZTransformer;
+import jaicore.ml.tsc.filter.SlidingSFA;
+import jaicore.ml.tsc.util.LongIntOpenHashMap;
 
 /**
  * @author Helen Beierling
@@ -58,12 +54,14 @@ public class BOSSAlgorithm extends ASimplifiedTSCAlgorithm<Integer, BOSSClassifi
 	/**
 	 *  The list contains the list of Histograms in which every matrix of the multivariate dataset results in.
 	 */
-	private ArrayList<ArrayList<HashMap<Integer,Integer>>> multivirateHistograms = new ArrayList<ArrayList<HashMap<Integer,Integer>>> ();
+	private ArrayList<ArrayList<LongIntOpenHashMap>> multivirateHistograms = new ArrayList<ArrayList<LongIntOpenHashMap>> ();
+	
 	/**
-	 *  Constians the histograms of one matrix for each instance one. Where the keys are the words which are double value
-	 *  sequences converted to an integer hash code and the values are the corresponding word counts.   
+	 *  The number of threads used by the classifier for the prediction of datasets.
 	 */
-	private ArrayList<HashMap<Integer,Integer>> histograms = new ArrayList<HashMap<Integer, Integer>>();
+	private int cpus = 1;
+	
+	private TimeOut timeout = new TimeOut(Integer.MAX_VALUE, TimeUnit.SECONDS);
 	 
 	
 	//This class assumes that the optimal proportion of word length to window size is determined elsewhere and the corresponding
@@ -84,32 +82,27 @@ public class BOSSAlgorithm extends ASimplifiedTSCAlgorithm<Integer, BOSSClassifi
 
 	@Override
 	public int getNumCPUs() {
-		// TODO Auto-generated method stub
-		return 0;
+		return cpus;
 	}
 
 	@Override
 	public void setNumCPUs(int numberOfCPUs) {
-		// TODO Auto-generated method stub
-		
+		this.cpus = numberOfCPUs;
 	}
 
 	@Override
 	public void setTimeout(long timeout, TimeUnit timeUnit) {
-		// TODO Auto-generated method stub
-		
+		this.timeout = new TimeOut(timeout, timeUnit);
 	}
 
 	@Override
 	public void setTimeout(TimeOut timeout) {
-		// TODO Auto-generated method stub
-		
+		this.timeout = timeout;
 	}
 
 	@Override
 	public TimeOut getTimeout() {
-		// TODO Auto-generated method stub
-		return null;
+		return timeout;
 	}
 
 	@Override
@@ -130,54 +123,30 @@ public class BOSSAlgorithm extends ASimplifiedTSCAlgorithm<Integer, BOSSClassifi
 	public BOSSClassifier call()
 			throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException, AlgorithmException {
 		
-		multivirateHistograms.clear();
-		
-		HistogramBuilder histoBuilder = new HistogramBuilder();
-		SFA sfa = new SFA(alphabet, wordlength,meanCorrected);
-		
-		//calculates the lookup table for the alphabet for the whole input dataset.
-		
-		
+		final long beginTimeMs = System.currentTimeMillis();
+		multivirateHistograms = new ArrayList<ArrayList<LongIntOpenHashMap>>();
 		
-		SlidingWindowBuilder slide = new SlidingWindowBuilder();
-		slide.setDefaultWindowSize(windowSize);
+		/*
+		 * Splits every instance into sliding windows, z-normalizes them and computes their SFA words in one pass
+		 * by updating the DFT coefficients incrementally. The MCB quantisation intervals are learned on the
+		 * windows of each instance.
+		 */
+		SlidingSFA sfa = new SlidingSFA(windowSize, wordlength, alphabet.length, meanCorrected);
 		
 		for(int matrix = 0; matrix < input.getNumberOfVariables(); matrix++) {
-			histograms.clear();
+			/*
+			 * Contains the histograms of one matrix for each instance one. Where the keys are the packed words
+			 * and the values are the corresponding word counts.
+			 */
+			ArrayList<LongIntOpenHashMap> histograms = new ArrayList<LongIntOpenHashMap>();
 			for(int instance = 0; instance < input.getNumberOfInstances(); instance++) {
-				/*
-				 * Every instance results in an own histogram there for has its own HashMap of
-				 * the the from key: word value: count of word.
-				 */
-				
-				/*
-				 * By the special fit transform an instance is transformed to a dataset. This
-				 * is done because every instance creates a list of new smaller instances when
-				 * split into sliding windows.
-				 */
-				TimeSeriesDataset tmp = slide.specialFitTransform(input.getValues(matrix)[instance]);
-				try {
-					/* The from one instance resulting dataset is z-normalized. */ 
-					ZTransformer znorm = new ZTransformer();
-					for(int i = 0; i < tmp.getValues(0).length; i++) {
-						tmp.getValues(0)[i] = znorm.fitTransform(tmp.getValues(0)[i]);
-					}
-					
-					// The SFA words for that dataset are computed using the precomputed MCB quantisation intervals 
-					TimeSeriesDataset tmpTransformed = sfa.fitTransform(tmp);
-					// The occurring SFA words of the instance are getting counted with a parallel numerosity reduction.
-					  
-					  HashMap<Integer,Integer> histogram = histoBuilder.histogramForInstance(tmpTransformed);
-					// Each instance in the dataset has its own histogram so the original dataset results in a list of histograms.
-						histograms.add((HashMap<Integer,Integer>)histogram.clone());
-					}
-				
-				catch (IllegalArgumentException e) {
-					e.printStackTrace();
-				} catch (NoneFittedFilterExeception e) {
-					e.printStackTrace();
+				if((System.currentTimeMillis() - beginTimeMs) > timeout.milliseconds()) {
+					throw new TimeoutException("Interrupted training due to timeout.");
 				}
-				
+				long[] words = sfa.transform(input.getValues(matrix)[instance]);
+				// The occurring SFA words of the instance are getting counted with a parallel numerosity reduction.
+				// Each instance in the dataset has its own histogram so the original dataset results in a list of histograms.
+				histograms.add(HistogramBuilder.histogramForWords(words));
 			}
 			// In the case of a multivariate dataset each matrix would have a list of histograms which than results
 			// in a list of lists of histograms. 
@@ -189,6 +158,7 @@ public class BOSSAlgorithm extends ASimplifiedTSCAlgorithm<Integer, BOSSClassifi
 		model.setHistogramUnivirate(multivirateHistograms.get(0));
 		//model.setSfa(sfa);
 		model.setTrainingData(input);
+		model.setTrained(true);
 		return model;
 	
 	}
@@ -1,16 +1,19 @@
 package jaicore.ml.tsc.classifier;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import jaicore.ml.core.exception.PredictionException;
 import jaicore.ml.tsc.HistogramBuilder;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
-import jaicore.ml.tsc.exceptions.NoneFittedFilterExeception;
-import jaicore.ml.tsc.filter.SFA;
-import jaicore.ml.tsc.filter.SlidingWindowBuilder;
-import jaicore.ml.tsc.filter.ZTransformer;
+import jaicore.ml.tsc.filter.SlidingSFA;
+import jaicore.ml.tsc.util.LongIntOpenHashMap;
 
 /**
  * @author Helen Beierling 
@@ -29,18 +32,16 @@ public class BOSSClassifier extends ASimplifiedTSClassifier<Integer> {
 	private double[] alphabet; 
 	
 	private boolean meanCorrected;
-	private ArrayList<ArrayList<HashMap<Integer,Integer>>> multivirateHistograms = new ArrayList<ArrayList<HashMap<Integer,Integer>>> ();
+	private ArrayList<ArrayList<LongIntOpenHashMap>> multivirateHistograms = new ArrayList<ArrayList<LongIntOpenHashMap>> ();
 	
-	private ArrayList<HashMap<Integer, Integer>> univirateHistograms;
+	private ArrayList<LongIntOpenHashMap> univirateHistograms;
 	
 
 	//---------------------------------------------------------------
-	// All needed for every predict. 
-	private SlidingWindowBuilder slide = new SlidingWindowBuilder();
-	private HistogramBuilder histoBuilder = new HistogramBuilder();
-	private ZTransformer znorm = new ZTransformer();
+	// All needed for every predict. The SFA is immutable hence predictions can be made by several threads.
+	private SlidingSFA sfa;
 	
-	public ArrayList<HashMap<Integer, Integer>> getUnivirateHistograms() {
+	public ArrayList<LongIntOpenHashMap> getUnivirateHistograms() {
 		return univirateHistograms;
 	}
 	
@@ -49,13 +50,40 @@ public class BOSSClassifier extends ASimplifiedTSClassifier<Integer> {
 	}
 
 	
-	public void setMultivirateHistograms(ArrayList<ArrayList<HashMap<Integer, Integer>>> multivirateHistograms) {
+	public void setMultivirateHistograms(ArrayList<ArrayList<LongIntOpenHashMap>> multivirateHistograms) {
 		this.multivirateHistograms = multivirateHistograms;
 	}
 	
-	public void setHistogramUnivirate(ArrayList<HashMap<Integer, Integer>> histograms) {
+	public void setHistogramUnivirate(ArrayList<LongIntOpenHashMap> histograms) {
 		this.univirateHistograms = histograms;
 	}
+	
+	public TimeSeriesDataset getTrainingData() {
+		return trainingData;
+	}
+	
+	public int getWindowLength() {
+		return windowLength;
+	}
+	
+	public int getWordLength() {
+		return wordLength;
+	}
+	
+	public double[] getAlphabet() {
+		return alphabet;
+	}
+	
+	public boolean isMeanCorrected() {
+		return meanCorrected;
+	}
+	
+	/**
+	 * @return The SFA which transforms the instances to the words of the histograms.
+	 */
+	public SlidingSFA getSfa() {
+		return sfa;
+	}
 
 	public BOSSClassifier(int windowLength,int wordLength,int alphabetSize, double[] alphabet, boolean meanCorrected) {
 		super(new BOSSAlgorithm(windowLength, alphabetSize,alphabet,wordLength, meanCorrected));
@@ -66,7 +94,7 @@ public class BOSSClassifier extends ASimplifiedTSClassifier<Integer> {
 		this.meanCorrected = meanCorrected;
 		
 		//This is the same window size as used for the training samples
-		slide.setDefaultWindowSize(windowLength);
+		this.sfa = new SlidingSFA(windowLength, wordLength, alphabet.length, meanCorrected);
 	}
 	
 	/*
@@ -81,58 +109,68 @@ public class BOSSClassifier extends ASimplifiedTSClassifier<Integer> {
 		this.wordLength = wordLength;
 		this.alphabetSize = 4;
 		this.alphabet = alphabet;
+		this.meanCorrected = meanCorrected;
 		
 		//This is the same window size as used for the training samples
-		slide.setDefaultWindowSize(windowLength);
+		this.sfa = new SlidingSFA(windowLength, wordLength, alphabet.length, meanCorrected);
 	}
 
 	
 	@Override
 	public Integer predict(double[] univInstance) throws PredictionException {
-		//TODO Exceptions 
-		SFA sfa = new SFA(alphabet, wordLength, meanCorrected);
-		 
+		if(univirateHistograms == null || trainingData == null) {
+			throw new PredictionException("The classifier must be trained before it can predict.");
+		}
 		
-		//create windows for test instance an there for a small dataset with 
-		//windows as instances.
-		TimeSeriesDataset tmp = slide.specialFitTransform(univInstance);
+		// The windows of the test instance are z-normalized by their own and transformed to SFA words in one pass.
+		// c.f.p. 1509 "The BOSS is concerned with time series classification in the presence of noise by Patrick Schfer"
+		long[] words;
 		try {
-			
-			// need to call a new fit for each predict because each window gets z normalized by its own.
-			//c.f.p. 1509 "The BOSS is concerned with time series classification in the presence of noise by Patrick Schfer"
-			for(int instance = 0; instance < tmp.getValues(0).length; instance++) {
-				tmp.getValues(0)[instance] = znorm.fitTransform(tmp.getValues(0)[instance]);
+			words = sfa.transform(univInstance);
+		} catch (IllegalArgumentException e) {
+			throw new PredictionException("Could not transform the instance to SFA words: " + e.getMessage(), e);
+		}
+		return predict(HistogramBuilder.histogramForWords(words));
+	}
+	
+	/**
+	 * Predicts the label of an instance by its histogram of SFA words, e.g. if the words are calculated from
+	 * DFT coefficients which are shared by several classifiers (cf. {@link SlidingSFA#transform(double[][])}).
+	 * @param histogram The histogram of the instance.
+	 * @return The label of the training instance with the nearest histogram.
+	 * @throws PredictionException If the classifier has not been trained.
+	 */
+	public Integer predict(LongIntOpenHashMap histogram) throws PredictionException {
+		if(univirateHistograms == null || trainingData == null) {
+			throw new PredictionException("The classifier must be trained before it can predict.");
+		}
+		// return the target of that instance that had the minimum distance. 
+		return trainingData.getTargets()[nearestNeighbor(histogram, -1)];
+	}
+	
+	/**
+	 * Calculate distance for all histograms for all instances in the training set.
+	 * Remember index of histogram with minimum distance in list because it corresponds to the 
+	 * instance that produced that histogram with minimum distance.
+	 * @param histogram The histogram of the instance.
+	 * @param excluded The index of a training instance which is skipped (e.g. for a leave-one-out estimate) or -1.
+	 * @return The index of the first training instance with the minimal distance.
+	 */
+	public int nearestNeighbor(LongIntOpenHashMap histogram, int excluded) {
+		int indexOFminDistInstance = -1;
+		double minDist = Double.MAX_VALUE;
+		
+		for(int i = 0; i< univirateHistograms.size(); i++) {
+			if(i == excluded) {
+				continue;
 			}
-			
-			TimeSeriesDataset tmpznormedsfaTransformed= sfa.fitTransform(tmp);
-			HashMap<Integer,Integer> histogram = histoBuilder.histogramForInstance(tmpznormedsfaTransformed);
-			
-			
-			// Calculate distance for all histograms for all instances in the training set.
-			// Remember index of histogram with minimum distance in list because it corresponds to the 
-			// instance that produced that histogram with minimum distance. 
-			int indexOFminDistInstance = 0;
-			double minDist = Double.MAX_VALUE;
-			
-			for(int i = 0; i< univirateHistograms.size(); i++) {
-				double dist = BossDistance(histogram, univirateHistograms.get(i));
-				if(dist < minDist) {
-					minDist = dist;
-					indexOFminDistInstance = i;
-				}
+			double dist = bossDistance(histogram, univirateHistograms.get(i), minDist);
+			if(dist < minDist || indexOFminDistInstance < 0) {
+				minDist = dist;
+				indexOFminDistInstance = i;
 			}
-			
-			// return the target of that instance that had the minimum distance. 
-			return trainingData.getTargets()[indexOFminDistInstance];
-			
-		} catch (IllegalArgumentException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (NoneFittedFilterExeception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
 		}
-		return null;
+		return Math.max(indexOFminDistInstance, 0);
 	}
 
 	@Override
@@ -146,9 +184,53 @@ public class BOSSClassifier extends ASimplifiedTSClassifier<Integer> {
 		// For a list of instances a list of predictions are getting created and the list is than returned. 
 		ArrayList<Integer> predictions = new ArrayList<Integer>();
 		for(double[][] matrix: dataset.getValueMatrices()) {
-			for(double[] instance : matrix) {
-				predictions.add(predict(instance));
+			predictions.addAll(Arrays.asList(predict(matrix)));
+		}
+		return predictions;
+	}
+	
+	/**
+	 * Predicts equally sized chunks of the instances in parallel using the number of CPUs of the algorithm.
+	 */
+	private Integer[] predict(double[][] instances) throws PredictionException {
+		Integer[] predictions = new Integer[instances.length];
+		int numThreads = Math.max(1, Math.min(algorithm.getNumCPUs(), instances.length));
+		if(numThreads == 1) {
+			for(int i = 0; i < instances.length; i++) {
+				predictions[i] = predict(instances[i]);
 			}
+			return predictions;
+		}
+		
+		ExecutorService execService = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for(int t = 0; t < numThreads; t++) {
+				final int from = (int) ((long) instances.length * t / numThreads);
+				final int to = (int) ((long) instances.length * (t + 1) / numThreads);
+				futures.add(execService.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws PredictionException {
+						for(int i = from; i < to; i++) {
+							predictions[i] = predict(instances[i]);
+						}
+						return null;
+					}
+				}));
+			}
+			for(Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof PredictionException) {
+				throw (PredictionException) e.getCause();
+			}
+			throw new PredictionException("Could not predict the dataset due to the following exception: " + e.getCause().getMessage(), e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PredictionException("The prediction has been interrupted.", e);
+		} finally {
+			execService.shutdownNow();
 		}
 		return predictions;
 	}
@@ -166,14 +248,28 @@ public class BOSSClassifier extends ASimplifiedTSClassifier<Integer> {
 	 * be equal to the distance of "b" to "a".
 	 * c.f. p. 1516 "The BOSS is concerned with time series classification in the presence of noise by Patrick Schfer" 
 	 */
-	private double BossDistance(HashMap<Integer,Integer> a, HashMap<Integer,Integer> b) {
-		double result = 0;
-		for(Integer key : a.keySet()) {
-			if(b.containsKey(key)) {
-				result += (Math.pow(a.get(key)-b.get(key),2));
-			}
-			else {
-				result += Math.pow(a.get(key),2);
+	public static double bossDistance(LongIntOpenHashMap a, LongIntOpenHashMap b) {
+		return bossDistance(a, b, Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * Calculates the distance as {@link #bossDistance(LongIntOpenHashMap, LongIntOpenHashMap)} but stops as soon as the
+	 * partial sum reaches the given bound (early abandoning) as the histogram can not be the nearest one anymore.
+	 * @param a The distance starting point histogram.
+	 * @param b	The distance destination histogram.
+	 * @param bestSoFar The smallest distance found so far.
+	 * @return The distance between Histogram a and b or a value greater than or equal to bestSoFar if the distance is not smaller.
+	 */
+	public static double bossDistance(LongIntOpenHashMap a, LongIntOpenHashMap b, double bestSoFar) {
+		long result = 0;
+		for(int slot = 0; slot < a.capacity(); slot++) {
+			if(a.isOccupied(slot)) {
+				// Absent words in "b" have the count 0.
+				long difference = a.valueAt(slot) - b.get(a.keyAt(slot));
+				result += difference*difference;
+				if(result >= bestSoFar) {
+					return result;
+				}
 			}
 		}
 		return result;
@@ -0,0 +1,314 @@
+package jaicore.ml.tsc.classifier;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jaicore.basic.TimeOut;
+import jaicore.basic.algorithm.AlgorithmExecutionCanceledException;
+import jaicore.basic.algorithm.IAlgorithmConfig;
+import jaicore.basic.algorithm.events.AlgorithmEvent;
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.ml.tsc.HistogramBuilder;
+import jaicore.ml.tsc.filter.MomentaryDFT;
+import jaicore.ml.tsc.util.LongIntOpenHashMap;
+
+/**
+ * @author agent
+ *	Trains the members of a {@link BOSSEnsembleClassifier} concurrently and keeps only the members whose
+ *	leave-one-out accuracy on the training data is within a factor of the best member's accuracy.
+ *	c.f. p. 1520 "The BOSS is concerned with time series classification in the presence of noise" by Patrick Schaefer
+ *
+ *	The DFT coefficients of the z-normalized sliding windows of the training instances are computed once per
+ *	window length and shared by all members with that window length (which differ in the word length, the
+ *	alphabet or the mean correction). They are released as soon as the last of these members is trained.
+ *
+ *	The pruning already takes place while the members are trained: The leave-one-out estimate of a member is
+ *	stopped as soon as the member can not reach the required accuracy even if all remaining instances were
+ *	classified correctly. As the best accuracy only increases, the resulting ensemble does not depend on the
+ *	order in which the members finish.
+ *
+ *	Once the timeout expires, the training is aborted by interrupting the members that are still running.
+ */
+public class BOSSEnsembleAlgorithm extends ASimplifiedTSCAlgorithm<Integer, BOSSEnsembleClassifier> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BOSSEnsembleAlgorithm.class);
+
+	/**
+	 *  Members are kept if their accuracy is at least 92% of the best accuracy.
+	 *  c.f. p. 1520 "The BOSS is concerned with time series classification in the presence of noise" by Patrick Schaefer
+	 */
+	public static final double DEFAULT_ACCURACY_FACTOR = 0.92;
+
+	private double accuracyFactor;
+
+	private int cpus = 1;
+
+	private TimeOut timeout = new TimeOut(Integer.MAX_VALUE, TimeUnit.SECONDS);
+
+	/**
+	 * Message of the exceptions thrown on a timeout.
+	 */
+	private static final String TIMEOUT_MESSAGE = "Interrupted training due to timeout.";
+
+	/**
+	 * Prefix of the names of the threads training the ensemble members.
+	 */
+	static final String THREAD_NAME_PREFIX = "boss-ensemble-";
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	public BOSSEnsembleAlgorithm() {
+		this(DEFAULT_ACCURACY_FACTOR);
+	}
+
+	/**
+	 * @param accuracyFactor The factor of the best leave-one-out accuracy which a member must reach to be kept.
+	 */
+	public BOSSEnsembleAlgorithm(double accuracyFactor) {
+		if (accuracyFactor < 0 || accuracyFactor > 1) {
+			throw new IllegalArgumentException("The accuracy factor must be within [0,1].");
+		}
+		this.accuracyFactor = accuracyFactor;
+	}
+
+	@Override
+	public BOSSEnsembleClassifier call() throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException, AlgorithmException {
+		final long beginTimeMs = System.currentTimeMillis();
+		final long deadlineMs = beginTimeMs + getTimeout().milliseconds();
+		if (input == null || input.isEmpty()) {
+			throw new IllegalArgumentException("The training dataset must not be null or empty.");
+		}
+		if (input.isMultivariate()) {
+			throw new UnsupportedOperationException("The BOSS ensemble is an univirate classifier.");
+		}
+		final double[][] data = input.getValuesOrNull(0);
+		final int[] targets = input.getTargets();
+		final int seriesLength = data[0].length;
+
+		// Members with a window length longer than the instances can not be trained.
+		final List<BOSSClassifier> candidates = new ArrayList<BOSSClassifier>();
+		for (BOSSClassifier candidate : model.getCandidates()) {
+			if (candidate.getWindowLength() <= seriesLength) {
+				candidates.add(candidate);
+			} else {
+				LOGGER.debug("Skipping member with window length {} exceeding the series length {}.", candidate.getWindowLength(), seriesLength);
+			}
+		}
+		if (candidates.isEmpty()) {
+			throw new AlgorithmException("None of the ensemble members can be trained on series of length " + seriesLength + ".");
+		}
+
+		// The number of DFT coefficients needed per window length and the number of members using them.
+		final Map<Integer, Integer> numberOfCoefficients = new LinkedHashMap<Integer, Integer>();
+		final Map<Integer, AtomicInteger> remainingMembers = new ConcurrentHashMap<Integer, AtomicInteger>();
+		for (BOSSClassifier candidate : candidates) {
+			numberOfCoefficients.merge(candidate.getWindowLength(), candidate.getSfa().getNumberOfDFTCoefficients(), Math::max);
+			remainingMembers.computeIfAbsent(candidate.getWindowLength(), w -> new AtomicInteger()).incrementAndGet();
+		}
+		final Map<Integer, FutureTask<double[][][]>> coefficientCache = new ConcurrentHashMap<Integer, FutureTask<double[][][]>>();
+
+		final AtomicInteger bestCorrect = new AtomicInteger(0);
+		ExecutorService execService = Executors.newFixedThreadPool(Math.max(1, Math.min(this.cpus, candidates.size())), r -> {
+			Thread t = new Thread(r, THREAD_NAME_PREFIX + THREAD_COUNTER.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		@SuppressWarnings("unchecked")
+		Future<Integer>[] futures = new Future[candidates.size()];
+		for (int i = 0; i < candidates.size(); i++) {
+			final BOSSClassifier member = candidates.get(i);
+			futures[i] = execService.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					if (System.currentTimeMillis() > deadlineMs) {
+						throw new TimeoutException(TIMEOUT_MESSAGE);
+					}
+					int windowLength = member.getWindowLength();
+					try {
+						// The first member of a window length computes the coefficients, the others wait for them.
+						FutureTask<double[][][]> coefficients = coefficientCache.computeIfAbsent(windowLength,
+								w -> new FutureTask<double[][][]>(() -> transformAll(data, w, numberOfCoefficients.get(w))));
+						coefficients.run();
+						return trainMember(member, coefficients.get(), targets, bestCorrect);
+					} finally {
+						if (remainingMembers.get(windowLength).decrementAndGet() == 0) {
+							coefficientCache.remove(windowLength);
+						}
+					}
+				}
+			});
+		}
+
+		// Wait for completion, the running members are interrupted if the timeout expires
+		execService.shutdown();
+		final int[] correct = new int[candidates.size()];
+		try {
+			for (int i = 0; i < candidates.size(); i++) {
+				try {
+					correct[i] = futures[i].get(Math.max(0, deadlineMs - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					LOGGER.debug("Aborting the training of the ensemble members due to timeout.");
+					throw new TimeoutException(TIMEOUT_MESSAGE);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof TimeoutException) {
+						throw (TimeoutException) e.getCause();
+					}
+					throw new AlgorithmException(e.getCause(), "Could not train the ensemble member " + i
+							+ " due to the following exception: " + e.getCause().getMessage());
+				}
+			}
+		} finally {
+			execService.shutdownNow();
+		}
+
+		// Members which were pruned early are below the final threshold as well.
+		final double threshold = accuracyFactor * bestCorrect.get();
+		ArrayList<BOSSClassifier> ensemble = new ArrayList<BOSSClassifier>();
+		for (int i = 0; i < candidates.size(); i++) {
+			if (correct[i] >= 0 && correct[i] >= threshold) {
+				ensemble.add(candidates.get(i));
+			}
+		}
+		LOGGER.debug("Kept {} of {} ensemble members using {} threads.", ensemble.size(), candidates.size(), Math.min(this.cpus, candidates.size()));
+
+		model.setEnsemble(ensemble);
+		model.setTrained(true);
+		return model;
+	}
+
+	/**
+	 * @return The DFT coefficients of the windows of every instance.
+	 */
+	static double[][][] transformAll(double[][] data, int windowLength, int numberOfCoefficients) throws InterruptedException {
+		MomentaryDFT dft = new MomentaryDFT(windowLength, numberOfCoefficients, true);
+		double[][][] coefficients = new double[data.length][][];
+		for (int instance = 0; instance < data.length; instance++) {
+			checkInterrupted();
+			coefficients[instance] = dft.transform(data[instance]);
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Builds the histograms of the member and estimates its leave-one-out accuracy.
+	 * @return The number of correctly classified training instances or -1 if the member was pruned.
+	 */
+	private int trainMember(BOSSClassifier member, double[][][] coefficients, int[] targets, AtomicInteger bestCorrect) throws InterruptedException {
+		ArrayList<LongIntOpenHashMap> histograms = new ArrayList<LongIntOpenHashMap>(coefficients.length);
+		for (double[][] instanceCoefficients : coefficients) {
+			checkInterrupted();
+			histograms.add(HistogramBuilder.histogramForWords(member.getSfa().transform(instanceCoefficients)));
+		}
+		member.setHistogramUnivirate(histograms);
+
+		int correct = 0;
+		for (int instance = 0; instance < coefficients.length; instance++) {
+			checkInterrupted();
+			if (targets[member.nearestNeighbor(histograms.get(instance), instance)] == targets[instance]) {
+				correct++;
+			}
+			int remaining = coefficients.length - instance - 1;
+			if (correct + remaining < accuracyFactor * bestCorrect.get()) {
+				member.setHistogramUnivirate(null);
+				return -1;
+			}
+		}
+		bestCorrect.accumulateAndGet(correct, Math::max);
+
+		ArrayList<ArrayList<LongIntOpenHashMap>> multivirateHistograms = new ArrayList<ArrayList<LongIntOpenHashMap>>();
+		multivirateHistograms.add(histograms);
+		member.setMultivirateHistograms(multivirateHistograms);
+		member.setTrainingData(input);
+		member.setTrained(true);
+		return correct;
+	}
+
+	/**
+	 * Lets a member stop as soon as the training has been aborted.
+	 */
+	private static void checkInterrupted() throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException("The training of the ensemble member has been interrupted.");
+		}
+	}
+
+	public double getAccuracyFactor() {
+		return accuracyFactor;
+	}
+
+	@Override
+	public void registerListener(Object listener) {
+		throw new UnsupportedOperationException("The operation to be performed is not supported.");
+	}
+
+	@Override
+	public int getNumCPUs() {
+		return cpus;
+	}
+
+	@Override
+	public void setNumCPUs(int numberOfCPUs) {
+		this.cpus = numberOfCPUs;
+	}
+
+	@Override
+	public void setTimeout(long timeout, TimeUnit timeUnit) {
+		this.timeout = new TimeOut(timeout, timeUnit);
+	}
+
+	@Override
+	public void setTimeout(TimeOut timeout) {
+		this.timeout = timeout;
+	}
+
+	@Override
+	public TimeOut getTimeout() {
+		return timeout;
+	}
+
+	@Override
+	public AlgorithmEvent nextWithException() throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException, AlgorithmException {
+		throw new UnsupportedOperationException("The operation to be performed is not supported.");
+	}
+
+	@Override
+	public IAlgorithmConfig getConfig() {
+		throw new UnsupportedOperationException("The operation to be performed is not supported.");
+	}
+
+	@Override
+	public Iterator<AlgorithmEvent> iterator() {
+		throw new UnsupportedOperationException("The operation to be performed is not supported.");
+	}
+
+	@Override
+	public boolean hasNext() {
+		throw new UnsupportedOperationException("The operation to be performed is not supported.");
+	}
+
+	@Override
+	public AlgorithmEvent next() {
+		throw new UnsupportedOperationException("The operation to be performed is not supported.");
+	}
+
+	@Override
+	public void cancel() {
+		throw new UnsupportedOperationException("The operation to be performed is not supported.");
+	}
+}
@@ -2,9 +2,19 @@ package jaicore.ml.tsc.classifier;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import jaicore.ml.core.exception.PredictionException;
+import jaicore.ml.tsc.HistogramBuilder;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.filter.MomentaryDFT;
 
 
 /*This class is just a sketch for the BOSS ensemble classifier it assumes that the grid
@@ -13,15 +23,26 @@ import jaicore.ml.tsc.dataset.TimeSeriesDataset;
  * and put into the delivered HashMap.
  * cf.p.1520
  * "The BOSS is concerned with time series classification in the presence of noise by Patrick Schfer"
+ *
+ * The members are trained concurrently by the {@link BOSSEnsembleAlgorithm} which also drops the members
+ * whose accuracy is too low.
 */
 public class BOSSEnsembleClassifier extends ASimplifiedTSClassifier<Integer> {
+	/**
+	 * All configured members.
+	 */
+	private ArrayList<BOSSClassifier> candidates = new ArrayList<BOSSClassifier>();
+	
+	/**
+	 * The trained members which are kept after the pruning.
+	 */
 	private ArrayList<BOSSClassifier> ensemble = new ArrayList<BOSSClassifier>(); 
 	
 
 	public BOSSEnsembleClassifier(HashMap<Integer,Integer> windowLengthsandWordLength,int alphabetSize, double[] alphabet, boolean meanCorrected) {
-		super(null);
+		super(new BOSSEnsembleAlgorithm());
 		for(Integer windowLength : windowLengthsandWordLength.keySet()) {
-			ensemble.add(new BOSSClassifier(windowLength,windowLengthsandWordLength.get(windowLength) ,alphabetSize, alphabet, meanCorrected));
+			candidates.add(new BOSSClassifier(windowLength,windowLengthsandWordLength.get(windowLength) ,alphabetSize, alphabet, meanCorrected));
 		}
 		
 	}
@@ -33,36 +54,71 @@ public class BOSSEnsembleClassifier extends ASimplifiedTSClassifier<Integer> {
 	 * the time a alphabet size of 4 works best.
 	 */ 
 	public BOSSEnsembleClassifier(HashMap<Integer,Integer> windowLengthsandWordLength, double[] alphabet, boolean meanCorrected) {
-		super(null);
+		super(new BOSSEnsembleAlgorithm());
 		for(Integer windowLength : windowLengthsandWordLength.keySet()) {
-			ensemble.add(new BOSSClassifier(windowLength,windowLengthsandWordLength.get(windowLength) ,4, alphabet, meanCorrected));
+			candidates.add(new BOSSClassifier(windowLength,windowLengthsandWordLength.get(windowLength) ,4, alphabet, meanCorrected));
 		}
 		
 	}
 	
+	/**
+	 * Creates a member for every combination of window length and word length.
+	 * @param windowLengths The window lengths of the members.
+	 * @param wordLengths The word lengths of the members.
+	 * @param alphabet The alphabet of the members.
+	 * @param meanCorrected Whether the first DFT coefficient is dropped.
+	 * @param accuracyFactor The factor of the best leave-one-out accuracy which a member must reach to be kept.
+	 * @param numOfCPUs The number of threads used for training and prediction.
+	 */
+	public BOSSEnsembleClassifier(int[] windowLengths, int[] wordLengths, double[] alphabet, boolean meanCorrected, double accuracyFactor, int numOfCPUs) {
+		super(new BOSSEnsembleAlgorithm(accuracyFactor));
+		this.algorithm.setNumCPUs(numOfCPUs);
+		for(int windowLength : windowLengths) {
+			for(int wordLength : wordLengths) {
+				candidates.add(new BOSSClassifier(windowLength, wordLength, alphabet.length, alphabet, meanCorrected));
+			}
+		}
+	}
+	
+	public ArrayList<BOSSClassifier> getCandidates() {
+		return candidates;
+	}
+	
+	public ArrayList<BOSSClassifier> getEnsemble() {
+		return ensemble;
+	}
+	
+	public void setEnsemble(ArrayList<BOSSClassifier> ensemble) {
+		this.ensemble = ensemble;
+	}
 	
 	@Override
 	public Integer predict(double[] univInstance) throws PredictionException {
-		//TODO Exceptions
+		if(!isTrained()) {
+			throw new PredictionException("The ensemble must be trained before it can predict.");
+		}
+		Integer[] labels = new Integer[ensemble.size()];
+		for(int member = 0; member < ensemble.size(); member++) {
+			labels[member] = ensemble.get(member).predict(univInstance);
+		}
+		return vote(labels);
+	}
+	
+	/**
+	 * Majority vote of the members where ties are broken in favor of the label which reached the number of votes first.
+	 * @param labels The predictions of the members in the order of the ensemble.
+	 * @return The voted label.
+	 */
+	private static Integer vote(Integer[] labels) {
 		HashMap<Integer,Integer> labelCount = new HashMap<Integer,Integer>(); 
 		int votedLabel = 0;
 		int maxNumberOfVotes = Integer.MIN_VALUE;
 		
-		for(BOSSClassifier boss : ensemble) {
-			Integer label = boss.predict(univInstance);
-			if(labelCount.containsKey(label)) {
-				labelCount.put(label,labelCount.get(label) +1);
-				if(labelCount.get(label)>maxNumberOfVotes) {
-					votedLabel =  label;
-					maxNumberOfVotes = labelCount.get(label);
-				}
-			}
-			else {
-				labelCount.put(label,1);
-				if(labelCount.get(label) > maxNumberOfVotes) {
-					votedLabel =  label;
-					maxNumberOfVotes = labelCount.get(label);
-				}
+		for(Integer label : labels) {
+			int count = labelCount.merge(label, 1, Integer::sum);
+			if(count > maxNumberOfVotes) {
+				votedLabel =  label;
+				maxNumberOfVotes = count;
 			}
 		}
 		
@@ -76,13 +132,102 @@ public class BOSSEnsembleClassifier extends ASimplifiedTSClassifier<Integer> {
 
 	@Override
 	public List<Integer> predict(TimeSeriesDataset dataset) throws PredictionException {
+		if(!isTrained()) {
+			throw new PredictionException("The ensemble must be trained before it can predict.");
+		}
 		ArrayList<Integer> predicts = new ArrayList<Integer>();
 		for(double[][] matrix : dataset.getValueMatrices()) {
-			for(double[] instance : matrix) {
-				predicts.add(predict(instance));
+			Integer[][] labels = predictMembers(matrix);
+			Integer[] instanceLabels = new Integer[ensemble.size()];
+			for(int instance = 0; instance < matrix.length; instance++) {
+				for(int member = 0; member < ensemble.size(); member++) {
+					instanceLabels[member] = labels[member][instance];
+				}
+				predicts.add(vote(instanceLabels));
 			}
 		}
 		return predicts;
 	}
+	
+	/**
+	 * Calculates the predictions of all members for all instances in parallel. The instances are split into chunks
+	 * and the DFT coefficients of the windows of an instance are calculated once for all members with the same
+	 * window length.
+	 * @return The labels per member and instance.
+	 */
+	private Integer[][] predictMembers(double[][] instances) throws PredictionException {
+		final Integer[][] labels = new Integer[ensemble.size()][instances.length];
+		
+		// The members grouped by their window length
+		final Map<Integer, List<Integer>> windowLengths = new LinkedHashMap<Integer, List<Integer>>();
+		for(int member = 0; member < ensemble.size(); member++) {
+			windowLengths.computeIfAbsent(ensemble.get(member).getWindowLength(), w -> new ArrayList<Integer>()).add(member);
+		}
+		
+		final int numThreads = Math.max(1, Math.min(algorithm.getNumCPUs(), instances.length * windowLengths.size()));
+		final int numChunks = Math.max(1, Math.min(numThreads, instances.length));
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for(Map.Entry<Integer, List<Integer>> windowLength : windowLengths.entrySet()) {
+			final List<Integer> members = windowLength.getValue();
+			int numberOfCoefficients = 0;
+			for(int member : members) {
+				numberOfCoefficients = Math.max(numberOfCoefficients, ensemble.get(member).getSfa().getNumberOfDFTCoefficients());
+			}
+			final MomentaryDFT dft = new MomentaryDFT(windowLength.getKey(), numberOfCoefficients, true);
+			for(int chunk = 0; chunk < numChunks; chunk++) {
+				final int from = (int) ((long) instances.length * chunk / numChunks);
+				final int to = (int) ((long) instances.length * (chunk + 1) / numChunks);
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws PredictionException {
+						for(int instance = from; instance < to; instance++) {
+							double[][] coefficients;
+							try {
+								coefficients = dft.transform(instances[instance]);
+							} catch (IllegalArgumentException e) {
+								throw new PredictionException("Could not transform the instance to SFA words: " + e.getMessage(), e);
+							}
+							for(int member : members) {
+								BOSSClassifier boss = ensemble.get(member);
+								labels[member][instance] = boss.predict(HistogramBuilder.histogramForWords(boss.getSfa().transform(coefficients)));
+							}
+						}
+						return null;
+					}
+				});
+			}
+		}
+		
+		if(numThreads == 1) {
+			for(Callable<Void> task : tasks) {
+				try {
+					task.call();
+				} catch (PredictionException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new PredictionException("Could not predict the dataset due to the following exception: " + e.getMessage(), e);
+				}
+			}
+			return labels;
+		}
+		
+		ExecutorService execService = Executors.newFixedThreadPool(numThreads);
+		try {
+			for(Future<Void> future : execService.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof PredictionException) {
+				throw (PredictionException) e.getCause();
+			}
+			throw new PredictionException("Could not predict the dataset due to the following exception: " + e.getCause().getMessage(), e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PredictionException("The prediction has been interrupted.", e);
+		} finally {
+			execService.shutdownNow();
+		}
+		return labels;
+	}
 
 }
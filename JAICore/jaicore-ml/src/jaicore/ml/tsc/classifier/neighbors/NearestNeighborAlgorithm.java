@@ -11,12 +11,14 @@ import jaicore.basic.algorithm.events.AlgorithmEvent;
 import jaicore.basic.algorithm.exceptions.AlgorithmException;
 import jaicore.ml.tsc.classifier.ASimplifiedTSCAlgorithm;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.distances.LowerBoundedDynamicTimeWarping;
 
 /**
  * Training algorithm for the nearest neighbors classifier.
  * 
  * This algorithm just delegates the value matrix, timestamps and targets to the
- * classifier.
+ * classifier. If the classifier uses {@link LowerBoundedDynamicTimeWarping},
+ * the envelopes of the training instances are precomputed.
  * 
  * @author fischor
  */
@@ -48,6 +50,8 @@ public class NearestNeighborAlgorithm extends ASimplifiedTSCAlgorithm<Integer, N
         this.model.setValues(values);
         this.model.setTimestamps(timestamps);
         this.model.setTargets(targets);
+        if (this.model.getDistanceMeasure() instanceof LowerBoundedDynamicTimeWarping)
+            ((LowerBoundedDynamicTimeWarping) this.model.getDistanceMeasure()).fit(values);
 
         return this.model;
     }
@@ -5,11 +5,14 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import jaicore.basic.sets.SetUtil.Pair;
 import jaicore.ml.core.exception.PredictionException;
 import jaicore.ml.tsc.classifier.ASimplifiedTSClassifier;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.distances.Abandonable;
 import jaicore.ml.tsc.distances.ITimeSeriesDistance;
 
 /**
@@ -27,6 +30,14 @@ import jaicore.ml.tsc.distances.ITimeSeriesDistance;
  * </p>
  * From the labels of the instances in <code>NN</code> the label for
  * <code>T</code> is aggregated, e.g. via majority vote.
+ * <p>
+ * The nearest neighbors are collected in a primitive bounded heap. If the
+ * distance measure is {@link Abandonable}, the distance of the current k-th
+ * nearest neighbor is passed to it, so that the calculation for training
+ * instances that cannot be among the nearest neighbors can be abandoned early.
+ * Predictions on a dataset are computed in parallel on the common fork-join
+ * pool, so the distance measure must be thread-safe.
+ * </p>
  * 
  * @author fischor
  */
@@ -74,6 +85,51 @@ public class NearestNeighborClassifier extends ASimplifiedTSClassifier<Integer>
      */
     protected static final NearestNeighborComparator nearestNeighborComparator = new NearestNeighborComparator();
 
+    /**
+     * Number of test instances below which the batch prediction is not split
+     * further among the threads of the fork-join pool.
+     */
+    private static final int MIN_TEST_INSTANCES_PER_TASK = 4;
+
+    /**
+     * Fork-join task that predicts the test instances
+     * <code>[from, to)</code> and writes the predictions to the prediction array.
+     * Every leaf task uses a single nearest neighbor heap for all its test
+     * instances.
+     */
+    private class PredictionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -4424506460402236052L;
+
+        private final double[][] testInstances;
+        private final int[] predictions;
+        private final int from;
+        private final int to;
+        private final int minTestInstancesPerTask;
+
+        PredictionTask(double[][] testInstances, int[] predictions, int from, int to, int minTestInstancesPerTask) {
+            this.testInstances = testInstances;
+            this.predictions = predictions;
+            this.from = from;
+            this.to = to;
+            this.minTestInstancesPerTask = minTestInstancesPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= minTestInstancesPerTask) {
+                NearestNeighborHeap nearestNeighbors = new NearestNeighborHeap(k);
+                for (int i = from; i < to; i++) {
+                    predictions[i] = calculatePrediction(testInstances[i], nearestNeighbors);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PredictionTask(testInstances, predictions, from, middle, minTestInstancesPerTask),
+                        new PredictionTask(testInstances, predictions, middle, to, minTestInstancesPerTask));
+            }
+        }
+    }
+
     /** Number of neighbors. */
     private int k;
 
@@ -181,10 +237,18 @@ public class NearestNeighborClassifier extends ASimplifiedTSClassifier<Integer>
         if (testInstances == null) {
             throw new PredictionException("Can't predict on empty dataset.");
         }
-        // Calculate predictions.
-        ArrayList<Integer> predictions = new ArrayList<>(dataset.getNumberOfInstances());
-        for (double[] testInstance : testInstances) {
-            int prediction = calculatePrediction(testInstance);
+        // Calculate predictions in parallel. Split such that every thread gets
+        // several tasks for load balancing.
+        int numberOfTestInstances = testInstances.length;
+        int[] predictionArray = new int[numberOfTestInstances];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int minTestInstancesPerTask = Math.max(MIN_TEST_INSTANCES_PER_TASK,
+                numberOfTestInstances / (4 * pool.getParallelism()));
+        pool.invoke(new PredictionTask(testInstances, predictionArray, 0, numberOfTestInstances,
+                minTestInstancesPerTask));
+
+        ArrayList<Integer> predictions = new ArrayList<>(numberOfTestInstances);
+        for (int prediction : predictionArray) {
             predictions.add(prediction);
         }
         return predictions;
@@ -197,11 +261,111 @@ public class NearestNeighborClassifier extends ASimplifiedTSClassifier<Integer>
      * @return
      */
     protected int calculatePrediction(double[] testInstance) {
+        return calculatePrediction(testInstance, new NearestNeighborHeap(k));
+    }
+
+    /**
+     * Calculates predicition on a single test instance using the given heap to
+     * collect the nearest neighbors.
+     * 
+     * @param testInstance     The test instance (not null assured within class).
+     * @param nearestNeighbors Heap to collect the nearest neighbors in. Cleared
+     *                         before use.
+     * @return Class prediction for the instance.
+     */
+    private int calculatePrediction(double[] testInstance, NearestNeighborHeap nearestNeighbors) {
         // Determine the k nearest neighbors for the test instance.
-        PriorityQueue<Pair<Integer, Double>> nearestNeighbors = calculateNearestNeigbors(testInstance);
+        calculateNearestNeigbors(testInstance, nearestNeighbors);
         // Vote on determined neighbors to create prediction and return prediction.
-        int prediction = vote(nearestNeighbors);
-        return prediction;
+        return vote(nearestNeighbors);
+    }
+
+    /**
+     * Determine the k nearest neighbors for a test instance and store them in
+     * the given heap. If the distance measure is {@link Abandonable}, the
+     * distance of the current k-th nearest neighbor is used as limit for the
+     * distance calculation.
+     * 
+     * @param testInstance     The time series to determine the k nearest
+     *                         neighbors for.
+     * @param nearestNeighbors Heap to store the nearest neighbors in. Cleared
+     *                         before use.
+     */
+    private void calculateNearestNeigbors(double[] testInstance, NearestNeighborHeap nearestNeighbors) {
+        nearestNeighbors.clear();
+        int numberOfTrainInstances = values.length;
+        if (distanceMeasure instanceof Abandonable) {
+            Abandonable abandonableDistanceMeasure = (Abandonable) distanceMeasure;
+            for (int i = 0; i < numberOfTrainInstances; i++) {
+                double d = abandonableDistanceMeasure.distance(testInstance, values[i],
+                        nearestNeighbors.getKthDistance());
+                nearestNeighbors.offer(d, targets[i]);
+            }
+        } else {
+            for (int i = 0; i < numberOfTrainInstances; i++) {
+                nearestNeighbors.offer(distanceMeasure.distance(testInstance, values[i]), targets[i]);
+            }
+        }
+    }
+
+    /**
+     * Performs a vote on the nearest neighbors collected in a heap with the same
+     * semantics as {@link #vote(PriorityQueue)}. Ties are broken in favor of the
+     * smaller class. The heap must be cleared before it is used again.
+     * 
+     * @param nearestNeighbors Heap of the nearest neighbors.
+     * @return Result of the vote, i.e. the predicted class.
+     */
+    private int vote(NearestNeighborHeap nearestNeighbors) {
+        // Sort by distance descending, such that the i-th neighbor gets the weight
+        // i + 1 for the stepwise vote.
+        nearestNeighbors.sortDescending();
+        int numberOfNeighbors = nearestNeighbors.size();
+        double maxWeightOfVotes = voteType == VoteType.WEIGHTED_PROPORTIONAL_TO_DISTANCE ? Double.MIN_VALUE
+                : Double.NEGATIVE_INFINITY;
+        int mostVotedTargetClass = -1;
+        for (int i = 0; i < numberOfNeighbors; i++) {
+            int targetClass = nearestNeighbors.getTarget(i);
+            // Only aggregate on the first occurrence of each class.
+            boolean aggregated = false;
+            for (int j = 0; j < i && !aggregated; j++) {
+                aggregated = nearestNeighbors.getTarget(j) == targetClass;
+            }
+            if (aggregated)
+                continue;
+            double votesOnTargetClass = 0;
+            for (int j = i; j < numberOfNeighbors; j++) {
+                if (nearestNeighbors.getTarget(j) == targetClass)
+                    votesOnTargetClass += weightOfVote(nearestNeighbors, j);
+            }
+            if (votesOnTargetClass > maxWeightOfVotes
+                    || (votesOnTargetClass == maxWeightOfVotes && targetClass < mostVotedTargetClass)) {
+                maxWeightOfVotes = votesOnTargetClass;
+                mostVotedTargetClass = targetClass;
+            }
+        }
+        return mostVotedTargetClass;
+    }
+
+    /**
+     * Weight of the vote of the i-th neighbor in a heap sorted by distance
+     * descending according to the vote type.
+     * 
+     * @param nearestNeighbors Heap of the nearest neighbors sorted by distance
+     *                         descending.
+     * @param i                Index of the neighbor.
+     * @return Weight of the vote.
+     */
+    private double weightOfVote(NearestNeighborHeap nearestNeighbors, int i) {
+        switch (voteType) {
+        case WEIGHTED_STEPWISE:
+            return i + 1;
+        case WEIGHTED_PROPORTIONAL_TO_DISTANCE:
+            return 1.0 / nearestNeighbors.getDistance(i);
+        case MAJORITY:
+        default:
+            return 1;
+        }
     }
 
     /**
@@ -0,0 +1,153 @@
+package jaicore.ml.tsc.classifier.neighbors;
+
+/**
+ * Bounded max-heap of primitive <code>(distance, target)</code>-pairs used to
+ * collect the k nearest neighbors of a test instance without allocating an
+ * object per training instance.
+ * 
+ * The root of the heap is the neighbor with the largest distance, i.e. the
+ * current k-th nearest neighbor once the heap is full. A heap instance can be
+ * reused for several test instances via {@link #clear()}. Instances are not
+ * thread-safe.
+ * 
+ * @author agent
+ */
+class NearestNeighborHeap {
+
+    /** Maximum number of neighbors kept. */
+    private final int k;
+
+    /** Distances of the neighbors in heap order. */
+    private final double[] distances;
+
+    /** Targets of the neighbors in heap order. */
+    private final int[] targets;
+
+    /** Number of neighbors currently kept. */
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     * 
+     * @param k Maximum number of neighbors kept.
+     */
+    NearestNeighborHeap(int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("The number of neighbors must be positive.");
+        this.k = k;
+        this.distances = new double[k];
+        this.targets = new int[k];
+    }
+
+    /**
+     * Removes all neighbors.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return Number of neighbors currently kept.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the distance a candidate must fall below in order to be one of the
+     * k nearest neighbors.
+     * 
+     * @return The distance of the k-th nearest neighbor or
+     *         {@link Double#POSITIVE_INFINITY} if less than k neighbors are kept.
+     */
+    double getKthDistance() {
+        return size < k ? Double.POSITIVE_INFINITY : distances[0];
+    }
+
+    /**
+     * Offers a neighbor to the heap. If the heap is full, the neighbor replaces
+     * the current k-th nearest neighbor iff its distance is strictly smaller.
+     * 
+     * @param distance Distance of the neighbor to the test instance.
+     * @param target   Target of the neighbor.
+     */
+    void offer(double distance, int target) {
+        if (size < k) {
+            // Sift up.
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distances[parent] >= distance)
+                    break;
+                distances[i] = distances[parent];
+                targets[i] = targets[parent];
+                i = parent;
+            }
+            distances[i] = distance;
+            targets[i] = target;
+        } else if (distance < distances[0]) {
+            siftDown(0, distance, target, size);
+        }
+    }
+
+    /**
+     * Sorts the kept neighbors by distance descending in place. Afterwards the
+     * heap property is lost, so the heap must be cleared before it is used again.
+     */
+    void sortDescending() {
+        // Heap sort: repeatedly move the root (maximum) to the end and sort the
+        // remaining heap, then reverse.
+        for (int end = size - 1; end > 0; end--) {
+            double rootDistance = distances[0];
+            int rootTarget = targets[0];
+            siftDown(0, distances[end], targets[end], end);
+            distances[end] = rootDistance;
+            targets[end] = rootTarget;
+        }
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            double d = distances[i];
+            distances[i] = distances[j];
+            distances[j] = d;
+            int t = targets[i];
+            targets[i] = targets[j];
+            targets[j] = t;
+        }
+    }
+
+    /**
+     * Distance of the i-th neighbor in the current order.
+     * 
+     * @param i Index of the neighbor.
+     * @return Distance of the neighbor.
+     */
+    double getDistance(int i) {
+        return distances[i];
+    }
+
+    /**
+     * Target of the i-th neighbor in the current order.
+     * 
+     * @param i Index of the neighbor.
+     * @return Target of the neighbor.
+     */
+    int getTarget(int i) {
+        return targets[i];
+    }
+
+    private void siftDown(int i, double distance, int target, int heapSize) {
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < heapSize && distances[right] > distances[child])
+                child = right;
+            if (distance >= distances[child])
+                break;
+            distances[i] = distances[child];
+            targets[i] = targets[child];
+            i = child;
+        }
+        distances[i] = distance;
+        targets[i] = target;
+    }
+}
@@ -0,0 +1,28 @@
+package jaicore.ml.tsc.classifier.shapelets;
+
+/**
+ * Criterion deciding after each iteration of the gradient descent performed by
+ * the {@link LearnShapeletsAlgorithm} whether the training should be stopped
+ * based on the loss on a validation dataset.
+ *
+ * @author agent
+ *
+ */
+@FunctionalInterface
+public interface IEarlyStoppingCriterion {
+	/**
+	 * Decides whether the training should be stopped.
+	 *
+	 * @param iteration
+	 *            The iteration which has just been finished (starting at 0)
+	 * @param validationLoss
+	 *            The validation loss after the iteration
+	 * @param bestIteration
+	 *            The iteration achieving the lowest validation loss so far
+	 * @param bestValidationLoss
+	 *            The lowest validation loss so far
+	 * @return Returns true if the training should be stopped
+	 */
+	boolean shouldStop(final int iteration, final double validationLoss, final int bestIteration,
+			final double bestValidationLoss);
+}
@@ -1,12 +1,18 @@
 package jaicore.ml.tsc.classifier.shapelets;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -133,6 +139,63 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 	 */
 	private double gamma = 0.5;
 
+	/**
+	 * The number of instances whose gradients are averaged for one update of the
+	 * parameters. A batch size of 1 performs the original stochastic gradient
+	 * descent updating the parameters after each instance.
+	 */
+	private int batchSize = 1;
+
+	/**
+	 * Number of CPUs used to calculate the gradients of the instances of a
+	 * mini-batch.
+	 */
+	private int cpus = 1;
+
+	/**
+	 * Dataset whose loss is evaluated after each iteration for the early stopping.
+	 */
+	private TimeSeriesDataset validationData;
+
+	/**
+	 * Criterion deciding based on the validation loss whether the training should
+	 * be stopped. Early stopping is disabled if not set.
+	 */
+	private IEarlyStoppingCriterion earlyStoppingCriterion;
+
+	/**
+	 * The normalized values of the validation dataset used within the training.
+	 */
+	private double[][] validationMatrix;
+
+	/**
+	 * The binarized targets of the validation dataset used within the training.
+	 */
+	private int[][] validationY;
+
+	/**
+	 * The number of segments per scale.
+	 */
+	private int[] numberOfSegments;
+
+	/**
+	 * Offsets of the scales within the flat buffers storing the segment-wise terms
+	 * <code>D</code> and <code>Xi</code> of one instance.
+	 */
+	private int[] segmentOffsets;
+
+	/**
+	 * Offsets of the scales within the flat buffers storing the shapelet-wise
+	 * terms <code>Psi</code> and <code>M_hat</code> of one instance.
+	 */
+	private int[] shapeletOffsets;
+
+	/**
+	 * Offsets of the scales within the flat buffers storing the gradients of the
+	 * shapelet values.
+	 */
+	private int[] shapeletValueOffsets;
+
 	/**
 	 * Constructor of the algorithm to train a {@link LearnShapeletsClassifier}.
 	 * 
@@ -271,7 +334,7 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 						"Could not initialize matrix S using kMeans clustering for r={} due to the following problem: {}. "
 								+ "Using zero matrix instead (possibly leading to a poor training performance).",
 						r, e.getMessage());
-				result[r] = new double[this.K][r * this.minShapeLength];
+				result[r] = new double[this.K][(r + 1) * this.minShapeLength];
 				continue;
 			}
 			Instances clusterCentroids = kMeans.getClusterCentroids();
@@ -343,8 +406,30 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 				this.K = 1;
 		}
 
-		LOGGER.info("Parameters: k={}, learningRate={}, reg={}, r={}, minShapeLength={}, maxIter={}, Q={}, C={}", K,
-				learningRate, regularization, scaleR, minShapeLength, maxIter, Q, C);
+		// Prepare validation data used for the early stopping
+		this.validationMatrix = null;
+		this.validationY = null;
+		if (this.validationData != null && this.earlyStoppingCriterion != null) {
+			final double[][] validationValues = this.validationData.getValuesOrNull(0);
+			if (validationValues == null || validationValues.length == 0 || validationValues[0].length != this.Q)
+				throw new IllegalArgumentException(
+						"The validation dataset must contain time series of the same length as the training dataset!");
+			final int[] validationTargets = this.validationData.getTargets();
+
+			this.validationMatrix = new double[validationValues.length][];
+			this.validationY = new int[validationValues.length][this.C];
+			for (int i = 0; i < validationValues.length; i++) {
+				// Normalized as done for the prediction
+				this.validationMatrix[i] = TimeSeriesUtil.zNormalize(validationValues[i], USE_BIAS_CORRECTION);
+				int classIndex = occuringClasses.indexOf(validationTargets[i]);
+				if (classIndex >= 0)
+					this.validationY[i][classIndex] = 1;
+			}
+		}
+
+		LOGGER.info(
+				"Parameters: k={}, learningRate={}, reg={}, r={}, minShapeLength={}, maxIter={}, batchSize={}, Q={}, C={}",
+				K, learningRate, regularization, scaleR, minShapeLength, maxIter, batchSize, Q, C);
 
 		// Initialization
 		double[][][] S;
@@ -369,7 +454,12 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 
 		// Perform stochastic gradient descent
 		LOGGER.debug("Starting training for {} iterations...", this.maxIter);
-		this.performSGD(W, W_hist, W_0, W_0_hist, S, S_hist, dataMatrix, Y, beginTime, targetMatrix);
+		try {
+			this.performSGD(W, W_hist, W_0, W_0_hist, S, S_hist, dataMatrix, Y, beginTime, targetMatrix);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AlgorithmException(e, "The training of the LearnShapelets model has been interrupted.");
+		}
 		LOGGER.debug("Finished training.");
 
 		// Update model
@@ -408,8 +498,15 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 
 	/**
 	 * Method performing the stochastic gradient descent to learn the weights and
-	 * shapelets.
-	 * 
+	 * shapelets. If the batch size is greater than 1, the gradients of the
+	 * instances of each mini-batch are calculated in parallel using the given
+	 * number of CPUs and averaged for one update of the parameters. The result is
+	 * deterministic for a fixed seed and number of CPUs.
+	 *
+	 * If a validation dataset and an early stopping criterion are given, the
+	 * validation loss is calculated after each iteration and the parameters
+	 * achieving the lowest validation loss are kept.
+	 *
 	 * @param W
 	 *            The weight matrix
 	 * @param W_hist
@@ -428,32 +525,30 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 	 *            The binarized target matrix
 	 * @param beginTime
 	 *            The begin time used to check for the timeout
+	 * @throws InterruptedException
+	 *             Thrown if the training has been interrupted
+	 * @throws AlgorithmException
+	 *             Thrown if the gradients of a mini-batch could not be calculated
 	 */
 	public void performSGD(final double[][][] W, final double[][][] W_hist, final double[] W_0, final double[] W_0_hist,
 			final double[][][] S, final double[][][] S_hist, final double[][] dataMatrix, final int[][] Y,
-			final long beginTime, final int[] targets) {
-		// Define the "helper" matrices used for the gradient calculations
-		double[][][][] D = new double[this.scaleR][][][];
-		double[][][][] Xi = new double[this.scaleR][][][];
-		double[][][][] Phi = new double[this.scaleR][][][];
-
-		int[] numberOfSegments = new int[this.scaleR];
-
-		for (int r = 0; r < this.scaleR; r++) {
-			numberOfSegments[r] = getNumberOfSegments(this.Q, this.minShapeLength, r);
-			D[r] = new double[this.I][this.K][numberOfSegments[r]];
-			Xi[r] = new double[this.I][this.K][numberOfSegments[r]];
-			Phi[r] = new double[this.I][this.K][numberOfSegments[r]];
+			final long beginTime, final int[] targets) throws InterruptedException, AlgorithmException {
+		this.initializeOffsets(S);
+
+		// Each thread uses its own buffers for the terms and gradients of the
+		// instances which are reused for all iterations
+		final int numThreads = Math.max(1, Math.min(this.cpus, this.batchSize));
+		final Workspace[] workspaces = new Workspace[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			workspaces[t] = new Workspace(this.segmentOffsets[this.scaleR], this.shapeletOffsets[this.scaleR],
+					this.shapeletValueOffsets[this.scaleR], this.C, this.Q);
 		}
 
-		double[][][] Psi = new double[this.scaleR][this.I][this.K];
-		double[][][] M_hat = new double[this.scaleR][this.I][this.K];
-		double[][] Theta = new double[this.I][this.C];
-
 		List<Integer> indices = IntStream.range(0, this.I).boxed().collect(Collectors.toList());
 
 		// Stochastic gradient descent
-		LOGGER.debug("Starting training for {} iterations...", this.maxIter);
+		LOGGER.debug("Starting training for {} iterations using a batch size of {} and {} threads...", this.maxIter,
+				this.batchSize, numThreads);
 
 		// Initialize velocities used within training with zeros
 		double[][][] velocitiesW = new double[W.length][W[0].length][W[0][0].length];
@@ -466,116 +561,486 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 			}
 		}
 
-		for (int it = 0; it < this.maxIter; it++) {
+		// Parameters achieving the lowest validation loss
+		final boolean useEarlyStopping = this.validationMatrix != null && this.earlyStoppingCriterion != null;
+		double[][][] bestS = null;
+		double[][][] bestW = null;
+		double[] bestW_0 = null;
+		double bestValidationLoss = Double.POSITIVE_INFINITY;
+		int bestIteration = -1;
 
-			// Shuffle instances
-			if (this.useInstanceReordering) {
-				indices = this.shuffleAccordingToAlternatingClassScheme(indices, targets, new Random(this.seed + it));
-			} else
-				Collections.shuffle(indices, new Random(this.seed + it));
+		final ExecutorService execService = numThreads > 1 ? Executors.newFixedThreadPool(numThreads) : null;
+		try {
+			for (int it = 0; it < this.maxIter; it++) {
+
+				// Shuffle instances
+				if (this.useInstanceReordering) {
+					indices = this.shuffleAccordingToAlternatingClassScheme(indices, targets,
+							new Random(this.seed + it));
+				} else
+					Collections.shuffle(indices, new Random(this.seed + it));
+
+				if (this.batchSize == 1) {
+					for (int idx = 0; idx < this.I; idx++) {
+						int i = indices.get(idx);
+						this.updateStochastic(dataMatrix[i], Y[i], W, W_hist, W_0, W_0_hist, S, S_hist, velocitiesW,
+								velocitiesW0, velocitiesS, workspaces[0]);
+					}
+				} else {
+					for (int from = 0; from < this.I; from += this.batchSize) {
+						this.updateMiniBatch(indices, from, Math.min(this.I, from + this.batchSize), dataMatrix, Y, W,
+								W_hist, W_0, W_0_hist, S, S_hist, velocitiesW, velocitiesW0, velocitiesS, workspaces,
+								execService);
+					}
+				}
 
-			for (int idx = 0; idx < this.I; idx++) {
-				int i = indices.get(idx);
+				if (useEarlyStopping) {
+					double validationLoss = this.calculateLoss(S, W, W_0, this.validationMatrix, this.validationY,
+							workspaces[0]);
+					LOGGER.debug("Validation loss after iteration {}: {}", it, validationLoss);
+
+					if (validationLoss < bestValidationLoss) {
+						bestValidationLoss = validationLoss;
+						bestIteration = it;
+						bestS = copyTensor(S, bestS);
+						bestW = copyTensor(W, bestW);
+						bestW_0 = Arrays.copyOf(W_0, W_0.length);
+					}
+					if (this.earlyStoppingCriterion.shouldStop(it, validationLoss, bestIteration, bestValidationLoss)) {
+						LOGGER.debug("Stopping training after iteration {} due to the early stopping criterion.", it);
+						break;
+					}
+				}
 
-				// Pre-compute terms
-				for (int r = 0; r < this.scaleR; r++) {
+				if (it % 10 == 0) {
+					LOGGER.debug("Iteration {}/{}", it, this.maxIter);
 
-					long kBound = S[r].length;
-					for (int k = 0; k < kBound; k++) { // this.K
+					long currTime = System.currentTimeMillis();
+					if (currTime - beginTime > this.timeout.milliseconds()) {
+						LOGGER.debug("Stopping training due to timeout.");
+						break;
+					}
+				}
+			}
+		} finally {
+			if (execService != null)
+				execService.shutdownNow();
+		}
 
-						int J_r = numberOfSegments[r];
+		// Restore the parameters achieving the lowest validation loss
+		if (bestS != null) {
+			LOGGER.debug("Using the parameters of iteration {} with the validation loss {}.", bestIteration,
+					bestValidationLoss);
+			copyTensor(bestS, S);
+			copyTensor(bestW, W);
+			System.arraycopy(bestW_0, 0, W_0, 0, W_0.length);
+		}
+	}
 
-						for (int j = 0; j < J_r; j++) {
+	/**
+	 * Buffers for the terms and the accumulated gradients of the instances used by
+	 * one thread. All tensors are stored in flat arrays indexed by the offsets of
+	 * the scales.
+	 */
+	private static class Workspace {
+		/**
+		 * Distances of all segments to all shapelets.
+		 */
+		private final double[] D;
+		/**
+		 * Exponential terms of the distances used for the soft minimum.
+		 */
+		private final double[] Xi;
+		/**
+		 * Sums of the exponential terms per shapelet.
+		 */
+		private final double[] Psi;
+		/**
+		 * Soft minimum distances per shapelet.
+		 */
+		private final double[] M_hat;
+		/**
+		 * Differences of the targets and the predicted probabilities per class.
+		 */
+		private final double[] Theta;
+		/**
+		 * Buffer for the terms of the segments of one shapelet used for the shapelet
+		 * gradient.
+		 */
+		private final double[] distDiff;
+		/**
+		 * Accumulated gradients of the weights (without regularization) indexed by
+		 * <code>c * numberOfShapelets + shapelet</code>.
+		 */
+		private final double[] gradW;
+		/**
+		 * Accumulated gradients of the biases.
+		 */
+		private final double[] gradW_0;
+		/**
+		 * Accumulated gradients of the shapelet values.
+		 */
+		private final double[] gradS;
+
+		private Workspace(final int numberOfSegmentTerms, final int numberOfShapelets,
+				final int numberOfShapeletValues, final int numberOfClasses, final int maxNumberOfSegments) {
+			this.D = new double[numberOfSegmentTerms];
+			this.Xi = new double[numberOfSegmentTerms];
+			this.Psi = new double[numberOfShapelets];
+			this.M_hat = new double[numberOfShapelets];
+			this.Theta = new double[numberOfClasses];
+			this.distDiff = new double[maxNumberOfSegments];
+			this.gradW = new double[numberOfClasses * numberOfShapelets];
+			this.gradW_0 = new double[numberOfClasses];
+			this.gradS = new double[numberOfShapeletValues];
+		}
+	}
 
-							double newDValue = calculateD(S, minShapeLength, r, dataMatrix[i], k, j);
-							D[r][i][k][j] = newDValue;
-							newDValue = Math.exp(ALPHA * newDValue);
-							Xi[r][i][k][j] = newDValue;
+	/**
+	 * Calculates the number of segments per scale and the offsets of the scales
+	 * within the flat buffers of a {@link Workspace}. The last offset of each
+	 * array is the total size of the buffer.
+	 *
+	 * @param S
+	 *            The shapelet matrix
+	 */
+	private void initializeOffsets(final double[][][] S) {
+		this.numberOfSegments = new int[this.scaleR];
+		this.segmentOffsets = new int[this.scaleR + 1];
+		this.shapeletOffsets = new int[this.scaleR + 1];
+		this.shapeletValueOffsets = new int[this.scaleR + 1];
+		for (int r = 0; r < this.scaleR; r++) {
+			this.numberOfSegments[r] = getNumberOfSegments(this.Q, this.minShapeLength, r);
+			this.segmentOffsets[r + 1] = this.segmentOffsets[r] + S[r].length * this.numberOfSegments[r];
+			this.shapeletOffsets[r + 1] = this.shapeletOffsets[r] + S[r].length;
+			this.shapeletValueOffsets[r + 1] = this.shapeletValueOffsets[r]
+					+ S[r].length * (r + 1) * this.minShapeLength;
+		}
+	}
 
-						}
+	/**
+	 * Calculates the distances <code>D</code> of all segments of the given
+	 * instance to all shapelets, the terms <code>Xi</code> and <code>Psi</code> and
+	 * the soft minimum distances <code>M_hat</code> into the buffers of the given
+	 * workspace.
+	 */
+	private void calculateSoftMinimumDistances(final double[][][] S, final double[] instance,
+			final Workspace workspace) {
+		final double[] D = workspace.D;
+		final double[] Xi = workspace.Xi;
+		for (int r = 0; r < this.scaleR; r++) {
+			final int J_r = this.numberOfSegments[r];
+			final int L = (r + 1) * this.minShapeLength;
+			for (int k = 0; k < S[r].length; k++) {
+				final double[] shapelet = S[r][k];
+				final int offset = this.segmentOffsets[r] + k * J_r;
 
-						double newPsiValue = 0;
-						double newMHatValue = 0;
+				for (int j = 0; j < J_r; j++) {
+					// See calculateD
+					double newDValue = 0;
+					for (int l = 0; l < L; l++) {
+						double diff = instance[j + l] - shapelet[l];
+						newDValue += diff * diff;
+					}
+					newDValue /= (double) L;
+					D[offset + j] = newDValue;
+					Xi[offset + j] = Math.exp(ALPHA * newDValue);
+				}
 
-						for (int j = 0; j < J_r; j++) {
-							newPsiValue += Xi[r][i][k][j];
-							newMHatValue += D[r][i][k][j] * Xi[r][i][k][j];
-						}
-						Psi[r][i][k] = newPsiValue;
+				double newPsiValue = 0;
+				double newMHatValue = 0;
+				for (int j = 0; j < J_r; j++) {
+					newPsiValue += Xi[offset + j];
+					newMHatValue += D[offset + j] * Xi[offset + j];
+				}
+				workspace.Psi[this.shapeletOffsets[r] + k] = newPsiValue;
+				workspace.M_hat[this.shapeletOffsets[r] + k] = newMHatValue / newPsiValue;
+			}
+		}
+	}
 
-						newMHatValue /= Psi[r][i][k];
+	/**
+	 * Calculates the term <code>(1 + ALPHA * (D - M_hat)) * Xi</code> for all
+	 * segments of the <code>k</code>-th shapelet of scale <code>r</code> into the
+	 * <code>distDiff</code> buffer of the workspace.
+	 */
+	private void calculateDistDiff(final int r, final int k, final Workspace workspace) {
+		final int J_r = this.numberOfSegments[r];
+		final int offset = this.segmentOffsets[r] + k * J_r;
+		final double mHat = workspace.M_hat[this.shapeletOffsets[r] + k];
+		for (int j = 0; j < J_r; j++) {
+			workspace.distDiff[j] = workspace.Xi[offset + j] * (1d + ALPHA * (workspace.D[offset + j] - mHat));
+		}
+	}
 
-						M_hat[r][i][k] = newMHatValue;
-					}
+	/**
+	 * Updates the parameters by the gradients of a single instance as proposed in
+	 * the paper.
+	 */
+	private void updateStochastic(final double[] instance, final int[] y, final double[][][] W,
+			final double[][][] W_hist, final double[] W_0, final double[] W_0_hist, final double[][][] S,
+			final double[][][] S_hist, final double[][][] velocitiesW, final double[] velocitiesW0,
+			final double[][][] velocitiesS, final Workspace workspace) {
+		// Pre-compute terms
+		this.calculateSoftMinimumDistances(S, instance, workspace);
+		final double[] M_hat = workspace.M_hat;
+		final double[] Theta = workspace.Theta;
+
+		for (int c = 0; c < this.C; c++) {
+			double newThetaValue = 0;
+			for (int r = 0; r < this.scaleR; r++) {
+				for (int k = 0; k < S[r].length; k++) {
+					newThetaValue += M_hat[this.shapeletOffsets[r] + k] * W[c][r][k];
 				}
+			}
+			Theta[c] = y[c] - MathUtil.sigmoid(newThetaValue);
+		}
+
+		// Learn shapelets and classification weights
+		for (int c = 0; c < this.C; c++) {
+			double gradW_0 = Theta[c];
+
+			for (int r = 0; r < this.scaleR; r++) {
+				for (int k = 0; k < S[r].length; k++) { // this differs from paper: this.K instead of
+														// shapelet length
+					final int shapeletIndex = this.shapeletOffsets[r] + k;
+					double wStep = (-1d) * Theta[c] * M_hat[shapeletIndex]
+							+ 2d * this.regularization / (this.I) * W[c][r][k];
+					velocitiesW[c][r][k] = this.gamma * velocitiesW[c][r][k] + this.learningRate * wStep;
+					W_hist[c][r][k] += wStep * wStep;
+
+					W[c][r][k] -= (velocitiesW[c][r][k] / Math.sqrt(W_hist[c][r][k] + EPS));
+
+					int J_r = this.numberOfSegments[r];
+
+					double phiDenominator = 1d / ((r + 1d) * this.minShapeLength * workspace.Psi[shapeletIndex]);
+
+					this.calculateDistDiff(r, k, workspace);
+					final double[] distDiff = workspace.distDiff;
 
-				for (int c = 0; c < this.C; c++) {
-					double newThetaValue = 0;
-					for (int r = 0; r < this.scaleR; r++) {
-						for (int k = 0; k < this.K; k++) {
+					for (int l = 0; l < (r + 1) * this.minShapeLength; l++) {
+						double shapeletDiff = 0;
+						for (int j = 0; j < J_r; j++)
+							shapeletDiff += distDiff[j] * (S[r][k][l] - instance[j + l]);
 
-							newThetaValue += M_hat[r][i][k] * W[c][r][k];
-						}
+						double sStep = (-1d) * gradW_0 * shapeletDiff * W[c][r][k] * phiDenominator;
+
+						velocitiesS[r][k][l] = this.gamma * velocitiesS[r][k][l] + this.learningRate * sStep;
+						S_hist[r][k][l] += sStep * sStep;
+
+						S[r][k][l] -= velocitiesS[r][k][l] / Math.sqrt(S_hist[r][k][l] + EPS);
 					}
-					Theta[i][c] = Y[i][c] - MathUtil.sigmoid(newThetaValue);
 				}
+			}
 
-				// Learn shapelets and classification weights
-				for (int c = 0; c < this.C; c++) {
-					double gradW_0 = Theta[i][c];
-
-					for (int r = 0; r < this.scaleR; r++) {
-						for (int k = 0; k < S[r].length; k++) { // this differs from paper: this.K instead of
-																// shapelet length
-							double wStep = (-1d) * Theta[i][c] * M_hat[r][i][k]
-									+ 2d * this.regularization / (this.I) * W[c][r][k];
-							velocitiesW[c][r][k] = this.gamma * velocitiesW[c][r][k] + this.learningRate * wStep;
-							W_hist[c][r][k] += wStep * wStep;
+			velocitiesW0[c] = this.gamma * velocitiesW0[c] + this.learningRate * gradW_0;
+			W_0_hist[c] += gradW_0 * gradW_0;
+			W_0[c] += velocitiesW0[c] / Math.sqrt(W_0_hist[c] + EPS);
+		}
+	}
 
-							W[c][r][k] -= (velocitiesW[c][r][k] / Math.sqrt(W_hist[c][r][k] + EPS));
+	/**
+	 * Updates the parameters by the averaged gradients of the instances
+	 * <code>indices[from]</code> to <code>indices[to - 1]</code>. The gradients of
+	 * all instances are calculated on the parameters before the update. The batch
+	 * is split into one contiguous chunk per workspace whose gradients are
+	 * accumulated in parallel and reduced in the order of the chunks.
+	 */
+	private void updateMiniBatch(final List<Integer> indices, final int from, final int to,
+			final double[][] dataMatrix, final int[][] Y, final double[][][] W, final double[][][] W_hist,
+			final double[] W_0, final double[] W_0_hist, final double[][][] S, final double[][][] S_hist,
+			final double[][][] velocitiesW, final double[] velocitiesW0, final double[][][] velocitiesS,
+			final Workspace[] workspaces, final ExecutorService execService)
+			throws InterruptedException, AlgorithmException {
+		final int batchLength = to - from;
+		final int numChunks = Math.min(workspaces.length, batchLength);
+
+		if (numChunks == 1) {
+			this.accumulateGradients(indices, from, to, dataMatrix, Y, W, S, workspaces[0]);
+		} else {
+			List<Callable<Void>> tasks = new ArrayList<>(numChunks);
+			for (int t = 0; t < numChunks; t++) {
+				final int chunkFrom = from + (int) ((long) batchLength * t / numChunks);
+				final int chunkTo = from + (int) ((long) batchLength * (t + 1) / numChunks);
+				final Workspace workspace = workspaces[t];
+				tasks.add(() -> {
+					this.accumulateGradients(indices, chunkFrom, chunkTo, dataMatrix, Y, W, S, workspace);
+					return null;
+				});
+			}
+			try {
+				for (Future<Void> future : execService.invokeAll(tasks)) {
+					future.get();
+				}
+			} catch (ExecutionException e) {
+				throw new AlgorithmException(e.getCause(),
+						"Could not calculate the gradients of a mini-batch due to the following exception: "
+								+ e.getCause().getMessage());
+			}
 
-							int J_r = numberOfSegments[r];
+			// Reduce the gradients in the order of the chunks
+			final Workspace result = workspaces[0];
+			for (int t = 1; t < numChunks; t++) {
+				addTo(result.gradW, workspaces[t].gradW);
+				addTo(result.gradW_0, workspaces[t].gradW_0);
+				addTo(result.gradS, workspaces[t].gradS);
+			}
+		}
 
-							double phiDenominator = 1d / ((r + 1d) * this.minShapeLength * Psi[r][i][k]);
+		// Update the parameters
+		final Workspace result = workspaces[0];
+		final double scale = 1d / batchLength;
+		final int numberOfShapelets = this.shapeletOffsets[this.scaleR];
+		for (int c = 0; c < this.C; c++) {
+			for (int r = 0; r < this.scaleR; r++) {
+				for (int k = 0; k < S[r].length; k++) {
+					double wStep = scale * result.gradW[c * numberOfShapelets + this.shapeletOffsets[r] + k]
+							+ 2d * this.regularization / (this.I) * W[c][r][k];
+					velocitiesW[c][r][k] = this.gamma * velocitiesW[c][r][k] + this.learningRate * wStep;
+					W_hist[c][r][k] += wStep * wStep;
 
-							double[] distDiff = new double[J_r];
-							for (int j = 0; j < J_r; j++) {
-								distDiff[j] = Xi[r][i][k][j] * (1d + ALPHA * (D[r][i][k][j] - M_hat[r][i][k]));
-							}
+					W[c][r][k] -= (velocitiesW[c][r][k] / Math.sqrt(W_hist[c][r][k] + EPS));
+				}
+			}
 
-							for (int l = 0; l < (r + 1) * this.minShapeLength; l++) {
-								double shapeletDiff = 0;
-								for (int j = 0; j < J_r; j++)
-									shapeletDiff += distDiff[j] * (S[r][k][l] - dataMatrix[i][j + l]);
+			double gradW_0 = scale * result.gradW_0[c];
+			velocitiesW0[c] = this.gamma * velocitiesW0[c] + this.learningRate * gradW_0;
+			W_0_hist[c] += gradW_0 * gradW_0;
+			W_0[c] += velocitiesW0[c] / Math.sqrt(W_0_hist[c] + EPS);
+		}
+		for (int r = 0; r < this.scaleR; r++) {
+			final int L = (r + 1) * this.minShapeLength;
+			for (int k = 0; k < S[r].length; k++) {
+				final int offset = this.shapeletValueOffsets[r] + k * L;
+				for (int l = 0; l < L; l++) {
+					double sStep = scale * result.gradS[offset + l];
 
-								double sStep = (-1d) * gradW_0 * shapeletDiff * W[c][r][k] * phiDenominator;
+					velocitiesS[r][k][l] = this.gamma * velocitiesS[r][k][l] + this.learningRate * sStep;
+					S_hist[r][k][l] += sStep * sStep;
 
+					S[r][k][l] -= velocitiesS[r][k][l] / Math.sqrt(S_hist[r][k][l] + EPS);
+				}
+			}
+		}
+	}
 
-								velocitiesS[r][k][l] = this.gamma * velocitiesS[r][k][l] + this.learningRate * sStep;
-								S_hist[r][k][l] += sStep * sStep;
+	/**
+	 * Calculates the sums of the gradients of the instances
+	 * <code>indices[from]</code> to <code>indices[to - 1]</code> into the gradient
+	 * buffers of the given workspace. The regularization of the weights is not
+	 * included.
+	 */
+	private void accumulateGradients(final List<Integer> indices, final int from, final int to,
+			final double[][] dataMatrix, final int[][] Y, final double[][][] W, final double[][][] S,
+			final Workspace workspace) {
+		Arrays.fill(workspace.gradW, 0d);
+		Arrays.fill(workspace.gradW_0, 0d);
+		Arrays.fill(workspace.gradS, 0d);
+		final int numberOfShapelets = this.shapeletOffsets[this.scaleR];
+		final double[] Theta = workspace.Theta;
+
+		for (int idx = from; idx < to; idx++) {
+			final int i = indices.get(idx);
+			final double[] instance = dataMatrix[i];
+			this.calculateSoftMinimumDistances(S, instance, workspace);
+			final double[] M_hat = workspace.M_hat;
+
+			for (int c = 0; c < this.C; c++) {
+				double newThetaValue = 0;
+				for (int r = 0; r < this.scaleR; r++) {
+					for (int k = 0; k < S[r].length; k++) {
+						newThetaValue += M_hat[this.shapeletOffsets[r] + k] * W[c][r][k];
+					}
+				}
+				Theta[c] = Y[i][c] - MathUtil.sigmoid(newThetaValue);
+				workspace.gradW_0[c] += Theta[c];
+				for (int shapeletIndex = 0; shapeletIndex < numberOfShapelets; shapeletIndex++) {
+					workspace.gradW[c * numberOfShapelets + shapeletIndex] -= Theta[c] * M_hat[shapeletIndex];
+				}
+			}
 
-								S[r][k][l] -= velocitiesS[r][k][l] / Math.sqrt(S_hist[r][k][l] + EPS);
-							}
-						}
+			for (int r = 0; r < this.scaleR; r++) {
+				final int J_r = this.numberOfSegments[r];
+				final int L = (r + 1) * this.minShapeLength;
+				for (int k = 0; k < S[r].length; k++) {
+					// The shapelet gradient summed over all classes
+					double weight = 0;
+					for (int c = 0; c < this.C; c++) {
+						weight -= Theta[c] * W[c][r][k];
 					}
+					weight /= (r + 1d) * this.minShapeLength * workspace.Psi[this.shapeletOffsets[r] + k];
 
-					velocitiesW0[c] = this.gamma * velocitiesW0[c] + this.learningRate * gradW_0;
-					W_0_hist[c] += gradW_0 * gradW_0;
-					W_0[c] += velocitiesW0[c] / Math.sqrt(W_0_hist[c] + EPS);
+					this.calculateDistDiff(r, k, workspace);
+					final double[] distDiff = workspace.distDiff;
+					final double[] shapelet = S[r][k];
+					final int offset = this.shapeletValueOffsets[r] + k * L;
+					for (int l = 0; l < L; l++) {
+						double shapeletDiff = 0;
+						for (int j = 0; j < J_r; j++)
+							shapeletDiff += distDiff[j] * (shapelet[l] - instance[j + l]);
+						workspace.gradS[offset + l] += weight * shapeletDiff;
+					}
+				}
+			}
+		}
+	}
 
+	/**
+	 * Calculates the mean logistic loss of the one-vs-all classifiers on the given
+	 * instances as used for the prediction (including the biases).
+	 */
+	private double calculateLoss(final double[][][] S, final double[][][] W, final double[] W_0,
+			final double[][] dataMatrix, final int[][] Y, final Workspace workspace) {
+		double loss = 0;
+		for (int i = 0; i < dataMatrix.length; i++) {
+			this.calculateSoftMinimumDistances(S, dataMatrix[i], workspace);
+			for (int c = 0; c < this.C; c++) {
+				double z = W_0[c];
+				for (int r = 0; r < this.scaleR; r++) {
+					for (int k = 0; k < S[r].length; k++) {
+						z += workspace.M_hat[this.shapeletOffsets[r] + k] * W[c][r][k];
+					}
 				}
+				// -log(sigmoid(z)) for positive and -log(1 - sigmoid(z)) for negative
+				// instances calculated in a numerically stable way
+				double t = Y[i][c] == 1 ? -z : z;
+				loss += Math.max(t, 0) + Math.log1p(Math.exp(-Math.abs(t)));
 			}
+		}
+		return loss / ((double) dataMatrix.length * this.C);
+	}
 
-			if (it % 10 == 0) {
-				LOGGER.debug("Iteration {}/{}", it, this.maxIter);
+	/**
+	 * Adds the values of <code>summand</code> to <code>sum</code>.
+	 */
+	private static void addTo(final double[] sum, final double[] summand) {
+		for (int i = 0; i < sum.length; i++) {
+			sum[i] += summand[i];
+		}
+	}
 
-				long currTime = System.currentTimeMillis();
-				if (currTime - beginTime > this.timeout.milliseconds()) {
-					LOGGER.debug("Stopping training due to timeout.");
-					break;
+	/**
+	 * Copies the values of the given tensor into <code>target</code> which is
+	 * created if null.
+	 *
+	 * @return Returns the target tensor
+	 */
+	private static double[][][] copyTensor(final double[][][] source, double[][][] target) {
+		if (target == null) {
+			target = new double[source.length][][];
+			for (int i = 0; i < source.length; i++) {
+				target[i] = new double[source[i].length][];
+				for (int j = 0; j < source[i].length; j++) {
+					target[i][j] = new double[source[i][j].length];
 				}
 			}
 		}
+		for (int i = 0; i < source.length; i++) {
+			for (int j = 0; j < source[i].length; j++) {
+				System.arraycopy(source[i][j], 0, target[i][j], 0, source[i][j].length);
+			}
+		}
+		return target;
 	}
 
 	/**
@@ -734,8 +1199,7 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 	 */
 	@Override
 	public void setNumCPUs(int numberOfCPUs) {
-		LOGGER.warn(
-				"Multithreading is not supported for LearnShapelets yet. Therefore, the number of CPUs is not considered.");
+		this.cpus = numberOfCPUs;
 	}
 
 	/**
@@ -743,9 +1207,7 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 	 */
 	@Override
 	public int getNumCPUs() {
-		LOGGER.warn(
-				"Multithreading is not supported for LearnShapelets yet. Therefore, the number of CPUs is not considered.");
-		return 1;
+		return this.cpus;
 	}
 
 	/**
@@ -869,4 +1331,52 @@ public class LearnShapeletsAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Le
 	public void setGamma(double gamma) {
 		this.gamma = gamma;
 	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @param batchSize
+	 *            the batchSize to set
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("The batch size must be at least 1!");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Enables the early stopping. After each iteration, the loss on the given
+	 * validation dataset is passed to the <code>earlyStoppingCriterion</code>. The
+	 * parameters achieving the lowest validation loss are used for the model.
+	 *
+	 * @param validationData
+	 *            The validation dataset containing time series of the same length
+	 *            as the training dataset
+	 * @param earlyStoppingCriterion
+	 *            Criterion deciding whether the training should be stopped
+	 */
+	public void setEarlyStopping(final TimeSeriesDataset validationData,
+			final IEarlyStoppingCriterion earlyStoppingCriterion) {
+		this.validationData = validationData;
+		this.earlyStoppingCriterion = earlyStoppingCriterion;
+	}
+
+	/**
+	 * @return the validationData
+	 */
+	public TimeSeriesDataset getValidationData() {
+		return validationData;
+	}
+
+	/**
+	 * @return the earlyStoppingCriterion
+	 */
+	public IEarlyStoppingCriterion getEarlyStoppingCriterion() {
+		return earlyStoppingCriterion;
+	}
 }
@@ -118,6 +118,39 @@ public class LearnShapeletsClassifier extends ASimplifiedTSClassifier<Integer> {
 		this.scaleR = scaleR;
 	}
 
+	/**
+	 * Constructor of the {@link LearnShapeletsClassifier} using mini-batch
+	 * gradient descent whose gradients are calculated in parallel.
+	 *
+	 * @param K
+	 *            See {@link LearnShapeletsAlgorithm#K}
+	 * @param learningRate
+	 *            See {@link LearnShapeletsAlgorithm#learningRate}
+	 * @param regularization
+	 *            See {@link LearnShapeletsAlgorithm#regularization}
+	 * @param scaleR
+	 *            See {@link LearnShapeletsAlgorithm#scaleR}
+	 * @param minShapeLengthPercentage
+	 *            See {@link LearnShapeletsAlgorithm#minShapeLengthPercentage}
+	 * @param maxIter
+	 *            See {@link LearnShapeletsAlgorithm#maxIter}
+	 * @param gamma
+	 *            See {@link LearnShapeletsAlgorithm#gamma}
+	 * @param seed
+	 *            See {@link LearnShapeletsAlgorithm#seed}
+	 * @param batchSize
+	 *            See {@link LearnShapeletsAlgorithm#batchSize}
+	 * @param numOfCPUs
+	 *            Number of CPUs used to calculate the gradients of a mini-batch
+	 */
+	public LearnShapeletsClassifier(final int K, final double learningRate, final double regularization,
+			final int scaleR, final double minShapeLengthPercentage, final int maxIter, final double gamma,
+			final int seed, final int batchSize, final int numOfCPUs) {
+		this(K, learningRate, regularization, scaleR, minShapeLengthPercentage, maxIter, gamma, seed);
+		((LearnShapeletsAlgorithm) this.algorithm).setBatchSize(batchSize);
+		this.algorithm.setNumCPUs(numOfCPUs);
+	}
+
 	/**
 	 * Enables / disabled the parameter estimation of K within the training
 	 * algorithm.
@@ -134,6 +167,21 @@ public class LearnShapeletsClassifier extends ASimplifiedTSClassifier<Integer> {
 		}
 	}
 
+	/**
+	 * Enables the early stopping within the training algorithm (see
+	 * {@link LearnShapeletsAlgorithm#setEarlyStopping(jaicore.ml.tsc.dataset.TimeSeriesDataset, IEarlyStoppingCriterion)}).
+	 *
+	 * @param validationData
+	 *            The validation dataset whose loss is evaluated after each
+	 *            iteration
+	 * @param earlyStoppingCriterion
+	 *            Criterion deciding whether the training should be stopped
+	 */
+	public void setEarlyStopping(final jaicore.ml.tsc.dataset.TimeSeriesDataset validationData,
+			final IEarlyStoppingCriterion earlyStoppingCriterion) {
+		((LearnShapeletsAlgorithm) this.algorithm).setEarlyStopping(validationData, earlyStoppingCriterion);
+	}
+
 	/**
 	 * @return {@link LearnShapeletsClassifier#S}.
 	 */
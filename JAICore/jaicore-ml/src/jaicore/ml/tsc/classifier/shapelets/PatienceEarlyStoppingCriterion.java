@@ -0,0 +1,44 @@
+package jaicore.ml.tsc.classifier.shapelets;
+
+/**
+ * Early stopping criterion stopping the training if the validation loss has
+ * not been improved for <code>patience</code> iterations.
+ *
+ * @author agent
+ *
+ */
+public class PatienceEarlyStoppingCriterion implements IEarlyStoppingCriterion {
+	/**
+	 * The number of iterations without improvement after which the training is
+	 * stopped.
+	 */
+	private final int patience;
+
+	/**
+	 * Constructor of the {@link PatienceEarlyStoppingCriterion}.
+	 *
+	 * @param patience
+	 *            See {@link PatienceEarlyStoppingCriterion#patience}
+	 */
+	public PatienceEarlyStoppingCriterion(final int patience) {
+		if (patience < 1)
+			throw new IllegalArgumentException("The patience must be at least 1!");
+		this.patience = patience;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean shouldStop(final int iteration, final double validationLoss, final int bestIteration,
+			final double bestValidationLoss) {
+		return iteration - bestIteration >= this.patience;
+	}
+
+	/**
+	 * @return the patience
+	 */
+	public int getPatience() {
+		return patience;
+	}
+}
@@ -1,14 +1,18 @@
 package jaicore.ml.tsc.classifier.shapelets;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -29,6 +33,7 @@ import jaicore.ml.tsc.classifier.ensemble.MajorityConfidenceVote;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
 import jaicore.ml.tsc.quality_measures.IQualityMeasure;
 import jaicore.ml.tsc.shapelets.Shapelet;
+import jaicore.ml.tsc.shapelets.ShapeletTopKStore;
 import jaicore.ml.tsc.shapelets.search.AMinimumDistanceSearchStrategy;
 import jaicore.ml.tsc.shapelets.search.EarlyAbandonMinimumDistanceSearchStrategy;
 import jaicore.ml.tsc.util.TimeSeriesUtil;
@@ -42,6 +47,11 @@ import weka.classifiers.Classifier;
  * SIGKDD international conference on Knowledge discovery and data mining (KDD
  * '12). ACM, New York, NY, USA, 289-297.
  * 
+ * The shapelet candidates are evaluated in parallel on a fork-join pool using
+ * {@link #getNumCPUs()} threads. Since the best shapelets are determined with
+ * respect to a total order (see {@link ShapeletTopKStore}), the result does not
+ * depend on the number of threads.
+ * 
  * @author Julian Lienen
  *
  */
@@ -63,6 +73,23 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	 */
 	private static final int MIN_MAX_ESTIMATION_SAMPLES = 10;
 
+	/**
+	 * Number of candidates evaluated by a single task of the fork-join pool.
+	 */
+	private static final int CANDIDATES_PER_TASK = 64;
+
+	/**
+	 * Relative precision below which the variance of a subsequence determined by
+	 * the prefix sums is not trusted, relative to the squared prefix sum it has
+	 * been computed from.
+	 */
+	private static final double PREFIX_SUM_PRECISION = 1E-6;
+
+	/**
+	 * Message of the exceptions thrown on a timeout.
+	 */
+	private static final String TIMEOUT_MESSAGE = "Interrupted training due to timeout.";
+
 	/**
 	 * Number of shapelets to be kept and later used for the transformation.
 	 */
@@ -125,6 +152,11 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	 */
 	private int numFolds = 5;
 
+	/**
+	 * See {@link IAlgorithm#getNumCPUs()}.
+	 */
+	private int cpus = 1;
+
 	/**
 	 * Constructs a training algorithm for the {@link ShapeletTransformTSClassifier}
 	 * classifier specified by the given parameters.
@@ -451,32 +483,197 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	 */
 	private List<Shapelet> shapeletCachedSelection(final double[][] data, final int min, final int max, final int k,
 			final int[] classes, final long beginTime) throws InterruptedException {
-		List<Map.Entry<Shapelet, Double>> kShapelets = new ArrayList<>();
+		final ShapeletTopKStore kShapelets = new ShapeletTopKStore(k);
 
 		final int numInstances = data.length;
 
-		for (int i = 0; i < numInstances; i++) {
+		try {
+			if (this.cpus <= 1) {
+				for (int i = 0; i < numInstances; i++)
+					selectShapeletsOfInstance(data, i, min, max, k, classes, beginTime, kShapelets, false);
+			} else {
+				ForkJoinPool pool = new ForkJoinPool(this.cpus);
+				try {
+					pool.invoke(new RecursiveAction() {
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						protected void compute() {
+							List<RecursiveAction> instanceTasks = new ArrayList<>();
+							for (int i = 0; i < numInstances; i++) {
+								final int instance = i;
+								instanceTasks.add(new RecursiveAction() {
+									private static final long serialVersionUID = 1L;
+
+									@Override
+									protected void compute() {
+										selectShapeletsOfInstance(data, instance, min, max, k, classes, beginTime,
+												kShapelets, true);
+									}
+								});
+							}
+							invokeAll(instanceTasks);
+						}
+					});
+				} finally {
+					pool.shutdownNow();
+				}
+			}
+		} catch (CancellationException e) {
+			throw new InterruptedException(TIMEOUT_MESSAGE);
+		}
 
-			if ((System.currentTimeMillis() - beginTime) > this.timeout.milliseconds())
-				throw new InterruptedException("Interrupted training due to timeout.");
+		return kShapelets.getShapelets();
+	}
 
-			List<Map.Entry<Shapelet, Double>> shapelets = new ArrayList<>();
-			for (int l = min; l < max; l++) {
-				Set<Shapelet> W_il = generateCandidates(data[i], l, i);
-				for (Shapelet s : W_il) {
-					List<Double> D_s = findDistances(s, data);
-					double quality = qualityMeasure.assessQuality(D_s, classes);
-					s.setDeterminedQuality(quality);
-					shapelets.add(new AbstractMap.SimpleEntry<Shapelet, Double>(s, quality));
-				}
+	/**
+	 * Evaluates all shapelet candidates of the given instance, removes the
+	 * self-similar ones and offers the best remaining ones to the top-k store.
+	 * 
+	 * @param data
+	 *            The training data
+	 * @param instance
+	 *            The index of the instance from which the candidates are extracted
+	 * @param min
+	 *            The minimal length of the shapelets
+	 * @param max
+	 *            The maximal length of the shapelets (exclusive)
+	 * @param k
+	 *            The number of shapelets to be kept
+	 * @param classes
+	 *            The classes of the instances
+	 * @param beginTime
+	 *            Begin time of the training execution used for the timeout checks
+	 * @param kShapelets
+	 *            The store of the k best shapelets
+	 * @param parallel
+	 *            Indicator whether the candidates should be evaluated in parallel,
+	 *            which requires to be called within a fork-join pool
+	 * @throws CancellationException
+	 *             Thrown when a timeout occurred
+	 */
+	private void selectShapeletsOfInstance(final double[][] data, final int instance, final int min, final int max,
+			final int k, final int[] classes, final long beginTime, final ShapeletTopKStore kShapelets,
+			final boolean parallel) {
+		checkTimeout(beginTime);
+
+		final double[] series = data[instance];
+		final double[][] prefixSums = prefixSums(series);
+
+		// The candidates' data is only created during their evaluation
+		final List<Shapelet> candidates = new ArrayList<>();
+		for (int l = min; l < max; l++) {
+			for (int i = 0; i < series.length - l + 1; i++)
+				candidates.add(new Shapelet(null, i, l, instance));
+		}
+
+		if (parallel)
+			new CandidateEvaluationTask(data, prefixSums, candidates, 0, candidates.size(), classes, beginTime)
+					.invoke();
+		else
+			evaluateCandidates(data, prefixSums, candidates, 0, candidates.size(), classes, beginTime);
+
+		candidates.sort(ShapeletTopKStore.QUALITY_DESC_ORDER);
+		for (Shapelet candidate : removeSelfSimilarShapelets(candidates, k)) {
+			kShapelets.offer(new Shapelet(
+					zNormalizeWindow(series, prefixSums, candidate.getStartIndex(), candidate.getLength()),
+					candidate.getStartIndex(), candidate.getLength(), instance, candidate.getDeterminedQuality()));
+		}
+	}
+
+	/**
+	 * Task of the fork-join pool evaluating a range of shapelet candidates. See
+	 * {@link ShapeletTransformAlgorithm#evaluateCandidates(double[][], double[][], List, int, int, int[], long)}.
+	 */
+	private class CandidateEvaluationTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final double[][] data;
+		private final double[][] prefixSums;
+		private final List<Shapelet> candidates;
+		private final int from;
+		private final int to;
+		private final int[] classes;
+		private final long beginTime;
+
+		private CandidateEvaluationTask(final double[][] data, final double[][] prefixSums,
+				final List<Shapelet> candidates, final int from, final int to, final int[] classes,
+				final long beginTime) {
+			this.data = data;
+			this.prefixSums = prefixSums;
+			this.candidates = candidates;
+			this.from = from;
+			this.to = to;
+			this.classes = classes;
+			this.beginTime = beginTime;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= CANDIDATES_PER_TASK) {
+				evaluateCandidates(this.data, this.prefixSums, this.candidates, this.from, this.to, this.classes,
+						this.beginTime);
+			} else {
+				int mid = (this.from + this.to) >>> 1;
+				invokeAll(
+						new CandidateEvaluationTask(this.data, this.prefixSums, this.candidates, this.from, mid,
+								this.classes, this.beginTime),
+						new CandidateEvaluationTask(this.data, this.prefixSums, this.candidates, mid, this.to,
+								this.classes, this.beginTime));
 			}
-			sortByQualityDesc(shapelets);
+		}
+	}
 
-			shapelets = removeSelfSimilar(shapelets);
-			kShapelets = merge(k, kShapelets, shapelets);
+	/**
+	 * Determines the quality of the shapelet candidates in the given range based
+	 * on their minimum distances to all instances.
+	 * 
+	 * @param data
+	 *            The training data
+	 * @param prefixSums
+	 *            The prefix sums of the instance the candidates are extracted from
+	 *            (see {@link ShapeletTransformAlgorithm#prefixSums(double[])})
+	 * @param candidates
+	 *            The candidates, whose determined quality is set
+	 * @param from
+	 *            The first candidate to be evaluated
+	 * @param to
+	 *            The end of the range of candidates to be evaluated (exclusive)
+	 * @param classes
+	 *            The classes of the instances
+	 * @param beginTime
+	 *            Begin time of the training execution used for the timeout checks
+	 * @throws CancellationException
+	 *             Thrown when a timeout occurred
+	 */
+	private void evaluateCandidates(final double[][] data, final double[][] prefixSums,
+			final List<Shapelet> candidates, final int from, final int to, final int[] classes,
+			final long beginTime) {
+		checkTimeout(beginTime);
+
+		for (int c = from; c < to; c++) {
+			final Shapelet candidate = candidates.get(c);
+			final double[] series = data[candidate.getInstanceIndex()];
+			final Shapelet s = new Shapelet(
+					zNormalizeWindow(series, prefixSums, candidate.getStartIndex(), candidate.getLength()),
+					candidate.getStartIndex(), candidate.getLength(), candidate.getInstanceIndex());
+			List<Double> D_s = findDistances(s, data);
+			candidate.setDeterminedQuality(qualityMeasure.assessQuality(D_s, classes));
 		}
+	}
 
-		return kShapelets.stream().map(entry -> entry.getKey()).collect(Collectors.toList());
+	/**
+	 * Throws an exception if the timeout has been reached. Unchecked, such that it
+	 * can be thrown within the tasks of a fork-join pool.
+	 * 
+	 * @param beginTime
+	 *            Begin time of the training execution
+	 * @throws CancellationException
+	 *             Thrown when a timeout occurred
+	 */
+	private void checkTimeout(final long beginTime) {
+		if ((System.currentTimeMillis() - beginTime) > this.timeout.milliseconds())
+			throw new CancellationException(TIMEOUT_MESSAGE);
 	}
 
 	/**
@@ -529,21 +726,61 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	public static List<Map.Entry<Shapelet, Double>> removeSelfSimilar(
 			final List<Map.Entry<Shapelet, Double>> shapelets) {
 		List<Map.Entry<Shapelet, Double>> result = new ArrayList<>();
+		Map<Integer, TreeMap<Integer, Shapelet>> retainedShapelets = new HashMap<>();
 		for (final Map.Entry<Shapelet, Double> entry : shapelets) {
 			// Check whether there is already a self similar shapelet in the result list
-			boolean selfSimilarExisting = false;
-			for (final Map.Entry<Shapelet, Double> s : result) {
-				if (isSelfSimilar(entry.getKey(), s.getKey()))
-					selfSimilarExisting = true;
-			}
-
-			if (!selfSimilarExisting)
+			if (retainIfNotSelfSimilar(entry.getKey(), retainedShapelets
+					.computeIfAbsent(entry.getKey().getInstanceIndex(), i -> new TreeMap<>())))
 				result.add(entry);
 		}
 
 		return result;
 	}
 
+	/**
+	 * Function removing self-similar shapelets from a list of shapelets from the
+	 * same time series. See
+	 * {@link ShapeletTransformAlgorithm#removeSelfSimilar(List)}.
+	 * 
+	 * @param shapelets
+	 *            Shapelets to be compared
+	 * @param limit
+	 *            The maximal number of shapelets to be retained
+	 * @return The first (up to <code>limit</code>) shapelets of the given list
+	 *         which are not self-similar to any previous one
+	 */
+	private static List<Shapelet> removeSelfSimilarShapelets(final List<Shapelet> shapelets, final int limit) {
+		List<Shapelet> result = new ArrayList<>();
+		TreeMap<Integer, Shapelet> retainedShapelets = new TreeMap<>();
+		for (int i = 0; i < shapelets.size() && result.size() < limit; i++) {
+			if (retainIfNotSelfSimilar(shapelets.get(i), retainedShapelets))
+				result.add(shapelets.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the given shapelet is self-similar to any of the already
+	 * retained shapelets of the same time series and retains it otherwise.
+	 * 
+	 * @param shapelet
+	 *            The shapelet to be checked
+	 * @param retainedShapelets
+	 *            The retained shapelets by their start index. Since they do not
+	 *            overlap, only the one starting last before the end of the given
+	 *            shapelet can be self-similar to it.
+	 * @return Returns whether the shapelet has been retained
+	 */
+	private static boolean retainIfNotSelfSimilar(final Shapelet shapelet,
+			final TreeMap<Integer, Shapelet> retainedShapelets) {
+		Map.Entry<Integer, Shapelet> previous = retainedShapelets
+				.lowerEntry(shapelet.getStartIndex() + shapelet.getLength());
+		if (previous != null && isSelfSimilar(shapelet, previous.getValue()))
+			return false;
+		retainedShapelets.put(shapelet.getStartIndex(), shapelet);
+		return true;
+	}
+
 	/**
 	 * Function checking whether the two given shapelets are self-similar, i. e. if
 	 * their indices overlap. Assumes that both shapelets are from the same time
@@ -576,10 +813,11 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	 *         instances
 	 */
 	public List<Double> findDistances(final Shapelet s, final double[][] matrix) {
-		List<Double> result = new ArrayList<>();
+		double[] distances = this.minDistanceSearchStrategy.findMinimumDistances(s, matrix);
+		List<Double> result = new ArrayList<>(distances.length);
 
-		for (int i = 0; i < matrix.length; i++) {
-			result.add(this.minDistanceSearchStrategy.findMinimumDistance(s, matrix[i]));
+		for (int i = 0; i < distances.length; i++) {
+			result.add(distances[i]);
 		}
 
 		return result;
@@ -597,14 +835,87 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	 * @param candidateIndex
 	 *            Instance index which is used to identify the generated shapelets
 	 * @return Returns a set of shapelet candidates with the length <code>l</code>
+	 *         in the order of their start indices
 	 */
 	public static Set<Shapelet> generateCandidates(final double[] data, final int l, final int candidateIndex) {
-		Set<Shapelet> result = new HashSet<>();
+		Set<Shapelet> result = new LinkedHashSet<>();
 
+		final double[][] prefixSums = prefixSums(data);
 		for (int i = 0; i < data.length - l + 1; i++) {
-			double[] tmpData = TimeSeriesUtil.getInterval(data, i, i + l);
+			result.add(new Shapelet(zNormalizeWindow(data, prefixSums, i, l), i, l, candidateIndex));
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the prefix sums of the values and the squared values of a time
+	 * series, which allow to determine the mean and the standard deviation of any
+	 * subsequence in constant time.
+	 * 
+	 * @param data
+	 *            The time series
+	 * @return Returns the prefix sums <code>{S, Q}</code> of length
+	 *         <code>data.length + 1</code>, where <code>S[i]</code> and
+	 *         <code>Q[i]</code> are the sums of the first <code>i</code> values
+	 *         and squared values
+	 */
+	private static double[][] prefixSums(final double[] data) {
+		double[] sums = new double[data.length + 1];
+		double[] squaredSums = new double[data.length + 1];
+		for (int i = 0; i < data.length; i++) {
+			sums[i + 1] = sums[i] + data[i];
+			squaredSums[i + 1] = squaredSums[i] + data[i] * data[i];
+		}
+		return new double[][] { sums, squaredSums };
+	}
+
+	/**
+	 * Z-normalizes the subsequence of length <code>l</code> starting at
+	 * <code>start</code> (cf. {@link TimeSeriesUtil#zNormalize(double[], boolean)})
+	 * using the prefix sums of the time series to determine the mean and the
+	 * standard deviation. As the differences of the prefix sums lose precision
+	 * with the magnitude of the preceding values, the mean and the variance are
+	 * recomputed in two passes over the subsequence if the variance is small
+	 * compared to the squared prefix sum.
+	 * 
+	 * @param data
+	 *            The time series
+	 * @param prefixSums
+	 *            The prefix sums of the time series (see
+	 *            {@link ShapeletTransformAlgorithm#prefixSums(double[])})
+	 * @param start
+	 *            The start index of the subsequence
+	 * @param l
+	 *            The length of the subsequence
+	 * @return Returns the normalized subsequence
+	 */
+	private static double[] zNormalizeWindow(final double[] data, final double[][] prefixSums, final int start,
+			final int l) {
+		final double sum = prefixSums[0][start + l] - prefixSums[0][start];
+		final double squaredSum = prefixSums[1][start + l] - prefixSums[1][start];
+		double mean = sum / l;
+		double squaredDeviations = squaredSum - sum * mean;
+
+		double[] result = new double[l];
+		if (squaredDeviations <= PREFIX_SUM_PRECISION * prefixSums[1][start + l]) {
+			mean = 0;
+			for (int i = 0; i < l; i++) {
+				mean += data[start + i];
+			}
+			mean /= l;
+			squaredDeviations = 0;
+			boolean constant = true;
+			for (int i = 0; i < l; i++) {
+				squaredDeviations += (data[start + i] - mean) * (data[start + i] - mean);
+				constant &= data[start + i] == data[start];
+			}
+			if (constant)
+				return result;
+		}
 
-			result.add(new Shapelet(TimeSeriesUtil.zNormalize(tmpData, USE_BIAS_CORRECTION), i, l, candidateIndex));
+		final double stddev = Math.sqrt(squaredDeviations / (l - (USE_BIAS_CORRECTION ? 1 : 0)));
+		for (int i = 0; i < l; i++) {
+			result[i] = (data[start + i] - mean) / stddev;
 		}
 		return result;
 	}
@@ -713,8 +1024,7 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	 */
 	@Override
 	public void setNumCPUs(int numberOfCPUs) {
-		LOGGER.warn(
-				"Multithreading is not supported for LearnShapelets yet. Therefore, the number of CPUs is not considered.");
+		this.cpus = numberOfCPUs;
 	}
 
 	/**
@@ -722,9 +1032,7 @@ public class ShapeletTransformAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	 */
 	@Override
 	public int getNumCPUs() {
-		LOGGER.warn(
-				"Multithreading is not supported for LearnShapelets yet. Therefore, the number of CPUs is not considered.");
-		return 1;
+		return this.cpus;
 	}
 
 	/**
@@ -136,6 +136,43 @@ public class ShapeletTransformTSClassifier extends ASimplifiedTSClassifier<Integ
 
 	}
 
+	/**
+	 * Constructs an Shapelet Transform classifier as specified by
+	 * {@link ShapeletTransformTSClassifier#ShapeletTransformTSClassifier(int, IQualityMeasure, int, boolean, int, int, boolean, TimeOut, int)}
+	 * whose shapelet search uses <code>numOfCPUs</code> threads.
+	 * 
+	 * @param k
+	 *            Number of shapelets searched for and used as shapelet clustering
+	 *            input if enabled
+	 * @param qm
+	 *            Quality measure function to be used to assess shapelets
+	 * @param seed
+	 *            See for randomized operations
+	 * @param clusterShapelets
+	 *            Indicator whether shapelet clustering should be used after
+	 *            extracting the best k shapelets
+	 * @param minShapeletLength
+	 *            The minimal length of the shapelets
+	 * @param maxShapeletLength
+	 *            The maximal length of the shapelets
+	 * @param useHIVECOTEEnsemble
+	 *            Indicator whether the HIVE COTE ensemble should be used (CAWPE
+	 *            otherwise)
+	 * @param timeout
+	 *            The timeout used for the training
+	 * @param numFolds
+	 *            See {@link ShapeletTransformAlgorithm#numFolds}
+	 * @param numOfCPUs
+	 *            Number of CPUs used for the shapelet search
+	 */
+	public ShapeletTransformTSClassifier(final int k, final IQualityMeasure qm, final int seed,
+			final boolean clusterShapelets, final int minShapeletLength, final int maxShapeletLength,
+			final boolean useHIVECOTEEnsemble, final TimeOut timeout, final int numFolds, final int numOfCPUs) {
+		this(k, qm, seed, clusterShapelets, minShapeletLength, maxShapeletLength, useHIVECOTEEnsemble, timeout,
+				numFolds);
+		this.algorithm.setNumCPUs(numOfCPUs);
+	}
+
 	/**
 	 * Getter for {@link ShapeletTransformTSClassifier#shapelets}.
 	 * 
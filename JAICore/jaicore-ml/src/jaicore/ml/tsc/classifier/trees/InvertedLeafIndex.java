@@ -0,0 +1,336 @@
+package jaicore.ml.tsc.classifier.trees;
+
+import java.util.Arrays;
+
+/**
+ * Inverted index over the leaf node counts of the training instances used for
+ * the 1NN search of the {@link LearnPatternSimilarityClassifier}. The leaf nodes
+ * of all trees are numbered consecutively (see {@link #getLeafOffset(int)}),
+ * such that the leaf node counts of an instance form a single sparse vector.
+ *
+ * As the Manhattan distance of two count vectors <code>a</code> and
+ * <code>b</code> equals <code>|a| + |b| - 2 * sum_k min(a_k, b_k)</code>, only
+ * the posting lists of the leaf nodes reached by the query have to be visited
+ * instead of comparing the query with all training instances' vectors.
+ *
+ * The index is immutable and can be queried by multiple threads at the same
+ * time.
+ *
+ * @author agent
+ *
+ */
+public class InvertedLeafIndex {
+	/**
+	 * Index of the first leaf node of each tree within the consecutive numbering.
+	 * The last element stores the total number of leaf nodes.
+	 */
+	private final int[] leafOffsets;
+
+	/**
+	 * Sum of the leaf node counts per training instance.
+	 */
+	private final int[] norms;
+
+	/**
+	 * Index of the training instance with the smallest norm (the first one in case
+	 * of ties).
+	 */
+	private final int minNormInstance;
+
+	/**
+	 * Start of each leaf node's posting list within <code>postingInstances</code>
+	 * and <code>postingCounts</code>. The last element stores the total number of
+	 * postings.
+	 */
+	private final int[] postingStarts;
+
+	/**
+	 * The training instances reaching the leaf nodes, ascending per leaf node.
+	 */
+	private final int[] postingInstances;
+
+	/**
+	 * The counts of the training instances reaching the leaf nodes.
+	 */
+	private final int[] postingCounts;
+
+	/**
+	 * Constructor building the index.
+	 *
+	 * @param numLeavesPerTree
+	 *            Number of leaf nodes of each tree
+	 * @param trainLeafCounts
+	 *            Sparse leaf node counts of the training instances (using the
+	 *            consecutive numbering induced by <code>numLeavesPerTree</code>)
+	 */
+	public InvertedLeafIndex(final int[] numLeavesPerTree, final SparseLeafCounts[] trainLeafCounts) {
+		if (trainLeafCounts == null || trainLeafCounts.length == 0)
+			throw new IllegalArgumentException("The index must be built on at least one training instance!");
+
+		this.leafOffsets = new int[numLeavesPerTree.length + 1];
+		for (int i = 0; i < numLeavesPerTree.length; i++)
+			this.leafOffsets[i + 1] = this.leafOffsets[i] + numLeavesPerTree[i];
+		final int numLeaves = this.leafOffsets[numLeavesPerTree.length];
+
+		// Count the postings per leaf node
+		this.postingStarts = new int[numLeaves + 1];
+		this.norms = new int[trainLeafCounts.length];
+		int minNormInst = 0;
+		for (int inst = 0; inst < trainLeafCounts.length; inst++) {
+			for (int leaf : trainLeafCounts[inst].leaves) {
+				if (leaf >= numLeaves)
+					throw new IllegalArgumentException("Leaf node " + leaf + " exceeds the number of leaf nodes!");
+				this.postingStarts[leaf + 1]++;
+			}
+			this.norms[inst] = trainLeafCounts[inst].norm;
+			if (this.norms[inst] < this.norms[minNormInst])
+				minNormInst = inst;
+		}
+		this.minNormInstance = minNormInst;
+		for (int leaf = 0; leaf < numLeaves; leaf++)
+			this.postingStarts[leaf + 1] += this.postingStarts[leaf];
+
+		// Fill the posting lists in the order of the instances
+		this.postingInstances = new int[this.postingStarts[numLeaves]];
+		this.postingCounts = new int[this.postingStarts[numLeaves]];
+		final int[] fill = Arrays.copyOf(this.postingStarts, numLeaves);
+		for (int inst = 0; inst < trainLeafCounts.length; inst++) {
+			final SparseLeafCounts counts = trainLeafCounts[inst];
+			for (int k = 0; k < counts.leaves.length; k++) {
+				final int pos = fill[counts.leaves[k]]++;
+				this.postingInstances[pos] = inst;
+				this.postingCounts[pos] = counts.counts[k];
+			}
+		}
+	}
+
+	/**
+	 * Builds the index on dense leaf node counts.
+	 *
+	 * @param trainLeafNodes
+	 *            Leaf node counts of the training instances per tree and leaf node
+	 * @return Returns the index
+	 */
+	public static InvertedLeafIndex fromDense(final int[][][] trainLeafNodes) {
+		if (trainLeafNodes == null || trainLeafNodes.length == 0)
+			throw new IllegalArgumentException("The index must be built on at least one training instance!");
+
+		final int[] numLeavesPerTree = new int[trainLeafNodes[0].length];
+		for (int[][] instLeafNodes : trainLeafNodes) {
+			for (int i = 0; i < numLeavesPerTree.length; i++)
+				numLeavesPerTree[i] = Math.max(numLeavesPerTree[i], instLeafNodes[i].length);
+		}
+
+		final int[] leafOffsets = new int[numLeavesPerTree.length];
+		for (int i = 1; i < numLeavesPerTree.length; i++)
+			leafOffsets[i] = leafOffsets[i - 1] + numLeavesPerTree[i - 1];
+
+		final SparseLeafCounts[] trainLeafCounts = new SparseLeafCounts[trainLeafNodes.length];
+		for (int inst = 0; inst < trainLeafNodes.length; inst++)
+			trainLeafCounts[inst] = SparseLeafCounts.fromDense(trainLeafNodes[inst], leafOffsets);
+		return new InvertedLeafIndex(numLeavesPerTree, trainLeafCounts);
+	}
+
+	/**
+	 * Finds the training instance being nearest to the given leaf node counts
+	 * w.r.t. the Manhattan distance.
+	 *
+	 * @param leafCounts
+	 *            The query's sparse leaf node counts
+	 * @return Returns the index of the nearest training instance (the first one in
+	 *         case of ties)
+	 */
+	public int findNearestInstanceIndex(final SparseLeafCounts leafCounts) {
+		// Sum of the minimum counts shared with each training instance
+		final int[] overlaps = new int[this.norms.length];
+		final int[] touched = new int[this.norms.length];
+		int numTouched = 0;
+
+		final int numLeaves = this.postingStarts.length - 1;
+		for (int k = 0; k < leafCounts.leaves.length; k++) {
+			final int leaf = leafCounts.leaves[k];
+			if (leaf >= numLeaves)
+				continue;
+			final int count = leafCounts.counts[k];
+			for (int pos = this.postingStarts[leaf]; pos < this.postingStarts[leaf + 1]; pos++) {
+				final int inst = this.postingInstances[pos];
+				if (overlaps[inst] == 0)
+					touched[numTouched++] = inst;
+				overlaps[inst] += Math.min(count, this.postingCounts[pos]);
+			}
+		}
+
+		// Instances not sharing any leaf node have the distance of the sum of norms,
+		// which is minimal for the instance with the smallest norm
+		int nearestInst = this.minNormInstance;
+		long minDistance = (long) leafCounts.norm + this.norms[nearestInst] - 2L * overlaps[nearestInst];
+		for (int t = 0; t < numTouched; t++) {
+			final int inst = touched[t];
+			final long distance = (long) leafCounts.norm + this.norms[inst] - 2L * overlaps[inst];
+			if (distance < minDistance || (distance == minDistance && inst < nearestInst)) {
+				minDistance = distance;
+				nearestInst = inst;
+			}
+		}
+		return nearestInst;
+	}
+
+	/**
+	 * Converts the dense leaf node counts of an instance to sparse leaf node counts
+	 * using this index' numbering of the leaf nodes.
+	 *
+	 * @param leafNodeCounts
+	 *            Leaf node counts per tree and leaf node
+	 * @return Returns the sparse leaf node counts
+	 */
+	public SparseLeafCounts toSparse(final int[][] leafNodeCounts) {
+		return SparseLeafCounts.fromDense(leafNodeCounts, this.leafOffsets);
+	}
+
+	/**
+	 * Getter for the index of the first leaf node of the given tree within the
+	 * consecutive numbering of all trees' leaf nodes.
+	 *
+	 * @param tree
+	 *            The index of the tree
+	 * @return Returns the offset of the tree's leaf nodes
+	 */
+	public int getLeafOffset(final int tree) {
+		return this.leafOffsets[tree];
+	}
+
+	/**
+	 * Getter for the number of indexed training instances.
+	 *
+	 * @return Returns the number of training instances
+	 */
+	public int getNumberOfInstances() {
+		return this.norms.length;
+	}
+
+	/**
+	 * Sparse vector of leaf node counts, i.e. the number of subsequences of an
+	 * instance reaching each leaf node.
+	 */
+	public static class SparseLeafCounts {
+		/**
+		 * The reached leaf nodes in ascending order.
+		 */
+		private final int[] leaves;
+
+		/**
+		 * The (positive) counts of the reached leaf nodes.
+		 */
+		private final int[] counts;
+
+		/**
+		 * The sum of the counts.
+		 */
+		private final int norm;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param leaves
+		 *            The reached leaf nodes in ascending order
+		 * @param counts
+		 *            The positive counts of the reached leaf nodes
+		 */
+		public SparseLeafCounts(final int[] leaves, final int[] counts) {
+			if (leaves.length != counts.length)
+				throw new IllegalArgumentException("The number of leaf nodes and counts must be the same!");
+
+			int sum = 0;
+			for (int k = 0; k < leaves.length; k++) {
+				if (counts[k] <= 0 || (k > 0 && leaves[k] <= leaves[k - 1]))
+					throw new IllegalArgumentException(
+							"The leaf nodes must be strictly ascending and the counts must be positive!");
+				sum += counts[k];
+			}
+			this.leaves = leaves;
+			this.counts = counts;
+			this.norm = sum;
+		}
+
+		/**
+		 * Counts the occurrences of the given leaf nodes.
+		 *
+		 * @param leafNodes
+		 *            The leaf nodes reached by the subsequences of an instance (is
+		 *            sorted in place)
+		 * @return Returns the sparse leaf node counts
+		 */
+		public static SparseLeafCounts fromLeafNodes(final int[] leafNodes) {
+			Arrays.sort(leafNodes);
+			int numDistinct = 0;
+			for (int j = 0; j < leafNodes.length; j++) {
+				if (j == 0 || leafNodes[j] != leafNodes[j - 1])
+					numDistinct++;
+			}
+
+			final int[] leaves = new int[numDistinct];
+			final int[] counts = new int[numDistinct];
+			int k = -1;
+			for (int j = 0; j < leafNodes.length; j++) {
+				if (j == 0 || leafNodes[j] != leafNodes[j - 1])
+					leaves[++k] = leafNodes[j];
+				counts[k]++;
+			}
+			return new SparseLeafCounts(leaves, counts);
+		}
+
+		/**
+		 * Converts dense leaf node counts to sparse ones.
+		 *
+		 * @param leafNodeCounts
+		 *            Leaf node counts per tree and leaf node
+		 * @param leafOffsets
+		 *            Index of each tree's first leaf node within the consecutive
+		 *            numbering
+		 * @return Returns the sparse leaf node counts
+		 */
+		static SparseLeafCounts fromDense(final int[][] leafNodeCounts, final int[] leafOffsets) {
+			int numNonZero = 0;
+			for (int[] treeCounts : leafNodeCounts) {
+				for (int count : treeCounts) {
+					if (count != 0)
+						numNonZero++;
+				}
+			}
+
+			final int[] leaves = new int[numNonZero];
+			final int[] counts = new int[numNonZero];
+			int k = 0;
+			for (int i = 0; i < leafNodeCounts.length; i++) {
+				for (int leaf = 0; leaf < leafNodeCounts[i].length; leaf++) {
+					if (leafNodeCounts[i][leaf] != 0) {
+						leaves[k] = leafOffsets[i] + leaf;
+						counts[k++] = leafNodeCounts[i][leaf];
+					}
+				}
+			}
+			return new SparseLeafCounts(leaves, counts);
+		}
+
+		/**
+		 * @return the leaves
+		 */
+		public int[] getLeaves() {
+			return leaves;
+		}
+
+		/**
+		 * @return the counts
+		 */
+		public int[] getCounts() {
+			return counts;
+		}
+
+		/**
+		 * @return the norm
+		 */
+		public int getNorm() {
+			return norm;
+		}
+	}
+}
@@ -3,6 +3,11 @@ package jaicore.ml.tsc.classifier.trees;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -17,6 +22,7 @@ import jaicore.basic.algorithm.events.AlgorithmEvent;
 import jaicore.basic.algorithm.exceptions.AlgorithmException;
 import jaicore.ml.core.exception.PredictionException;
 import jaicore.ml.tsc.classifier.ASimplifiedTSCAlgorithm;
+import jaicore.ml.tsc.classifier.trees.InvertedLeafIndex.SparseLeafCounts;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
 import weka.core.Attribute;
 import weka.core.DenseInstance;
@@ -60,6 +66,11 @@ public class LearnPatternSimilarityAlgorithm
 	 */
 	private int seed;
 
+	/**
+	 * See {@link IAlgorithm#getNumCPUs()}.
+	 */
+	private int cpus = 1;
+
 	/**
 	 * See {@link IAlgorithm#getTimeout()}.
 	 */
@@ -125,19 +136,16 @@ public class LearnPatternSimilarityAlgorithm
 		final int[] classAttIndex = new int[this.numTrees];
 
 		final RandomRegressionTree[] trees = new RandomRegressionTree[this.numTrees];
-		final int[] numLeavesPerTree = new int[this.numTrees];
-		final int[][][] leafNodeCounts = new int[data.getNumberOfInstances()][this.numTrees][];
 
 		ArrayList<Attribute> attributes = new ArrayList<>();
 		for (int j = 0; j < 2 * this.numSegments; j++) {
 			attributes.add(new Attribute("val" + j));
 		}
 
-		for (int i = 0; i < numTrees; i++) {
-			if ((System.currentTimeMillis() - beginTimeMs) > this.getTimeout().milliseconds()) {
-				throw new TimeoutException("Timeout in tree iteration " + i + ".");
-			}
-
+		// Generate the random parameters of all trees in advance (in the same order as
+		// sequentially), such that the trees do not depend on the order of their
+		// training
+		for (int i = 0; i < this.numTrees; i++) {
 			// Generate subseries length
 			lengthPerTree[i] = random.nextInt(maxLength - minLength) + minLength;
 
@@ -146,39 +154,85 @@ public class LearnPatternSimilarityAlgorithm
 			this.generateSegmentsAndDifferencesForTree(segments[i], segmentsDifference[i], lengthPerTree[i],
 					timeSeriesLength, random);
 
-			// Generate subseries features
-			Instances seqInstances = generateSubseriesFeaturesInstances(attributes, lengthPerTree[i], segments[i],
-					segmentsDifference[i], dataMatrix);
-
 			classAttIndex[i] = random.nextInt(attributes.size());
-			seqInstances.setClassIndex(classAttIndex[i]);
-
-			trees[i] = this.initializeRegressionTree(seqInstances.numInstances());
-
-			try {
-				trees[i].buildClassifier(seqInstances);
-			} catch (Exception e) {
-				e.printStackTrace();
-				throw new AlgorithmException("Could not build tree in iteration " + i
-						+ " due to the following exception: " + e.getMessage());
-			}
+		}
 
-			numLeavesPerTree[i] = trees[i].nosLeafNodes;
-			for (int inst = 0; inst < data.getNumberOfInstances(); inst++) {
-				leafNodeCounts[inst][i] = new int[numLeavesPerTree[i]];
+		// Train the trees and collect the leaf nodes reached by the training instances'
+		// subsequences in parallel
+		final int[][] leafNodesPerTree = new int[this.numTrees][];
+		ExecutorService execService = Executors.newFixedThreadPool(Math.max(1, Math.min(this.cpus, this.numTrees)));
+		@SuppressWarnings("unchecked")
+		Future<RandomRegressionTree>[] futures = new Future[this.numTrees];
+		for (int i = 0; i < this.numTrees; i++) {
+			final int treeIdx = i;
+			futures[i] = execService.submit(new Callable<RandomRegressionTree>() {
+				@Override
+				public RandomRegressionTree call() throws Exception {
+					if ((System.currentTimeMillis() - beginTimeMs) > getTimeout().milliseconds()) {
+						throw new TimeoutException("Timeout in tree iteration " + treeIdx + ".");
+					}
 
-				for (int len = 0; len < lengthPerTree[i]; len++) {
-					int instanceIdx = inst * lengthPerTree[i] + len;
+					// Generate subseries features. Weka assigns the attribute indices when
+					// creating a dataset, hence the attributes are not shared among threads
+					ArrayList<Attribute> treeAttributes = new ArrayList<>(attributes.size());
+					for (Attribute attribute : attributes)
+						treeAttributes.add((Attribute) attribute.copy());
+					Instances seqInstances = generateSubseriesFeaturesInstances(treeAttributes,
+							lengthPerTree[treeIdx], segments[treeIdx], segmentsDifference[treeIdx], dataMatrix);
+					seqInstances.setClassIndex(classAttIndex[treeIdx]);
+
+					RandomRegressionTree tree = initializeRegressionTree(seqInstances.numInstances());
+					tree.buildClassifier(seqInstances);
+
+					final int[] leafNodes = new int[seqInstances.numInstances()];
+					for (int j = 0; j < leafNodes.length; j++)
+						leafNodes[j] = tree.getLeafNodeIndex(seqInstances.get(j));
+					leafNodesPerTree[treeIdx] = leafNodes;
+					return tree;
+				}
+			});
+		}
 
-					try {
-						collectLeafCounts(leafNodeCounts[inst][i], seqInstances.get(instanceIdx), trees[i]);
-					} catch (PredictionException e1) {
-						e1.printStackTrace();
-						throw new AlgorithmException("Could not prediction using the tree in iteration " + i
-								+ " due to the following exception: " + e1.getMessage());
-					}
+		// Wait for completion
+		execService.shutdown();
+		try {
+			for (int i = 0; i < this.numTrees; i++) {
+				try {
+					trees[i] = futures[i].get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof TimeoutException)
+						throw (TimeoutException) e.getCause();
+					throw new AlgorithmException(e.getCause(), "Could not build tree in iteration " + i
+							+ " due to the following exception: " + e.getCause().getMessage());
 				}
 			}
+		} finally {
+			execService.shutdownNow();
+		}
+		LOGGER.debug("Trained {} trees using {} threads.", this.numTrees, Math.min(this.cpus, this.numTrees));
+
+		// Generate the sparse leaf node counts of the training instances based on a
+		// consecutive numbering of all trees' leaf nodes
+		final int[] numLeavesPerTree = new int[this.numTrees];
+		final int[] leafOffsets = new int[this.numTrees];
+		for (int i = 0; i < this.numTrees; i++) {
+			numLeavesPerTree[i] = trees[i].getNumLeafNodes();
+			if (i > 0)
+				leafOffsets[i] = leafOffsets[i - 1] + numLeavesPerTree[i - 1];
+		}
+		int totalLength = 0;
+		for (int i = 0; i < this.numTrees; i++)
+			totalLength += lengthPerTree[i];
+
+		final SparseLeafCounts[] leafNodeCounts = new SparseLeafCounts[data.getNumberOfInstances()];
+		for (int inst = 0; inst < leafNodeCounts.length; inst++) {
+			final int[] leafNodes = new int[totalLength];
+			int pos = 0;
+			for (int i = 0; i < this.numTrees; i++) {
+				for (int len = 0; len < lengthPerTree[i]; len++)
+					leafNodes[pos++] = leafOffsets[i] + leafNodesPerTree[i][inst * lengthPerTree[i] + len];
+			}
+			leafNodeCounts[inst] = SparseLeafCounts.fromLeafNodes(leafNodes);
 		}
 
 		// Update model
@@ -187,7 +241,7 @@ public class LearnPatternSimilarityAlgorithm
 		this.model.setLengthPerTree(lengthPerTree);
 		this.model.setClassAttIndexPerTree(classAttIndex);
 		this.model.setTrees(trees);
-		this.model.setTrainLeafNodes(leafNodeCounts);
+		this.model.setTrainLeafIndex(new InvertedLeafIndex(numLeavesPerTree, leafNodeCounts));
 		this.model.setTrainTargets(targetMatrix);
 		this.model.setAttributes(attributes);
 
@@ -260,13 +314,13 @@ public class LearnPatternSimilarityAlgorithm
 	 */
 	public static void collectLeafCounts(final int[] leafNodeCountsForInstance, final Instance instance,
 			final RandomRegressionTree regTree) throws PredictionException {
+		int leafNodeIdx;
 		try {
-			regTree.distributionForInstance(instance);
-		} catch (Exception e) {
-			throw new PredictionException("Could not predict the distribution for instance for the given instance '"
+			leafNodeIdx = regTree.getLeafNodeIndex(instance);
+		} catch (RuntimeException e) {
+			throw new PredictionException("Could not predict the leaf node for the given instance '"
 					+ instance.toString() + "' due to an internal Weka exception.", e);
 		}
-		int leafNodeIdx = RandomRegressionTree.lastNode;
 		leafNodeCountsForInstance[leafNodeIdx]++;
 	}
 
@@ -322,6 +376,33 @@ public class LearnPatternSimilarityAlgorithm
 	 */
 	public static Instance generateSubseriesFeatureInstance(final double[] instValues, final int[] segments,
 			final int[] segmentsDifference, final int len) {
+		double[] features = new double[2 * segments.length];
+		generateSubseriesFeatures(instValues, segments, segmentsDifference, len, features);
+		return new DenseInstance(1d, features);
+	}
+
+	/**
+	 * Function generating the subseries features as described in
+	 * {@link LearnPatternSimilarityAlgorithm#generateSubseriesFeatureInstance(double[], int[], int[], int)}
+	 * without creating a Weka instance. The features are written to
+	 * <code>features</code>, such that the array can be reused for all
+	 * subsequences.
+	 * 
+	 * @param instValues
+	 *            Instance values used for feature generation
+	 * @param segments
+	 *            Segment start indices used for feature generation
+	 * @param segmentsDifference
+	 *            Segment difference start indices used for feature generation
+	 * @param len
+	 *            Current length (is added to the segment and segment difference
+	 *            locations)
+	 * @param features
+	 *            Array of the size <code>2 * segments.length</code> storing the
+	 *            generated features
+	 */
+	public static void generateSubseriesFeatures(final double[] instValues, final int[] segments,
+			final int[] segmentsDifference, final int len, final double[] features) {
 		if (segments.length != segmentsDifference.length)
 			throw new IllegalArgumentException(
 					"The number of segments and the number of segments differences must be the same!");
@@ -329,15 +410,11 @@ public class LearnPatternSimilarityAlgorithm
 			throw new IllegalArgumentException("If the segments' length is set to '" + len
 					+ "', the number of time series variables must be greater or equals!");
 
-		DenseInstance instance = new DenseInstance(2 * segments.length);
 		for (int seq = 0; seq < segments.length; seq++) {
-			instance.setValue(seq * 2, instValues[segments[seq] + len]);
-
-			double difference = instValues[segmentsDifference[seq] + len + 1]
+			features[seq * 2] = instValues[segments[seq] + len];
+			features[seq * 2 + 1] = instValues[segmentsDifference[seq] + len + 1]
 					- instValues[segmentsDifference[seq] + len];
-			instance.setValue(seq * 2 + 1, difference);
 		}
-		return instance;
 	}
 
 	/**
@@ -345,9 +422,7 @@ public class LearnPatternSimilarityAlgorithm
 	 */
 	@Override
 	public int getNumCPUs() {
-		LOGGER.warn(
-				"Multithreading is not supported for LearnPatternSimilarity yet. Therefore, the number of CPUs is not considered.");
-		return 1;
+		return this.cpus;
 	}
 
 	/**
@@ -355,8 +430,7 @@ public class LearnPatternSimilarityAlgorithm
 	 */
 	@Override
 	public void setNumCPUs(int numberOfCPUs) {
-		LOGGER.warn(
-				"Multithreading is not supported for LearnShapelets yet. Therefore, the number of CPUs is not considered.");
+		this.cpus = numberOfCPUs;
 	}
 
 	/**
@@ -1,18 +1,22 @@
 package jaicore.ml.tsc.classifier.trees;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jaicore.ml.core.exception.PredictionException;
 import jaicore.ml.tsc.classifier.ASimplifiedTSClassifier;
+import jaicore.ml.tsc.classifier.trees.InvertedLeafIndex.SparseLeafCounts;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
-import jaicore.ml.tsc.util.MathUtil;
 import weka.core.Attribute;
-import weka.core.Instance;
-import weka.core.Instances;
 
 /**
  * Class representing the Learn Pattern Similarity classifier as described in
@@ -61,10 +65,10 @@ public class LearnPatternSimilarityClassifier extends ASimplifiedTSClassifier<In
 	private RandomRegressionTree[] trees;
 
 	/**
-	 * The predicted leaf nodes for each instance per segment for each tree used
+	 * Index of the predicted leaf nodes of the training instances' segments used
 	 * within the 1NN search to predict the class values.
 	 */
-	private int[][][] trainLeafNodes;
+	private InvertedLeafIndex trainLeafIndex;
 
 	/**
 	 * The targets of the training instances which are used within the 1NN search to
@@ -94,6 +98,27 @@ public class LearnPatternSimilarityClassifier extends ASimplifiedTSClassifier<In
 		super(new LearnPatternSimilarityAlgorithm(seed, numTrees, maxTreeDepth, numSegments));
 	}
 
+	/**
+	 * Constructor additionally specifying the number of CPUs used for the training
+	 * and the prediction of datasets.
+	 * 
+	 * @param seed
+	 *            Seed used for randomized operations
+	 * @param numTrees
+	 *            Number of trees being trained
+	 * @param maxTreeDepth
+	 *            Maximum depth of the trained trees
+	 * @param numSegments
+	 *            Number of segments used per tree for feature generation
+	 * @param numOfCPUs
+	 *            Number of CPUs used for the training and prediction
+	 */
+	public LearnPatternSimilarityClassifier(final int seed, final int numTrees, final int maxTreeDepth,
+			final int numSegments, final int numOfCPUs) {
+		this(seed, numTrees, maxTreeDepth, numSegments);
+		this.algorithm.setNumCPUs(numOfCPUs);
+	}
+
 	/**
 	 * Predicts the class by generated segment and segment difference features based
 	 * on <code>segments</code> and <code>segmentsDifference</code>. The induced
@@ -113,54 +138,57 @@ public class LearnPatternSimilarityClassifier extends ASimplifiedTSClassifier<In
 
 		if (univInstance == null)
 			throw new IllegalArgumentException("Instance to be predicted must not be null or empty!");
-		
-		int[][] leafNodeCounts = new int[trees.length][];
 
-		for (int i = 0; i < trees.length; i++) {
-
-			// Generate subseries features
-			Instances seqInstances = new Instances("SeqFeatures", attributes, lengthPerTree[i]);
+		int totalLength = 0;
+		for (int i = 0; i < trees.length; i++)
+			totalLength += lengthPerTree[i];
 
+		// Collect the leaf nodes reached by the subsequences using the index' numbering
+		final int[] leafNodes = new int[totalLength];
+		final double[] features = new double[attributes.size()];
+		int pos = 0;
+		for (int i = 0; i < trees.length; i++) {
+			final int leafOffset = trainLeafIndex.getLeafOffset(i);
 			for (int len = 0; len < lengthPerTree[i]; len++) {
-				Instance instance = LearnPatternSimilarityAlgorithm.generateSubseriesFeatureInstance(univInstance,
-						segments[i], segmentsDifference[i], len);
-				seqInstances.add(instance);
-			}
-
-			seqInstances.setClassIndex(classAttIndexPerTree[i]);
-			leafNodeCounts[i] = new int[trees[i].nosLeafNodes];
-			
-			for(int inst = 0; inst< seqInstances.numInstances(); inst++) {
-				LearnPatternSimilarityAlgorithm.collectLeafCounts(leafNodeCounts[i], seqInstances.get(inst), trees[i]);
+				// Generate subseries features
+				LearnPatternSimilarityAlgorithm.generateSubseriesFeatures(univInstance, segments[i],
+						segmentsDifference[i], len, features);
+				try {
+					leafNodes[pos++] = leafOffset + trees[i].getLeafNodeIndex(features);
+				} catch (RuntimeException e) {
+					throw new PredictionException("Could not predict the leaf node of tree " + i
+							+ " due to an internal Weka exception.", e);
+				}
 			}
 		}
-		return trainTargets[findNearestInstanceIndex(leafNodeCounts)];
+		return trainTargets[findNearestInstanceIndex(SparseLeafCounts.fromLeafNodes(leafNodes))];
 	}
 
 	/**
-	 * Performs a simple nearest neighbor search on the stored
-	 * <code>trainLeafNodes</code> for the given <code>leafNodeCounts</code> using
+	 * Performs a nearest neighbor search on the stored
+	 * <code>trainLeafIndex</code> for the given <code>leafNodeCounts</code> using
 	 * Manhattan distance.
 	 * 
 	 * @param leafNodeCounts
-	 *            Leaf node counts induced during the prediction phase
+	 *            Leaf node counts per tree and leaf node induced during the
+	 *            prediction phase
 	 * @return Returns the index of the nearest neighbor instance
 	 */
 	public int findNearestInstanceIndex(final int[][] leafNodeCounts) {
-		double minDistance = Double.MAX_VALUE;
-		int nearestInstIdx = 0;
-		for (int inst = 0; inst < this.trainLeafNodes.length; inst++) {
-			double tmpDist = 0;
-			for (int i = 0; i < trainLeafNodes[inst].length; i++) {
-				tmpDist += MathUtil.intManhattanDistance(trainLeafNodes[inst][i], leafNodeCounts[i]);
-			}
+		return findNearestInstanceIndex(this.trainLeafIndex.toSparse(leafNodeCounts));
+	}
 
-			if (tmpDist < minDistance) {
-				minDistance = tmpDist;
-				nearestInstIdx = inst;
-			}
-		}
-		return nearestInstIdx;
+	/**
+	 * Performs a nearest neighbor search on the stored
+	 * <code>trainLeafIndex</code> for the given <code>leafNodeCounts</code> using
+	 * Manhattan distance.
+	 * 
+	 * @param leafNodeCounts
+	 *            Sparse leaf node counts induced during the prediction phase
+	 * @return Returns the index of the nearest neighbor instance
+	 */
+	public int findNearestInstanceIndex(final SparseLeafCounts leafNodeCounts) {
+		return this.trainLeafIndex.findNearestInstanceIndex(leafNodeCounts);
 	}
 
 	/**
@@ -188,14 +216,50 @@ public class LearnPatternSimilarityClassifier extends ASimplifiedTSClassifier<In
 		if (dataset == null || dataset.isEmpty())
 			throw new IllegalArgumentException("Dataset to be predicted must not be null or empty!");
 
-		double[][] data = dataset.getValuesOrNull(0);
-		List<Integer> predictions = new ArrayList<>();
+		final double[][] data = dataset.getValuesOrNull(0);
+		final Integer[] predictions = new Integer[data.length];
 		LOGGER.debug("Starting prediction...");
-		for (int i = 0; i < data.length; i++) {
-			predictions.add(this.predict(data[i]));
+
+		// Predict equally sized chunks of the instances in parallel
+		final int numThreads = Math.max(1, Math.min(this.algorithm.getNumCPUs(), data.length));
+		if (numThreads == 1) {
+			for (int i = 0; i < data.length; i++) {
+				predictions[i] = this.predict(data[i]);
+			}
+		} else {
+			ExecutorService execService = Executors.newFixedThreadPool(numThreads);
+			try {
+				List<Future<Void>> futures = new ArrayList<>();
+				for (int t = 0; t < numThreads; t++) {
+					final int from = (int) ((long) data.length * t / numThreads);
+					final int to = (int) ((long) data.length * (t + 1) / numThreads);
+					futures.add(execService.submit(new Callable<Void>() {
+						@Override
+						public Void call() throws PredictionException {
+							for (int i = from; i < to; i++) {
+								predictions[i] = predict(data[i]);
+							}
+							return null;
+						}
+					}));
+				}
+				for (Future<Void> future : futures) {
+					future.get();
+				}
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof PredictionException)
+					throw (PredictionException) e.getCause();
+				throw new PredictionException("Could not predict the dataset due to the following exception: "
+						+ e.getCause().getMessage(), e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PredictionException("The prediction has been interrupted.", e);
+			} finally {
+				execService.shutdownNow();
+			}
 		}
 		LOGGER.debug("Finished prediction.");
-		return predictions;
+		return new ArrayList<>(Arrays.asList(predictions));
 	}
 
 	/**
@@ -274,18 +338,29 @@ public class LearnPatternSimilarityClassifier extends ASimplifiedTSClassifier<In
 	}
 
 	/**
-	 * @return the trainLeafNodes
+	 * @return the trainLeafIndex
 	 */
-	public int[][][] getTrainLeafNodes() {
-		return trainLeafNodes;
+	public InvertedLeafIndex getTrainLeafIndex() {
+		return trainLeafIndex;
 	}
 
 	/**
+	 * @param trainLeafIndex
+	 *            the trainLeafIndex to set
+	 */
+	public void setTrainLeafIndex(InvertedLeafIndex trainLeafIndex) {
+		this.trainLeafIndex = trainLeafIndex;
+	}
+
+	/**
+	 * Sets the leaf node counts of the training instances by building the
+	 * <code>trainLeafIndex</code> on them.
+	 * 
 	 * @param trainLeafNodes
-	 *            the trainLeafNodes to set
+	 *            Leaf node counts per training instance, tree and leaf node
 	 */
 	public void setTrainLeafNodes(int[][][] trainLeafNodes) {
-		this.trainLeafNodes = trainLeafNodes;
+		this.trainLeafIndex = InvertedLeafIndex.fromDense(trainLeafNodes);
 	}
 
 	/**
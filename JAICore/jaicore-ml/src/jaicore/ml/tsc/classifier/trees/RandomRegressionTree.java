@@ -586,7 +586,6 @@ public class RandomRegressionTree extends AbstractClassifier
 	 */
 	@Override
 	public void buildClassifier(Instances data) throws Exception {
-		nodeCount = 0;
 		nosLeafNodes = 0;
 		// Make sure K value is in range
 		if (m_KValue > data.numAttributes() - 1) {
@@ -691,6 +690,44 @@ public class RandomRegressionTree extends AbstractClassifier
 		}
 	}
 
+	/**
+	 * Determines the index of the leaf node the given instance is sorted into. In
+	 * contrast to the prediction, this method does not depend on any shared state
+	 * and can therefore be called by multiple threads at the same time.
+	 * 
+	 * @param instance
+	 *            the instance to be sorted into the tree
+	 * @return the index of the leaf node in <code>[0, nosLeafNodes)</code>
+	 */
+	public int getLeafNodeIndex(Instance instance) {
+		return getLeafNodeIndex(instance.toDoubleArray());
+	}
+
+	/**
+	 * Determines the index of the leaf node the instance given by its attribute
+	 * values is sorted into. See {@link #getLeafNodeIndex(Instance)}.
+	 * 
+	 * @param instanceValues
+	 *            the attribute values of the instance (missing values are
+	 *            represented by NaN)
+	 * @return the index of the leaf node in <code>[0, nosLeafNodes)</code>
+	 */
+	public int getLeafNodeIndex(double[] instanceValues) {
+		if (m_zeroR != null) {
+			return 0;
+		}
+		return m_Tree.leafNodeIndex(instanceValues);
+	}
+
+	/**
+	 * Returns the number of leaf nodes of the built tree.
+	 * 
+	 * @return the number of leaf nodes (at least one)
+	 */
+	public int getNumLeafNodes() {
+		return Math.max(1, nosLeafNodes);
+	}
+
 	/**
 	 * Outputs the decision tree.
 	 * 
@@ -826,9 +863,6 @@ public class RandomRegressionTree extends AbstractClassifier
 	/**
 	 * The inner class for dealing with the tree.
 	 */
-	public static int nodeCount = 0; // reset in RegressionTree buildClassifier
-	public static int lastNode = 0;
-
 	protected class Tree implements Serializable {
       
     public int leafNodeID;
@@ -937,8 +971,6 @@ public class RandomRegressionTree extends AbstractClassifier
 
       // Node is a leaf or successor is empty?
       if ((m_Attribute == -1) || (returnedDist == null)) {
-        lastNode=leafNodeID;
-//          System.out.println("Setting last node ="+leafNodeID);
         // Is node empty?
         if (m_ClassDistribution == null) {
           if (getAllowUnclassifiedInstances()) {
@@ -1406,6 +1438,29 @@ public class RandomRegressionTree extends AbstractClassifier
       }
     }
 
+    /**
+     * Determines the index of the leaf node reached by the given instance. Missing
+     * values are sorted into the branch holding the largest proportion of the
+     * training instances.
+     * 
+     * @param values the attribute values of the instance
+     * @return the index of the reached leaf node
+     */
+    public int leafNodeIndex(double[] values) {
+      Tree node = this;
+      while (node.m_Attribute > -1) {
+        double value = values[node.m_Attribute];
+        if (Utils.isMissingValue(value)) {
+          node = node.m_Successors[Utils.maxIndex(node.m_Prop)];
+        } else if (m_Info.attribute(node.m_Attribute).isNominal()) {
+          node = node.m_Successors[(int) value];
+        } else {
+          node = node.m_Successors[value < node.m_SplitPoint ? 0 : 1];
+        }
+      }
+      return node.leafNodeID;
+    }
+
     /**
      * Computes size of the tree.
      * 
@@ -17,6 +17,7 @@ import jaicore.basic.algorithm.events.AlgorithmEvent;
 import jaicore.basic.algorithm.exceptions.AlgorithmException;
 import jaicore.ml.tsc.classifier.ASimplifiedTSCAlgorithm;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.features.IntervalFeatureStore;
 
 /**
  * Algorithm to train a time series forest classifier as described in Deng,
@@ -44,9 +45,9 @@ public class TimeSeriesForestAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 	private final int seed;
 
 	/**
-	 * Indicator whether feature caching should be used. Usage for datasets with
-	 * many attributes is not recommended due to a high number of possible
-	 * intervals.
+	 * Indicator whether feature caching should be used. If so, a single
+	 * {@link IntervalFeatureStore} is built on the training data and shared by all
+	 * trees.
 	 */
 	private boolean useFeatureCaching = false;
 
@@ -170,14 +171,22 @@ public class TimeSeriesForestAlgorithm extends ASimplifiedTSCAlgorithm<Integer,
 			throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException, AlgorithmException {
 		
 		TimeSeriesDataset dataset = this.getInput();
+
+		// Build the feature store once for all trees. Since it is immutable, it can be
+		// used by the trees concurrently
+		IntervalFeatureStore featureStore = null;
+		if (this.useFeatureCaching && !dataset.isEmpty() && !dataset.isMultivariate())
+			featureStore = new IntervalFeatureStore(dataset.getValuesOrNull(0),
+					TimeSeriesTreeAlgorithm.USE_BIAS_CORRECTION);
 		
 		// Perform Training
 		final TimeSeriesTree[] trees = new TimeSeriesTree[this.numTrees];
-		ExecutorService execService = Executors.newFixedThreadPool(this.cpus);
+		ExecutorService execService = Executors.newFixedThreadPool(Math.max(1, Math.min(this.cpus, this.numTrees)));
 		@SuppressWarnings("unchecked")
 		Future<TimeSeriesTree>[] futures = new Future[this.numTrees];
 		for (int i = 0; i < this.numTrees; i++) {
-			TimeSeriesTree tst = new TimeSeriesTree(this.maxDepth, this.seed + i, this.useFeatureCaching);
+			TimeSeriesTree tst = featureStore != null ? new TimeSeriesTree(this.maxDepth, this.seed + i, featureStore)
+					: new TimeSeriesTree(this.maxDepth, this.seed + i, this.useFeatureCaching);
 			futures[i] = execService.submit(new Callable<TimeSeriesTree>() {
 				@Override
 				public TimeSeriesTree call() throws Exception {
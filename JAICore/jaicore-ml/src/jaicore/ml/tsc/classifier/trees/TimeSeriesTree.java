@@ -10,6 +10,7 @@ import jaicore.graph.TreeNode;
 import jaicore.ml.core.exception.PredictionException;
 import jaicore.ml.tsc.classifier.ASimplifiedTSClassifier;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.features.IntervalFeatureStore;
 import jaicore.ml.tsc.features.TimeSeriesFeature;
 
 /**
@@ -81,6 +82,24 @@ public class TimeSeriesTree extends ASimplifiedTSClassifier<Integer> {
 				null);
 	}
 
+	/**
+	 * Constructs an empty time series tree using feature caching based on the
+	 * given feature store.
+	 * 
+	 * @param maxDepth
+	 *            Maximal depth of the tree to be trained
+	 * @param seed
+	 *            Seed used for randomized operations
+	 * @param featureStore
+	 *            Feature store built on the training data, which might be shared
+	 *            with other trees (no caching is used if null)
+	 */
+	public TimeSeriesTree(final int maxDepth, final int seed, final IntervalFeatureStore featureStore) {
+		super(new TimeSeriesTreeAlgorithm(maxDepth, seed, featureStore));
+		this.rootNode = new TreeNode<TimeSeriesTreeNodeDecisionFunction>(new TimeSeriesTreeNodeDecisionFunction(),
+				null);
+	}
+
 	/**
 	 * Getter for the root node.
 	 * 
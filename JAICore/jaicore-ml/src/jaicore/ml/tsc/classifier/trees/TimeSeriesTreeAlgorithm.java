@@ -6,7 +6,6 @@ import static jaicore.ml.tsc.features.TimeSeriesFeature.getFeatures;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -28,6 +27,7 @@ import jaicore.graph.TreeNode;
 import jaicore.ml.tsc.classifier.ASimplifiedTSCAlgorithm;
 import jaicore.ml.tsc.classifier.trees.TimeSeriesTree.TimeSeriesTreeNodeDecisionFunction;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.features.IntervalFeatureStore;
 import jaicore.ml.tsc.features.TimeSeriesFeature.FeatureType;
 import jaicore.ml.tsc.util.TimeSeriesUtil;
 
@@ -69,13 +69,14 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 	private final int maxDepth;
 
 	/**
-	 * Sparse cache used for already generated feature values.
+	 * Store providing the feature values of the training instances in constant
+	 * time if feature caching is used. Might be shared among multiple trees.
 	 */
-	private HashMap<Long, double[]> transformedFeaturesCache = null;
+	private IntervalFeatureStore featureStore = null;
 	/**
-	 * Indicator whether feature caching should be used. Usage for datasets with
-	 * many attributes is not recommended due to a high number of possible
-	 * intervals.
+	 * Indicator whether feature caching should be used. The features are then
+	 * derived from the prefix sums stored in the {@link #featureStore}, which
+	 * requires three times the memory of the training data.
 	 */
 	private boolean useFeatureCaching = false;
 
@@ -116,6 +117,23 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 		this.seed = seed;
 	}
 
+	/**
+	 * Constructor for an algorithm using the given feature store for the feature
+	 * generation. The store is only used if it has been built on the training
+	 * data's value matrix, otherwise a new one is built.
+	 * 
+	 * @param maxDepth
+	 *            Maximal depth of the tree to be trained
+	 * @param seed
+	 *            Seed used for randomized operations
+	 * @param featureStore
+	 *            The feature store to be used (might be shared with other trees)
+	 */
+	public TimeSeriesTreeAlgorithm(final int maxDepth, final int seed, final IntervalFeatureStore featureStore) {
+		this(maxDepth, seed, featureStore != null);
+		this.featureStore = featureStore;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -210,13 +228,12 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 		double parentEntropy = 2d;
 
 		// Set up feature caching
-		if (useFeatureCaching) {
-			int Q = dataMatrix[0].length;
-			this.transformedFeaturesCache = new HashMap<>(Q * Q * n);
-		}
+		if (useFeatureCaching && (this.featureStore == null || !this.featureStore.isBuiltOn(dataMatrix)))
+			this.featureStore = new IntervalFeatureStore(dataMatrix, USE_BIAS_CORRECTION);
 
 		// Build tree
-		tree(dataMatrix, data.getTargets(), parentEntropy, this.model.getRootNode(), 0);
+		tree(dataMatrix, IntStream.range(0, n).toArray(), data.getTargets(), parentEntropy,
+				this.model.getRootNode(), 0);
 
 		return this.model;
 	}
@@ -280,6 +297,34 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 	 */
 	public void tree(double[][] data, int[] targets, final double parentEntropy,
 			final TreeNode<TimeSeriesTreeNodeDecisionFunction> nodeToBeFilled, int depth) {
+		tree(data, null, targets, parentEntropy, nodeToBeFilled, depth);
+	}
+
+	/**
+	 * Tree generation as described in
+	 * {@link TimeSeriesTreeAlgorithm#tree(double[][], int[], double, TreeNode, int)}
+	 * keeping track of the instances' indices in the training data to look up
+	 * their features in the {@link TimeSeriesTreeAlgorithm#featureStore}.
+	 * 
+	 * @param data
+	 *            The untransformed data which will be used for the split in the
+	 *            transformed feature representation
+	 * @param instanceIndices
+	 *            The indices of the instances in the data the feature store has
+	 *            been built on (might be null if no feature store is used)
+	 * @param targets
+	 *            The targets of the instances
+	 * @param parentEntropy
+	 *            The parent entropy calculated in the recursion's previous step
+	 * @param nodeToBeFilled
+	 *            The tree node which should be filled with the splitting
+	 *            information to use it for predictions
+	 * @param depth
+	 *            The current depth to be compared to the
+	 *            {@link TimeSeriesTreeAlgorithm#maxDepth}
+	 */
+	public void tree(double[][] data, int[] instanceIndices, int[] targets, final double parentEntropy,
+			final TreeNode<TimeSeriesTreeNodeDecisionFunction> nodeToBeFilled, int depth) {
 
 		int n = targets.length;
 
@@ -287,7 +332,7 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 		Pair<List<Integer>, List<Integer>> T1T2 = sampleIntervals(data[0].length, this.seed);
 
 		// Transform instances
-		double[][][] transformedInstances = transformInstances(data, T1T2);
+		double[][][] transformedInstances = transformInstances(data, instanceIndices, T1T2);
 		List<List<Double>> thresholdCandidates = generateThresholdCandidates(T1T2, NUM_THRESH_CANDIDATES,
 				transformedInstances);
 
@@ -356,18 +401,24 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 		Pair<List<Integer>, List<Integer>> childDataIndices = getChildDataIndices(transformedInstances, n, fStar,
 				t1t2Star, thresholdStar);
 
-		double[][] dataLeft = new double[childDataIndices.getX().size()][data[0].length];
+		double[][] dataLeft = new double[childDataIndices.getX().size()][];
 		int[] targetsLeft = new int[childDataIndices.getX().size()];
-		double[][] dataRight = new double[childDataIndices.getY().size()][data[0].length];
+		int[] instanceIndicesLeft = instanceIndices != null ? new int[childDataIndices.getX().size()] : null;
+		double[][] dataRight = new double[childDataIndices.getY().size()][];
 		int[] targetsRight = new int[childDataIndices.getY().size()];
+		int[] instanceIndicesRight = instanceIndices != null ? new int[childDataIndices.getY().size()] : null;
 
 		for (int i = 0; i < childDataIndices.getX().size(); i++) {
 			dataLeft[i] = data[childDataIndices.getX().get(i)];
 			targetsLeft[i] = targets[childDataIndices.getX().get(i)];
+			if (instanceIndices != null)
+				instanceIndicesLeft[i] = instanceIndices[childDataIndices.getX().get(i)];
 		}
 		for (int i = 0; i < childDataIndices.getY().size(); i++) {
 			dataRight[i] = data[childDataIndices.getY().get(i)];
 			targetsRight[i] = targets[childDataIndices.getY().get(i)];
+			if (instanceIndices != null)
+				instanceIndicesRight[i] = instanceIndices[childDataIndices.getY().get(i)];
 		}
 
 		// Prepare the child nodes
@@ -377,8 +428,8 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 				.addChild(new TimeSeriesTreeNodeDecisionFunction());
 
 		// Recursion
-		tree(dataLeft, targetsLeft, deltaEntropyStar, leftNode, depth + 1);
-		tree(dataRight, targetsRight, deltaEntropyStar, rightNode, depth + 1);
+		tree(dataLeft, instanceIndicesLeft, targetsLeft, deltaEntropyStar, leftNode, depth + 1);
+		tree(dataRight, instanceIndicesRight, targetsRight, deltaEntropyStar, rightNode, depth + 1);
 	}
 
 	/**
@@ -578,26 +629,43 @@ public class TimeSeriesTreeAlgorithm extends ASimplifiedTSCAlgorithm<Integer, Ti
 	 *         number of interval pairs x number of instances)
 	 */
 	public double[][][] transformInstances(final double[][] dataset, Pair<List<Integer>, List<Integer>> T1T2) {
+		return transformInstances(dataset, null, T1T2);
+	}
+
+	/**
+	 * Method transforming the given <code>dataset</code> as described in
+	 * {@link TimeSeriesTreeAlgorithm#transformInstances(double[][], Pair)}. If
+	 * feature caching is used and the <code>instanceIndices</code> are given, the
+	 * features are looked up in the {@link TimeSeriesTreeAlgorithm#featureStore}.
+	 * 
+	 * @param dataset
+	 *            The dataset which should be transformed
+	 * @param instanceIndices
+	 *            The indices of the dataset's instances in the data the feature
+	 *            store has been built on (might be null)
+	 * @param T1T2
+	 *            The start and end interval pairs (see
+	 *            {@link TimeSeriesTreeAlgorithm#sampleIntervals(int, int)})
+	 * @return Returns the transformed instances (shape: number of feature types x
+	 *         number of interval pairs x number of instances)
+	 */
+	public double[][][] transformInstances(final double[][] dataset, final int[] instanceIndices,
+			Pair<List<Integer>, List<Integer>> T1T2) {
 		double[][][] result = new double[NUM_FEATURE_TYPES][T1T2.getX().size()][dataset.length];
 
 		int n = dataset.length;
+		final boolean useStore = this.useFeatureCaching && this.featureStore != null && instanceIndices != null;
+		double[] features = new double[NUM_FEATURE_TYPES];
 
 		for (int i = 0; i < n; i++) {
 			for (int j = 0; j < T1T2.getX().size(); j++) {
 
 				int t1 = T1T2.getX().get(j);
 				int t2 = T1T2.getY().get(j);
-				double[] features;
-
-				// If caching is used, calculate and store the generated features
-				if (this.useFeatureCaching) {
-					long key = i + dataset[i].length * t1 + dataset[i].length * dataset[i].length * t2;
-					if (!this.transformedFeaturesCache.containsKey(key)) {
-						features = getFeatures(dataset[i], t1, t2, USE_BIAS_CORRECTION);
-						this.transformedFeaturesCache.put(key, features);
-					} else {
-						features = this.transformedFeaturesCache.get(key);
-					}
+
+				// If caching is used, derive the features from the stored prefix sums
+				if (useStore) {
+					this.featureStore.getFeatures(instanceIndices[i], t1, t2, features);
 				} else {
 					features = getFeatures(dataset[i], t1, t2, USE_BIAS_CORRECTION);
 				}
@@ -22,4 +22,19 @@ public interface Abandonable {
      * @return The limit.
      */
     public double getBestSoFar();
+
+    /**
+     * Calculates the distance between two time series but may abandon the
+     * calculation as soon as it exceeds the given best-so-far value. Unlike
+     * {@link #setBestSoFar(double)}, the limit is only used for this call, so
+     * the method can be called concurrently.
+     * 
+     * @param A         First time series.
+     * @param B         Second time series.
+     * @param bestSoFar The limit.
+     * @return The distance between the two time series if it does not exceed
+     *         <code>bestSoFar</code>, and any value greater than
+     *         <code>bestSoFar</code> otherwise.
+     */
+    public double distance(double[] A, double[] B, double bestSoFar);
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package jaicore.ml.tsc.distances;
 
+import java.util.Arrays;
+
+import jaicore.ml.tsc.util.ScalarDistanceUtil;
+
 /**
  * Implementation of the Dynamic Time Warping (DTW) measure as published in
  * "Using Dynamic Time Warping to FindPatterns in Time Series" Donald J. Berndt
@@ -17,18 +21,31 @@ package jaicore.ml.tsc.distances;
  * <code>delta(i,j) is the point distance between <code>A_i</code> and
  * <code>B_i</code>.
  * 
+ * The calculation is carried out on two rows that are rolled over and reused
+ * by subsequent calculations of the same thread, so it does not allocate.
+ * Given a best-so-far distance (see {@link Abandonable}), the calculation is
+ * abandoned once the minimum of a row exceeds it, which is valid for every
+ * non-negative point distance. Instances are thread-safe if the best-so-far
+ * distance is passed via {@link #distance(double[], double[], double)}.
+ * 
  * @author fischor
  */
-public class DynamicTimeWarping implements ITimeSeriesDistance {
+public class DynamicTimeWarping implements ITimeSeriesDistance, Abandonable {
 
     /** Distance measure for scalar points. */
     IScalarDistance delta;
 
+    /** Kernel used to compute {@link #delta}. */
+    private final int kernel;
+
+    /** Best-so-far value used by {@link #distance(double[], double[])}. */
+    private double bestSoFar = Double.POSITIVE_INFINITY;
+
     /**
      * Creates an instance with absolute distance as point distance.
      */
     public DynamicTimeWarping() {
-        this((x, y) -> Math.abs(x - y));
+        this(ScalarDistanceUtil.getAbsoluteDistance());
     }
 
     /**
@@ -42,60 +59,91 @@ public class DynamicTimeWarping implements ITimeSeriesDistance {
             throw new IllegalArgumentException("Parameter delta must not be null.");
 
         this.delta = delta;
+        this.kernel = ElasticDistanceKernels.kernelOf(delta);
     }
 
     @Override
     public double distance(double[] A, double[] B) {
-        // Care in the most algorithm descriptions, the time series are 1-indexed.
-
-        int n = A.length;
-        int m = B.length;
-        double[][] M = new double[n + 1][m + 1]; // from 0 to n+1 incl. and 0 to m+1 incl.
+        return distance(A, B, bestSoFar);
+    }
 
-        // Initialize first row and column to infinity (except [0][0]).
-        for (int i = 1; i <= n; i++)
-            M[i][0] = Double.MAX_VALUE;
-        for (int j = 1; j <= m; j++)
-            M[0][j] = Double.MAX_VALUE;
-        // Initialize [0][0] with 0.
-        M[0][0] = 0d;
+    @Override
+    public double distance(double[] A, double[] B, double bestSoFar) {
+        return dynamicTimeWarping(A, B, Integer.MAX_VALUE, bestSoFar);
+    }
 
-        // Dynamic programming.
-        for (int i = 1; i <= n; i++) {
-            for (int j = 1; j <= m; j++) {
-                double cost = delta.distance(A[i - 1], B[j - 1]); // 1 indexed in algo.
-                double mini = Math.min(M[i - 1][j], Math.min(M[i][j - 1], M[i - 1][j - 1]));
-                M[i][j] = cost + mini;
-            }
-        }
+    public double distanceWithWindow(double[] A, double[] B, int w) {
+        return distanceWithWindow(A, B, w, Double.POSITIVE_INFINITY);
+    }
 
-        return M[n][m];
+    /**
+     * Calculates DTW within a Sakoe-Chiba window, but may abandon the calculation
+     * as soon as it exceeds the given best-so-far value.
+     * 
+     * @param A         First time series.
+     * @param B         Second time series.
+     * @param w         Size of the warping window.
+     * @param bestSoFar The limit.
+     * @return DTW distance or a value greater than <code>bestSoFar</code>.
+     */
+    public double distanceWithWindow(double[] A, double[] B, int w, double bestSoFar) {
+        return dynamicTimeWarping(A, B, w, bestSoFar);
     }
 
-    public double distanceWithWindow(double[] A, double[] B, int w) {
+    private double dynamicTimeWarping(double[] A, double[] B, int w, double bestSoFar) {
+        // Care in the most algorithm descriptions, the time series are 1-indexed.
+        // The rows are 1-indexed as well.
         int n = A.length;
         int m = B.length;
-        double[][] M = new double[n + 1][m + 1];
+        w = Math.max(Math.min(w, Math.max(n, m)), Math.abs(n - m));
 
-        w = Math.max(w, Math.abs(n - m));
+        double[][] rows = ElasticDistanceKernels.rows(m + 1);
+        double[] previous = rows[0];
+        double[] current = rows[1];
 
-        // Initialize first row and column to infinity (except [0][0]).
-        for (int i = 1; i <= n; i++)
-            M[i][0] = Double.MAX_VALUE;
-        for (int j = 1; j <= m; j++)
-            M[0][j] = Double.MAX_VALUE;
-        // Initialize [0][0] with 0.
-        M[0][0] = 0d;
+        // Initialize first row to infinity (except [0]).
+        previous[0] = 0d;
+        Arrays.fill(previous, 1, m + 1, Double.MAX_VALUE);
 
+        // Dynamic programming.
         for (int i = 1; i <= n; i++) {
-            for (int j = Math.max(1, i - w); j <= Math.min(m, i + w); j++) {
-                double cost = delta.distance(A[i - 1], B[j - 1]);
-                double mini = Math.min(M[i - 1][j], Math.min(M[i][j - 1], M[i - 1][j - 1]));
-                M[i][j] = cost + mini;
+            int from = Math.max(1, i - w);
+            int to = Math.min(m, i + w);
+            // Cells outside the window of the current row, which are read by this
+            // or the next row. For the first column, this is the initialization.
+            current[from - 1] = Double.MAX_VALUE;
+            if (to < m)
+                current[to + 1] = Double.MAX_VALUE;
+
+            double a = A[i - 1];
+            double rowMinimum = Double.POSITIVE_INFINITY;
+            for (int j = from; j <= to; j++) {
+                double cost = ElasticDistanceKernels.pointDistance(kernel, delta, a, B[j - 1]);
+                double mini = Math.min(previous[j], Math.min(current[j - 1], previous[j - 1]));
+                double cumulativeDistance = cost + mini;
+                current[j] = cumulativeDistance;
+                if (cumulativeDistance < rowMinimum)
+                    rowMinimum = cumulativeDistance;
             }
+            if (rowMinimum > bestSoFar)
+                return Double.POSITIVE_INFINITY;
+
+            double[] swap = previous;
+            previous = current;
+            current = swap;
         }
 
-        return M[n][m];
+        return previous[m];
+    }
+
+    @Override
+    public void setBestSoFar(double limit) {
+        this.bestSoFar = limit;
+    }
+
+    @Override
+    public double getBestSoFar() {
+        return this.bestSoFar;
     }
 
 }
\ No newline at end of file
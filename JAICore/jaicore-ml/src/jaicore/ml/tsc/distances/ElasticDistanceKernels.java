@@ -0,0 +1,116 @@
+package jaicore.ml.tsc.distances;
+
+import jaicore.ml.tsc.util.ScalarDistanceUtil;
+
+/**
+ * Shared building blocks of the elastic distance measures, i.e. the distances
+ * that are calculated via dynamic programming over the cells
+ * <code>(i, j)</code> of two time series.
+ *
+ * <ul>
+ * <li>The dynamic programming is carried out on two rows that are rolled over.
+ * The rows are kept per thread and grown on demand, so that a distance
+ * calculation does not allocate. Since no elastic distance calls another one
+ * during its calculation, the rows can be shared by all of them.</li>
+ * <li>The absolute and squared point distances of {@link ScalarDistanceUtil}
+ * are recognized and computed inline instead of calling the
+ * {@link IScalarDistance}.</li>
+ * </ul>
+ *
+ * @author agent
+ */
+final class ElasticDistanceKernels {
+
+    /** Kernel for an arbitrary {@link IScalarDistance}. */
+    static final int CUSTOM = 0;
+
+    /** Kernel for the absolute distance <code>|x - y|</code>. */
+    static final int ABSOLUTE = 1;
+
+    /** Kernel for the squared distance <code>(x - y)^2</code>. */
+    static final int SQUARED = 2;
+
+    /** Rolling rows of the dynamic programming per thread. */
+    private static final ThreadLocal<double[][]> ROWS = ThreadLocal.withInitial(() -> new double[2][0]);
+
+    /**
+     * Equidistant timestamps <code>{0, 1, ..}</code>, which are grown on demand
+     * and never written after publication.
+     */
+    private static volatile double[] equidistantTimestamps = new double[0];
+
+    private ElasticDistanceKernels() {
+        // Utility class.
+    }
+
+    /**
+     * Determines the kernel for a scalar distance measure.
+     *
+     * @param delta The scalar distance measure.
+     * @return {@link #ABSOLUTE} or {@link #SQUARED} if <code>delta</code> is the
+     *         respective distance of {@link ScalarDistanceUtil}, and
+     *         {@link #CUSTOM} otherwise.
+     */
+    static int kernelOf(IScalarDistance delta) {
+        if (delta == ScalarDistanceUtil.getAbsoluteDistance())
+            return ABSOLUTE;
+        if (delta == ScalarDistanceUtil.getSquaredDistance())
+            return SQUARED;
+        return CUSTOM;
+    }
+
+    /**
+     * Calculates the point distance of two scalars with the given kernel.
+     *
+     * @param kernel The kernel as determined by {@link #kernelOf(IScalarDistance)}.
+     * @param delta  The scalar distance measure the kernel was determined for.
+     * @param x      First scalar.
+     * @param y      Second scalar.
+     * @return The distance between <code>x</code> and <code>y</code>.
+     */
+    static double pointDistance(int kernel, IScalarDistance delta, double x, double y) {
+        switch (kernel) {
+        case ABSOLUTE:
+            return Math.abs(x - y);
+        case SQUARED:
+            double difference = x - y;
+            return difference * difference;
+        default:
+            return delta.distance(x, y);
+        }
+    }
+
+    /**
+     * Returns the two rows of the dynamic programming of the calling thread. The
+     * rows may contain values of previous calculations.
+     *
+     * @param length The minimum length of the rows.
+     * @return The rows <code>{previous, current}</code>.
+     */
+    static double[][] rows(int length) {
+        double[][] rows = ROWS.get();
+        if (rows[0].length < length) {
+            rows[0] = new double[length];
+            rows[1] = new double[length];
+        }
+        return rows;
+    }
+
+    /**
+     * Returns equidistant timestamps for a time series.
+     *
+     * @param length The length of the time series.
+     * @return Array whose first <code>length</code> entries are
+     *         <code>{0, 1, .., length - 1}</code>. Must not be modified.
+     */
+    static double[] equidistantTimestamps(int length) {
+        double[] timestamps = equidistantTimestamps;
+        if (timestamps.length < length) {
+            timestamps = new double[Math.max(length, 2 * timestamps.length)];
+            for (int i = 0; i < timestamps.length; i++)
+                timestamps[i] = i;
+            equidistantTimestamps = timestamps;
+        }
+        return timestamps;
+    }
+}
@@ -0,0 +1,329 @@
+package jaicore.ml.tsc.distances;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dynamic Time Warping (DTW) with a Sakoe-Chiba window for nearest neighbor
+ * search, pruned by a cascade of lower bounds as described in "Searching and
+ * Mining Trillions of Time Series Subsequences under Dynamic Time Warping" by
+ * Rakthanmanon et al.
+ *
+ * Given a best-so-far distance (see {@link Abandonable}), the calculation of
+ * <code>DTW(A, B)</code> is abandoned as soon as one of the following steps
+ * exceeds it:
+ * <ol>
+ * <li>LB_Kim: The point distances of the first and the last points, which are
+ * aligned in every warping path.</li>
+ * <li>LB_Keogh: The sum of the point distances of <code>A_i</code> to the
+ * envelope <code>[L_i, U_i]</code> of <code>B</code>, where <code>U_i</code>
+ * and <code>L_i</code> are the maximum and minimum of <code>B</code> within
+ * the window around <code>i</code> ("Exact indexing of dynamic time warping",
+ * Keogh and Ratanamahatana). The envelopes of the training series can be
+ * precomputed via {@link #fit(double[][])}; envelopes of other series are
+ * computed on the fly.</li>
+ * <li>DTW itself, computed on two rows that are rolled over, which is
+ * abandoned once the minimum of a row exceeds the best-so-far distance.</li>
+ * </ol>
+ * The lower bounds are only applied to series of equal length. They are valid
+ * for every point distance that is zero for equal points and non-decreasing in
+ * <code>|x - y|</code>, e.g. the absolute or squared distance. Without a
+ * best-so-far distance, the result is the exact DTW distance restricted to the
+ * window, i.e. it equals {@link DynamicTimeWarping#distance(double[], double[])}
+ * if the window is not smaller than the series.
+ *
+ * Instances are thread-safe if the best-so-far distance is passed via
+ * {@link #distance(double[], double[], double)}.
+ *
+ * @author agent
+ */
+public class LowerBoundedDynamicTimeWarping implements ITimeSeriesDistance, Abandonable {
+
+    /** Distance measure for scalar points. */
+    private final IScalarDistance delta;
+
+    /** Size of the warping window. */
+    private final int window;
+
+    /** Best-so-far value used by {@link #distance(double[], double[])}. */
+    private double bestSoFar = Double.POSITIVE_INFINITY;
+
+    /**
+     * Envelopes <code>{U, L}</code> of the series given to
+     * {@link #fit(double[][])}, identified by reference.
+     */
+    private volatile Map<double[], double[][]> envelopeIndex = Collections.emptyMap();
+
+    /** Number of calculations pruned by LB_Kim. */
+    private final LongAdder prunedByKim = new LongAdder();
+
+    /** Number of calculations pruned by LB_Keogh. */
+    private final LongAdder prunedByKeogh = new LongAdder();
+
+    /** Number of DTW calculations abandoned early. */
+    private final LongAdder abandoned = new LongAdder();
+
+    /** Number of DTW calculations carried out completely. */
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * Creates an instance with absolute distance as point distance and no
+     * window constraint.
+     */
+    public LowerBoundedDynamicTimeWarping() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates an instance with absolute distance as point distance.
+     *
+     * @param window Size of the warping window.
+     */
+    public LowerBoundedDynamicTimeWarping(int window) {
+        this(window, (x, y) -> Math.abs(x - y));
+    }
+
+    /**
+     * Creates an instance with a given scalar distance measure.
+     *
+     * @param window Size of the warping window.
+     * @param delta  Scalar distance measure. Must be zero for equal points and
+     *               non-decreasing in <code>|x - y|</code>.
+     */
+    public LowerBoundedDynamicTimeWarping(int window, IScalarDistance delta) {
+        // Parameter checks.
+        if (window < 0)
+            throw new IllegalArgumentException("Parameter window must be non-negative.");
+        if (delta == null)
+            throw new IllegalArgumentException("Parameter delta must not be null.");
+
+        this.window = window;
+        this.delta = delta;
+    }
+
+    /**
+     * Precomputes the envelopes of the given series, e.g. of the training
+     * instances of a nearest neighbor classifier. Replaces the envelopes of
+     * previously fitted series.
+     *
+     * @param series The series, which are later passed as second argument of
+     *               the distance calculation.
+     */
+    public void fit(double[][] series) {
+        Map<double[], double[][]> index = new IdentityHashMap<>(series.length);
+        for (double[] s : series) {
+            index.put(s, envelope(s, window));
+        }
+        this.envelopeIndex = index;
+    }
+
+    @Override
+    public double distance(double[] A, double[] B) {
+        return distance(A, B, bestSoFar);
+    }
+
+    @Override
+    public double distance(double[] A, double[] B, double bestSoFar) {
+        int n = A.length;
+        int m = B.length;
+
+        if (n == m && n > 0) {
+            // LB_Kim.
+            double lowerBound = delta.distance(A[0], B[0]);
+            if (n > 1)
+                lowerBound += delta.distance(A[n - 1], B[n - 1]);
+            if (lowerBound > bestSoFar) {
+                prunedByKim.increment();
+                return Double.POSITIVE_INFINITY;
+            }
+
+            // LB_Keogh.
+            double[][] envelope = envelopeIndex.get(B);
+            if (envelope == null)
+                envelope = envelope(B, window);
+            if (lowerBoundKeogh(A, envelope[0], envelope[1], bestSoFar) > bestSoFar) {
+                prunedByKeogh.increment();
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        return dynamicTimeWarping(A, B, bestSoFar);
+    }
+
+    /**
+     * Calculates LB_Keogh of a series to the envelope of another series.
+     *
+     * @param A         The series.
+     * @param upper     Upper envelope of the other series.
+     * @param lower     Lower envelope of the other series.
+     * @param bestSoFar The limit, on exceeding which the calculation is
+     *                  abandoned.
+     * @return LB_Keogh or a value greater than <code>bestSoFar</code>.
+     */
+    private double lowerBoundKeogh(double[] A, double[] upper, double[] lower, double bestSoFar) {
+        double lowerBound = 0;
+        for (int i = 0; i < A.length && lowerBound <= bestSoFar; i++) {
+            if (A[i] > upper[i])
+                lowerBound += delta.distance(A[i], upper[i]);
+            else if (A[i] < lower[i])
+                lowerBound += delta.distance(A[i], lower[i]);
+        }
+        return lowerBound;
+    }
+
+    /**
+     * Windowed DTW on two rolling rows, abandoned once a row minimum exceeds
+     * the best-so-far value.
+     *
+     * @param A         First time series.
+     * @param B         Second time series.
+     * @param bestSoFar The limit.
+     * @return DTW distance or a value greater than <code>bestSoFar</code>.
+     */
+    private double dynamicTimeWarping(double[] A, double[] B, double bestSoFar) {
+        // Care, the rows are 1-indexed as in the most algorithm descriptions.
+        int n = A.length;
+        int m = B.length;
+        int w = Math.max(Math.min(window, Math.max(n, m)), Math.abs(n - m));
+
+        double[] previous = new double[m + 1];
+        double[] current = new double[m + 1];
+        Arrays.fill(previous, Double.POSITIVE_INFINITY);
+        Arrays.fill(current, Double.POSITIVE_INFINITY);
+        previous[0] = 0d;
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - w);
+            int to = Math.min(m, i + w);
+            // Cells outside the window of the current row, which are read by this
+            // or the next row.
+            current[from - 1] = Double.POSITIVE_INFINITY;
+            if (to < m)
+                current[to + 1] = Double.POSITIVE_INFINITY;
+
+            double rowMinimum = Double.POSITIVE_INFINITY;
+            for (int j = from; j <= to; j++) {
+                double mini = Math.min(previous[j], Math.min(current[j - 1], previous[j - 1]));
+                double cumulativeDistance = delta.distance(A[i - 1], B[j - 1]) + mini;
+                current[j] = cumulativeDistance;
+                if (cumulativeDistance < rowMinimum)
+                    rowMinimum = cumulativeDistance;
+            }
+            if (rowMinimum > bestSoFar) {
+                abandoned.increment();
+                return Double.POSITIVE_INFINITY;
+            }
+
+            double[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        completed.increment();
+        return previous[m];
+    }
+
+    /**
+     * Computes the upper and lower envelope of a series in linear time using
+     * monotonic queues.
+     *
+     * @param series The series.
+     * @param window Size of the window.
+     * @return The envelope <code>{U, L}</code>, where <code>U_i</code> and
+     *         <code>L_i</code> are the maximum and minimum of
+     *         <code>series[i - window .. i + window]</code>.
+     */
+    public static double[][] envelope(double[] series, int window) {
+        int n = series.length;
+        int w = Math.min(window, Math.max(n - 1, 0));
+        double[] upper = new double[n];
+        double[] lower = new double[n];
+
+        // Queues of indices whose values are decreasing (maxima) or increasing
+        // (minima). Every index is added once, so arrays of length n suffice.
+        int[] maxima = new int[n];
+        int[] minima = new int[n];
+        int maxHead = 0, maxTail = 0, minHead = 0, minTail = 0;
+
+        for (int j = 0; j < n + w; j++) {
+            if (j < n) {
+                while (maxTail > maxHead && series[maxima[maxTail - 1]] <= series[j])
+                    maxTail--;
+                maxima[maxTail++] = j;
+                while (minTail > minHead && series[minima[minTail - 1]] >= series[j])
+                    minTail--;
+                minima[minTail++] = j;
+            }
+            int i = j - w;
+            if (i >= 0) {
+                while (maxima[maxHead] < i - w)
+                    maxHead++;
+                while (minima[minHead] < i - w)
+                    minHead++;
+                upper[i] = series[maxima[maxHead]];
+                lower[i] = series[minima[minHead]];
+            }
+        }
+        return new double[][] { upper, lower };
+    }
+
+    @Override
+    public void setBestSoFar(double limit) {
+        this.bestSoFar = limit;
+    }
+
+    @Override
+    public double getBestSoFar() {
+        return this.bestSoFar;
+    }
+
+    /**
+     * Getter for the size of the warping window.
+     *
+     * @return The window size.
+     */
+    public int getWindow() {
+        return this.window;
+    }
+
+    /**
+     * @return Number of distance calculations pruned by LB_Kim.
+     */
+    public long getNumberOfPrunedByKim() {
+        return prunedByKim.sum();
+    }
+
+    /**
+     * @return Number of distance calculations pruned by LB_Keogh.
+     */
+    public long getNumberOfPrunedByKeogh() {
+        return prunedByKeogh.sum();
+    }
+
+    /**
+     * @return Number of DTW calculations abandoned early.
+     */
+    public long getNumberOfAbandoned() {
+        return abandoned.sum();
+    }
+
+    /**
+     * @return Number of DTW calculations carried out completely.
+     */
+    public long getNumberOfCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Resets the pruning statistics.
+     */
+    public void resetStatistics() {
+        prunedByKim.reset();
+        prunedByKeogh.reset();
+        abandoned.reset();
+        completed.reset();
+    }
+}
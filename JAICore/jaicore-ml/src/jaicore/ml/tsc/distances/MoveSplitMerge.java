@@ -25,13 +25,20 @@ package jaicore.ml.tsc.distances;
  * <code>B</code> is defined be the cost of the lowest-cost transformation
  * <code>S*</code>, such that <code>transform(S*, A) = B</code>.
  * 
+ * As {@link DynamicTimeWarping}, the calculation does not allocate and can be
+ * abandoned given a best-so-far distance (see {@link Abandonable}), provided
+ * that <code>c</code> is non-negative.
+ * 
  * @author fischor
  */
-public class MoveSplitMerge implements ITimeSeriesDistance {
+public class MoveSplitMerge implements ITimeSeriesDistance, Abandonable {
 
     /** The constant cost for <i>Split</i> and <i>Merge</i> operations. */
     private double c;
 
+    /** Best-so-far value used by {@link #distance(double[], double[])}. */
+    private double bestSoFar = Double.POSITIVE_INFINITY;
+
     /**
      * Constructor.
      * 
@@ -43,30 +50,52 @@ public class MoveSplitMerge implements ITimeSeriesDistance {
 
     @Override
     public double distance(double[] A, double[] B) {
+        return distance(A, B, bestSoFar);
+    }
+
+    @Override
+    public double distance(double[] A, double[] B, double bestSoFar) {
         int n = A.length;
         int m = B.length;
-        double[][] Cost = new double[n][m];
 
-        // Initialization.
-        Cost[0][0] = Math.abs(A[0] - B[0]);
-        for (int i = 1; i < n; i++) {
-            Cost[i][0] = Cost[i - 1][0] + C(A[i], A[i - 1], B[0]);
-        }
+        // Rolling rows of Cost[0..n-1][0..m-1].
+        double[][] rows = ElasticDistanceKernels.rows(m);
+        double[] previous = rows[0];
+        double[] current = rows[1];
+
+        // Initialization of the first row.
+        previous[0] = Math.abs(A[0] - B[0]);
+        double rowMinimum = previous[0];
         for (int j = 1; j < m; j++) {
-            Cost[0][j] = Cost[0][j - 1] + C(B[j], A[0], B[j - 1]);
+            previous[j] = previous[j - 1] + C(B[j], A[0], B[j - 1]);
+            if (previous[j] < rowMinimum)
+                rowMinimum = previous[j];
         }
+        if (rowMinimum > bestSoFar)
+            return Double.POSITIVE_INFINITY;
 
         // Dynamic programming.
         for (int i = 1; i < n; i++) {
+            current[0] = previous[0] + C(A[i], A[i - 1], B[0]);
+            rowMinimum = current[0];
             for (int j = 1; j < m; j++) {
-                double costMove = Cost[i - 1][j - 1] + Math.abs(A[i] - B[j]);
-                double cost2 = Cost[i - 1][j] + C(A[i], A[i - 1], B[j]);
-                double cost3 = Cost[i][j - 1] + C(B[j], A[i], B[j - 1]);
-                Cost[i][j] = Math.min(costMove, Math.min(cost2, cost3));
+                double costMove = previous[j - 1] + Math.abs(A[i] - B[j]);
+                double cost2 = previous[j] + C(A[i], A[i - 1], B[j]);
+                double cost3 = current[j - 1] + C(B[j], A[i], B[j - 1]);
+                double minimum = Math.min(costMove, Math.min(cost2, cost3));
+                current[j] = minimum;
+                if (minimum < rowMinimum)
+                    rowMinimum = minimum;
             }
+            if (rowMinimum > bestSoFar)
+                return Double.POSITIVE_INFINITY;
+
+            double[] swap = previous;
+            previous = current;
+            current = swap;
         }
 
-        return Cost[n - 1][m - 1];
+        return previous[m - 1];
     }
 
     /**
@@ -86,4 +115,14 @@ public class MoveSplitMerge implements ITimeSeriesDistance {
         }
     }
 
+    @Override
+    public void setBestSoFar(double limit) {
+        this.bestSoFar = limit;
+    }
+
+    @Override
+    public double getBestSoFar() {
+        return this.bestSoFar;
+    }
+
 }
\ No newline at end of file
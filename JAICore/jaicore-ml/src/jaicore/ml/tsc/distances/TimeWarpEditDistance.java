@@ -1,5 +1,7 @@
 package jaicore.ml.tsc.distances;
 
+import java.util.Arrays;
+
 import jaicore.ml.tsc.util.ScalarDistanceUtil;
 
 /**
@@ -10,9 +12,12 @@ import jaicore.ml.tsc.util.ScalarDistanceUtil;
  * The similarity between two time series is measured as the minimum cost
  * sequence of edit operations needed to transform one time series into another.
  * 
+ * As {@link DynamicTimeWarping}, the calculation does not allocate and can be
+ * abandoned given a best-so-far distance (see {@link Abandonable}).
+ * 
  * @author fischor
  */
-public class TimeWarpEditDistance implements ITimeSeriesDistanceWithTimestamps {
+public class TimeWarpEditDistance implements ITimeSeriesDistanceWithTimestamps, Abandonable {
 
     /**
      * Stiffness parameter. Used to parametrize the influence of the time stamp
@@ -28,6 +33,12 @@ public class TimeWarpEditDistance implements ITimeSeriesDistanceWithTimestamps {
      */
     private IScalarDistance d;
 
+    /** Kernel used to compute {@link #d}. */
+    private final int kernel;
+
+    /** Best-so-far value used by {@link #distance(double[], double[])}. */
+    private double bestSoFar = Double.POSITIVE_INFINITY;
+
     /**
      * Constructor.
      * 
@@ -48,6 +59,7 @@ public class TimeWarpEditDistance implements ITimeSeriesDistanceWithTimestamps {
         this.lambda = lambda;
         this.nu = nu;
         this.d = d;
+        this.kernel = ElasticDistanceKernels.kernelOf(d);
     }
 
     /**
@@ -61,13 +73,44 @@ public class TimeWarpEditDistance implements ITimeSeriesDistanceWithTimestamps {
         this(lambda, nu, ScalarDistanceUtil.getSquaredDistance());
     }
 
+    @Override
+    public double distance(double[] A, double[] B) {
+        return distance(A, B, bestSoFar);
+    }
+
+    @Override
+    public double distance(double[] A, double[] B, double bestSoFar) {
+        // Equidistant timestamps without creating them per call.
+        return distance(A, ElasticDistanceKernels.equidistantTimestamps(A.length), B,
+                ElasticDistanceKernels.equidistantTimestamps(B.length), bestSoFar);
+    }
+
     @Override
     public double distance(double[] A, double[] tA, double[] B, double[] tB) {
+        return distance(A, tA, B, tB, bestSoFar);
+    }
+
+    /**
+     * Calculates the distance between two time series but may abandon the
+     * calculation as soon as it exceeds the given best-so-far value.
+     * 
+     * @param A         First time series.
+     * @param tA        Timestamps for the first time series.
+     * @param B         Second time series.
+     * @param tB        Timestamps for the second times series.
+     * @param bestSoFar The limit.
+     * @return The distance between the two time series if it does not exceed
+     *         <code>bestSoFar</code>, and any value greater than
+     *         <code>bestSoFar</code> otherwise.
+     */
+    public double distance(double[] A, double[] tA, double[] B, double[] tB, double bestSoFar) {
         int n = A.length;
         int m = B.length;
 
-        // DP[0..n, 0..m]
-        double[][] DP = new double[n + 1][m + 1];
+        // Rolling rows of DP[0..n, 0..m].
+        double[][] rows = ElasticDistanceKernels.rows(m + 1);
+        double[] previous = rows[0];
+        double[] current = rows[1];
 
         // declare A[0] := 0, tA[0] := 0
         // declare B[0] := 0, tB[0] := 0
@@ -75,14 +118,13 @@ public class TimeWarpEditDistance implements ITimeSeriesDistanceWithTimestamps {
         // referencing A[i-1] use A[i-2]
 
         // Dynamic Programming initialization.
-        for (int i = 1; i <= n; i++)
-            DP[i][0] = Double.MAX_VALUE;
-        for (int i = 1; i <= m; i++)
-            DP[0][i] = Double.MAX_VALUE;
-        DP[0][0] = 0d;
+        previous[0] = 0d;
+        Arrays.fill(previous, 1, m + 1, Double.MAX_VALUE);
 
         // Dynamic programming.
         for (int i = 1; i <= n; i++) {
+            current[0] = Double.MAX_VALUE;
+            double rowMinimum = Double.POSITIVE_INFINITY;
             for (int j = 1; j <= m; j++) {
 
                 // Cost for Deletion in A.
@@ -94,36 +136,65 @@ public class TimeWarpEditDistance implements ITimeSeriesDistanceWithTimestamps {
 
                 if (i == 1 && j == 1) {
                     // Substitute A[i-2] with 0 and B[j-2] with 0.
-                    c1 = DP[i - 1][j] + d.distance(0, A[i - 1]) + nu * tA[i - 1] + lambda;
-                    c2 = DP[i][j - 1] + d.distance(0, B[j - 1]) + nu * tB[j - 1] + lambda;
-                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[i - 1]) + nu * Math.abs(tA[i - 1] - tB[j - 1]);
+                    c1 = previous[j] + d(0, A[i - 1]) + nu * tA[i - 1] + lambda;
+                    c2 = current[j - 1] + d(0, B[j - 1]) + nu * tB[j - 1] + lambda;
+                    c3 = previous[j - 1] + d(A[i - 1], B[j - 1]) + nu * Math.abs(tA[i - 1] - tB[j - 1]);
                 } else if (i == 1) {
                     // Substitute A[i-2] with 0.
-                    c1 = DP[i - 1][j] + d.distance(0, A[i - 1]) + nu * tA[i - 1] + lambda;
-                    c2 = DP[i][j - 1] + d.distance(B[j - 2], B[j - 1]) + nu * (tB[j - 1] - tB[j - 2]) + lambda;
-                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[i - 1]) + d.distance(0, B[j - 2])
+                    c1 = previous[j] + d(0, A[i - 1]) + nu * tA[i - 1] + lambda;
+                    c2 = current[j - 1] + d(B[j - 2], B[j - 1]) + nu * (tB[j - 1] - tB[j - 2]) + lambda;
+                    c3 = previous[j - 1] + d(A[i - 1], B[j - 1]) + d(0, B[j - 2])
                             + nu * (Math.abs(tA[i - 1] - tB[j - 1]) + tB[j - 2]);
                 } else if (j == 1) {
                     // Substitute B[j-2] with 0.
-                    c1 = DP[i - 1][j] + d.distance(A[i - 2], A[i - 1]) + nu * (tA[i - 1] - tA[i - 2]) + lambda;
-                    c2 = DP[i][j - 1] + d.distance(0, B[j - 1]) + nu * tB[j - 1] + lambda;
-                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[i - 1]) + d.distance(A[i - 2], 0)
+                    c1 = previous[j] + d(A[i - 2], A[i - 1]) + nu * (tA[i - 1] - tA[i - 2]) + lambda;
+                    c2 = current[j - 1] + d(0, B[j - 1]) + nu * tB[j - 1] + lambda;
+                    c3 = previous[j - 1] + d(A[i - 1], B[j - 1]) + d(A[i - 2], 0)
                             + nu * (Math.abs(tA[i - 1] - tB[j - 1]) + tA[i - 2]);
                 } else {
                     // No substitution.
-                    c1 = DP[i - 1][j] + d.distance(A[i - 2], A[i - 1]) + nu * (tA[i - 1] - tA[i - 2]) + lambda;
-                    c2 = DP[i][j - 1] + d.distance(B[j - 2], B[j - 1]) + nu * (tB[j - 1] - tB[j - 2]) + lambda;
-                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[i - 1]) + d.distance(A[i - 2], B[j - 2])
+                    c1 = previous[j] + d(A[i - 2], A[i - 1]) + nu * (tA[i - 1] - tA[i - 2]) + lambda;
+                    c2 = current[j - 1] + d(B[j - 2], B[j - 1]) + nu * (tB[j - 1] - tB[j - 2]) + lambda;
+                    c3 = previous[j - 1] + d(A[i - 1], B[j - 1]) + d(A[i - 2], B[j - 2])
                             + nu * (Math.abs(tA[i - 1] - tB[j - 1]) + Math.abs(tA[i - 2] - tB[j - 2]));
                 }
 
                 // Minimum cost.
                 double minimum = Math.min(c1, Math.min(c2, c3));
-                DP[i][j] = minimum;
+                current[j] = minimum;
+                if (minimum < rowMinimum)
+                    rowMinimum = minimum;
             }
+            if (rowMinimum > bestSoFar)
+                return Double.POSITIVE_INFINITY;
+
+            double[] swap = previous;
+            previous = current;
+            current = swap;
         }
 
-        return DP[n][m];
+        return previous[m];
+    }
+
+    /**
+     * Point distance of two scalars.
+     * 
+     * @param x First scalar.
+     * @param y Second scalar.
+     * @return The distance between <code>x</code> and <code>y</code>.
+     */
+    private double d(double x, double y) {
+        return ElasticDistanceKernels.pointDistance(kernel, d, x, y);
+    }
+
+    @Override
+    public void setBestSoFar(double limit) {
+        this.bestSoFar = limit;
+    }
+
+    @Override
+    public double getBestSoFar() {
+        return this.bestSoFar;
     }
 
 }
\ No newline at end of file
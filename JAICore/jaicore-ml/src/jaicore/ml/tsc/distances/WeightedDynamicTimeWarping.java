@@ -1,7 +1,8 @@
 package jaicore.ml.tsc.distances;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of the Dynamic Time Warping (DTW) measure as published in
@@ -17,9 +18,12 @@ import java.util.Map;
  * with higher phase difference between a reference point and a testing point in
  * order to prevent minimum distance distortion caused by outliers.
  * 
+ * As {@link DynamicTimeWarping}, the calculation does not allocate and can be
+ * abandoned given a best-so-far distance (see {@link Abandonable}).
+ * 
  * @author fischor
  */
-public class WeightedDynamicTimeWarping implements ITimeSeriesDistance {
+public class WeightedDynamicTimeWarping implements ITimeSeriesDistance, Abandonable {
 
     /**
      * Controls the level of penalization for the points with larger phase
@@ -36,8 +40,20 @@ public class WeightedDynamicTimeWarping implements ITimeSeriesDistance {
     /** Distance measure for scalar points. */
     private IScalarDistance d;
 
+    /** Kernel used to compute {@link #d}. */
+    private final int kernel;
+
     /** Memorizes the calculated weight vectors for a specific length. */
-    private Map<Integer, double[]> weightMemoization = new HashMap<>();
+    private Map<Integer, double[]> weightMemoization = new ConcurrentHashMap<>();
+
+    /**
+     * The most recently used weight vector, which avoids boxing the length for
+     * the lookup if all time series have the same length.
+     */
+    private volatile double[] lastWeights = new double[0];
+
+    /** Best-so-far value used by {@link #distance(double[], double[])}. */
+    private double bestSoFar = Double.POSITIVE_INFINITY;
 
     /**
      * Constructor.
@@ -51,35 +67,52 @@ public class WeightedDynamicTimeWarping implements ITimeSeriesDistance {
         this.g = g;
         this.maximumWeight = maximumWeight;
         this.d = d;
+        this.kernel = ElasticDistanceKernels.kernelOf(d);
     }
 
     @Override
     public double distance(double[] A, double[] B) {
+        return distance(A, B, bestSoFar);
+    }
+
+    @Override
+    public double distance(double[] A, double[] B, double bestSoFar) {
         int n = A.length;
         int m = B.length;
-        double[][] M = new double[n + 1][m + 1];
+        double[][] rows = ElasticDistanceKernels.rows(m + 1);
+        double[] previous = rows[0];
+        double[] current = rows[1];
 
         double[] weights = calculateWeights(Math.max(n, m));
 
         // Dynamic Programming initialization.
-        for (int i = 1; i <= n; i++)
-            M[i][0] = Double.MAX_VALUE;
-        for (int j = 1; j <= m; j++)
-            M[0][j] = Double.MAX_VALUE;
-        M[0][0] = 0d;
+        previous[0] = 0d;
+        Arrays.fill(previous, 1, m + 1, Double.MAX_VALUE);
 
         // Dynamic programming.
         for (int i = 1; i <= n; i++) {
+            current[0] = Double.MAX_VALUE;
+            double a = A[i - 1];
+            double rowMinimum = Double.POSITIVE_INFINITY;
             for (int j = 1; j <= m; j++) {
                 // Paper: | w[i-j] (a_i - b_j) |^p
                 // double cost = Math.pow(Math.abs(weights[Math.abs(i - j)] * (A[i - 1] - B[j -
                 // 1])), p);
-                double cost = weights[Math.abs(i - j)] * this.d.distance(A[i - 1], B[j - 1]);
-                double minimum = Math.min(M[i - 1][j], Math.min(M[i][j - 1], M[i - 1][j - 1]));
-                M[i][j] = cost + minimum;
+                double cost = weights[Math.abs(i - j)] * ElasticDistanceKernels.pointDistance(kernel, d, a, B[j - 1]);
+                double minimum = Math.min(previous[j], Math.min(current[j - 1], previous[j - 1]));
+                double cumulativeDistance = cost + minimum;
+                current[j] = cumulativeDistance;
+                if (cumulativeDistance < rowMinimum)
+                    rowMinimum = cumulativeDistance;
             }
+            if (rowMinimum > bestSoFar)
+                return Double.POSITIVE_INFINITY;
+
+            double[] swap = previous;
+            previous = current;
+            current = swap;
         }
-        return M[n][m];
+        return previous[m];
     }
 
     /**
@@ -93,9 +126,14 @@ public class WeightedDynamicTimeWarping implements ITimeSeriesDistance {
      */
     protected double[] calculateWeights(int length) {
         // Use memoization.
-        double[] memoized = this.weightMemoization.get(length);
-        if (memoized != null)
+        double[] memoized = this.lastWeights;
+        if (memoized.length == length)
+            return memoized;
+        memoized = this.weightMemoization.get(length);
+        if (memoized != null) {
+            this.lastWeights = memoized;
             return memoized;
+        }
 
         // Calculate weights when not memoized.
         double[] weights = new double[length];
@@ -107,8 +145,19 @@ public class WeightedDynamicTimeWarping implements ITimeSeriesDistance {
 
         // Add to memoization-
         this.weightMemoization.put(length, weights);
+        this.lastWeights = weights;
 
         return weights;
     }
 
+    @Override
+    public void setBestSoFar(double limit) {
+        this.bestSoFar = limit;
+    }
+
+    @Override
+    public double getBestSoFar() {
+        return this.bestSoFar;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+package jaicore.ml.tsc.features;
+
+import jaicore.ml.tsc.classifier.trees.TimeSeriesForestAlgorithm;
+import jaicore.ml.tsc.features.TimeSeriesFeature.FeatureType;
+
+/**
+ * Store providing the features of {@link FeatureType} for arbitrary intervals
+ * of the instances of a dataset in constant time. Instead of caching the
+ * features of each interval, the store holds the prefix sums of the values,
+ * the squared values and the values weighted by their index for each instance,
+ * from which all features are derived (cf.
+ * {@link TimeSeriesFeature#getFeatures(double[], int, int, boolean)}).
+ *
+ * The store is built once per dataset and is immutable afterwards. Therefore,
+ * it can be shared by multiple trees trained in parallel (see
+ * {@link TimeSeriesForestAlgorithm}) without any synchronization.
+ *
+ * @author agent
+ *
+ */
+public class IntervalFeatureStore {
+	/**
+	 * Number of prefix sums stored per time step.
+	 */
+	private static final int NUM_SUMS = 3;
+
+	/**
+	 * The dataset the store has been built on.
+	 */
+	private final double[][] data;
+
+	/**
+	 * Prefix sums per instance. The sums of the values, squared values and
+	 * index-weighted values of the first <code>t</code> time steps are stored
+	 * interleaved at the positions <code>3t</code>, <code>3t+1</code> and
+	 * <code>3t+2</code>.
+	 */
+	private final double[][] prefixSums;
+
+	/**
+	 * Indicator whether the bias (Bessel's) correction is used for the standard
+	 * deviation.
+	 */
+	private final boolean useBiasCorrection;
+
+	/**
+	 * Constructor building the store for the given dataset.
+	 *
+	 * @param data
+	 *            The dataset's value matrix (must not be modified afterwards)
+	 * @param useBiasCorrection
+	 *            Indicator whether the bias (Bessel's) correction should be used
+	 *            for the standard deviation calculation
+	 */
+	public IntervalFeatureStore(final double[][] data, final boolean useBiasCorrection) {
+		if (data == null)
+			throw new IllegalArgumentException("The data the feature store is built on must not be null!");
+
+		this.data = data;
+		this.useBiasCorrection = useBiasCorrection;
+		this.prefixSums = new double[data.length][];
+
+		for (int i = 0; i < data.length; i++) {
+			final double[] vector = data[i];
+			final double[] sums = new double[NUM_SUMS * (vector.length + 1)];
+			for (int t = 0; t < vector.length; t++) {
+				sums[NUM_SUMS * (t + 1)] = sums[NUM_SUMS * t] + vector[t];
+				sums[NUM_SUMS * (t + 1) + 1] = sums[NUM_SUMS * t + 1] + vector[t] * vector[t];
+				sums[NUM_SUMS * (t + 1) + 2] = sums[NUM_SUMS * t + 2] + t * vector[t];
+			}
+			this.prefixSums[i] = sums;
+		}
+	}
+
+	/**
+	 * Checks whether the store has been built on the given value matrix.
+	 *
+	 * @param data
+	 *            The value matrix to be checked
+	 * @return Returns true if the store has been built on exactly the given matrix
+	 */
+	public boolean isBuiltOn(final double[][] data) {
+		return this.data == data;
+	}
+
+	/**
+	 * Getter for the number of instances.
+	 *
+	 * @return Returns the number of instances of the dataset the store has been
+	 *         built on
+	 */
+	public int getNumberOfInstances() {
+		return this.data.length;
+	}
+
+	/**
+	 * Calculates all features occurring in {@link FeatureType} of the given
+	 * interval of an instance. Equals
+	 * {@link TimeSeriesFeature#getFeatures(double[], int, int, boolean)} up to
+	 * rounding errors.
+	 *
+	 * @param instance
+	 *            The index of the instance
+	 * @param t1
+	 *            Start of the interval
+	 * @param t2
+	 *            End of the interval (inclusive)
+	 * @param result
+	 *            Array of at least the size
+	 *            {@link TimeSeriesFeature#NUM_FEATURE_TYPES} the features are
+	 *            written to
+	 */
+	public void getFeatures(final int instance, final int t1, final int t2, final double[] result) {
+		final double[] vector = this.data[instance];
+		if (t1 >= vector.length || t2 >= vector.length)
+			throw new IllegalArgumentException("Parameters t1 and t2 must be valid indices of the vector.");
+
+		if (t1 == t2) {
+			result[0] = vector[t1];
+			result[1] = 0d;
+			result[2] = 0d;
+			return;
+		}
+
+		final double[] sums = this.prefixSums[instance];
+		final int from = NUM_SUMS * t1;
+		final int to = NUM_SUMS * (t2 + 1);
+		final double y = sums[to] - sums[from];
+		final double yy = sums[to + 1] - sums[from + 1];
+		final double xy = sums[to + 2] - sums[from + 2];
+
+		final double length = t2 - t1 + 1d;
+		// Sums of the indices and the squared indices in closed form
+		final double x = (t1 + t2) * length / 2d;
+		final double xx = sumOfSquares(t2) - sumOfSquares(t1 - 1);
+
+		// Calculate the mean
+		result[0] = y / length;
+
+		// Calculate the standard deviation. The variance is clipped since it may get
+		// slightly negative due to rounding errors of the prefix sums
+		double variance = (yy / length - ((y / length) * (y / length)));
+		if (this.useBiasCorrection)
+			variance *= length / (length - 1);
+		result[1] = Math.sqrt(Math.max(variance, 0d));
+
+		// Calculate slope
+		result[2] = (length * xy - x * y) / (length * xx - x * x);
+	}
+
+	/**
+	 * Calculates all features occurring in {@link FeatureType} of the given
+	 * interval of an instance. See
+	 * {@link IntervalFeatureStore#getFeatures(int, int, int, double[])}.
+	 *
+	 * @param instance
+	 *            The index of the instance
+	 * @param t1
+	 *            Start of the interval
+	 * @param t2
+	 *            End of the interval (inclusive)
+	 * @return Returns an double array of the size
+	 *         {@link TimeSeriesFeature#NUM_FEATURE_TYPES} storing the generated
+	 *         feature values.
+	 */
+	public double[] getFeatures(final int instance, final int t1, final int t2) {
+		double[] result = new double[TimeSeriesFeature.NUM_FEATURE_TYPES];
+		getFeatures(instance, t1, t2, result);
+		return result;
+	}
+
+	/**
+	 * Calculates the sum of the squares <code>0^2 + 1^2 + ... + k^2</code>.
+	 *
+	 * @param k
+	 *            The largest summand's base
+	 * @return Returns the sum of squares (0 for negative <code>k</code>)
+	 */
+	private static double sumOfSquares(final int k) {
+		if (k <= 0)
+			return 0d;
+		return (double) k * (k + 1) * (2L * k + 1) / 6d;
+	}
+}
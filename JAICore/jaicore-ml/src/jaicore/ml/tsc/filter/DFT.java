@@ -60,6 +60,14 @@ public class DFT implements IFilter {
 
 	private boolean rekursivFirstInstance;   
 	
+	/**
+	 * cos(2*pi*m/n) and sin(2*pi*m/n) for m in [0,n) where n is the length of the last transformed instance.
+	 * As all windows of a dataset have the same length the table is computed only once and no trigonometric
+	 * function has to be evaluated per entry.
+	 */
+	private double[] cosTable = new double[0];
+	private double[] sinTable = new double[0];
+	
 	public void setPaperSpecificVariable(double paperSpecificVariable) {
 		this.paperSpecificVariable = paperSpecificVariable;
 		variableSet = true;
@@ -160,6 +168,15 @@ public class DFT implements IFilter {
 		if(rekursivFirstInstance) {
 			startingpoint = 0;
 		}
+		if(cosTable.length != input.length) {
+			cosTable = new double[input.length];
+			sinTable = new double[input.length];
+			for(int m = 0; m < input.length; m++) {
+				cosTable[m] = Math.cos(2.0*Math.PI*m/input.length);
+				sinTable[m] = Math.sin(2.0*Math.PI*m/input.length);
+			}
+		}
+		
 		//The buffer for the calculated DFT coefficeients
 		DFTCoefficientsInstance = new double[numberOfDisieredCoefficients*2-(startingpoint*2)];
 		
@@ -168,26 +185,30 @@ public class DFT implements IFilter {
 		
 		for(int coefficient = startingpoint; coefficient<numberOfDisieredCoefficients; coefficient++) {
 			
-			Complex result = new Complex(0.0,0.0);
-
+			double real = 0.0;
+			double imaginary = 0.0;
+			
+			//index of entry*coefficient modulo the length in the twiddle table
+			int m = 0;
 			for(int entry = 0; entry < input.length; entry++) {
 				
 				//calculates the real and imaginary part of the entry according to the desired coefficient
+				//e^(-j*2*pi*entry*coefficient/n) = cos(2*pi*m/n) - j*sin(2*pi*m/n)
 				//c.f. p. 1510 "The BOSS is concerned with time series classification in the presence of noise" by Patrick Schfer
-				double realpart = Math.cos(-(1.0/(double)input.length)*2.0*Math.PI*(double)entry*(double)coefficient);
-				double imaginarypart =  Math.sin(-(1.0/(double)input.length)*2.0*Math.PI*(double)entry*(double)coefficient);
+				real += input[entry]*cosTable[m];
+				imaginary -= input[entry]*sinTable[m];
 				
-				Complex tmp = new Complex(realpart,imaginarypart);
-				tmp = tmp.multiply(input[entry]);
-				
-				result = result.add(tmp);
+				m += coefficient;
+				if(m >= input.length) {
+					m -= input.length;
+				}
 			}
 			
 			//result = result.multiply(paperSpecificVariable);
 			
 			//saves the calculated coefficient in the buffer with first the real part and than the imaginary
-			DFTCoefficientsInstance[loopcounter]= result.getReal();
-			DFTCoefficientsInstance[loopcounter+1] = result.getImaginary();
+			DFTCoefficientsInstance[loopcounter]= real;
+			DFTCoefficientsInstance[loopcounter+1] = imaginary;
 			loopcounter+=2;
 		}
 		if(rekursivFirstInstance) {
@@ -0,0 +1,18 @@
+package jaicore.ml.tsc.filter;
+
+/**
+ * Filter whose transformation of a time series only depends on the time series
+ * itself. Hence, the filter does not need to be fitted and transforms the rows
+ * of a matrix independently of each other.
+ *
+ * Implementations must be stateless, such that {@link #transform(double[])} can
+ * be called concurrently, and must not modify the given time series.
+ *
+ * @author agent
+ */
+public interface IInstanceWiseFilter extends IFilter {
+
+    @Override
+    public double[] transform(double[] input);
+
+}
@@ -0,0 +1,158 @@
+package jaicore.ml.tsc.filter;
+
+/**
+ * @author agent
+ *	Calculates the first DFT coefficients of all z-normalized sliding windows of an instance
+ *	incrementally (momentary Fourier transform). Instead of cutting the instance into windows,
+ *	normalizing them and computing each DFT from scratch in O(w * k), the coefficients of the raw window
+ *	are updated in O(k) when the window is shifted by one:
+ *
+ *	X_k(i+1) = (X_k(i) - x_i + x_(i+w)) * e^(j*2*pi*k/w)
+ *
+ *	Since the DFT is linear, the coefficients of the z-normalized window are those of the raw window
+ *	divided by its standard deviation, except for the first coefficient which is always zero. The mean
+ *	and the standard deviation are updated incrementally as well. The coefficients of a window are
+ *	recomputed from scratch every w shifts, which bounds the accumulation of rounding errors and keeps
+ *	the amortized costs per window in O(k).
+ *
+ *	The sines and cosines are precomputed once (twiddle tables) such that no trigonometric function is
+ *	evaluated while transforming. The instances of this class are immutable and can be shared by threads.
+ *
+ *	c.f. p. 1516 "The BOSS is concerned with time series classification in the presence of noise" by Patrick Schaefer
+ *	Best explanation of the algorithm can be found here : "https://www.dsprelated.com/showarticle/776.php"
+ */
+public class MomentaryDFT {
+
+	private final int windowSize;
+
+	private final int numberOfCoefficients;
+
+	/**
+	 * Whether the standard deviation is computed with Bessel's correction as by default in {@link ZTransformer}.
+	 */
+	private final boolean besselCorrected;
+
+	/**
+	 * cos(2*pi*m/w) and sin(2*pi*m/w) for m in [0,w), which covers all products of entry and coefficient modulo w.
+	 */
+	private final double[] cosTable;
+	private final double[] sinTable;
+
+	/**
+	 * @param windowSize The size w of the sliding windows.
+	 * @param numberOfCoefficients The number k of DFT coefficients calculated per window.
+	 * @param besselCorrected Whether the standard deviation for the z-normalization is Bessel corrected.
+	 */
+	public MomentaryDFT(int windowSize, int numberOfCoefficients, boolean besselCorrected) {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("The window size must be positive.");
+		}
+		if (numberOfCoefficients < 0 || numberOfCoefficients > windowSize) {
+			throw new IllegalArgumentException("There cannot be more DFT coefficents calcualated than there entrys in a window.");
+		}
+		this.windowSize = windowSize;
+		this.numberOfCoefficients = numberOfCoefficients;
+		this.besselCorrected = besselCorrected;
+
+		cosTable = new double[windowSize];
+		sinTable = new double[windowSize];
+		for (int m = 0; m < windowSize; m++) {
+			cosTable[m] = Math.cos(2.0 * Math.PI * m / windowSize);
+			sinTable[m] = Math.sin(2.0 * Math.PI * m / windowSize);
+		}
+	}
+
+	/**
+	 * @param instance The instance which is split into sliding windows.
+	 * @return For each of the n-w+1 windows the real and imaginary parts of the first k DFT coefficients of the
+	 * z-normalized window, i.e. the same values as the {@link DFT} of the windows of the
+	 * {@link SlidingWindowBuilder} normalized by the {@link ZTransformer} (up to rounding errors).
+	 */
+	public double[][] transform(double[] instance) {
+		if (instance.length < windowSize) {
+			throw new IllegalArgumentException("The input instance can not be smaller than the windowsize");
+		}
+		int numberOfWindows = instance.length - windowSize + 1;
+		double[][] output = new double[numberOfWindows][2 * numberOfCoefficients];
+
+		// coefficients of the current raw window
+		double[] real = new double[numberOfCoefficients];
+		double[] imaginary = new double[numberOfCoefficients];
+		double sum = 0;
+		double squaredSum = 0;
+
+		for (int window = 0; window < numberOfWindows; window++) {
+			if (window % windowSize == 0) {
+				// (re-)compute the coefficients of the window from scratch
+				sum = 0;
+				squaredSum = 0;
+				for (int entry = 0; entry < windowSize; entry++) {
+					double value = instance[window + entry];
+					sum += value;
+					squaredSum += value * value;
+				}
+				// the first coefficient of a z-normalized window is zero and hence not computed
+				for (int coefficient = 1; coefficient < numberOfCoefficients; coefficient++) {
+					double re = 0;
+					double im = 0;
+					int m = 0;
+					for (int entry = 0; entry < windowSize; entry++) {
+						double value = instance[window + entry];
+						re += value * cosTable[m];
+						im -= value * sinTable[m];
+						m += coefficient;
+						if (m >= windowSize) {
+							m -= windowSize;
+						}
+					}
+					real[coefficient] = re;
+					imaginary[coefficient] = im;
+				}
+			} else {
+				// shift the window by one: remove the first entry of the last window, add the new last entry and rotate
+				double removed = instance[window - 1];
+				double added = instance[window + windowSize - 1];
+				double difference = added - removed;
+				sum += difference;
+				squaredSum += added * added - removed * removed;
+				for (int coefficient = 1; coefficient < numberOfCoefficients; coefficient++) {
+					double re = real[coefficient] + difference;
+					double im = imaginary[coefficient];
+					real[coefficient] = re * cosTable[coefficient] - im * sinTable[coefficient];
+					imaginary[coefficient] = re * sinTable[coefficient] + im * cosTable[coefficient];
+				}
+			}
+
+			// z-normalize the coefficients of the window, the mean only affects the first coefficient
+			double deviation = deviation(sum, squaredSum);
+			if (deviation > 0) {
+				double[] coefficients = output[window];
+				for (int coefficient = 1; coefficient < numberOfCoefficients; coefficient++) {
+					coefficients[2 * coefficient] = real[coefficient] / deviation;
+					coefficients[2 * coefficient + 1] = imaginary[coefficient] / deviation;
+				}
+			}
+		}
+		return output;
+	}
+
+	/**
+	 * @return The standard deviation of the window as computed by the {@link ZTransformer}.
+	 */
+	private double deviation(double sum, double squaredSum) {
+		double mean = sum / windowSize;
+		double variance = Math.max(0, squaredSum / windowSize - mean * mean);
+		if (besselCorrected) {
+			variance *= (double) windowSize / (windowSize - 1);
+		}
+		return Math.sqrt(variance);
+	}
+
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	public int getNumberOfCoefficients() {
+		return numberOfCoefficients;
+	}
+}
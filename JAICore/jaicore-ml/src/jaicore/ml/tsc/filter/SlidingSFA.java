@@ -0,0 +1,228 @@
+package jaicore.ml.tsc.filter;
+
+import java.util.Arrays;
+
+/**
+ * @author agent
+ *	Calculates the SFA words of all z-normalized sliding windows of an instance as it is done for BOSS
+ *	by the {@link SlidingWindowBuilder}, the {@link ZTransformer} and the {@link SFA} but in one pass:
+ *	The DFT coefficients of the windows are updated incrementally by the {@link MomentaryDFT}, the MCB
+ *	quantisation intervals are learned on the windows of the instance and every word is packed into a
+ *	single long where each letter is represented by the index of the letter in the alphabet using
+ *	ceil(log2(alphabet size)) bits. Hence two words are equal if and only if their longs are equal.
+ *
+ *	The letters are assigned with the same rules as in {@link SFA}. The instances of this class are immutable
+ *	and can be shared by threads.
+ *
+ *	c.f. p. 1510 p. 1516 "The BOSS is concerned with time series classification in the presence of noise" by Patrick Schaefer
+ */
+public class SlidingSFA {
+
+	private final MomentaryDFT dft;
+
+	private final int alphabetSize;
+
+	/**
+	 * The number of letters of a word which are the real and imaginary parts of the used DFT coefficients.
+	 */
+	private final int numberOfLetters;
+
+	/**
+	 * If mean corrected is set to true than the first DFT coefficient is dropped.
+	 */
+	private final int firstCoefficient;
+
+	private final int bitsPerLetter;
+
+	/**
+	 * @param windowSize The size of the sliding windows.
+	 * @param wordLength The word length where the number of used DFT coefficients is half the word length.
+	 * @param alphabetSize The number of letters of the alphabet.
+	 * @param meanCorrected Whether the first DFT coefficient is dropped.
+	 */
+	public SlidingSFA(int windowSize, int wordLength, int alphabetSize, boolean meanCorrected) {
+		if (alphabetSize < 2) {
+			throw new IllegalArgumentException("The alphabet must contain at least two letters.");
+		}
+		int numberOfCoefficients = wordLength / 2;
+		if (numberOfCoefficients < 1) {
+			throw new IllegalArgumentException("The word length must be at least two.");
+		}
+		this.alphabetSize = alphabetSize;
+		this.numberOfLetters = 2 * numberOfCoefficients;
+		this.firstCoefficient = meanCorrected ? 1 : 0;
+		this.bitsPerLetter = 32 - Integer.numberOfLeadingZeros(alphabetSize - 1);
+		if (numberOfLetters * bitsPerLetter > Long.SIZE) {
+			throw new IllegalArgumentException("A word of " + numberOfLetters + " letters of an alphabet of size " + alphabetSize + " can not be packed into a long.");
+		}
+		this.dft = new MomentaryDFT(windowSize, numberOfCoefficients + firstCoefficient, true);
+	}
+
+	/**
+	 * @param instance The instance which is split into sliding windows.
+	 * @return The packed SFA words of the n-w+1 windows in the order of the windows.
+	 */
+	public long[] transform(double[] instance) {
+		return transform(dft.transform(instance));
+	}
+
+	/**
+	 * Calculates the SFA words from the already calculated DFT coefficients of the windows. This way the coefficients
+	 * can be shared by several SFAs with the same window size but different word lengths or alphabets.
+	 * @param coefficients The DFT coefficients of the windows calculated by a {@link MomentaryDFT} with the same window size
+	 * and at least {@link #getNumberOfDFTCoefficients()} coefficients (the additional ones are ignored).
+	 * @return The packed SFA words of the windows in the order of the windows.
+	 */
+	public long[] transform(double[][] coefficients) {
+		if (coefficients.length > 0 && coefficients[0].length < 2 * dft.getNumberOfCoefficients()) {
+			throw new IllegalArgumentException("The windows must have at least " + dft.getNumberOfCoefficients() + " DFT coefficients.");
+		}
+		long[] words = new long[coefficients.length];
+
+		double[] column = new double[coefficients.length];
+		double[] breakpoints = new double[alphabetSize - 1];
+		for (int letter = 0; letter < numberOfLetters; letter++) {
+			int index = 2 * firstCoefficient + letter;
+			for (int window = 0; window < coefficients.length; window++) {
+				column[window] = coefficients[window][index];
+			}
+			computeBreakpoints(column, breakpoints);
+			for (int window = 0; window < coefficients.length; window++) {
+				words[window] = (words[window] << bitsPerLetter) | letterIndex(coefficients[window][index], breakpoints);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Calculates the MCB quantisation intervals of one letter over all windows as in {@link SFA#fit(jaicore.ml.tsc.dataset.TimeSeriesDataset)}.
+	 * Only the values at the breakpoint positions of the sorted column are needed, hence they are selected from the largest
+	 * to the smallest position each in expected linear time instead of sorting the whole column.
+	 * @param column The values of the letter for all windows (is reordered).
+	 * @param breakpoints The buffer for the alphabet size - 1 breakpoints.
+	 */
+	private void computeBreakpoints(double[] column, double[] breakpoints) {
+		if (column.length == breakpoints.length) {
+			Arrays.sort(column);
+			System.arraycopy(column, 0, breakpoints, 0, breakpoints.length);
+		} else {
+			int splitValue = column.length / alphabetSize;
+			int to = column.length;
+			for (int letter = alphabetSize - 1; letter > 0; letter--) {
+				int position = letter * splitValue;
+				// all values at smaller positions are not larger than the selected value
+				breakpoints[letter - 1] = select(column, 0, to, position);
+				to = position;
+			}
+		}
+	}
+
+	/**
+	 * Quickselect: Reorders the values in [from,to) such that the value at the given position is the one it would
+	 * have in the sorted array, the values before are not larger and the values after are not smaller.
+	 * @return The value at the position.
+	 */
+	private static double select(double[] values, int from, int to, int position) {
+		if (position >= to) {
+			// the position has already been selected
+			return values[position];
+		}
+		int left = from;
+		int right = to - 1;
+		while (right > left) {
+			// median of three as pivot
+			int middle = (left + right) >>> 1;
+			if (Double.compare(values[middle], values[left]) < 0) {
+				swap(values, middle, left);
+			}
+			if (Double.compare(values[right], values[left]) < 0) {
+				swap(values, right, left);
+			}
+			if (Double.compare(values[right], values[middle]) < 0) {
+				swap(values, right, middle);
+			}
+			double pivot = values[middle];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (Double.compare(values[i], pivot) < 0) {
+					i++;
+				}
+				while (Double.compare(values[j], pivot) > 0) {
+					j--;
+				}
+				if (i <= j) {
+					swap(values, i, j);
+					i++;
+					j--;
+				}
+			}
+			if (position <= j) {
+				right = j;
+			} else if (position >= i) {
+				left = i;
+			} else {
+				break;
+			}
+		}
+		return values[position];
+	}
+
+	private static void swap(double[] values, int i, int j) {
+		double tmp = values[i];
+		values[i] = values[j];
+		values[j] = tmp;
+	}
+
+	/**
+	 * Selects the letter of a value as in {@link SFA#transform(jaicore.ml.tsc.dataset.TimeSeriesDataset)}: Values lying on a
+	 * breakpoint get the next letter.
+	 */
+	private int letterIndex(double value, double[] breakpoints) {
+		int last = breakpoints.length - 1;
+		if (value < breakpoints[0]) {
+			return 0;
+		}
+		if (value == breakpoints[0]) {
+			return 1;
+		}
+		if (value >= breakpoints[last]) {
+			return alphabetSize - 1;
+		}
+		for (int i = 1; i <= last; i++) {
+			if (value < breakpoints[i]) {
+				return i;
+			}
+			if (value == breakpoints[i]) {
+				return i + 1;
+			}
+		}
+		// not comparable (NaN)
+		return 0;
+	}
+
+	/**
+	 * @param word A packed word.
+	 * @param position The position of the letter in the word.
+	 * @return The index of the letter in the alphabet.
+	 */
+	public int letterAt(long word, int position) {
+		int shift = (numberOfLetters - 1 - position) * bitsPerLetter;
+		return (int) ((word >>> shift) & ((1L << bitsPerLetter) - 1));
+	}
+
+	public int getNumberOfLetters() {
+		return numberOfLetters;
+	}
+
+	public int getWindowSize() {
+		return dft.getWindowSize();
+	}
+
+	/**
+	 * @return The number of DFT coefficients needed per window (including the dropped first one if mean corrected).
+	 */
+	public int getNumberOfDFTCoefficients() {
+		return dft.getNumberOfCoefficients();
+	}
+}
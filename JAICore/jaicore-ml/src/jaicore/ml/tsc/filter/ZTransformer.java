@@ -92,7 +92,7 @@ public class ZTransformer implements IFilter {
 		double[] ztransform = new double[input.length];
 		for(int entry = 0; entry < input.length; entry++) {
 			if(deviation != 0) {
-				ztransform[entry] = (entry-mean)/deviation;
+				ztransform[entry] = (input[entry]-mean)/deviation;
 			}
 		}
 		fittedInstance = false;
@@ -1,14 +1,14 @@
 package jaicore.ml.tsc.filter.derivate;
 
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
-import jaicore.ml.tsc.filter.IFilter;
+import jaicore.ml.tsc.filter.IInstanceWiseFilter;
 
 /**
  * Abstract superclass for all derivate filters.
  * 
  * @author fischor
  */
-public abstract class ADerivateFilter implements IFilter {
+public abstract class ADerivateFilter implements IInstanceWiseFilter {
 
     /**
      * Flag that states wheter the filter should add a padding to the derivate
@@ -1,14 +1,14 @@
 package jaicore.ml.tsc.filter.transform;
 
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
-import jaicore.ml.tsc.filter.IFilter;
+import jaicore.ml.tsc.filter.IInstanceWiseFilter;
 
 /**
  * Abstract superclass for all transform filters.
  * 
  * @author fischor
  */
-public abstract class ATransformFilter implements IFilter {
+public abstract class ATransformFilter implements IInstanceWiseFilter {
 
     @Override
     public TimeSeriesDataset transform(TimeSeriesDataset input) {
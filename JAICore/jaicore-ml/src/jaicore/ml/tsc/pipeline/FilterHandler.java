@@ -1,18 +1,23 @@
 package jaicore.ml.tsc.pipeline;
 
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.exceptions.NoneFittedFilterExeception;
 import jaicore.ml.tsc.filter.IFilter;
 
 /**
  * Class used within a pipeline that specified how to apply a filter on a
  * dataset.
  * 
+ * The filters are applied by a {@link FilterPipeline}, such that a sequence of
+ * filters can be applied to a value matrix at once and share cached results
+ * with other pipelines.
+ * 
  * @author fischor
  */
 public class FilterHandler {
 
-    /** THe filter to apply. */
-    IFilter filter;
+    /** The filters to apply. */
+    FilterPipeline filters;
 
     /** The index of the value matrix in the dataset to apply the filter to. */
     int valueMatrixIndex;
@@ -24,27 +29,40 @@ public class FilterHandler {
     boolean append;
 
     public FilterHandler(IFilter filter, int valueMatrixIndex, boolean append) {
-        this.filter = filter;
+        this(new FilterPipeline().add(filter), valueMatrixIndex, append);
+    }
+
+    public FilterHandler(FilterPipeline filters, int valueMatrixIndex, boolean append) {
+        this.filters = filters;
         this.valueMatrixIndex = valueMatrixIndex;
         this.append = append;
     }
 
-    public void fit(TimeSeriesDataset dataset) {
+    public void fit(TimeSeriesDataset dataset) throws NoneFittedFilterExeception {
         // Get values and fit filter.
         double[][] matrix = dataset.getValues(valueMatrixIndex);
-        this.filter.fit(matrix);
+        this.filters.fitTransform(matrix);
+    }
+
+    public void transform(TimeSeriesDataset dataset) throws NoneFittedFilterExeception {
+        // Get the values and transform them.
+        double[][] valueMatrix = dataset.getValues(valueMatrixIndex);
+        update(dataset, this.filters.transform(valueMatrix));
     }
 
-    public void transform(TimeSeriesDataset dataset) {
-        // Get the values and timestamps.
+    public void fitTransform(TimeSeriesDataset dataset) throws NoneFittedFilterExeception {
+        // Get the values, fit the filter and transform them at once.
         double[][] valueMatrix = dataset.getValues(valueMatrixIndex);
-        double[][] timestampMatrix = dataset.getTimestampsOrNull(valueMatrixIndex);
-        // Transform the values.
-        double[][] valueMatrixTransformed = this.filter.transform(valueMatrix);
+        update(dataset, this.filters.fitTransform(valueMatrix));
+    }
+
+    private void update(TimeSeriesDataset dataset, double[][] valueMatrixTransformed) {
+        // The transformed values might differ in length, hence their timestamps
+        // are unknown.
         // Append (at the end) or replace.
         if (this.append)
-            dataset.add(valueMatrix, timestampMatrix);
+            dataset.add(valueMatrixTransformed, null);
         else
-            dataset.replace(valueMatrixIndex, valueMatrixTransformed, timestampMatrix);
+            dataset.replace(valueMatrixIndex, valueMatrixTransformed, null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,360 @@
+package jaicore.ml.tsc.pipeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import jaicore.ml.tsc.exceptions.NoneFittedFilterExeception;
+import jaicore.ml.tsc.filter.IFilter;
+import jaicore.ml.tsc.filter.IInstanceWiseFilter;
+import jaicore.ml.tsc.pipeline.FilterPipelineCache.CachedSegment;
+
+/**
+ * Lazily evaluated sequence of filters that is applied to a value matrix.
+ *
+ * Consecutive {@link IInstanceWiseFilter}s are fused, i.e. each time series is
+ * passed through all of them at once without materializing the intermediate
+ * matrices, and the time series are processed in parallel. All other filters
+ * have to be fitted on the whole matrix and are applied one after another.
+ *
+ * If a {@link FilterPipelineCache} is given, the fitted filters and the
+ * intermediate results are cached by the fingerprint of the input matrix and
+ * the descriptors of the filters applied so far. Pipelines that share the
+ * cache and start with equally described filters (e.g. the members of an
+ * ensemble or the candidates of a tuning run) fit and apply these filters only
+ * once. Nothing is computed for a prefix whose result is already cached.
+ *
+ * A pipeline must not be used by multiple threads at the same time, whereas a
+ * cache can be shared by pipelines that are used concurrently.
+ *
+ * @author agent
+ */
+public class FilterPipeline {
+
+    /** Separator of the parts of the cache keys. */
+    private static final String KEY_SEPARATOR = "|";
+
+    /** Maximum number of time series transformed by a single task. */
+    private static final int ROWS_PER_TASK = 16;
+
+    /**
+     * Factories of the filters in the order they are applied. A new filter is
+     * created for each fit of a cached filter, since fitted filters are shared via
+     * the cache and must not be refitted. Filters are only created when the
+     * pipeline is fitted and a segment is not cached.
+     */
+    private final List<Supplier<? extends IFilter>> filterFactories = new ArrayList<>();
+
+    /**
+     * Descriptors of the filters' types and configurations, <code>null</code> for
+     * filters whose results must not be cached.
+     */
+    private final List<String> descriptors = new ArrayList<>();
+
+    /** Whether the filters are instance-wise. */
+    private final List<Boolean> instanceWise = new ArrayList<>();
+
+    /** Cache shared by multiple pipelines or <code>null</code>. */
+    private final FilterPipelineCache cache;
+
+    /** The filters fitted by the last call of {@link #fitTransform(double[][])}. */
+    private IFilter[] fittedFilters = null;
+
+    /** Number of threads used to apply instance-wise filters. */
+    private int cpus = 1;
+
+    /**
+     * Constructs an empty pipeline without caching.
+     */
+    public FilterPipeline() {
+        this(null);
+    }
+
+    /**
+     * Constructs an empty pipeline.
+     *
+     * @param cache The cache used for the filters that are added with a
+     *              descriptor, or <code>null</code> if no caching shall be used.
+     */
+    public FilterPipeline(final FilterPipelineCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Appends a filter that is not cached. Since no filter after it can be cached
+     * either, it should be added after all cached filters.
+     *
+     * @param filter The filter.
+     * @return This pipeline.
+     */
+    public FilterPipeline add(final IFilter filter) {
+        if (filter == null)
+            throw new IllegalArgumentException("The filter must not be null.");
+
+        this.filterFactories.add(() -> filter);
+        this.descriptors.add(null);
+        this.instanceWise.add(filter instanceof IInstanceWiseFilter);
+        this.fittedFilters = null;
+        return this;
+    }
+
+    /**
+     * Appends a filter whose fitted state and result are cached.
+     *
+     * @param filterClass   Type of the filters created by the factory, which
+     *                      determines whether they are instance-wise and is part
+     *                      of the descriptor.
+     * @param filterFactory Factory creating equally configured filters.
+     * @param configuration Descriptor of the filters' configuration. Pipelines
+     *                      whose filters have equal types and configurations share
+     *                      their cached results.
+     * @return This pipeline.
+     */
+    public <F extends IFilter> FilterPipeline add(final Class<F> filterClass, final Supplier<? extends F> filterFactory,
+            final String configuration) {
+        if (filterClass == null)
+            throw new IllegalArgumentException("The filter class must not be null.");
+        if (filterFactory == null)
+            throw new IllegalArgumentException("The filter factory must not be null.");
+        if (configuration == null)
+            throw new IllegalArgumentException("The configuration of a cached filter must not be null.");
+
+        this.filterFactories.add(filterFactory);
+        this.descriptors.add(filterClass.getName() + "(" + configuration + ")");
+        this.instanceWise.add(IInstanceWiseFilter.class.isAssignableFrom(filterClass));
+        this.fittedFilters = null;
+        return this;
+    }
+
+    /**
+     * Fits the filters on the given matrix and transforms it.
+     *
+     * @param matrix The matrix to fit the filters on and to transform.
+     * @return The transformed matrix. Might be shared with other pipelines via the
+     *         cache and must therefore not be modified.
+     * @throws NoneFittedFilterExeception Thrown by a filter.
+     */
+    public double[][] fitTransform(final double[][] matrix) throws NoneFittedFilterExeception {
+        if (matrix == null || matrix.length == 0)
+            throw new IllegalArgumentException("The matrix to be transformed must not be empty.");
+
+        final IFilter[] filters = new IFilter[this.filterFactories.size()];
+        final int[] segmentEnds = segmentEnds();
+        final String[] keys = cacheKeys(matrix, segmentEnds);
+
+        // Continue from the longest cached prefix.
+        int segment = segmentEnds.length - 1;
+        CachedSegment longestCachedPrefix = null;
+        for (; segment >= 0 && longestCachedPrefix == null; segment--) {
+            if (keys[segment] != null)
+                longestCachedPrefix = this.cache.getIfPresent(keys[segment]);
+        }
+        if (longestCachedPrefix != null)
+            segment++;
+
+        double[][] result = matrix;
+        if (longestCachedPrefix != null) {
+            System.arraycopy(longestCachedPrefix.fittedFilters, 0, filters, 0, longestCachedPrefix.fittedFilters.length);
+            result = longestCachedPrefix.result;
+        }
+
+        for (segment++; segment < segmentEnds.length; segment++) {
+            final int from = segment > 0 ? segmentEnds[segment - 1] : 0;
+            final int to = segmentEnds[segment];
+            for (int i = from; i < to; i++)
+                filters[i] = this.filterFactories.get(i).get();
+
+            if (keys[segment] == null) {
+                result = applySegment(filters, from, to, result, true);
+            } else {
+                final double[][] input = result;
+                CachedSegment cached = this.cache.computeIfAbsent(keys[segment],
+                        () -> new CachedSegment(applySegment(filters, from, to, input, true),
+                                Arrays.copyOf(filters, to)));
+                // Use the filters of the cache if they have been fitted by another pipeline.
+                System.arraycopy(cached.fittedFilters, 0, filters, 0, to);
+                result = cached.result;
+            }
+        }
+
+        this.fittedFilters = filters;
+        return result;
+    }
+
+    /**
+     * Transforms the given matrix using the filters fitted by the last call of
+     * {@link #fitTransform(double[][])}.
+     *
+     * @param matrix The matrix to transform.
+     * @return The transformed matrix.
+     * @throws NoneFittedFilterExeception Thrown if the pipeline has not been
+     *                                    fitted before or by a filter.
+     */
+    public double[][] transform(final double[][] matrix) throws NoneFittedFilterExeception {
+        if (this.fittedFilters == null)
+            throw new NoneFittedFilterExeception("The fitTransform method must be called before transforming.");
+        if (matrix == null || matrix.length == 0)
+            throw new IllegalArgumentException("The matrix to be transformed must not be empty.");
+
+        double[][] result = matrix;
+        int from = 0;
+        for (int to : segmentEnds()) {
+            result = applySegment(this.fittedFilters, from, to, result, false);
+            from = to;
+        }
+        return result;
+    }
+
+    /**
+     * Transforms a single time series using the filters fitted by the last call
+     * of {@link #fitTransform(double[][])}.
+     *
+     * @param instance The time series to transform.
+     * @return The transformed time series.
+     * @throws NoneFittedFilterExeception Thrown if the pipeline has not been
+     *                                    fitted before or by a filter.
+     */
+    public double[] transform(final double[] instance) throws NoneFittedFilterExeception {
+        return transform(new double[][] { instance })[0];
+    }
+
+    /**
+     * Getter for the number of threads used to apply instance-wise filters.
+     *
+     * @return The number of threads.
+     */
+    public int getNumCPUs() {
+        return this.cpus;
+    }
+
+    /**
+     * Setter for the number of threads used to apply instance-wise filters.
+     *
+     * @param cpus The number of threads.
+     */
+    public void setNumCPUs(final int cpus) {
+        this.cpus = cpus;
+    }
+
+    /**
+     * Splits the filters into segments that are applied at once, i.e. maximal runs
+     * of instance-wise filters and single other filters.
+     *
+     * @return The (exclusive) ends of the segments.
+     */
+    private int[] segmentEnds() {
+        List<Integer> ends = new ArrayList<>();
+        for (int i = 0; i < this.instanceWise.size(); i++) {
+            if (!this.instanceWise.get(i) || i + 1 == this.instanceWise.size() || !this.instanceWise.get(i + 1))
+                ends.add(i + 1);
+        }
+        return ends.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Determines the cache keys of the segments' results.
+     *
+     * @param matrix      The input matrix of the pipeline.
+     * @param segmentEnds The ends of the segments.
+     * @return The cache keys, <code>null</code> for segments whose results must not
+     *         be cached.
+     */
+    private String[] cacheKeys(final double[][] matrix, final int[] segmentEnds) {
+        String[] keys = new String[segmentEnds.length];
+        if (this.cache == null || this.descriptors.isEmpty() || this.descriptors.get(0) == null)
+            return keys;
+
+        StringBuilder key = new StringBuilder(FilterPipelineCache.fingerprint(matrix));
+        int from = 0;
+        for (int segment = 0; segment < segmentEnds.length; segment++) {
+            for (int i = from; i < segmentEnds[segment]; i++) {
+                if (this.descriptors.get(i) == null)
+                    return keys;
+                key.append(KEY_SEPARATOR).append(this.descriptors.get(i));
+            }
+            keys[segment] = key.toString();
+            from = segmentEnds[segment];
+        }
+        return keys;
+    }
+
+    /**
+     * Applies a segment of filters to a matrix.
+     *
+     * @param filters The filters of the pipeline.
+     * @param from    The first filter of the segment.
+     * @param to      The end of the segment (exclusive).
+     * @param matrix  The matrix to transform.
+     * @param fit     Whether the filters shall be fitted.
+     * @return The transformed matrix.
+     * @throws NoneFittedFilterExeception Thrown by a filter.
+     */
+    private double[][] applySegment(final IFilter[] filters, final int from, final int to, final double[][] matrix,
+            final boolean fit) throws NoneFittedFilterExeception {
+        if (filters[from] instanceof IInstanceWiseFilter) {
+            IInstanceWiseFilter[] fused = Arrays.copyOfRange(filters, from, to, IInstanceWiseFilter[].class);
+            double[][] result = new double[matrix.length][];
+            InstanceWiseTask task = new InstanceWiseTask(fused, matrix, result, 0, matrix.length);
+            if (this.cpus > 1 && matrix.length > ROWS_PER_TASK) {
+                ForkJoinPool pool = new ForkJoinPool(this.cpus);
+                try {
+                    pool.invoke(task);
+                } finally {
+                    pool.shutdown();
+                }
+            } else {
+                task.compute();
+            }
+            return result;
+        }
+
+        // Fitted filters might be shared via the cache and are not thread-safe.
+        IFilter filter = filters[from];
+        synchronized (filter) {
+            return fit ? filter.fitTransform(matrix) : filter.transform(matrix);
+        }
+    }
+
+    /**
+     * Task passing a range of time series through a sequence of instance-wise
+     * filters.
+     */
+    private static class InstanceWiseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IInstanceWiseFilter[] filters;
+        private final double[][] matrix;
+        private final double[][] result;
+        private final int from;
+        private final int to;
+
+        InstanceWiseTask(final IInstanceWiseFilter[] filters, final double[][] matrix, final double[][] result,
+                final int from, final int to) {
+            this.filters = filters;
+            this.matrix = matrix;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= ROWS_PER_TASK || getPool() == null) {
+                for (int i = this.from; i < this.to; i++) {
+                    double[] row = this.matrix[i];
+                    for (IInstanceWiseFilter filter : this.filters)
+                        row = filter.transform(row);
+                    this.result[i] = row;
+                }
+            } else {
+                int mid = (this.from + this.to) >>> 1;
+                invokeAll(new InstanceWiseTask(this.filters, this.matrix, this.result, this.from, mid),
+                        new InstanceWiseTask(this.filters, this.matrix, this.result, mid, this.to));
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package jaicore.ml.tsc.pipeline;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import jaicore.ml.tsc.exceptions.NoneFittedFilterExeception;
+import jaicore.ml.tsc.filter.IFilter;
+
+/**
+ * Thread-safe cache of fitted filters and intermediate results of
+ * {@link FilterPipeline}s. The entries are keyed by the fingerprint of the
+ * pipeline's input matrix and the descriptors of the filters applied to it.
+ *
+ * If multiple pipelines request the same entry at the same time, it is computed
+ * only once while the others wait for the result. The least recently used
+ * entries are evicted once the maximum number of entries is exceeded.
+ *
+ * @author agent
+ */
+public class FilterPipelineCache {
+
+    /** Default maximum number of cached entries. */
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    /**
+     * The cached entries in the order of their last access. Entries which are
+     * being computed are cached as well, such that they are computed only once.
+     */
+    private final Map<String, FutureTask<CachedSegment>> entries;
+
+    /**
+     * Constructs a cache holding at most {@link #DEFAULT_MAX_ENTRIES} entries.
+     */
+    public FilterPipelineCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxEntries The maximum number of cached entries.
+     */
+    public FilterPipelineCache(final int maxEntries) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("The cache must be able to hold at least one entry.");
+
+        this.entries = new LinkedHashMap<String, FutureTask<CachedSegment>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FutureTask<CachedSegment>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached entry if it has already been computed.
+     *
+     * @param key The key of the entry.
+     * @return The entry or <code>null</code> if it is not (yet) cached.
+     */
+    CachedSegment getIfPresent(final String key) {
+        FutureTask<CachedSegment> task;
+        synchronized (this.entries) {
+            task = this.entries.get(key);
+        }
+        if (task == null || !task.isDone())
+            return null;
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Returns the cached entry or computes it if it is not cached yet. If the
+     * entry is currently computed by another thread, the calling thread waits for
+     * the result.
+     *
+     * @param key         The key of the entry.
+     * @param computation The computation of the entry.
+     * @return The cached or computed entry.
+     * @throws NoneFittedFilterExeception Thrown by the computation.
+     */
+    CachedSegment computeIfAbsent(final String key, final Callable<CachedSegment> computation)
+            throws NoneFittedFilterExeception {
+        FutureTask<CachedSegment> task;
+        boolean created = false;
+        synchronized (this.entries) {
+            task = this.entries.get(key);
+            if (task == null) {
+                task = new FutureTask<>(computation);
+                this.entries.put(key, task);
+                created = true;
+            }
+        }
+        // Compute outside of the lock, such that other entries remain accessible.
+        if (created)
+            task.run();
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            // Do not cache failed computations.
+            synchronized (this.entries) {
+                this.entries.remove(key, task);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof NoneFittedFilterExeception)
+                throw (NoneFittedFilterExeception) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException("Could not compute the cached entry.", cause);
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return The number of cached entries.
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Calculates a fingerprint of a matrix, i.e. a string that is equal for
+     * matrices of equal shape and values and differs otherwise with a very high
+     * probability.
+     *
+     * @param matrix The matrix.
+     * @return The fingerprint of the matrix.
+     */
+    public static String fingerprint(final double[][] matrix) {
+        // Two independent 64 bit hashes of the values and the row lengths.
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x84222325cbf29ce4L;
+        for (double[] row : matrix) {
+            h1 = mix(h1, row.length);
+            h2 = mix(h2 ^ 0x9e3779b97f4a7c15L, row.length);
+            for (double value : row) {
+                long bits = Double.doubleToLongBits(value);
+                h1 = mix(h1, bits);
+                h2 = mix(h2 ^ 0x9e3779b97f4a7c15L, bits);
+            }
+        }
+        return matrix.length + ":" + Long.toHexString(h1) + Long.toHexString(h2);
+    }
+
+    /**
+     * Mixes a value into a hash.
+     *
+     * @param hash  The hash.
+     * @param value The value.
+     * @return The new hash.
+     */
+    private static long mix(long hash, final long value) {
+        hash = (hash ^ value) * 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Cached result of a segment of a pipeline.
+     */
+    static class CachedSegment {
+
+        /** The result of the segment, which must not be modified. */
+        final double[][] result;
+
+        /** The fitted filters of the pipeline up to the end of the segment. */
+        final IFilter[] fittedFilters;
+
+        CachedSegment(final double[][] result, final IFilter[] fittedFilters) {
+            this.result = result;
+            this.fittedFilters = fittedFilters;
+        }
+    }
+}
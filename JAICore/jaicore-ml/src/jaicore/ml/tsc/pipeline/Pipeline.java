@@ -1,8 +1,10 @@
 package jaicore.ml.tsc.pipeline;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import jaicore.ml.core.exception.PredictionException;
+import jaicore.ml.core.exception.TrainingException;
 import jaicore.ml.tsc.classifier.ASimplifiedTSClassifier;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
 
@@ -15,6 +17,11 @@ import jaicore.ml.tsc.dataset.TimeSeriesDataset;
  * to the classifier. This procedure applies to the train and test phase
  * equally.
  * 
+ * The filters of a {@link FilterHandler} are applied by a
+ * {@link FilterPipeline}. Pipelines whose filter pipelines share a
+ * {@link FilterPipelineCache} fit and apply filters with equal descriptors on
+ * equal data only once.
+ * 
  * @param TARGETDOMAIN The type of the targets for the classification task.
  * @author fischor
  */
@@ -23,12 +30,28 @@ public class Pipeline<TARGETDOMAIN> {
     public List<FilterHandler> filter;
     public ASimplifiedTSClassifier<TARGETDOMAIN> classifier;
 
-    public void train(TimeSeriesDataset dataset) {
-        // TODO
+    /**
+     * Fits the filters on the given dataset, transforms it and trains the
+     * classifier on the transformed dataset. The value matrices of the dataset are
+     * replaced or extended by the transformed ones.
+     * 
+     * @param dataset The dataset to train the pipeline on.
+     * @throws TrainingException If a filter or the classifier fails.
+     */
+    public void train(TimeSeriesDataset dataset) throws TrainingException {
+        try {
+            for (FilterHandler handler : this.filter)
+                handler.fitTransform(dataset);
+        } catch (RuntimeException e) {
+            throw new TrainingException("Could not fit the filters of the pipeline.", e);
+        }
+        this.classifier.train(dataset);
     }
 
     public TARGETDOMAIN predict(final double[] univInstance) throws PredictionException {
-        return this.classifier.predict(univInstance);
+        List<double[]> multivInstance = new ArrayList<>();
+        multivInstance.add(univInstance);
+        return predict(multivInstance);
     };
 
     public TARGETDOMAIN predict(final double[] univInstance, final double[] timestamps) throws PredictionException {
@@ -36,16 +59,38 @@ public class Pipeline<TARGETDOMAIN> {
     }
 
     public TARGETDOMAIN predict(final List<double[]> multivInstance) throws PredictionException {
-        return this.classifier.predict(multivInstance);
+        // Dataset of a single instance to which the filters can append variables.
+        List<double[][]> valueMatrices = new ArrayList<>();
+        List<double[][]> timestampMatrices = new ArrayList<>();
+        for (double[] variable : multivInstance) {
+            valueMatrices.add(new double[][] { variable });
+            timestampMatrices.add(null);
+        }
+        return predict(new TimeSeriesDataset(valueMatrices, timestampMatrices)).get(0);
     };
 
     public TARGETDOMAIN predict(final List<double[]> multivInstance, final List<double[]> timestamps)
             throws PredictionException {
-        return this.classifier.predict(multivInstance, timestamps);
+        return predict(multivInstance);
     }
 
+    /**
+     * Transforms the given dataset by the fitted filters and predicts its
+     * instances by the classifier. The value matrices of the dataset are replaced
+     * or extended by the transformed ones.
+     * 
+     * @param dataset The dataset to predict.
+     * @return The predictions for the instances of the dataset.
+     * @throws PredictionException If a filter or the classifier fails.
+     */
     public List<TARGETDOMAIN> predict(final TimeSeriesDataset dataset) throws PredictionException {
-        return predict(dataset);
+        try {
+            for (FilterHandler handler : this.filter)
+                handler.transform(dataset);
+        } catch (RuntimeException e) {
+            throw new PredictionException("Could not apply the filters of the pipeline.", e);
+        }
+        return this.classifier.predict(dataset);
     };
 
 }
\ No newline at end of file
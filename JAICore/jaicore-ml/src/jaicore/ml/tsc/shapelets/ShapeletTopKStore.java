@@ -0,0 +1,97 @@
+package jaicore.ml.tsc.shapelets;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Thread-safe store retaining the k best shapelets offered to it. Shapelets are
+ * ordered by {@link #QUALITY_DESC_ORDER}, which is a total order on the
+ * candidates of a shapelet search. Hence, the retained shapelets do not depend
+ * on the order in which the shapelets are offered, e. g. by concurrent
+ * searches.
+ *
+ * @author agent
+ *
+ */
+public class ShapeletTopKStore {
+	/**
+	 * Orders shapelets descending by their determined quality. Ties are broken by
+	 * the instance index, the length and the start index (ascending), i. e. by the
+	 * order in which the candidates are enumerated.
+	 */
+	public static final Comparator<Shapelet> QUALITY_DESC_ORDER = (s1, s2) -> {
+		int result = Double.compare(s2.getDeterminedQuality(), s1.getDeterminedQuality());
+		if (result == 0)
+			result = Integer.compare(s1.getInstanceIndex(), s2.getInstanceIndex());
+		if (result == 0)
+			result = Integer.compare(s1.getLength(), s2.getLength());
+		if (result == 0)
+			result = Integer.compare(s1.getStartIndex(), s2.getStartIndex());
+		return result;
+	};
+
+	/**
+	 * Number of shapelets to be retained.
+	 */
+	private final int k;
+
+	/**
+	 * The retained shapelets with the worst one at the head.
+	 */
+	private final PriorityQueue<Shapelet> shapelets;
+
+	/**
+	 * The worst retained shapelet once k shapelets are retained. Allows to reject
+	 * worse shapelets without locking.
+	 */
+	private volatile Shapelet worst;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param k
+	 *            Number of shapelets to be retained
+	 */
+	public ShapeletTopKStore(final int k) {
+		this.k = k;
+		this.shapelets = new PriorityQueue<>(Math.max(1, k + 1), QUALITY_DESC_ORDER.reversed());
+	}
+
+	/**
+	 * Offers a shapelet to the store.
+	 *
+	 * @param shapelet
+	 *            The shapelet with its determined quality
+	 * @return Returns whether the shapelet is retained (for now)
+	 */
+	public boolean offer(final Shapelet shapelet) {
+		Shapelet currentWorst = this.worst;
+		if (this.k <= 0 || currentWorst != null && QUALITY_DESC_ORDER.compare(shapelet, currentWorst) >= 0)
+			return false;
+
+		synchronized (this) {
+			this.shapelets.add(shapelet);
+			if (this.shapelets.size() > this.k) {
+				if (this.shapelets.poll() == shapelet)
+					return false;
+			}
+			if (this.shapelets.size() == this.k)
+				this.worst = this.shapelets.peek();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the retained shapelets.
+	 *
+	 * @return Returns the retained shapelets ordered by
+	 *         {@link #QUALITY_DESC_ORDER}
+	 */
+	public synchronized List<Shapelet> getShapelets() {
+		List<Shapelet> result = new ArrayList<>(this.shapelets);
+		result.sort(QUALITY_DESC_ORDER);
+		return result;
+	}
+}
@@ -39,4 +39,23 @@ public abstract class AMinimumDistanceSearchStrategy {
 	 * @return Return the minimum distance among all subsequences
 	 */
 	public abstract double findMinimumDistance(final Shapelet shapelet, final double[] timeSeries);
+
+	/**
+	 * Function returning the minimum distances of the <code>shapelet</code> to
+	 * each of the given time series. Subclasses may override this function to
+	 * reuse computations on the shapelet for all time series.
+	 * 
+	 * @param shapelet
+	 *            The shapelet to be compared to all subsequences
+	 * @param timeSeries
+	 *            The time series which subsequences are compared to the shapelet's
+	 *            data
+	 * @return Returns the minimum distance for each time series
+	 */
+	public double[] findMinimumDistances(final Shapelet shapelet, final double[][] timeSeries) {
+		double[] result = new double[timeSeries.length];
+		for (int i = 0; i < timeSeries.length; i++)
+			result[i] = this.findMinimumDistance(shapelet, timeSeries[i]);
+		return result;
+	}
 }
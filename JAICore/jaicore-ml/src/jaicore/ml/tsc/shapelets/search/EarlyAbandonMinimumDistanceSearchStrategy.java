@@ -44,12 +44,58 @@ public class EarlyAbandonMinimumDistanceSearchStrategy extends AMinimumDistanceS
 	 */
 	@Override
 	public double findMinimumDistance(Shapelet shapelet, double[] timeSeries) {
+		return findMinimumDistance(shapelet, sortIndexesDescending(shapelet), timeSeries);
+	}
+
+	/**
+	 * {@inheritDoc} The order of the shapelet values used for early abandoning is
+	 * determined only once for all time series.
+	 */
+	@Override
+	public double[] findMinimumDistances(Shapelet shapelet, double[][] timeSeries) {
+		final int[] A = sortIndexesDescending(shapelet);
+		double[] result = new double[timeSeries.length];
+		for (int i = 0; i < timeSeries.length; i++)
+			result[i] = findMinimumDistance(shapelet, A, timeSeries[i]);
+		return result;
+	}
+
+	/**
+	 * Orders the indexes of the normalized shapelet values descending by their
+	 * absolute values, such that the largest contributions to the distance are
+	 * summed up first.
+	 * 
+	 * @param shapelet
+	 *            The shapelet whose values are ordered
+	 * @return Returns the ordered indexes
+	 */
+	private static int[] sortIndexesDescending(final Shapelet shapelet) {
+		final List<Integer> indexes = TimeSeriesUtil.sortIndexes(shapelet.getData(), false);
+		final int[] result = new int[indexes.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = indexes.get(i);
+		return result;
+	}
+
+	/**
+	 * See {@link #findMinimumDistance(Shapelet, double[])}.
+	 * 
+	 * @param shapelet
+	 *            The shapelet to be compared to all subsequences
+	 * @param A
+	 *            The indexes of the shapelet values in descending order of their
+	 *            absolute values
+	 * @param timeSeries
+	 *            The time series which subsequences are compared to the shapelet's
+	 *            data
+	 * @return Return the minimum distance among all subsequences
+	 */
+	private double findMinimumDistance(final Shapelet shapelet, final int[] A, final double[] timeSeries) {
 		double length = shapelet.getLength();
 		int m = timeSeries.length;
 
 		// Order normalized shapelet values
 		final double[] S_prime = shapelet.getData();
-		final List<Integer> A = TimeSeriesUtil.sortIndexes(S_prime, false); // descending
 		final double[] F = TimeSeriesUtil.zNormalize(TimeSeriesUtil.getInterval(timeSeries, 0, shapelet.getLength()),
 				this.useBiasCorrection);
 
@@ -81,8 +127,8 @@ public class EarlyAbandonMinimumDistanceSearchStrategy extends AMinimumDistanceS
 
 			// Early abandon
 			while (j < length && d < b) {
-				final double normVal = (s == 0.0 ? 0d : (timeSeries[i + A.get(j)] - x_bar) / s);
-				final double diff = S_prime[A.get(j)] - normVal;
+				final double normVal = (s == 0.0 ? 0d : (timeSeries[i + A[j]] - x_bar) / s);
+				final double diff = S_prime[A[j]] - normVal;
 
 				d += diff * diff;
 				j++;
@@ -0,0 +1,249 @@
+package jaicore.ml.tsc.util;
+
+import java.util.Arrays;
+
+/**
+ * @author agent
+ *	Hash map from primitive long keys to primitive int values using open addressing with linear probing.
+ *	Avoids the boxing of keys and values and the entry objects of a {@link java.util.HashMap}, which
+ *	dominate the costs of building and comparing word histograms (cf. {@link jaicore.ml.tsc.HistogramBuilder}).
+ *	The entries can be iterated by the slots from 0 to {@link #capacity()} - 1, e.g.:
+ *
+ *	<pre>
+ *	for (int slot = 0; slot &lt; map.capacity(); slot++) {
+ *		if (map.isOccupied(slot)) {
+ *			long key = map.keyAt(slot);
+ *			int value = map.valueAt(slot);
+ *		}
+ *	}
+ *	</pre>
+ *
+ *	Entries can not be removed.
+ */
+public class LongIntOpenHashMap {
+
+	/**
+	 * The map is resized if it would be filled by more than this factor.
+	 */
+	private static final double MAX_LOAD_FACTOR = 0.5;
+
+	private long[] keys;
+	private int[] values;
+	private boolean[] occupied;
+
+	/**
+	 * Number of stored entries.
+	 */
+	private int size = 0;
+
+	/**
+	 * capacity - 1, the capacity is always a power of two.
+	 */
+	private int mask;
+
+	public LongIntOpenHashMap() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize The number of entries that can be stored without resizing.
+	 */
+	public LongIntOpenHashMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("The expected size can not be negative.");
+		}
+		int capacity = Integer.highestOneBit(Math.max(2, (int) Math.ceil(expectedSize / MAX_LOAD_FACTOR)) - 1) << 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * Copy constructor.
+	 * @param map The map to be copied.
+	 */
+	public LongIntOpenHashMap(LongIntOpenHashMap map) {
+		this.keys = map.keys.clone();
+		this.values = map.values.clone();
+		this.occupied = map.occupied.clone();
+		this.size = map.size;
+		this.mask = map.mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		occupied = new boolean[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Spreads the bits of the key such that packed words, which differ mostly in the lower bits, are
+	 * distributed over the whole table (cf. the finalizer of MurmurHash3).
+	 */
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	/**
+	 * @return The slot of the key or the free slot where it would be inserted.
+	 */
+	private int slotOf(long key) {
+		int slot = hash(key) & mask;
+		while (occupied[slot] && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * @param key The key.
+	 * @return The value of the key or 0 if the key is not contained.
+	 */
+	public int get(long key) {
+		int slot = slotOf(key);
+		return occupied[slot] ? values[slot] : 0;
+	}
+
+	public boolean containsKey(long key) {
+		return occupied[slotOf(key)];
+	}
+
+	/**
+	 * @param key The key.
+	 * @param value The new value of the key.
+	 */
+	public void put(long key, int value) {
+		int slot = slotOf(key);
+		if (!occupied[slot]) {
+			if (size + 1 > MAX_LOAD_FACTOR * keys.length) {
+				resize();
+				slot = slotOf(key);
+			}
+			occupied[slot] = true;
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] = value;
+	}
+
+	/**
+	 * Adds the given amount to the value of the key. Absent keys are treated as having the value 0.
+	 * @param key The key.
+	 * @param amount The amount to add.
+	 * @return The new value of the key.
+	 */
+	public int add(long key, int amount) {
+		int slot = slotOf(key);
+		if (!occupied[slot]) {
+			if (size + 1 > MAX_LOAD_FACTOR * keys.length) {
+				resize();
+				slot = slotOf(key);
+			}
+			occupied[slot] = true;
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] += amount;
+		return values[slot];
+	}
+
+	private void resize() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldOccupied = occupied;
+		allocate(oldKeys.length << 1);
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldOccupied[slot]) {
+				int newSlot = slotOf(oldKeys[slot]);
+				occupied[newSlot] = true;
+				keys[newSlot] = oldKeys[slot];
+				values[newSlot] = oldValues[slot];
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all entries while keeping the capacity.
+	 */
+	public void clear() {
+		Arrays.fill(occupied, false);
+		size = 0;
+	}
+
+	/**
+	 * @return The number of slots.
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	public boolean isOccupied(int slot) {
+		return occupied[slot];
+	}
+
+	public long keyAt(int slot) {
+		return keys[slot];
+	}
+
+	public int valueAt(int slot) {
+		return values[slot];
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (occupied[slot]) {
+				result += Long.hashCode(keys[slot]) ^ values[slot];
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LongIntOpenHashMap)) {
+			return false;
+		}
+		LongIntOpenHashMap other = (LongIntOpenHashMap) obj;
+		if (size != other.size) {
+			return false;
+		}
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (occupied[slot]) {
+				int otherSlot = other.slotOf(keys[slot]);
+				if (!other.occupied[otherSlot] || other.values[otherSlot] != values[slot]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (occupied[slot]) {
+				if (sb.length() > 1) {
+					sb.append(", ");
+				}
+				sb.append(keys[slot]).append('=').append(values[slot]);
+			}
+		}
+		return sb.append('}').toString();
+	}
+}
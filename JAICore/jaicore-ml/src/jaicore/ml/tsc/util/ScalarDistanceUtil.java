@@ -4,14 +4,21 @@ import jaicore.ml.tsc.distances.IScalarDistance;
 
 /**
  * ScalarDistanceUtil
+ *
+ * The returned distances are singletons, which allows the elastic distance
+ * measures to recognize them and compute them inline.
  */
 public class ScalarDistanceUtil {
 
+    private static final IScalarDistance ABSOLUTE_DISTANCE = (x, y) -> Math.abs(x - y);
+
+    private static final IScalarDistance SQUARED_DISTANCE = (x, y) -> (x - y) * (x - y);
+
     public static IScalarDistance getAbsoluteDistance() {
-        return (x, y) -> Math.abs(x - y);
+        return ABSOLUTE_DISTANCE;
     }
 
     public static IScalarDistance getSquaredDistance() {
-        return (x, y) -> (x - y) * (x - y);
+        return SQUARED_DISTANCE;
     }
-}
\ No newline at end of file
+}
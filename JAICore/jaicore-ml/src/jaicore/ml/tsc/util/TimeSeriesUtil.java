@@ -15,6 +15,8 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import jaicore.basic.sets.SetUtil.Pair;
+import jaicore.ml.core.dataset.attribute.timeseries.TimeSeriesAttributeType;
+import jaicore.ml.core.dataset.columnar.ColumnarDataset;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
 import jaicore.ml.tsc.exceptions.TimeSeriesLengthException;
 
@@ -645,6 +647,30 @@ public class TimeSeriesUtil {
 		return createDatasetForMatrix(null, valueMatrices);
 	}
 
+	/**
+	 * Function creating a {@link TimeSeriesDataset} object from the time series
+	 * attributes of a {@link ColumnarDataset}. The columns are trimmed to the
+	 * number of instances (see {@link ColumnarDataset#trimToSize()}) and their
+	 * value matrices are shared with the created dataset, i.e. no time series
+	 * values are copied. The targets are given by the class indices of the
+	 * columnar dataset (see {@link ColumnarDataset#getTargetCodes()}), non-time
+	 * series attributes are ignored.
+	 *
+	 * @param dataset The columnar dataset to be converted
+	 * @return Returns a {@link TimeSeriesDataset} object sharing the time series
+	 *         matrices of the given dataset
+	 */
+	public static TimeSeriesDataset createDatasetForColumnarDataset(final ColumnarDataset dataset) {
+		dataset.trimToSize();
+		List<double[][]> valueMatrices = new ArrayList<>();
+		for (int i = 0; i < dataset.getNumberOfAttributes(); i++) {
+			if (dataset.getAttributeTypes().get(i) instanceof TimeSeriesAttributeType)
+				valueMatrices.add(dataset.getTimeSeriesMatrix(i));
+		}
+		return createDatasetForMatrix(dataset.getTargetType() == null ? null : dataset.getTargetCodes(),
+				valueMatrices.toArray(new double[valueMatrices.size()][][]));
+	}
+
 	/**
 	 * Enables printing of time series.
 	 * 
@@ -3,14 +3,22 @@ package jaicore.ml.core;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import jaicore.ml.WekaUtil;
 import weka.classifiers.Classifier;
 import weka.classifiers.evaluation.Evaluation;
 import weka.classifiers.trees.RandomForest;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
 import weka.core.Instances;
 
 public class WekaUtilTester {
@@ -53,4 +61,210 @@ public class WekaUtilTester {
 		}
 	}
 
+	@Test
+	public void checkStratifiedSplitIndexArraysAreConsistentWithStratifiedSplit() throws Exception {
+		Instances inst = new Instances(new BufferedReader(new FileReader(folder + File.separator + "vowel.arff")));
+		inst.setClassIndex(inst.numAttributes() - 1);
+		for (long seed = 0; seed < 5; seed++) {
+			List<Instances> expected = getStratifiedSplitByRemovingFromClasses(inst, seed, .7);
+			List<Instances> split = WekaUtil.getStratifiedSplit(inst, seed, .7);
+			List<Instances> splitFromIndices = WekaUtil.realizeStratifiedSplit(inst, WekaUtil.getStratifiedSplitIndexArrays(inst, seed, .7), seed, .7);
+			Assert.assertEquals(expected.size(), split.size());
+			Assert.assertEquals(expected.size(), splitFromIndices.size());
+			for (int fold = 0; fold < expected.size(); fold++) {
+				Assert.assertEquals(expected.get(fold).toString(), split.get(fold).toString());
+				Assert.assertEquals(expected.get(fold).toString(), splitFromIndices.get(fold).toString());
+			}
+		}
+	}
+
+	@Test
+	public void checkStratifiedSplitIndexArraysPartitionData() throws Exception {
+		Instances inst = new Instances(new BufferedReader(new FileReader(folder + File.separator + "vowel.arff")));
+		inst.setClassIndex(inst.numAttributes() - 1);
+		for (long seed = 0; seed < 5; seed++) {
+			int[][] split = WekaUtil.getStratifiedSplitIndexArrays(inst, seed, .7);
+			Assert.assertArrayEquals(split[0], WekaUtil.getStratifiedSplitIndexArrays(inst, seed, .7)[0]);
+			assertPartition(inst, split);
+
+			/* each class is distributed according to the portion (up to rounding) */
+			int[] trainCounts = countClasses(inst, split[0]);
+			int[] totalCounts = countClasses(inst, split[0], split[1]);
+			for (int c = 0; c < inst.numClasses(); c++) {
+				Assert.assertEquals(.7 * totalCounts[c], trainCounts[c], 1.0);
+			}
+		}
+	}
+
+	@Test
+	public void checkStratifiedSplitAsSubInstancesEqualsStratifiedSplit() throws Exception {
+		Instances inst = new Instances(new BufferedReader(new FileReader(folder + File.separator + "vowel.arff")));
+		inst.setClassIndex(inst.numAttributes() - 1);
+		for (long seed = 0; seed < 5; seed++) {
+			List<Instances> expected = WekaUtil.getStratifiedSplit(inst, seed, .7);
+			List<Instances> actual = WekaUtil.getStratifiedSplitAsSubInstances(inst, seed, .7);
+			Assert.assertEquals(expected.size(), actual.size());
+			for (int fold = 0; fold < expected.size(); fold++) {
+				Assert.assertEquals(expected.get(fold).toString(), actual.get(fold).toString());
+			}
+		}
+	}
+
+	@Test
+	public void checkStratifiedFoldIndexArrays() throws Exception {
+		Instances inst = new Instances(new BufferedReader(new FileReader(folder + File.separator + "vowel.arff")));
+		inst.setClassIndex(inst.numAttributes() - 1);
+		int[][] folds = WekaUtil.getStratifiedFoldIndexArrays(inst, 10, 0);
+		Assert.assertEquals(10, folds.length);
+		assertPartition(inst, folds);
+		int[] totalCounts = countClasses(inst, folds);
+		for (int[] fold : folds) {
+			int[] counts = countClasses(inst, fold);
+			for (int c = 0; c < inst.numClasses(); c++) {
+				Assert.assertEquals(totalCounts[c] / 10.0, counts[c], 1.0);
+			}
+		}
+	}
+
+	@Test
+	public void checkIndicesOfSubset() throws Exception {
+		Instances inst = new Instances(new BufferedReader(new FileReader(folder + File.separator + "vowel.arff")));
+		inst.setClassIndex(inst.numAttributes() - 1);
+		int[] indices = WekaUtil.getArbitrarySplitIndexArrays(inst, 0, .3)[0];
+		Instances subset = new Instances(inst, indices.length);
+		for (int index : indices) {
+			subset.add(inst.get(index));
+		}
+		Assert.assertArrayEquals(indices, WekaUtil.getIndicesOfContainedInstances(inst, subset));
+		int[] sortedIndices = indices.clone();
+		Arrays.sort(sortedIndices);
+		Assert.assertArrayEquals(sortedIndices, WekaUtil.getIndicesOfSubset(inst, subset));
+	}
+
+	@Test
+	public void checkIndicesOfSubsetWithStringAttributes() throws Exception {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("name", (List<String>) null));
+		attributes.add(new Attribute("x"));
+		attributes.add(new Attribute("class", Arrays.asList("a", "b")));
+		Instances data = new Instances("data", attributes, 5);
+		data.setClassIndex(2);
+		String[] names = { "v", "w", "x", "y", "z" };
+		for (int i = 0; i < names.length; i++) {
+			data.add(new DenseInstance(1.0, new double[] { data.attribute(0).addStringValue(names[i]), i, i % 2 }));
+		}
+
+		/* the subset indexes its strings in another order than the data, so their values differ */
+		Instances subset = data.stringFreeStructure();
+		for (int i : new int[] { 4, 2, 0 }) {
+			subset.add(new DenseInstance(1.0, new double[] { subset.attribute(0).addStringValue(names[i]), i, i % 2 }));
+		}
+		Assert.assertArrayEquals(new int[] { 4, 2, 0 }, WekaUtil.getIndicesOfContainedInstances(data, subset));
+		Assert.assertArrayEquals(new int[] { 0, 2, 4 }, WekaUtil.getIndicesOfSubset(data, subset));
+	}
+
+	@Test
+	public void checkIndicesOfSubsetDoNotMatchDifferentStringsWithEqualIndices() throws Exception {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("name", (List<String>) null));
+		attributes.add(new Attribute("class", Arrays.asList("a", "b")));
+		Instances data = new Instances("data", attributes, 5);
+		data.setClassIndex(1);
+		String[] names = { "v", "w", "x", "y", "z" };
+		for (String name : names) {
+			data.add(new DenseInstance(1.0, new double[] { data.attribute(0).addStringValue(name), 0 }));
+		}
+
+		/* the instances only differ in their strings, whose indices in the subset coincide with those of other strings in the data */
+		Instances subset = data.stringFreeStructure();
+		for (String name : new String[] { "z", "v" }) {
+			subset.add(new DenseInstance(1.0, new double[] { subset.attribute(0).addStringValue(name), 0 }));
+		}
+		Assert.assertArrayEquals(new int[] { 4, 0 }, WekaUtil.getIndicesOfContainedInstances(data, subset));
+		Assert.assertArrayEquals(new int[] { 0, 4 }, WekaUtil.getIndicesOfSubset(data, subset));
+
+		Instances unknown = data.stringFreeStructure();
+		unknown.add(new DenseInstance(1.0, new double[] { unknown.attribute(0).addStringValue("q"), 0 }));
+		Assert.assertArrayEquals(new int[] { 0 }, WekaUtil.getIndicesOfSubset(data, unknown));
+		try {
+			WekaUtil.getIndicesOfContainedInstances(data, unknown);
+			Assert.fail("The instance is not contained in the data.");
+		} catch (IllegalArgumentException e) {
+			/* expected */
+		}
+	}
+
+	/**
+	 * Reference implementation of the stratified split that removes the instances from the head of the per-class datasets as {@link WekaUtil#getStratifiedSplit(Instances, long, double...)} originally did.
+	 */
+	private static List<Instances> getStratifiedSplitByRemovingFromClasses(final Instances data, final long seed, final double... portions) {
+		Random rand = new Random(seed);
+		double sum = 0;
+		for (double p : portions) {
+			sum += p;
+		}
+		Instances shuffledData = new Instances(data);
+		shuffledData.randomize(rand);
+		List<Instances> instances = new ArrayList<>();
+		Instances emptyInstances = new Instances(shuffledData);
+		emptyInstances.clear();
+		Map<String, Instances> classWiseSeparation = WekaUtil.getInstancesPerClass(shuffledData);
+		Map<String, Integer> classCapacities = new HashMap<>(classWiseSeparation.size());
+		for (String c : classWiseSeparation.keySet()) {
+			classCapacities.put(c, classWiseSeparation.get(c).size());
+		}
+
+		/* first assign one item of each class to each fold */
+		for (int i = 0; i <= portions.length; i++) {
+			Instances instancesForSplit = new Instances(emptyInstances);
+			for (String c : classWiseSeparation.keySet()) {
+				Instances availableInstances = classWiseSeparation.get(c);
+				if (!availableInstances.isEmpty()) {
+					instancesForSplit.add(availableInstances.get(0));
+					availableInstances.remove(0);
+				}
+			}
+			instances.add(instancesForSplit);
+		}
+
+		/* now distribute remaining instances over the folds */
+		for (int i = 0; i <= portions.length; i++) {
+			double portion = i < portions.length ? portions[i] : 1 - sum;
+			Instances instancesForSplit = instances.get(i);
+			for (String c : classWiseSeparation.keySet()) {
+				Instances availableInstances = classWiseSeparation.get(c);
+				int items = (int) Math.min(availableInstances.size(), Math.ceil(portion * classCapacities.get(c)));
+				for (int j = 0; j < items; j++) {
+					instancesForSplit.add(availableInstances.get(0));
+					availableInstances.remove(0);
+				}
+			}
+			instancesForSplit.randomize(rand);
+		}
+		return instances;
+	}
+
+	private static void assertPartition(final Instances data, final int[][] split) {
+		boolean[] covered = new boolean[data.size()];
+		for (int[] fold : split) {
+			for (int index : fold) {
+				Assert.assertFalse("Instance " + index + " is contained in more than one fold.", covered[index]);
+				covered[index] = true;
+			}
+		}
+		for (int i = 0; i < covered.length; i++) {
+			Assert.assertTrue("Instance " + i + " is not contained in any fold.", covered[i]);
+		}
+	}
+
+	private static int[] countClasses(final Instances data, final int[]... folds) {
+		int[] counts = new int[data.numClasses()];
+		for (int[] fold : folds) {
+			for (int index : fold) {
+				counts[(int) data.get(index).classValue()]++;
+			}
+		}
+		return counts;
+	}
+
 }
@@ -0,0 +1,156 @@
+package jaicore.ml.core.dataset.columnar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jaicore.ml.core.dataset.ContainsNonNumericAttributesException;
+import jaicore.ml.core.dataset.InstanceSchema;
+import jaicore.ml.core.dataset.attribute.IAttributeType;
+import jaicore.ml.core.dataset.attribute.IAttributeValue;
+import jaicore.ml.core.dataset.attribute.categorical.CategoricalAttributeType;
+import jaicore.ml.core.dataset.attribute.categorical.CategoricalAttributeValue;
+import jaicore.ml.core.dataset.attribute.primitive.NumericAttributeType;
+import jaicore.ml.core.dataset.attribute.primitive.NumericAttributeValue;
+import jaicore.ml.core.dataset.attribute.timeseries.TimeSeriesAttributeType;
+import jaicore.ml.core.dataset.standard.SimpleInstance;
+import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.util.TimeSeriesUtil;
+
+/**
+ * Unit tests of the {@link ColumnarDataset}.
+ *
+ * @author agent
+ */
+public class ColumnarDatasetTest {
+
+	private static final double EPS_DELTA = 0.000001;
+
+	private static final List<String> DOMAIN = Arrays.asList("A", "B", "C");
+
+	private static final List<String> CLASSES = Arrays.asList("neg", "pos");
+
+	@Test
+	public void testBoxedAndPrimitiveAccess() throws ContainsNonNumericAttributesException {
+		NumericAttributeType numType = new NumericAttributeType();
+		CategoricalAttributeType catType = new CategoricalAttributeType(DOMAIN);
+		CategoricalAttributeType targetType = new CategoricalAttributeType(CLASSES);
+		List<IAttributeType<?>> attributeTypes = new ArrayList<>();
+		attributeTypes.add(numType);
+		attributeTypes.add(catType);
+		ColumnarDataset dataset = new ColumnarDataset(new InstanceSchema(attributeTypes, targetType), 1);
+
+		for (int i = 0; i < 20; i++) {
+			ArrayList<IAttributeValue<?>> values = new ArrayList<>();
+			values.add(new NumericAttributeValue(numType, (double) i));
+			values.add(new CategoricalAttributeValue(catType, DOMAIN.get(i % DOMAIN.size())));
+			dataset.addInstance(new SimpleInstance(values, new CategoricalAttributeValue(targetType, CLASSES.get(i % 2))));
+		}
+
+		assertEquals(20, dataset.size());
+		ColumnarInstance instance = dataset.get(5);
+		assertEquals(5d, instance.getNumericValue(0), EPS_DELTA);
+		assertEquals(2, instance.getCategoricalCode(1));
+		assertEquals("C", instance.getAttributeValue(1, String.class).getValue());
+		assertEquals("pos", instance.getTargetValue(String.class).getValue());
+		assertArrayEquals(new double[] { 5d, 0d, 0d, 1d }, instance.getAsDoubleVector(), EPS_DELTA);
+
+		// Views write through to the columns
+		instance.setNumericValue(0, 42d);
+		instance.setCategoricalValue(1, "A");
+		assertEquals(42d, dataset.getNumericColumn(0)[5], EPS_DELTA);
+		assertEquals(0, dataset.getCategoricalColumn(1)[5]);
+
+		int[] targets = dataset.getTargetCodes();
+		for (int i = 0; i < dataset.size(); i++) {
+			assertEquals(i % 2, targets[i]);
+		}
+
+		// Copy the instances without boxing into another dataset
+		ColumnarDataset copy = new ColumnarDataset(dataset.getInstanceSchema());
+		copy.addAll(dataset);
+		assertEquals(dataset.size(), copy.size());
+		dataset.trimToSize();
+		copy.trimToSize();
+		assertEquals(20, dataset.getNumericColumn(0).length);
+		assertArrayEquals(dataset.getNumericColumn(0), copy.getNumericColumn(0), EPS_DELTA);
+		assertArrayEquals(dataset.getAsDoubleMatrix()[7], copy.get(7).getAsDoubleVector(), EPS_DELTA);
+	}
+
+	@Test
+	public void testMissingValues() {
+		List<IAttributeType<?>> attributeTypes = new ArrayList<>();
+		attributeTypes.add(new NumericAttributeType());
+		attributeTypes.add(new CategoricalAttributeType(DOMAIN));
+		ColumnarDataset dataset = new ColumnarDataset(new InstanceSchema(attributeTypes, new NumericAttributeType()));
+
+		ColumnarInstance instance = dataset.addEmptyInstance();
+		assertEquals(Double.NaN, instance.getNumericValue(0), 0);
+		assertEquals(-1, instance.getCategoricalCode(1));
+		assertNull(instance.getAttributeValue(1, String.class).getValue());
+
+		instance.setNumericTarget(3.0);
+		assertEquals(3.0, dataset.getNumericTargets()[0], EPS_DELTA);
+
+		// Missing numeric targets are mapped to the missing code
+		dataset.addEmptyInstance();
+		assertArrayEquals(new int[] { 3, -1 }, dataset.getTargetCodes());
+	}
+
+	@Test
+	public void testColumnAccessDoesNotCopy() {
+		List<IAttributeType<?>> attributeTypes = new ArrayList<>();
+		attributeTypes.add(new NumericAttributeType());
+		ColumnarDataset dataset = new ColumnarDataset(new InstanceSchema(attributeTypes, new NumericAttributeType()), 10);
+
+		// Alternating adds and accesses share the backing array as long as the capacity suffices
+		double[] column = dataset.getNumericColumn(0);
+		for (int i = 0; i < 10; i++) {
+			dataset.addEmptyInstance().setNumericValue(0, i);
+			assertSame(column, dataset.getNumericColumn(0));
+			assertEquals(i, column[i], EPS_DELTA);
+		}
+	}
+
+	@Test
+	public void testZeroCopyTimeSeriesConversion() {
+		TimeSeriesAttributeType tsType = new TimeSeriesAttributeType(3);
+		List<IAttributeType<?>> attributeTypes = new ArrayList<>();
+		attributeTypes.add(tsType);
+		attributeTypes.add(new NumericAttributeType());
+		ColumnarDataset dataset = new ColumnarDataset(new InstanceSchema(attributeTypes, new CategoricalAttributeType(CLASSES)));
+
+		double[][] series = { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 9 } };
+		for (int i = 0; i < series.length; i++) {
+			ColumnarInstance instance = dataset.addEmptyInstance();
+			instance.setTimeSeries(0, series[i]);
+			instance.setNumericValue(1, i);
+			instance.setCategoricalTarget(CLASSES.get(i % 2));
+		}
+
+		TimeSeriesDataset tscDataset = TimeSeriesUtil.createDatasetForColumnarDataset(dataset);
+		assertEquals(1, tscDataset.getNumberOfVariables());
+		double[][] matrix = tscDataset.getValues(0);
+		assertSame(dataset.getTimeSeriesMatrix(0), matrix);
+		for (int i = 0; i < series.length; i++) {
+			assertSame(series[i], matrix[i]);
+		}
+		assertArrayEquals(new int[] { 0, 1, 0 }, tscDataset.getTargets());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTimeSeriesLengthMismatch() {
+		List<IAttributeType<?>> attributeTypes = new ArrayList<>();
+		attributeTypes.add(new TimeSeriesAttributeType(3));
+		ColumnarDataset dataset = new ColumnarDataset(new InstanceSchema(attributeTypes, new NumericAttributeType()));
+		dataset.addEmptyInstance().setTimeSeries(0, new double[] { 1, 2 });
+	}
+
+}
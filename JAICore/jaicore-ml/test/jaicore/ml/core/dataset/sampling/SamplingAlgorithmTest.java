@@ -0,0 +1,283 @@
+package jaicore.ml.core.dataset.sampling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.eventbus.Subscribe;
+
+import jaicore.basic.algorithm.AlgorithmExecutionCanceledException;
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.ml.core.dataset.IDataset;
+import jaicore.ml.core.dataset.IInstance;
+import jaicore.ml.core.dataset.InstanceSchema;
+import jaicore.ml.core.dataset.attribute.IAttributeType;
+import jaicore.ml.core.dataset.attribute.categorical.CategoricalAttributeType;
+import jaicore.ml.core.dataset.attribute.primitive.NumericAttributeType;
+import jaicore.ml.core.dataset.columnar.ColumnarDataset;
+import jaicore.ml.core.dataset.columnar.ColumnarInstance;
+
+/**
+ * Unit tests of the sampling algorithms.
+ *
+ * @author agent
+ */
+public class SamplingAlgorithmTest {
+
+	private static final List<String> CLASSES = Arrays.asList("A", "B");
+
+	/**
+	 * Creates a dataset whose first attribute is the index of the instance and
+	 * whose second attribute is the given position of the instance in space.
+	 */
+	private static ColumnarDataset createDataset(final int numberOfA, final int numberOfB, final double positionOfB) {
+		List<IAttributeType<?>> attributeTypes = new ArrayList<>();
+		attributeTypes.add(new NumericAttributeType());
+		attributeTypes.add(new NumericAttributeType());
+		ColumnarDataset dataset = new ColumnarDataset(new InstanceSchema(attributeTypes, new CategoricalAttributeType(CLASSES)));
+		for (int i = 0; i < numberOfA + numberOfB; i++) {
+			ColumnarInstance instance = dataset.addEmptyInstance();
+			instance.setNumericValue(0, i);
+			instance.setNumericValue(1, i < numberOfA ? 0 : positionOfB);
+			instance.setCategoricalTarget(i < numberOfA ? "A" : "B");
+		}
+		return dataset;
+	}
+
+	private static List<Integer> getIndices(final IDataset<?> sample) {
+		List<Integer> indices = new ArrayList<>();
+		for (Object instance : sample) {
+			indices.add((int) ((ColumnarInstance) instance).getNumericValue(0));
+		}
+		return indices;
+	}
+
+	private static int countClass(final IDataset<?> sample, final int classCode) {
+		int count = 0;
+		for (Object instance : sample) {
+			if (((ColumnarInstance) instance).getTargetCode() == classCode) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void testReservoirSamplingIsUniform() throws Exception {
+		ColumnarDataset dataset = createDataset(20, 0, 0);
+		for (int cpus : new int[] { 1, 3 }) {
+			int[] frequencies = new int[dataset.size()];
+			for (int run = 0; run < 2000; run++) {
+				ReservoirSampling sampling = new ReservoirSampling(dataset, 5, run);
+				sampling.setNumCPUs(cpus);
+				List<Integer> indices = getIndices(sampling.call());
+				assertEquals(5, new HashSet<>(indices).size());
+				for (int index : indices) {
+					frequencies[index]++;
+				}
+			}
+			for (int frequency : frequencies) {
+				assertTrue("Frequency " + frequency + " deviates from 500 using " + cpus + " CPUs.", Math.abs(frequency - 500) < 100);
+			}
+		}
+	}
+
+	@Test
+	public void testReservoirSamplingOfStream() throws Exception {
+		ColumnarDataset dataset = createDataset(1000, 0, 0);
+		ReservoirSampling sampling = new ReservoirSampling(new StreamingDataset(dataset), 50, 42);
+		sampling.setChunkSize(100);
+		List<Integer> indices = getIndices(sampling.call());
+		assertEquals(50, new HashSet<>(indices).size());
+		assertEquals(1000, sampling.getNumberOfProcessedInstances());
+
+		ReservoirSampling smallInput = new ReservoirSampling(createDataset(10, 0, 0), 50, 42);
+		assertEquals(10, getIndices(smallInput.call()).size());
+	}
+
+	@Test
+	public void testStratifiedSamplingPreservesClassDistribution() throws Exception {
+		ColumnarDataset dataset = createDataset(900, 100, 0);
+		for (int cpus : new int[] { 1, 4 }) {
+			StratifiedSampling sampling = new StratifiedSampling(dataset, 100, 7);
+			sampling.setNumCPUs(cpus);
+			IDataset<?> sample = sampling.call();
+			assertEquals(90, countClass(sample, 0));
+			assertEquals(10, countClass(sample, 1));
+			assertEquals(100, new HashSet<>(getIndices(sample)).size());
+		}
+	}
+
+	@Test
+	public void testSystematicSampling() throws Exception {
+		ColumnarDataset dataset = createDataset(100, 0, 0);
+		List<Integer> expected = null;
+		for (int cpus : new int[] { 1, 3 }) {
+			SystematicSampling sampling = new SystematicSampling(dataset, 10, 3);
+			sampling.setNumCPUs(cpus);
+			List<Integer> indices = getIndices(sampling.call());
+			assertEquals(10, indices.size());
+			for (int i = 1; i < indices.size(); i++) {
+				assertEquals(10, indices.get(i) - indices.get(i - 1));
+			}
+			if (expected != null) {
+				assertEquals(expected, indices);
+			}
+			expected = indices;
+		}
+		assertEquals(expected, getIndices(new SystematicSampling(new StreamingDataset(dataset), 10, 3).call()));
+	}
+
+	@Test
+	public void testClusterSampling() throws Exception {
+		/* class B is located far from class A such that the clusters coincide with the classes */
+		ColumnarDataset dataset = createDataset(300, 100, 10000);
+		for (int cpus : new int[] { 1, 2 }) {
+			ClusterSampling sampling = new ClusterSampling(dataset, 40, 2, 11);
+			sampling.setNumCPUs(cpus);
+			IDataset<?> sample = sampling.call();
+			assertEquals(30, countClass(sample, 0));
+			assertEquals(10, countClass(sample, 1));
+		}
+	}
+
+	@Test
+	public void testStratifiedSamplingRejectsNumericTarget() throws Exception {
+		List<IAttributeType<?>> attributeTypes = new ArrayList<>();
+		attributeTypes.add(new NumericAttributeType());
+		ColumnarDataset dataset = new ColumnarDataset(new InstanceSchema(attributeTypes, new NumericAttributeType()));
+		for (int i = 0; i < 100; i++) {
+			ColumnarInstance instance = dataset.addEmptyInstance();
+			instance.setNumericValue(0, i);
+			instance.setNumericTarget(i);
+		}
+		boolean rejected = false;
+		try {
+			new StratifiedSampling(dataset, 10, 0);
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		assertTrue(rejected);
+		assertEquals(10, getIndices(new ClusterSampling(dataset, 10, 2, 0).call()).size());
+	}
+
+	@Test
+	public void testClusterSamplingIgnoresMissingValues() throws Exception {
+		ColumnarDataset dataset = createDataset(300, 100, 10000);
+		int i = 0;
+		for (ColumnarInstance instance : dataset) {
+			if (i++ % 10 == 0) {
+				instance.setNumericValue(1, Double.NaN);
+			}
+		}
+		ClusterSampling sampling = new ClusterSampling(dataset, 40, 2, 11);
+		IDataset<?> sample = sampling.call();
+		for (double[] centroid : sampling.getCentroids()) {
+			for (double value : centroid) {
+				assertFalse(Double.isNaN(value));
+			}
+		}
+		assertEquals(30, countClass(sample, 0));
+		assertEquals(10, countClass(sample, 1));
+	}
+
+	@Test
+	public void testCancelOnProgressEvent() throws Exception {
+		ReservoirSampling sampling = new ReservoirSampling(createDataset(1000, 0, 0), 10, 0);
+		sampling.setChunkSize(10);
+		sampling.registerListener(new Object() {
+			@Subscribe
+			public void receiveEvent(final SamplingProgressEvent event) {
+				sampling.cancel();
+			}
+		});
+		boolean canceled = false;
+		try {
+			sampling.call();
+		} catch (AlgorithmExecutionCanceledException e) {
+			canceled = true;
+		}
+		assertTrue(canceled);
+		assertEquals(10, sampling.getNumberOfProcessedInstances());
+	}
+
+	@Test
+	public void testPoolIsShutDownOnException() throws Exception {
+		StratifiedSampling sampling = new StratifiedSampling(createDataset(1000, 0, 0), 10, 0) {
+			@Override
+			protected Object getStratum(final IInstance instance) throws AlgorithmException {
+				throw new AlgorithmException("Stratum not available.");
+			}
+		};
+		sampling.setNumCPUs(2);
+		boolean failed = false;
+		try {
+			sampling.call();
+		} catch (AlgorithmException e) {
+			failed = true;
+		}
+		assertTrue(failed);
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("sampling-")) {
+				thread.join(1000);
+				assertFalse("Thread " + thread.getName() + " is still alive.", thread.isAlive());
+			}
+		}
+	}
+
+	/**
+	 * Dataset which is only accessible by its iterator.
+	 */
+	private static class StreamingDataset implements IDataset<ColumnarInstance> {
+		private final ColumnarDataset dataset;
+
+		private StreamingDataset(final ColumnarDataset dataset) {
+			this.dataset = dataset;
+		}
+
+		@Override
+		public Iterator<ColumnarInstance> iterator() {
+			return this.dataset.iterator();
+		}
+
+		@Override
+		public <T> IAttributeType<T> getTargetType(final Class<T> clazz) {
+			return this.dataset.getTargetType(clazz);
+		}
+
+		@Override
+		public IAttributeType<?> getTargetType() {
+			return this.dataset.getTargetType();
+		}
+
+		@Override
+		public List<IAttributeType<?>> getAttributeTypes() {
+			return this.dataset.getAttributeTypes();
+		}
+
+		@Override
+		public int getNumberOfAttributes() {
+			return this.dataset.getNumberOfAttributes();
+		}
+
+		@Override
+		public void serialize(final OutputStream out) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void deserialize(final InputStream in) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package jaicore.ml.evaluation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jaicore.ml.core.evaluation.measure.singlelabel.ZeroOneLoss;
+import jaicore.ml.evaluation.evaluators.weka.MonteCarloCrossValidationEvaluator;
+import jaicore.ml.evaluation.evaluators.weka.SimpleEvaluatorMeasureBridge;
+import weka.classifiers.trees.J48;
+import weka.core.Instances;
+
+public class MonteCarloCrossValidationEvaluatorTest {
+
+	private static final File folder = new File("testsrc/ml/orig/");
+	private static Instances data;
+
+	@BeforeClass
+	public static void loadData() throws Exception {
+		data = new Instances(new BufferedReader(new FileReader(folder + File.separator + "vowel.arff")));
+		data.setClassIndex(data.numAttributes() - 1);
+	}
+
+	@Test
+	public void testParallelEvaluationYieldsSameScoreAsSequentialEvaluation() throws Exception {
+		MonteCarloCrossValidationEvaluator sequential = new MonteCarloCrossValidationEvaluator(new SimpleEvaluatorMeasureBridge(new ZeroOneLoss()), 10, data, .7, 0);
+		MonteCarloCrossValidationEvaluator parallel = new MonteCarloCrossValidationEvaluator(new SimpleEvaluatorMeasureBridge(new ZeroOneLoss()), 10, data, .7, 0, 4);
+		double sequentialScore = sequential.evaluate(new J48());
+		double parallelScore = parallel.evaluate(new J48());
+		assertEquals(sequentialScore, parallelScore, 1E-8);
+		assertEquals(10, parallel.getStats().getN());
+
+		/* a second evaluation uses the cached splits */
+		MonteCarloCrossValidationEvaluator another = new MonteCarloCrossValidationEvaluator(new SimpleEvaluatorMeasureBridge(new ZeroOneLoss()), 10, data, .7, 0, 4);
+		assertEquals(sequentialScore, another.evaluate(new J48()), 1E-8);
+	}
+
+	@Test
+	public void testThatCachedSplitsAreNotReusedAfterDataHaveChanged() throws Exception {
+		Instances changingData = new Instances(data);
+		new MonteCarloCrossValidationEvaluator(new SimpleEvaluatorMeasureBridge(new ZeroOneLoss()), 5, changingData, .7, 0).evaluate(new J48());
+
+		/* change the data object whose splits have been cached */
+		for (int i = 0; i < 100; i++) {
+			changingData.delete(0);
+		}
+		changingData.get(0).setClassValue((changingData.get(0).classValue() + 1) % changingData.numClasses());
+		double scoreOnChangedData = new MonteCarloCrossValidationEvaluator(new SimpleEvaluatorMeasureBridge(new ZeroOneLoss()), 5, changingData, .7, 0).evaluate(new J48());
+		double scoreOnFreshData = new MonteCarloCrossValidationEvaluator(new SimpleEvaluatorMeasureBridge(new ZeroOneLoss()), 5, new Instances(changingData), .7, 0).evaluate(new J48());
+		assertEquals(scoreOnFreshData, scoreOnChangedData, 1E-8);
+	}
+
+	@Test
+	public void testInterruptOfParallelEvaluation() throws Exception {
+		MonteCarloCrossValidationEvaluator parallel = new MonteCarloCrossValidationEvaluator(new SimpleEvaluatorMeasureBridge(new ZeroOneLoss()), 1000, data, .7, 0, 2);
+		Thread evaluationThread = Thread.currentThread();
+		new Thread(() -> {
+			try {
+				Thread.sleep(1000);
+			} catch (InterruptedException e) {
+				return;
+			}
+			evaluationThread.interrupt();
+		}).start();
+		long start = System.currentTimeMillis();
+		try {
+			parallel.evaluate(new J48());
+		} catch (InterruptedException e) {
+			/* this is the expected case */
+		}
+		Thread.interrupted();
+		assertTrue("Evaluation has not been interrupted in time.", System.currentTimeMillis() - start < 5000);
+	}
+}
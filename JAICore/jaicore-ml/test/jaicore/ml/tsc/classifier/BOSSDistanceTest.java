@@ -0,0 +1,107 @@
+package jaicore.ml.tsc.classifier;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jaicore.ml.tsc.HistogramBuilder;
+import jaicore.ml.tsc.filter.SlidingSFA;
+import jaicore.ml.tsc.util.LongIntOpenHashMap;
+
+/**
+ * Checks the BOSS distance on the primitive histograms built by the
+ * {@link SlidingSFA} against the distance on boxed histograms of the same
+ * words, and that abandoning the distance calculation in a 1-NN search finds
+ * the same nearest neighbors as the exhaustive search.
+ *
+ * @author agent
+ */
+public class BOSSDistanceTest {
+
+	private static final int NUMBER_OF_SERIES = 16;
+	private static final int LENGTH = 256;
+	private static final int WINDOW_SIZE = 64;
+	private static final int WORD_LENGTH = 8;
+	private static final int ALPHABET_SIZE = 4;
+
+	private static double[][] randomWalks(int number, int length, long seed) {
+		Random random = new Random(seed);
+		double[][] series = new double[number][length];
+		for (double[] s : series) {
+			double value = 0;
+			for (int i = 0; i < length; i++) {
+				value += random.nextGaussian();
+				s[i] = value;
+			}
+		}
+		return series;
+	}
+
+	private static double referenceDistance(Map<Integer, Integer> a, Map<Integer, Integer> b) {
+		double result = 0;
+		for (Integer key : a.keySet()) {
+			if (b.containsKey(key)) {
+				result += Math.pow(a.get(key) - b.get(key), 2);
+			} else {
+				result += Math.pow(a.get(key), 2);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testDistanceAndNearestNeighbor() {
+		double[][] train = randomWalks(NUMBER_OF_SERIES, LENGTH, 1);
+		double[][] test = randomWalks(NUMBER_OF_SERIES, LENGTH, 2);
+		SlidingSFA sfa = new SlidingSFA(WINDOW_SIZE, WORD_LENGTH, ALPHABET_SIZE, false);
+
+		ArrayList<LongIntOpenHashMap> histogramsTrain = new ArrayList<>();
+		ArrayList<LongIntOpenHashMap> histogramsTest = new ArrayList<>();
+		for (int i = 0; i < NUMBER_OF_SERIES; i++) {
+			histogramsTrain.add(HistogramBuilder.histogramForWords(sfa.transform(train[i])));
+			histogramsTest.add(HistogramBuilder.histogramForWords(sfa.transform(test[i])));
+		}
+
+		// The distance on the primitive histograms equals the one on boxed histograms of the same words
+		for (LongIntOpenHashMap a : histogramsTest) {
+			for (LongIntOpenHashMap b : histogramsTrain) {
+				assertEquals(referenceDistance(boxed(a), boxed(b)), BOSSClassifier.bossDistance(a, b), 0);
+			}
+		}
+
+		// Abandoning finds the same nearest neighbors as the exhaustive search
+		for (LongIntOpenHashMap a : histogramsTest) {
+			assertEquals(nearestNeighbor(a, histogramsTrain, false), nearestNeighbor(a, histogramsTrain, true));
+		}
+	}
+
+	private static int nearestNeighbor(LongIntOpenHashMap a, ArrayList<LongIntOpenHashMap> train, boolean abandoning) {
+		int nearest = 0;
+		double minDistance = Double.MAX_VALUE;
+		for (int i = 0; i < train.size(); i++) {
+			double distance = abandoning ? BOSSClassifier.bossDistance(a, train.get(i), minDistance)
+					: BOSSClassifier.bossDistance(a, train.get(i));
+			if (distance < minDistance) {
+				minDistance = distance;
+				nearest = i;
+			}
+		}
+		return nearest;
+	}
+
+	private static HashMap<Integer, Integer> boxed(LongIntOpenHashMap histogram) {
+		// the keys are distinct as long as the packed words fit into an int
+		HashMap<Integer, Integer> result = new HashMap<>();
+		for (int slot = 0; slot < histogram.capacity(); slot++) {
+			if (histogram.isOccupied(slot)) {
+				result.put((int) histogram.keyAt(slot), histogram.valueAt(slot));
+			}
+		}
+		return result;
+	}
+}
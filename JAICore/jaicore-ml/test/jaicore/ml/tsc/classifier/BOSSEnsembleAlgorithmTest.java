@@ -0,0 +1,131 @@
+package jaicore.ml.tsc.classifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import jaicore.ml.core.exception.PredictionException;
+import jaicore.ml.core.exception.TrainingException;
+import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+
+/**
+ * @author agent
+ *	Checks that the ensemble trained and evaluated with several threads equals the one trained and evaluated
+ *	sequentially and that the pruning keeps the best members.
+ */
+@RunWith(JUnit4.class)
+public class BOSSEnsembleAlgorithmTest {
+
+	private static final int[] WINDOW_LENGTHS = {12, 16, 24, 100};
+
+	private static final int[] WORD_LENGTHS = {4, 6};
+
+	private static final double[] ALPHABET = {0, 1, 2, 3};
+
+	TimeSeriesDataset train;
+
+	TimeSeriesDataset test;
+
+	/**
+	 * Two classes of noisy series: A sine and a series of steps.
+	 */
+	private static TimeSeriesDataset createDataset(int numberOfInstances, long seed) {
+		Random random = new Random(seed);
+		double[][] values = new double[numberOfInstances][64];
+		int[] targets = new int[numberOfInstances];
+		for(int instance = 0; instance < numberOfInstances; instance++) {
+			targets[instance] = instance % 2;
+			double phase = random.nextDouble() * 2 * Math.PI;
+			for(int i = 0; i < values[instance].length; i++) {
+				double signal = Math.sin(phase + i * 2 * Math.PI / 16);
+				if(targets[instance] == 1) {
+					signal = Math.signum(signal);
+				}
+				values[instance][i] = signal + 0.3 * random.nextGaussian();
+			}
+		}
+		ArrayList<double[][]> matrices = new ArrayList<double[][]>();
+		matrices.add(values);
+		return new TimeSeriesDataset(matrices, targets);
+	}
+
+	@Before
+	public void setup() {
+		train = createDataset(30, 1);
+		test = createDataset(20, 2);
+	}
+
+	@Test
+	public void testParallelTraining() throws TrainingException, PredictionException {
+		BOSSEnsembleClassifier sequential = new BOSSEnsembleClassifier(WINDOW_LENGTHS, WORD_LENGTHS, ALPHABET, false, BOSSEnsembleAlgorithm.DEFAULT_ACCURACY_FACTOR, 1);
+		sequential.train(train);
+		BOSSEnsembleClassifier parallel = new BOSSEnsembleClassifier(WINDOW_LENGTHS, WORD_LENGTHS, ALPHABET, false, BOSSEnsembleAlgorithm.DEFAULT_ACCURACY_FACTOR, 3);
+		parallel.train(train);
+
+		assertFalse(sequential.getEnsemble().isEmpty());
+		assertEquals(sequential.getEnsemble().size(), parallel.getEnsemble().size());
+		for(int member = 0; member < sequential.getEnsemble().size(); member++) {
+			assertEquals(sequential.getEnsemble().get(member).getWindowLength(), parallel.getEnsemble().get(member).getWindowLength());
+			assertEquals(sequential.getEnsemble().get(member).getWordLength(), parallel.getEnsemble().get(member).getWordLength());
+		}
+
+		List<Integer> expected = sequential.predict(test);
+		assertEquals(test.getNumberOfInstances(), expected.size());
+		assertEquals(expected, parallel.predict(test));
+		for(int instance = 0; instance < test.getNumberOfInstances(); instance++) {
+			assertEquals(expected.get(instance), parallel.predict(test.getValues(0)[instance]));
+		}
+	}
+
+	@Test
+	public void testPruning() throws TrainingException {
+		BOSSEnsembleClassifier all = new BOSSEnsembleClassifier(WINDOW_LENGTHS, WORD_LENGTHS, ALPHABET, false, 0, 2);
+		all.train(train);
+		// the members with a window length longer than the series are skipped
+		assertEquals((WINDOW_LENGTHS.length - 1) * WORD_LENGTHS.length, all.getEnsemble().size());
+
+		BOSSEnsembleClassifier best = new BOSSEnsembleClassifier(WINDOW_LENGTHS, WORD_LENGTHS, ALPHABET, false, 1, 2);
+		best.train(train);
+		assertFalse(best.getEnsemble().isEmpty());
+		assertTrue(best.getEnsemble().size() <= all.getEnsemble().size());
+		for(BOSSClassifier member : best.getEnsemble()) {
+			assertTrue(member.isTrained());
+		}
+	}
+
+	@Test
+	public void testTimeoutAbortsTraining() throws InterruptedException {
+		// training a single member on this many instances takes several seconds
+		BOSSEnsembleClassifier ensemble = new BOSSEnsembleClassifier(new int[] {16, 24}, WORD_LENGTHS, ALPHABET, false, 0, 2);
+		ensemble.algorithm.setTimeout(100, TimeUnit.MILLISECONDS);
+		TimeSeriesDataset dataset = createDataset(3000, 3);
+		long start = System.currentTimeMillis();
+		try {
+			ensemble.train(dataset);
+			fail("The training should have been aborted due to the timeout.");
+		} catch (TrainingException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+		assertTrue(System.currentTimeMillis() - start < 5000);
+
+		// the members that are still running are aborted as well
+		for(Thread thread : Thread.getAllStackTraces().keySet()) {
+			if(thread.getName().startsWith(BOSSEnsembleAlgorithm.THREAD_NAME_PREFIX)) {
+				thread.join(5000);
+				assertFalse("Thread " + thread.getName() + " is still alive.", thread.isAlive());
+			}
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package jaicore.ml.tsc.classifier.neighbors;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -12,8 +14,11 @@ import org.junit.Test;
 import jaicore.basic.sets.SetUtil.Pair;
 import jaicore.ml.core.exception.PredictionException;
 import jaicore.ml.core.exception.TrainingException;
+import jaicore.ml.tsc.classifier.neighbors.NearestNeighborClassifier.VoteType;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.distances.Abandonable;
 import jaicore.ml.tsc.distances.EuclideanDistance;
+import jaicore.ml.tsc.distances.ITimeSeriesDistance;
 
 /**
  * Test suite for the
@@ -226,6 +231,83 @@ public class NearestNeighborTest {
         assertEquals(expectation, votedTargetClass);
     }
 
+    /**
+     * Euclidean distance that abandons the calculation once the squared sum
+     * exceeds the squared best-so-far value.
+     */
+    private static class AbandonableEuclideanDistance extends EuclideanDistance implements Abandonable {
+
+        private double bestSoFar = Double.POSITIVE_INFINITY;
+
+        @Override
+        public void setBestSoFar(double limit) {
+            this.bestSoFar = limit;
+        }
+
+        @Override
+        public double getBestSoFar() {
+            return this.bestSoFar;
+        }
+
+        @Override
+        public double distance(double[] A, double[] B, double bestSoFar) {
+            double limit = bestSoFar * bestSoFar;
+            double result = 0;
+            for (int i = 0; i < A.length; i++) {
+                result += (A[i] - B[i]) * (A[i] - B[i]);
+                if (result > limit)
+                    return Double.POSITIVE_INFINITY;
+            }
+            return Math.sqrt(result);
+        }
+    }
+
+    private static TimeSeriesDataset createRandomDataset(Random random, int numberOfInstances, int length,
+            int numberOfClasses) {
+        double[][] data = new double[numberOfInstances][length];
+        int[] targets = new int[numberOfInstances];
+        for (int i = 0; i < numberOfInstances; i++) {
+            for (int j = 0; j < length; j++)
+                data[i][j] = random.nextDouble();
+            targets[i] = random.nextInt(numberOfClasses);
+        }
+        ArrayList<double[][]> values = new ArrayList<>(1);
+        values.add(data);
+        return new TimeSeriesDataset(values, targets);
+    }
+
+    /**
+     * Tests that the batch prediction on a dataset yields the same predictions
+     * as the vote on the priority queue of nearest neighbors for every vote type,
+     * with and without early abandoning of the distance calculation.
+     * 
+     * @throws TrainingException
+     * @throws PredictionException
+     */
+    @Test
+    public void testBatchPredictionMatchesPriorityQueueVote() throws TrainingException, PredictionException {
+        Random random = new Random(0);
+        TimeSeriesDataset train = createRandomDataset(random, 200, 20, 4);
+        TimeSeriesDataset test = createRandomDataset(random, 100, 20, 4);
+        double[][] testInstances = test.getValuesOrNull(0);
+        ITimeSeriesDistance[] distanceMeasures = { new EuclideanDistance(), new AbandonableEuclideanDistance() };
+        for (ITimeSeriesDistance distanceMeasure : distanceMeasures) {
+            for (VoteType voteType : VoteType.values()) {
+                for (int k : new int[] { 1, 3, 7, 250 }) {
+                    NearestNeighborClassifier classifier = new NearestNeighborClassifier(k, distanceMeasure, voteType);
+                    classifier.train(train);
+                    List<Integer> predictions = classifier.predict(test);
+                    assertEquals(testInstances.length, predictions.size());
+                    for (int i = 0; i < testInstances.length; i++) {
+                        int expectation = classifier.vote(classifier.calculateNearestNeigbors(testInstances[i]));
+                        assertEquals(expectation, (int) predictions.get(i));
+                        assertEquals(expectation, (int) classifier.predict(testInstances[i]));
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Tests if IllegalArgumetnExceptions are thrown when making calls with
      * <code>null</code> objects.
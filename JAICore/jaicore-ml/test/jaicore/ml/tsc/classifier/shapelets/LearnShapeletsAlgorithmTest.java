@@ -1,5 +1,6 @@
 package jaicore.ml.tsc.classifier.shapelets;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
@@ -11,6 +12,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import jaicore.ml.core.exception.TrainingException;
+import jaicore.ml.tsc.dataset.TimeSeriesDataset;
 import jaicore.ml.tsc.util.MathUtil;
 import junit.framework.Assert;
 
@@ -155,4 +158,82 @@ public class LearnShapeletsAlgorithmTest {
 		exception.expect(IllegalArgumentException.class);
 		algorithm.shuffleAccordingToAlternatingClassScheme(Arrays.asList(1, 2, 3), new int[] { 0, 1 }, random);
 	}
+
+	/**
+	 * Creates a dataset of noisy sine waves whose frequencies depend on the class.
+	 */
+	private static TimeSeriesDataset createDataset(final int numberOfInstances, final int length, final long seed) {
+		Random random = new Random(seed);
+		double[][] values = new double[numberOfInstances][length];
+		int[] targets = new int[numberOfInstances];
+		for (int i = 0; i < numberOfInstances; i++) {
+			targets[i] = i % 2;
+			for (int q = 0; q < length; q++) {
+				values[i][q] = Math.sin(q * (targets[i] + 1) / 4d) + 0.2 * random.nextGaussian();
+			}
+		}
+		List<double[][]> matrices = new ArrayList<>();
+		matrices.add(values);
+		return new TimeSeriesDataset(matrices, targets);
+	}
+
+	/**
+	 * Tests that the mini-batch gradient descent delivers the same model for the
+	 * same seed and number of CPUs and the same model up to rounding errors for a
+	 * different number of CPUs.
+	 */
+	@Test
+	public void miniBatchDeterminismTest() throws TrainingException {
+		final TimeSeriesDataset dataset = createDataset(40, 30, SEED);
+
+		LearnShapeletsClassifier[] classifiers = new LearnShapeletsClassifier[3];
+		int[] numCPUs = new int[] { 2, 2, 1 };
+		for (int i = 0; i < classifiers.length; i++) {
+			classifiers[i] = new LearnShapeletsClassifier(2, LEARNING_RATE, REGULARIZATION, SCALE_R, 0.2, 5, 0.5,
+					SEED, 8, numCPUs[i]);
+			classifiers[i].train(dataset);
+		}
+
+		Assert.assertTrue("The models trained with the same seed and number of CPUs differ.",
+				Arrays.deepEquals(classifiers[0].getS(), classifiers[1].getS())
+						&& Arrays.deepEquals(classifiers[0].getW(), classifiers[1].getW())
+						&& Arrays.equals(classifiers[0].getW_0(), classifiers[1].getW_0()));
+
+		double[][][] S1 = classifiers[0].getS();
+		double[][][] S2 = classifiers[2].getS();
+		for (int r = 0; r < S1.length; r++)
+			for (int k = 0; k < S1[r].length; k++)
+				for (int l = 0; l < S1[r][k].length; l++)
+					Assert.assertEquals("The models trained with a different number of CPUs differ.", S1[r][k][l],
+							S2[r][k][l], EPS_DELTA);
+	}
+
+	/**
+	 * Tests that the early stopping criterion is called after each iteration and
+	 * stops the training.
+	 */
+	@Test
+	public void earlyStoppingTest() throws TrainingException {
+		final TimeSeriesDataset dataset = createDataset(20, 30, SEED);
+		final TimeSeriesDataset validationDataset = createDataset(10, 30, SEED + 1);
+
+		final List<Double> validationLosses = new ArrayList<>();
+		LearnShapeletsClassifier classifier = new LearnShapeletsClassifier(2, LEARNING_RATE, REGULARIZATION, SCALE_R,
+				0.2, MAX_ITER, 0.5, SEED, 4, 2);
+		classifier.setEarlyStopping(validationDataset, (iteration, validationLoss, bestIteration, bestLoss) -> {
+			validationLosses.add(validationLoss);
+			Assert.assertTrue("The best validation loss is greater than the current one.", bestLoss <= validationLoss);
+			return iteration >= 2;
+		});
+		classifier.train(dataset);
+
+		Assert.assertEquals("The training has not been stopped by the early stopping criterion.", 3,
+				validationLosses.size());
+		Assert.assertTrue("The validation loss must be positive.", validationLosses.stream().allMatch(l -> l > 0));
+		Assert.assertTrue("The model has not been trained.", classifier.isTrained());
+
+		PatienceEarlyStoppingCriterion patience = new PatienceEarlyStoppingCriterion(3);
+		Assert.assertFalse(patience.shouldStop(4, 0.5, 2, 0.4));
+		Assert.assertTrue(patience.shouldStop(5, 0.5, 2, 0.4));
+	}
 }
@@ -75,6 +75,37 @@ public class ShapeletTransformAlgorithmTest {
 
 	}
 
+	/**
+	 * See
+	 * {@link ShapeletTransformAlgorithm#generateCandidates(double[], int, int)}.
+	 * The normalization must not depend on the scale or the offset of the values.
+	 */
+	@Test
+	public void generateCandidatesIsScaleInvariantTest() {
+		int l = 4;
+		for (double[] scaleAndOffset : new double[][] { { 1E-6, 0 }, { 1E-3, 1E6 }, { 1, 0 } }) {
+			double[] data = new double[50];
+			for (int i = 0; i < data.length; i++) {
+				data[i] = scaleAndOffset[1] + scaleAndOffset[0] * Math.sin(i);
+			}
+
+			int start = 0;
+			for (Shapelet candidate : ShapeletTransformAlgorithm.generateCandidates(data, l, 0)) {
+				double[] expectedResult = TimeSeriesUtil.zNormalize(TimeSeriesUtil.getInterval(data, start, start + l),
+						true);
+				Assert.assertArrayEquals("The normalized candidate does not match the expected normalized values.",
+						expectedResult, candidate.getData(), EPS_DELTA);
+				start++;
+			}
+		}
+
+		double[] constantData = new double[] { 0.1, 0.1, 0.1, 0.1, 0.1 };
+		for (Shapelet candidate : ShapeletTransformAlgorithm.generateCandidates(constantData, l, 0)) {
+			Assert.assertArrayEquals("A constant candidate must be normalized to zero.", new double[l],
+					candidate.getData(), 0);
+		}
+	}
+
 	/**
 	 * See {@link ShapeletTransformAlgorithm#findDistances(Shapelet, double[][])}.
 	 */
@@ -0,0 +1,93 @@
+package jaicore.ml.tsc.classifier.trees;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import jaicore.ml.tsc.classifier.trees.InvertedLeafIndex.SparseLeafCounts;
+import jaicore.ml.tsc.util.MathUtil;
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link InvertedLeafIndex}.
+ *
+ * @author agent
+ *
+ */
+public class InvertedLeafIndexTest {
+
+	/**
+	 * See {@link SparseLeafCounts#fromLeafNodes(int[])}.
+	 */
+	@Test
+	public void fromLeafNodesTest() {
+		final SparseLeafCounts counts = SparseLeafCounts.fromLeafNodes(new int[] { 4, 1, 4, 7, 1, 4 });
+
+		assertArrayEquals(new int[] { 1, 4, 7 }, counts.getLeaves(), "The reached leaf nodes are not correct.");
+		assertArrayEquals(new int[] { 2, 3, 1 }, counts.getCounts(), "The leaf node counts are not correct.");
+		Assert.assertEquals("The norm of the leaf node counts is not correct.", 6, counts.getNorm());
+	}
+
+	/**
+	 * Tests whether the nearest neighbor search using the index equals the
+	 * exhaustive search on the dense leaf node counts (including the tie
+	 * breaking).
+	 */
+	@Test
+	public void findNearestInstanceIndexTest() {
+		final Random random = new Random(42);
+		final int numInstances = 50;
+		final int[] numLeavesPerTree = { 5, 3, 8 };
+		final int[] lengthPerTree = { 6, 4, 9 };
+
+		final int[][][] trainLeafNodes = new int[numInstances][][];
+		for (int inst = 0; inst < numInstances; inst++)
+			trainLeafNodes[inst] = randomLeafNodeCounts(numLeavesPerTree, lengthPerTree, random);
+		final InvertedLeafIndex index = InvertedLeafIndex.fromDense(trainLeafNodes);
+
+		for (int q = 0; q < 200; q++) {
+			final int[][] query = q < numInstances ? trainLeafNodes[q]
+					: randomLeafNodeCounts(numLeavesPerTree, lengthPerTree, random);
+
+			// Exhaustive search
+			double minDistance = Double.MAX_VALUE;
+			int expectation = 0;
+			for (int inst = 0; inst < numInstances; inst++) {
+				double distance = 0;
+				for (int i = 0; i < numLeavesPerTree.length; i++)
+					distance += MathUtil.intManhattanDistance(trainLeafNodes[inst][i], query[i]);
+				if (distance < minDistance) {
+					minDistance = distance;
+					expectation = inst;
+				}
+			}
+
+			Assert.assertEquals("The index found a different nearest neighbor than the exhaustive search.",
+					expectation, index.findNearestInstanceIndex(index.toSparse(query)));
+		}
+	}
+
+	/**
+	 * Generates leaf node counts of a random instance.
+	 *
+	 * @param numLeavesPerTree
+	 *            Number of leaf nodes per tree
+	 * @param lengthPerTree
+	 *            Number of subsequences per tree
+	 * @param random
+	 *            Random number generator
+	 * @return Returns the leaf node counts per tree and leaf node
+	 */
+	private static int[][] randomLeafNodeCounts(final int[] numLeavesPerTree, final int[] lengthPerTree,
+			final Random random) {
+		final int[][] counts = new int[numLeavesPerTree.length][];
+		for (int i = 0; i < numLeavesPerTree.length; i++) {
+			counts[i] = new int[numLeavesPerTree[i]];
+			for (int len = 0; len < lengthPerTree[i]; len++)
+				counts[i][random.nextInt(numLeavesPerTree[i])]++;
+		}
+		return counts;
+	}
+}
@@ -100,6 +100,24 @@ public class LearnPatternSimilarityAlgorithmTest {
 				"The generated features do not match the expected generated feature values.");
 	}
 
+	/**
+	 * See
+	 * {@link LearnPatternSimilarityAlgorithm#generateSubseriesFeatures(double[], int[], int[], int, double[])}.
+	 */
+	@Test
+	public void generateSubseriesFeaturesTest() {
+		final double[] features = new double[2 * NUM_SEGMENTS];
+
+		// Check that the features equal the ones of the Weka instance for every length
+		for (int lenIdx = 0; lenIdx < 3; lenIdx++) {
+			LearnPatternSimilarityAlgorithm.generateSubseriesFeatures(exampleInstanceValues[1], segments,
+					segmentsDifference, lenIdx, features);
+			assertArrayEquals(LearnPatternSimilarityAlgorithm.generateSubseriesFeatureInstance(
+					exampleInstanceValues[1], segments, segmentsDifference, lenIdx).toDoubleArray(), features,
+					EPS_DELTA, "The generated features do not match the features of the generated instance.");
+		}
+	}
+
 	/**
 	 * See
 	 * {@link LearnPatternSimilarityAlgorithm#generateSubseriesFeaturesInstances(java.util.ArrayList, int, int[], int[], double[][])}.
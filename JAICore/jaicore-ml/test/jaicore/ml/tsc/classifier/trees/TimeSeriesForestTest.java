@@ -1,12 +1,15 @@
 package jaicore.ml.tsc.classifier.trees;
 
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jaicore.basic.TimeOut;
+import jaicore.ml.core.exception.PredictionException;
 import jaicore.ml.core.exception.TrainingException;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
 
@@ -52,4 +55,38 @@ public class TimeSeriesForestTest {
 		Assert.assertEquals("The number of trained trees does not match the expected number.", numTrees,
 				classifier.getTrees().length);
 	}
+
+	/**
+	 * Tests the parallel training of TSF using a shared feature store.
+	 * 
+	 * @throws TrainingException
+	 *             thrown if the training could not be performed.
+	 * @throws PredictionException
+	 *             thrown if the prediction could not be performed.
+	 */
+	@Test
+	public void featureCachingTrainingTest() throws TrainingException, PredictionException {
+		int numTrees = 10;
+		int maxDepth = 10;
+		int seed = 42;
+
+		final double[][] data = new double[][] { { 1, 2, 3, 4, 5 }, { 2, 3, 4, 5, 6 }, { 5, 4, 3, 2, 1 },
+				{ 6, 5, 4, 3, 2 } };
+		ArrayList<double[][]> valueMatrix = new ArrayList<>();
+		valueMatrix.add(data);
+		final int[] targets = new int[] { 0, 0, 1, 1 };
+
+		TimeSeriesForestClassifier classifier = new TimeSeriesForestClassifier(numTrees, maxDepth, seed, false, 1,
+				new TimeOut(Integer.MAX_VALUE, TimeUnit.SECONDS));
+		classifier.train(new TimeSeriesDataset(valueMatrix, targets));
+		TimeSeriesForestClassifier cachingClassifier = new TimeSeriesForestClassifier(numTrees, maxDepth, seed,
+				true, 4, new TimeOut(Integer.MAX_VALUE, TimeUnit.SECONDS));
+		cachingClassifier.train(new TimeSeriesDataset(valueMatrix, targets));
+
+		Assert.assertEquals("The number of trained trees does not match the expected number.", numTrees,
+				cachingClassifier.getTrees().length);
+		for (int i = 0; i < data.length; i++)
+			Assert.assertEquals("The predictions with and without feature caching differ.",
+					classifier.predict(data[i]), cachingClassifier.predict(data[i]));
+	}
 }
@@ -16,6 +16,7 @@ import jaicore.graph.TreeNode;
 import jaicore.ml.core.exception.TrainingException;
 import jaicore.ml.tsc.classifier.trees.TimeSeriesTree.TimeSeriesTreeNodeDecisionFunction;
 import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.features.IntervalFeatureStore;
 import jaicore.ml.tsc.features.TimeSeriesFeature;
 import jaicore.ml.tsc.features.TimeSeriesFeature.FeatureType;
 import junit.framework.Assert;
@@ -93,6 +94,29 @@ public class TimeSeriesTreeTest {
 				EPS_DELTA);
 	}
 
+	/**
+	 * See {@link IntervalFeatureStore#getFeatures(int, int, int)}.
+	 */
+	@Test
+	public void intervalFeatureStoreTest() {
+		double[][] data = new double[][] { { 1, 2, 3, 7, -2, 0.5, 4 }, { 2, 2, 2, 2, 2, 2, 2 } };
+		IntervalFeatureStore featureStore = new IntervalFeatureStore(data,
+				TimeSeriesTreeAlgorithm.USE_BIAS_CORRECTION);
+
+		for (int i = 0; i < data.length; i++) {
+			for (int t1 = 0; t1 < data[i].length; t1++) {
+				for (int t2 = t1; t2 < data[i].length; t2++) {
+					double[] expected = TimeSeriesFeature.getFeatures(data[i], t1, t2,
+							TimeSeriesTreeAlgorithm.USE_BIAS_CORRECTION);
+					double[] actual = featureStore.getFeatures(i, t1, t2);
+					for (int k = 0; k < expected.length; k++)
+						Assert.assertEquals("The stored feature does not match the calculated feature value.",
+								expected[k], actual[k], EPS_DELTA);
+				}
+			}
+		}
+	}
+
 	/**
 	 * See
 	 * {@link TimeSeriesTreeAlgorithm#randomlySampleNoReplacement(List, int, int)}.
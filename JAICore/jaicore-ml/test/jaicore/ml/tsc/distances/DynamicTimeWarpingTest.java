@@ -1,6 +1,7 @@
 package jaicore.ml.tsc.distances;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.Test;
@@ -85,6 +86,38 @@ public class DynamicTimeWarpingTest {
         assertEquals(expectation, distance, 1.0E-5);
     }
 
+    /**
+     * Correctness test. Tests that the warping path is restricted to the window,
+     * i.e. with a window of size zero, DTW equals the Manhattan distance.
+     */
+    @Test
+    public void testDistanceCalculationWithSmallWindow() {
+        // Input.
+        double[] timeSeries1 = { 1, 2, 3, 4, 5 };
+        double[] timeSeries2 = { 1, 1, 2, 3, 5 };
+
+        DynamicTimeWarping dtw = new DynamicTimeWarping();
+        assertEquals(1, dtw.distanceWithWindow(timeSeries1, timeSeries2, 1), 1.0E-5);
+        assertEquals(3, dtw.distanceWithWindow(timeSeries1, timeSeries2, 0), 1.0E-5);
+    }
+
+    /**
+     * Correctness test. Tests that the calculation is only abandoned if the
+     * distance exceeds the best-so-far value.
+     */
+    @Test
+    public void testEarlyAbandon() {
+        // Input.
+        double[] timeSeries1 = { 0.50, 0.87, 0.90, 0.82, 0.70 };
+        double[] timeSeries2 = { 0.10, 0.10, 0.10, 0.10, 0.10 };
+
+        DynamicTimeWarping dtw = new DynamicTimeWarping();
+        assertEquals(3.29, dtw.distance(timeSeries1, timeSeries2, 3.29), 1.0E-5);
+        assertTrue(dtw.distance(timeSeries1, timeSeries2, 3) > 3);
+        dtw.setBestSoFar(1);
+        assertTrue(dtw.distance(timeSeries1, timeSeries2) > 1);
+    }
+
     /**
      * Robustness test: When initializing with <code>null</code> for the scalar
      * distance measure, the constructor is supposed to throw an
@@ -0,0 +1,218 @@
+package jaicore.ml.tsc.distances;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import jaicore.ml.tsc.util.ScalarDistanceUtil;
+
+/**
+ * Checks that the elastic distance measures compute the same distances as the
+ * straightforward implementation on a full <code>(n+1) x (m+1)</code> matrix
+ * that calls the {@link IScalarDistance} for each cell, and that abandoning the
+ * calculation in a 1-NN search does not change the nearest neighbor distances.
+ *
+ * @author agent
+ */
+public class ElasticDistanceReferenceTest {
+
+    private static final int NUMBER_OF_SERIES = 16;
+    private static final int LENGTH = 64;
+
+    /** A point distance that is not recognized as one of the inlined kernels. */
+    private static final IScalarDistance CUSTOM_ABSOLUTE_DISTANCE = (x, y) -> Math.abs(x - y);
+
+    private interface Measure {
+        double distance(double[] A, double[] B);
+    }
+
+    private static double[][] randomWalks(int number, int length, long seed) {
+        Random random = new Random(seed);
+        double[][] series = new double[number][length];
+        for (double[] s : series) {
+            double value = 0;
+            for (int i = 0; i < length; i++) {
+                value += random.nextGaussian();
+                s[i] = value;
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Computes all pairwise distances with both measures and checks that they
+     * agree.
+     */
+    private void assertEqualDistances(Measure reference, Measure measure) {
+        double[][] series = randomWalks(NUMBER_OF_SERIES, LENGTH, 0);
+        for (int i = 0; i < NUMBER_OF_SERIES; i++) {
+            for (int j = 0; j < NUMBER_OF_SERIES; j++) {
+                double expected = reference.distance(series[i], series[j]);
+                assertEquals(expected, measure.distance(series[i], series[j]), 1e-9 * Math.max(1, Math.abs(expected)));
+            }
+        }
+    }
+
+    /**
+     * Runs a 1-NN search for each series among the others, once exhaustively and
+     * once passing the distance to the nearest neighbor so far as limit.
+     */
+    private void assertAbandoningKeepsNearestNeighbors(Abandonable measure) {
+        double[][] train = randomWalks(NUMBER_OF_SERIES, LENGTH, 1);
+        double[][] test = randomWalks(NUMBER_OF_SERIES, LENGTH, 2);
+        for (double[] query : test) {
+            double exhaustive = Double.POSITIVE_INFINITY;
+            double abandoning = Double.POSITIVE_INFINITY;
+            for (double[] candidate : train) {
+                exhaustive = Math.min(exhaustive, measure.distance(query, candidate, Double.POSITIVE_INFINITY));
+                abandoning = Math.min(abandoning, measure.distance(query, candidate, abandoning));
+            }
+            assertEquals(exhaustive, abandoning, 0);
+        }
+    }
+
+    @Test
+    public void testDynamicTimeWarping() {
+        IScalarDistance squared = ScalarDistanceUtil.getSquaredDistance();
+        assertEqualDistances((A, B) -> referenceDynamicTimeWarping(A, B, squared),
+                new DynamicTimeWarping(squared)::distance);
+        assertEqualDistances((A, B) -> referenceDynamicTimeWarping(A, B, CUSTOM_ABSOLUTE_DISTANCE),
+                new DynamicTimeWarping(CUSTOM_ABSOLUTE_DISTANCE)::distance);
+        assertAbandoningKeepsNearestNeighbors(new DynamicTimeWarping(squared));
+    }
+
+    @Test
+    public void testWeightedDynamicTimeWarping() {
+        IScalarDistance squared = ScalarDistanceUtil.getSquaredDistance();
+        WeightedDynamicTimeWarping wdtw = new WeightedDynamicTimeWarping(0.05, 1, squared);
+        double[] weights = wdtw.calculateWeights(LENGTH);
+        assertEqualDistances((A, B) -> referenceWeightedDynamicTimeWarping(A, B, weights, squared), wdtw::distance);
+        assertAbandoningKeepsNearestNeighbors(wdtw);
+    }
+
+    @Test
+    public void testTimeWarpEditDistance() {
+        IScalarDistance absolute = ScalarDistanceUtil.getAbsoluteDistance();
+        assertEqualDistances((A, B) -> referenceTimeWarpEditDistance(A, B, 1.0, 0.001, absolute),
+                new TimeWarpEditDistance(1.0, 0.001, absolute)::distance);
+        assertAbandoningKeepsNearestNeighbors(new TimeWarpEditDistance(1.0, 0.001, absolute));
+    }
+
+    @Test
+    public void testMoveSplitMerge() {
+        assertEqualDistances((A, B) -> referenceMoveSplitMerge(A, B, 0.5), new MoveSplitMerge(0.5)::distance);
+        assertAbandoningKeepsNearestNeighbors(new MoveSplitMerge(0.5));
+    }
+
+    private static double referenceDynamicTimeWarping(double[] A, double[] B, IScalarDistance delta) {
+        int n = A.length;
+        int m = B.length;
+        double[][] M = new double[n + 1][m + 1];
+        for (int i = 1; i <= n; i++)
+            M[i][0] = Double.MAX_VALUE;
+        for (int j = 1; j <= m; j++)
+            M[0][j] = Double.MAX_VALUE;
+        M[0][0] = 0d;
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                double cost = delta.distance(A[i - 1], B[j - 1]);
+                double mini = Math.min(M[i - 1][j], Math.min(M[i][j - 1], M[i - 1][j - 1]));
+                M[i][j] = cost + mini;
+            }
+        }
+        return M[n][m];
+    }
+
+    private static double referenceWeightedDynamicTimeWarping(double[] A, double[] B, double[] weights,
+            IScalarDistance d) {
+        int n = A.length;
+        int m = B.length;
+        double[][] M = new double[n + 1][m + 1];
+        for (int i = 1; i <= n; i++)
+            M[i][0] = Double.MAX_VALUE;
+        for (int j = 1; j <= m; j++)
+            M[0][j] = Double.MAX_VALUE;
+        M[0][0] = 0d;
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                double cost = weights[Math.abs(i - j)] * d.distance(A[i - 1], B[j - 1]);
+                double minimum = Math.min(M[i - 1][j], Math.min(M[i][j - 1], M[i - 1][j - 1]));
+                M[i][j] = cost + minimum;
+            }
+        }
+        return M[n][m];
+    }
+
+    private static double referenceTimeWarpEditDistance(double[] A, double[] B, double lambda, double nu,
+            IScalarDistance d) {
+        int n = A.length;
+        int m = B.length;
+        double[] tA = new double[n];
+        double[] tB = new double[m];
+        for (int i = 0; i < n; i++)
+            tA[i] = i;
+        for (int j = 0; j < m; j++)
+            tB[j] = j;
+        double[][] DP = new double[n + 1][m + 1];
+        for (int i = 1; i <= n; i++)
+            DP[i][0] = Double.MAX_VALUE;
+        for (int i = 1; i <= m; i++)
+            DP[0][i] = Double.MAX_VALUE;
+        DP[0][0] = 0d;
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                double c1, c2, c3;
+                if (i == 1 && j == 1) {
+                    c1 = DP[i - 1][j] + d.distance(0, A[i - 1]) + nu * tA[i - 1] + lambda;
+                    c2 = DP[i][j - 1] + d.distance(0, B[j - 1]) + nu * tB[j - 1] + lambda;
+                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[j - 1]) + nu * Math.abs(tA[i - 1] - tB[j - 1]);
+                } else if (i == 1) {
+                    c1 = DP[i - 1][j] + d.distance(0, A[i - 1]) + nu * tA[i - 1] + lambda;
+                    c2 = DP[i][j - 1] + d.distance(B[j - 2], B[j - 1]) + nu * (tB[j - 1] - tB[j - 2]) + lambda;
+                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[j - 1]) + d.distance(0, B[j - 2])
+                            + nu * (Math.abs(tA[i - 1] - tB[j - 1]) + tB[j - 2]);
+                } else if (j == 1) {
+                    c1 = DP[i - 1][j] + d.distance(A[i - 2], A[i - 1]) + nu * (tA[i - 1] - tA[i - 2]) + lambda;
+                    c2 = DP[i][j - 1] + d.distance(0, B[j - 1]) + nu * tB[j - 1] + lambda;
+                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[j - 1]) + d.distance(A[i - 2], 0)
+                            + nu * (Math.abs(tA[i - 1] - tB[j - 1]) + tA[i - 2]);
+                } else {
+                    c1 = DP[i - 1][j] + d.distance(A[i - 2], A[i - 1]) + nu * (tA[i - 1] - tA[i - 2]) + lambda;
+                    c2 = DP[i][j - 1] + d.distance(B[j - 2], B[j - 1]) + nu * (tB[j - 1] - tB[j - 2]) + lambda;
+                    c3 = DP[i - 1][j - 1] + d.distance(A[i - 1], B[j - 1]) + d.distance(A[i - 2], B[j - 2])
+                            + nu * (Math.abs(tA[i - 1] - tB[j - 1]) + Math.abs(tA[i - 2] - tB[j - 2]));
+                }
+                DP[i][j] = Math.min(c1, Math.min(c2, c3));
+            }
+        }
+        return DP[n][m];
+    }
+
+    private static double referenceMoveSplitMerge(double[] A, double[] B, double c) {
+        int n = A.length;
+        int m = B.length;
+        double[][] Cost = new double[n][m];
+        Cost[0][0] = Math.abs(A[0] - B[0]);
+        for (int i = 1; i < n; i++)
+            Cost[i][0] = Cost[i - 1][0] + splitOrMergeCost(A[i], A[i - 1], B[0], c);
+        for (int j = 1; j < m; j++)
+            Cost[0][j] = Cost[0][j - 1] + splitOrMergeCost(B[j], A[0], B[j - 1], c);
+        for (int i = 1; i < n; i++) {
+            for (int j = 1; j < m; j++) {
+                double costMove = Cost[i - 1][j - 1] + Math.abs(A[i] - B[j]);
+                double cost2 = Cost[i - 1][j] + splitOrMergeCost(A[i], A[i - 1], B[j], c);
+                double cost3 = Cost[i][j - 1] + splitOrMergeCost(B[j], A[i], B[j - 1], c);
+                Cost[i][j] = Math.min(costMove, Math.min(cost2, cost3));
+            }
+        }
+        return Cost[n - 1][m - 1];
+    }
+
+    private static double splitOrMergeCost(double a, double aBefore, double b, double c) {
+        if ((aBefore <= a && a <= b) || (aBefore >= a && a >= b))
+            return c;
+        return c + Math.min(Math.abs(a - aBefore), Math.abs(a - b));
+    }
+}
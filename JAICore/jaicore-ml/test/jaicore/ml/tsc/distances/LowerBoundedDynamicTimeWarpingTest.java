@@ -0,0 +1,78 @@
+package jaicore.ml.tsc.distances;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import jaicore.ml.tsc.util.ScalarDistanceUtil;
+
+/**
+ * Test suite for the
+ * {@link jaicore.ml.tsc.distances.LowerBoundedDynamicTimeWarping}
+ * implementation.
+ * 
+ * @author agent
+ */
+public class LowerBoundedDynamicTimeWarpingTest {
+
+    /**
+     * Correctness test. Without window and best-so-far value the distance must
+     * equal the one of {@link DynamicTimeWarping}.
+     */
+    @Test
+    public void testCorrectnessForDistanceCalculation() {
+        double[] timeSeries1 = { 0.50, 0.87, 0.90, 0.82, 0.70 };
+        double[] timeSeries2 = { 0.10, 0.10, 0.10, 0.10, 0.10 };
+        double[] timeSeries3 = { 1, 1, 2, 2, 3, 5 };
+        double[] timeSeries4 = { 1, 2, 3, 5, 5, 5, 6 };
+
+        LowerBoundedDynamicTimeWarping dtw = new LowerBoundedDynamicTimeWarping();
+        assertEquals(3.29, dtw.distance(timeSeries1, timeSeries2), 1.0E-5);
+        assertEquals(1, dtw.distance(timeSeries3, timeSeries4), 1.0E-5);
+    }
+
+    /**
+     * Correctness test on random series. For every best-so-far value, the
+     * distance must either be exact or exceed the best-so-far value, and it must
+     * be exact if the exact distance does not exceed the best-so-far value.
+     */
+    @Test
+    public void testCorrectnessWithBestSoFar() {
+        Random random = new Random(0);
+        DynamicTimeWarping reference = new DynamicTimeWarping(ScalarDistanceUtil.getSquaredDistance());
+        for (int i = 0; i < 500; i++) {
+            double[] A = new double[30];
+            double[] B = new double[30];
+            for (int j = 0; j < 30; j++) {
+                A[j] = random.nextGaussian();
+                B[j] = random.nextGaussian();
+            }
+            LowerBoundedDynamicTimeWarping dtw = new LowerBoundedDynamicTimeWarping(30,
+                    ScalarDistanceUtil.getSquaredDistance());
+            if (i % 2 == 0)
+                dtw.fit(new double[][] { B });
+            double expectation = reference.distance(A, B);
+            double bestSoFar = 2 * random.nextDouble() * expectation;
+            double distance = dtw.distance(A, B, bestSoFar);
+            if (expectation <= bestSoFar)
+                assertEquals(expectation, distance, 1.0E-5);
+            else
+                assertTrue(distance > bestSoFar);
+        }
+    }
+
+    /**
+     * Tests the envelope calculation.
+     */
+    @Test
+    public void testEnvelope() {
+        double[] timeSeries = { 1, 3, 2, 5, 4, 0 };
+        double[][] envelope = LowerBoundedDynamicTimeWarping.envelope(timeSeries, 1);
+        assertArrayEquals(new double[] { 3, 3, 5, 5, 5, 4 }, envelope[0], 0);
+        assertArrayEquals(new double[] { 1, 1, 2, 2, 0, 0 }, envelope[1], 0);
+    }
+}
@@ -0,0 +1,99 @@
+package jaicore.ml.tsc.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.exceptions.NoneFittedFilterExeception;
+
+/**
+ * @author agent
+ *	Compares the incrementally calculated DFT coefficients and SFA words of the sliding windows with the ones
+ *	of the SlidingWindowBuilder, ZTransformer, DFT and SFA pipeline.
+ */
+@RunWith(JUnit4.class)
+public class MomentaryDFTTest {
+
+	private static final int WINDOW_SIZE = 16;
+
+	double[] timeseries;
+
+	@Before
+	public void setup() {
+		Random random = new Random(42);
+		timeseries = new double[200];
+		double value = 0;
+		for(int i = 0; i < timeseries.length; i++) {
+			value += random.nextGaussian();
+			timeseries[i] = value;
+		}
+	}
+
+	private double[][] zNormalizedWindows(double[] instance) throws NoneFittedFilterExeception {
+		SlidingWindowBuilder slide = new SlidingWindowBuilder();
+		slide.setDefaultWindowSize(WINDOW_SIZE);
+		double[][] windows = slide.specialFitTransform(instance).getValues(0);
+		ZTransformer znorm = new ZTransformer();
+		for(int i = 0; i < windows.length; i++) {
+			windows[i] = znorm.fitTransform(windows[i]);
+		}
+		return windows;
+	}
+
+	@Test
+	public void testTransform() throws NoneFittedFilterExeception {
+		int numberOfCoefficients = 4;
+		double[][] windows = zNormalizedWindows(timeseries);
+		double[][] output = new MomentaryDFT(WINDOW_SIZE, numberOfCoefficients, true).transform(timeseries);
+
+		assertEquals(timeseries.length - WINDOW_SIZE + 1, output.length);
+		DFT dft = new DFT();
+		dft.setNumberOfDisieredCoefficients(numberOfCoefficients);
+		for(int window = 0; window < windows.length; window++) {
+			double[] expected = dft.fitTransform(windows[window]);
+			// the first coefficient of a z-normalized window is zero
+			assertEquals(0, output[window][0], 0);
+			assertEquals(0, output[window][1], 0);
+			for(int entry = 2; entry < expected.length; entry++) {
+				assertEquals(expected[entry], output[window][entry], 1.0E-9);
+			}
+		}
+	}
+
+	@Test
+	public void testConstantWindows() {
+		double[] constant = new double[] {3,3,3,3,3,3,1,2};
+		double[][] output = new MomentaryDFT(4, 2, true).transform(constant);
+		for(int coefficient = 0; coefficient < 4; coefficient++) {
+			assertEquals(0, output[0][coefficient], 0);
+			assertEquals(0, output[2][coefficient], 0);
+		}
+	}
+
+	@Test
+	public void testSlidingSFA() throws NoneFittedFilterExeception {
+		int wordLength = 6;
+		double[] alphabet = new double[] {0,1,2,3};
+		SFA sfa = new SFA(alphabet, wordLength, false);
+		ArrayList<double[][]> windows = new ArrayList<double[][]>();
+		windows.add(zNormalizedWindows(timeseries));
+		double[][] expected = sfa.fitTransform(new TimeSeriesDataset(windows, null, null)).getValues(0);
+
+		SlidingSFA slidingSFA = new SlidingSFA(WINDOW_SIZE, wordLength, alphabet.length, false);
+		long[] words = slidingSFA.transform(timeseries);
+		assertEquals(expected.length, words.length);
+		for(int window = 0; window < words.length; window++) {
+			// the letters of the first coefficient only depend on rounding errors of the reference
+			for(int letter = 2; letter < slidingSFA.getNumberOfLetters(); letter++) {
+				assertEquals(expected[window][letter], slidingSFA.letterAt(words[window], letter), 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package jaicore.ml.tsc.pipeline;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import jaicore.ml.tsc.exceptions.NoneFittedFilterExeception;
+import jaicore.ml.tsc.filter.ZTransformer;
+import jaicore.ml.tsc.filter.derivate.BackwardDifferenceDerivate;
+import jaicore.ml.tsc.filter.derivate.KeoghDerivate;
+import jaicore.ml.tsc.filter.transform.HilbertTransform;
+
+/**
+ * Test suite for the {@link FilterPipeline} and {@link FilterPipelineCache}
+ * implementations.
+ *
+ * @author agent
+ */
+public class FilterPipelineTest {
+
+    private static final double[][] MATRIX = { { 1, 2, 4, 7, 11, 16 }, { 3, 1, 4, 1, 5, 9 }, { 2, 7, 1, 8, 2, 8 } };
+
+    /**
+     * Tests that fused instance-wise filters yield the same result as applying the
+     * filters one after another, sequentially as well as in parallel.
+     */
+    @Test
+    public void testFusedFiltersEqualSequentialApplication() throws NoneFittedFilterExeception {
+        // Expectation.
+        double[][] expectation = new HilbertTransform()
+                .transform(new KeoghDerivate().transform(new BackwardDifferenceDerivate().transform(MATRIX)));
+
+        for (int cpus = 1; cpus <= 2; cpus++) {
+            FilterPipeline pipeline = new FilterPipeline().add(new BackwardDifferenceDerivate())
+                    .add(new KeoghDerivate()).add(new HilbertTransform());
+            pipeline.setNumCPUs(cpus);
+
+            double[][] result = pipeline.fitTransform(MATRIX);
+            for (int i = 0; i < MATRIX.length; i++) {
+                assertArrayEquals(expectation[i], result[i], 0);
+                assertArrayEquals(expectation[i], pipeline.transform(MATRIX[i]), 0);
+            }
+        }
+    }
+
+    /**
+     * Tests that pipelines sharing a cache fit the filters of a common prefix only
+     * once and compute only the remaining filters.
+     */
+    @Test
+    public void testSharedPrefixIsFittedOnce() throws NoneFittedFilterExeception {
+        FilterPipelineCache cache = new FilterPipelineCache();
+        AtomicInteger zTransformers = new AtomicInteger();
+
+        FilterPipeline pipeline1 = new FilterPipeline(cache).add(ZTransformer.class, () -> {
+            zTransformers.incrementAndGet();
+            return new ZTransformer();
+        }, "").add(BackwardDifferenceDerivate.class, BackwardDifferenceDerivate::new, "");
+        FilterPipeline pipeline2 = new FilterPipeline(cache).add(ZTransformer.class, () -> {
+            zTransformers.incrementAndGet();
+            return new ZTransformer();
+        }, "").add(new HilbertTransform());
+        // Filters are not created before the pipelines are fitted.
+        assertEquals(0, zTransformers.get());
+
+        double[][] result1 = pipeline1.fitTransform(MATRIX);
+        assertEquals(1, zTransformers.get());
+        double[][] result2 = pipeline2.fitTransform(MATRIX);
+        assertEquals(1, zTransformers.get());
+        assertEquals(2, cache.size());
+
+        // The results equal the ones of uncached pipelines.
+        double[][] z = new ZTransformer().fitTransform(MATRIX);
+        double[][] expectation1 = new BackwardDifferenceDerivate().transform(z);
+        double[][] expectation2 = new HilbertTransform().transform(z);
+        for (int i = 0; i < MATRIX.length; i++) {
+            assertArrayEquals(expectation1[i], result1[i], 0);
+            assertArrayEquals(expectation2[i], result2[i], 0);
+        }
+
+        // A completely cached pipeline is not fitted again.
+        assertSame(result1, pipeline1.fitTransform(MATRIX));
+        assertEquals(1, zTransformers.get());
+    }
+
+    /**
+     * Tests that the cached results are not reused for different input.
+     */
+    @Test
+    public void testDifferentInputIsRecomputed() throws NoneFittedFilterExeception {
+        double[][] other = { { 1, 2, 4, 7, 11, 16 }, { 3, 1, 4, 1, 5, 9 }, { 2, 7, 1, 8, 2, 9 } };
+        assertNotEquals(FilterPipelineCache.fingerprint(MATRIX), FilterPipelineCache.fingerprint(other));
+        assertEquals(FilterPipelineCache.fingerprint(MATRIX), FilterPipelineCache.fingerprint(MATRIX.clone()));
+
+        FilterPipelineCache cache = new FilterPipelineCache();
+        FilterPipeline pipeline = new FilterPipeline(cache).add(BackwardDifferenceDerivate.class,
+                BackwardDifferenceDerivate::new, "");
+        pipeline.fitTransform(MATRIX);
+        double[][] result = pipeline.fitTransform(other);
+        assertEquals(2, cache.size());
+        assertArrayEquals(new BackwardDifferenceDerivate().transform(other[2]), result[2], 0);
+    }
+
+    /**
+     * Tests that equally configured filters of different types do not share their
+     * cached results.
+     */
+    @Test
+    public void testDescriptorContainsFilterType() throws NoneFittedFilterExeception {
+        FilterPipelineCache cache = new FilterPipelineCache();
+        new FilterPipeline(cache).add(BackwardDifferenceDerivate.class, BackwardDifferenceDerivate::new, "")
+                .fitTransform(MATRIX);
+        double[][] result = new FilterPipeline(cache).add(KeoghDerivate.class, KeoghDerivate::new, "")
+                .fitTransform(MATRIX);
+        assertEquals(2, cache.size());
+        assertArrayEquals(new KeoghDerivate().transform(MATRIX[0]), result[0], 0);
+    }
+}
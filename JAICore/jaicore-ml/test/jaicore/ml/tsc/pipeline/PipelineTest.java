@@ -0,0 +1,135 @@
+package jaicore.ml.tsc.pipeline;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import jaicore.ml.core.exception.PredictionException;
+import jaicore.ml.core.exception.TrainingException;
+import jaicore.ml.tsc.classifier.ASimplifiedTSClassifier;
+import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.filter.derivate.BackwardDifferenceDerivate;
+import jaicore.ml.tsc.filter.transform.HilbertTransform;
+
+/**
+ * Test suite for the {@link Pipeline} implementation.
+ *
+ * @author agent
+ */
+public class PipelineTest {
+
+    private static final double[][] MATRIX = { { 1, 2, 4, 7, 11, 16 }, { 3, 1, 4, 1, 5, 9 }, { 2, 7, 1, 8, 2, 8 } };
+
+    private static final int[] TARGETS = { 0, 1, 2 };
+
+    /**
+     * Nearest neighbor classifier on the last value matrix, which memorizes the
+     * matrix it has been trained on.
+     */
+    private static class LastMatrixClassifier extends ASimplifiedTSClassifier<Integer> {
+
+        private double[][] trainingMatrix;
+
+        private int[] trainingTargets;
+
+        LastMatrixClassifier() {
+            super(null);
+        }
+
+        @Override
+        public void train(final TimeSeriesDataset dataset) throws TrainingException {
+            this.trainingMatrix = dataset.getValues(dataset.getNumberOfVariables() - 1);
+            this.trainingTargets = dataset.getTargets();
+        }
+
+        @Override
+        public Integer predict(final double[] univInstance) throws PredictionException {
+            int nearest = 0;
+            double nearestDistance = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < this.trainingMatrix.length; i++) {
+                double distance = 0;
+                for (int j = 0; j < univInstance.length; j++) {
+                    distance += (univInstance[j] - this.trainingMatrix[i][j]) * (univInstance[j] - this.trainingMatrix[i][j]);
+                }
+                if (distance < nearestDistance) {
+                    nearest = i;
+                    nearestDistance = distance;
+                }
+            }
+            return this.trainingTargets[nearest];
+        }
+
+        @Override
+        public Integer predict(final List<double[]> multivInstance) throws PredictionException {
+            return predict(multivInstance.get(multivInstance.size() - 1));
+        }
+
+        @Override
+        public List<Integer> predict(final TimeSeriesDataset dataset) throws PredictionException {
+            List<Integer> predictions = new ArrayList<>();
+            for (double[] instance : dataset.getValues(dataset.getNumberOfVariables() - 1)) {
+                predictions.add(predict(instance));
+            }
+            return predictions;
+        }
+    }
+
+    private static TimeSeriesDataset createDataset() {
+        List<double[][]> valueMatrices = new ArrayList<>();
+        valueMatrices.add(MATRIX.clone());
+        List<double[][]> timestampMatrices = new ArrayList<>();
+        timestampMatrices.add(null);
+        return new TimeSeriesDataset(valueMatrices, timestampMatrices, TARGETS);
+    }
+
+    private static Pipeline<Integer> createPipeline(final FilterPipelineCache cache, final AtomicInteger derivates,
+            final boolean append) {
+        Pipeline<Integer> pipeline = new Pipeline<>();
+        FilterPipeline filters = new FilterPipeline(cache)
+                .add(BackwardDifferenceDerivate.class, () -> {
+                    derivates.incrementAndGet();
+                    return new BackwardDifferenceDerivate();
+                }, "").add(HilbertTransform.class, HilbertTransform::new, "");
+        pipeline.filter = Arrays.asList(new FilterHandler(filters, 0, append));
+        pipeline.classifier = new LastMatrixClassifier();
+        return pipeline;
+    }
+
+    /**
+     * Tests that the classifier of a pipeline is trained on and predicts the
+     * filtered data and that pipelines sharing a cache apply equally described
+     * filters on equal data only once.
+     */
+    @Test
+    public void testPipelinesShareFilteredData() throws TrainingException, PredictionException {
+        FilterPipelineCache cache = new FilterPipelineCache();
+        AtomicInteger derivates = new AtomicInteger();
+        Pipeline<Integer> replacing = createPipeline(cache, derivates, false);
+        Pipeline<Integer> appending = createPipeline(cache, derivates, true);
+
+        TimeSeriesDataset dataset = createDataset();
+        replacing.train(dataset);
+        double[][] expectation = new HilbertTransform().transform(new BackwardDifferenceDerivate().transform(MATRIX));
+        for (int i = 0; i < MATRIX.length; i++) {
+            assertArrayEquals(expectation[i], dataset.getValues(0)[i], 0);
+        }
+
+        dataset = createDataset();
+        appending.train(dataset);
+        assertEquals(2, dataset.getNumberOfVariables());
+        assertEquals(1, derivates.get());
+
+        for (Pipeline<Integer> pipeline : Arrays.asList(replacing, appending)) {
+            for (int i = 0; i < MATRIX.length; i++) {
+                assertEquals(TARGETS[i], (int) pipeline.predict(MATRIX[i]));
+            }
+            assertEquals(Arrays.asList(0, 1, 2), pipeline.predict(createDataset()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package jaicore.ml.tsc.shapelets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ShapeletTopKStore}.
+ * 
+ * @author agent
+ *
+ */
+public class ShapeletTopKStoreTest {
+
+	/**
+	 * Tests whether the store retains the k best shapelets in the order of
+	 * {@link ShapeletTopKStore#QUALITY_DESC_ORDER} independent of the order in
+	 * which they are offered.
+	 */
+	@Test
+	public void retainBestShapeletsTest() {
+		final int k = 5;
+
+		List<Shapelet> shapelets = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			// Equal qualities to test the tie breaking
+			shapelets.add(new Shapelet(null, i, 3, i % 2, i / 4));
+		}
+		List<Shapelet> expected = new ArrayList<>(shapelets);
+		expected.sort(ShapeletTopKStore.QUALITY_DESC_ORDER);
+		expected = expected.subList(0, k);
+
+		Random random = new Random(42);
+		for (int run = 0; run < 10; run++) {
+			Collections.shuffle(shapelets, random);
+			ShapeletTopKStore store = new ShapeletTopKStore(k);
+			for (Shapelet s : shapelets)
+				store.offer(s);
+
+			List<Shapelet> actual = store.getShapelets();
+			Assert.assertEquals(k, actual.size());
+			for (int i = 0; i < k; i++)
+				Assert.assertSame(expected.get(i), actual.get(i));
+		}
+	}
+
+	/**
+	 * Tests whether a store with k = 0 does not retain any shapelet.
+	 */
+	@Test
+	public void emptyStoreTest() {
+		ShapeletTopKStore store = new ShapeletTopKStore(0);
+		Assert.assertFalse(store.offer(new Shapelet(null, 0, 3, 0, 1d)));
+		Assert.assertTrue(store.getShapelets().isEmpty());
+	}
+}
@@ -0,0 +1,71 @@
+package jaicore.ml.tsc.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LongIntOpenHashMap}.
+ *
+ * @author agent
+ */
+public class LongIntOpenHashMapTest {
+
+	/**
+	 * Compares the map with a {@link HashMap} on random keys including resizes and
+	 * keys whose hash codes collide.
+	 */
+	@Test
+	public void addTest() {
+		Random random = new Random(42);
+		LongIntOpenHashMap map = new LongIntOpenHashMap(2);
+		Map<Long, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			long key = random.nextBoolean() ? random.nextInt(300) : random.nextLong();
+			int amount = random.nextInt(5) + 1;
+			expected.merge(key, amount, Integer::sum);
+			assertEquals(expected.get(key).intValue(), map.add(key, amount));
+		}
+
+		assertEquals(expected.size(), map.size());
+		int numberOfEntries = 0;
+		for (int slot = 0; slot < map.capacity(); slot++) {
+			if (map.isOccupied(slot)) {
+				assertEquals(expected.get(map.keyAt(slot)).intValue(), map.valueAt(slot));
+				numberOfEntries++;
+			}
+		}
+		assertEquals(expected.size(), numberOfEntries);
+		for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+			assertEquals(entry.getValue().intValue(), map.get(entry.getKey()));
+		}
+		assertEquals(0, map.get(-1L << 40));
+		assertFalse(map.containsKey(-1L << 40));
+	}
+
+	@Test
+	public void equalsTest() {
+		LongIntOpenHashMap a = new LongIntOpenHashMap();
+		LongIntOpenHashMap b = new LongIntOpenHashMap(100);
+		for (long key = 0; key < 50; key++) {
+			a.put(key, (int) key + 1);
+			b.put(49 - key, 50 - (int) key);
+		}
+		assertTrue(a.equals(b));
+		assertEquals(a.hashCode(), b.hashCode());
+		assertTrue(a.equals(new LongIntOpenHashMap(a)));
+
+		b.add(0, 1);
+		assertFalse(a.equals(b));
+
+		a.clear();
+		assertTrue(a.isEmpty());
+		assertEquals(0, a.get(3));
+	}
+}
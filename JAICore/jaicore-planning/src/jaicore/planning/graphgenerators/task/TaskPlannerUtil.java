@@ -143,10 +143,10 @@ public class TaskPlannerUtil {
 			/* now add a method application for each of the extended groundings */
 			for (Map<VariableParam, ConstantParam> extendedGrounding : extendedGroundings) {
 
-				/* create new objects for unassigned open output variables */
-				Set<ConstantParam> knownConstants = new HashSet<>(state.getConstantParams());
+				/* create new objects for unassigned open output variables (constants of the state are looked up in its index) */
+				Set<ConstantParam> constantsInRemainingProblems = new HashSet<>();
 				for (Literal l : remainingProblems) {
-					knownConstants.addAll(l.getConstantParams());
+					constantsInRemainingProblems.addAll(l.getConstantParams());
 				}
 				Collection<VariableParam> unboundParams = SetUtil.difference(method.getParameters(), extendedGrounding.keySet());
 				
@@ -159,7 +159,7 @@ public class TaskPlannerUtil {
 						ConstantParam p;
 						do {
 							p = new ConstantParam("newVar" + (indexForNewVariable++));
-						} while (knownConstants.contains(p));
+						} while (state.getIndex().containsConstant(p) || constantsInRemainingProblems.contains(p));
 						extendedGrounding.put(v, p);
 						unboundParams.remove(v);
 					}
@@ -334,11 +334,13 @@ public class TaskPlannerUtil {
 		}
 		final List<Map<VariableParam, LiteralParam>> groundings = new ArrayList<>();
 
-		/* create knowledge for the check */
+		/* create knowledge for the check; the state is only read, so it is only copied if additional knowledge is given */
 		assert knowledge == null || !knowledge.hasDisjunctions() : "Currently no support for non-factbase knowledge!";
-		Monom unitedKnowledge = new Monom(state);
-		if (knowledge != null)
+		Monom unitedKnowledge = state;
+		if (knowledge != null) {
+			unitedKnowledge = new Monom(state, false);
 			unitedKnowledge.addAll(knowledge.extractMonom());
+		}
 		try {
 
 			/* determine potential output parameters of the task */
@@ -370,8 +372,14 @@ public class TaskPlannerUtil {
 				/* now create the part of the grounding of the METHOD related to params NOT occurring in the task. if no such exists, consider just one empty completion */
 				Monom positiveRequirements = new Monom(preconditionOfMethodOrPrimitive.stream().filter(l -> l.isPositive()).collect(Collectors.toList()),
 						groundingForMethodOrPrimitiveTask);
-				ForwardChainer fc = new ForwardChainer(new ForwardChainingProblem(unitedKnowledge, positiveRequirements, true));
-				final Collection<Map<VariableParam, LiteralParam>> restMaps = fc.call();
+				final Collection<Map<VariableParam, LiteralParam>> restMaps;
+				if (positiveRequirements.hasVariables()) {
+					ForwardChainer fc = new ForwardChainer(new ForwardChainingProblem(unitedKnowledge, positiveRequirements, true));
+					restMaps = fc.call();
+				}
+				else { // ground requirements are checked below for the complete grounding, so forward chaining is not necessary
+					restMaps = new ArrayList<>();
+				}
 				if (restMaps.isEmpty())
 					restMaps.add(new HashMap<>());
 
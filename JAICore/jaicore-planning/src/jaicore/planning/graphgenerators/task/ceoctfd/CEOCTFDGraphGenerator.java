@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +17,7 @@ import jaicore.logic.fol.structure.Literal;
 import jaicore.logic.fol.structure.Monom;
 import jaicore.planning.graphgenerators.task.tfd.TFDGraphGenerator;
 import jaicore.planning.graphgenerators.task.tfd.TFDNode;
+import jaicore.planning.graphgenerators.task.tfd.TFDRestProblem;
 import jaicore.planning.model.ceoc.CEOCAction;
 import jaicore.planning.model.ceoc.CEOCOperation;
 import jaicore.planning.model.core.Action;
@@ -35,9 +37,14 @@ public class CEOCTFDGraphGenerator<O extends CEOCOperation, M extends OCMethod,
 	@Override
 	protected TFDNode postProcessPrimitiveTaskNode(TFDNode node) {
 		Monom state = node.getState();
-		state.getParameters().stream().filter(p -> p.getName().startsWith("newVar") && !state.contains(new Literal("def('" + p.getName() + "')")))
-				.forEach(p -> state.add(new Literal("def('" + p.getName() + "')")));
-		return node;
+		List<Literal> definitions = state.getParameters().stream().filter(p -> p.getName().startsWith("newVar")).map(p -> new Literal("def('" + p.getName() + "')"))
+				.filter(l -> !state.contains(l)).collect(Collectors.toList());
+		if (definitions.isEmpty())
+			return node;
+
+		/* the state of the node must not be modified, so the definitions are added in a successor rest problem */
+		TFDRestProblem problem = new TFDRestProblem(node.getProblem(), new ArrayList<>(), definitions, node.getRemainingTasks());
+		return new TFDNode(problem, node.getAppliedMethodInstance(), node.getAppliedAction());
 	}
 	
 	@Override
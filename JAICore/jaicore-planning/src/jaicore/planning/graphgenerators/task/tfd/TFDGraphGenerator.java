@@ -5,8 +5,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import jaicore.logic.fol.structure.Literal;
@@ -39,24 +37,25 @@ public class TFDGraphGenerator<O extends Operation, M extends Method, A extends
 			primitiveTasks.put(op.getName(), op);
 	}
 
-	protected Collection<TFDNode> getSuccessorsResultingFromResolvingPrimitiveTask(Monom state, Literal taskToBeResolved, List<Literal> remainingOtherTasks) {
+	protected Collection<TFDNode> getSuccessorsResultingFromResolvingPrimitiveTask(TFDRestProblem restProblem, Literal taskToBeResolved, TFDTaskList remainingOtherTasks) {
+		Monom state = restProblem.getState();
 		Collection<TFDNode> successors = new ArrayList<>();
 		for (Action applicableAction : util.getActionsForPrimitiveTaskThatAreApplicableInState(null, primitiveTasks.get(taskToBeResolved.getPropertyName()), taskToBeResolved, state)) {
-			Monom stateCopy = new Monom(state);
-			PlannerUtil.updateState(stateCopy, applicableAction);
-			successors.add(postProcessPrimitiveTaskNode(new TFDNode(stateCopy, remainingOtherTasks, null, applicableAction)));
+
+			/* the successor only stores how the action changes the state */
+			TFDRestProblem successorProblem = new TFDRestProblem(restProblem, PlannerUtil.getDeleteListInState(state, applicableAction), PlannerUtil.getAddListInState(state, applicableAction), remainingOtherTasks);
+			successors.add(postProcessPrimitiveTaskNode(new TFDNode(successorProblem, null, applicableAction)));
 		}
 		return successors;
 	}
 
-	protected Collection<TFDNode> getSuccessorsResultingFromResolvingComplexTask(Monom state, Literal taskToBeResolved, List<Literal> remainingOtherTasks) {
+	protected Collection<TFDNode> getSuccessorsResultingFromResolvingComplexTask(TFDRestProblem restProblem, Literal taskToBeResolved, TFDTaskList remainingOtherTasks) {
 		Collection<TFDNode> successors = new ArrayList<>();
-		for (MethodInstance instance : util.getMethodInstancesForTaskThatAreApplicableInState(null, this.problem.getDomain().getMethods(), taskToBeResolved, state, remainingOtherTasks)) {
+		for (MethodInstance instance : util.getMethodInstancesForTaskThatAreApplicableInState(null, this.problem.getDomain().getMethods(), taskToBeResolved, restProblem.getState(), remainingOtherTasks)) {
 
-			/* derive remaining network for this instance */
-			List<Literal> remainingTasks = stripTNPrefixes(util.getTaskChainOfTotallyOrderedNetwork(instance.getNetwork()));
-			remainingTasks.addAll(remainingOtherTasks);
-			successors.add(postProcessComplexTaskNode(new TFDNode(state, remainingTasks, instance, null)));
+			/* derive remaining network for this instance; the state is the one of the parent */
+			TFDTaskList remainingTasks = remainingOtherTasks.prependAll(stripTNPrefixes(util.getTaskChainOfTotallyOrderedNetwork(instance.getNetwork())));
+			successors.add(postProcessComplexTaskNode(new TFDNode(restProblem.withRemainingTasks(remainingTasks), instance, null)));
 		}
 		return successors;
 	}
@@ -91,24 +90,24 @@ public class TFDGraphGenerator<O extends Operation, M extends Method, A extends
 	@Override
 	public SingleRootGenerator<TFDNode> getRootGenerator() {
 		TaskPlannerUtil util = new TaskPlannerUtil(null);
-		return () -> new TFDNode(problem.getInit(), stripTNPrefixes(util.getTaskChainOfTotallyOrderedNetwork(problem.getNetwork())));
+		return () -> new TFDNode(problem.getInit(), TFDTaskList.of(stripTNPrefixes(util.getTaskChainOfTotallyOrderedNetwork(problem.getNetwork()))));
 	}
 
 	@Override
 	public SuccessorGenerator<TFDNode, String> getSuccessorGenerator() {
 		return l -> {
-			Monom state = l.getState();
-			List<Literal> currentlyRemainingTasks = new ArrayList<>(l.getRemainingTasks());
-			if (currentlyRemainingTasks.isEmpty())
+			TFDRestProblem restProblem = l.getProblem();
+			TFDTaskList remainingTasks = TFDTaskList.of(l.getRemainingTasks());
+			if (remainingTasks.isEmpty())
 				return new ArrayList<>();
-			Literal nextTaskTmp = currentlyRemainingTasks.get(0);
-			currentlyRemainingTasks.remove(0);
+			Literal nextTaskTmp = remainingTasks.getHead();
+			TFDTaskList currentlyRemainingTasks = remainingTasks.getTail();
 			String nextTaskName = nextTaskTmp.getPropertyName();
 			Literal nextTask = new Literal(nextTaskName, nextTaskTmp.getParameters());
 
 			/* get the child nodes */
-			Collection<TFDNode> successors = primitiveTasks.containsKey(nextTask.getPropertyName()) ? getSuccessorsResultingFromResolvingPrimitiveTask(state, nextTask, currentlyRemainingTasks)
-					: getSuccessorsResultingFromResolvingComplexTask(state, nextTask, currentlyRemainingTasks);
+			Collection<TFDNode> successors = primitiveTasks.containsKey(nextTask.getPropertyName()) ? getSuccessorsResultingFromResolvingPrimitiveTask(restProblem, nextTask, currentlyRemainingTasks)
+					: getSuccessorsResultingFromResolvingComplexTask(restProblem, nextTask, currentlyRemainingTasks);
 
 			/* change order in remaining tasks based on numbered prefixes */
 			successors = successors.stream().map(s -> orderRemainingTasksByPriority(s)).collect(Collectors.toList());
@@ -120,27 +119,11 @@ public class TFDGraphGenerator<O extends Operation, M extends Method, A extends
 
 	public TFDNode orderRemainingTasksByPriority(TFDNode node) {
 
-		/* determine order of tasks based on the prefixes */
-		Pattern p = Pattern.compile("(\\d+)_");
-		List<Literal> unorderedLiterals = new ArrayList<>();
-		Map<Integer, List<Literal>> orderedLiterals = new HashMap<>();
-		node.getRemainingTasks().forEach(t -> {
-			Matcher m = p.matcher(t.getPropertyName());
-			if (m.find()) {
-				int order = Integer.valueOf(m.group(1));
-				if (!orderedLiterals.containsKey(order))
-					orderedLiterals.put(order, new ArrayList<>());
-				List<Literal> tasksWithorder = orderedLiterals.get(order);
-				tasksWithorder.add(t);
-			} else
-				unorderedLiterals.add(t);
-		});
-
-		/* reorganize task network */
-		List<Literal> newLiteralList = new ArrayList<>();
-		orderedLiterals.keySet().stream().sorted().forEach(order -> newLiteralList.addAll(orderedLiterals.get(order)));
-		newLiteralList.addAll(unorderedLiterals);
-		return new TFDNode(node.getState(), newLiteralList, node.getAppliedMethodInstance(), node.getAppliedAction());
+		/* determine order of tasks based on the prefixes; tasks without prefix come last */
+		TFDTaskList orderedTasks = TFDTaskList.of(node.getRemainingTasks()).orderedByPriority();
+		if (orderedTasks == node.getRemainingTasks())
+			return node;
+		return new TFDNode(node.getProblem().withRemainingTasks(orderedTasks), node.getAppliedMethodInstance(), node.getAppliedAction());
 	}
 
 	@Override
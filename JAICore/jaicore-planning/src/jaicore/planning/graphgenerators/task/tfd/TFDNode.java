@@ -38,11 +38,15 @@ public class TFDNode implements Serializable {
 	}
 	
 	public TFDNode(Monom state, List<Literal> remainingTasks, MethodInstance appliedMethodInstance, Action appliedAction) {
+		this(new TFDRestProblem(state, remainingTasks), appliedMethodInstance, appliedAction);
+	}
+
+	public TFDNode(TFDRestProblem problem, MethodInstance appliedMethodInstance, Action appliedAction) {
 		super();
-		this.problem = new TFDRestProblem(state, remainingTasks);
+		this.problem = problem;
 		this.appliedMethodInstance = appliedMethodInstance;
 		this.appliedAction = appliedAction;
-		this.isGoal = remainingTasks.isEmpty();
+		this.isGoal = problem.getRemainingTasks().isEmpty();
 	}
 	
 	public TFDRestProblem getProblem() {
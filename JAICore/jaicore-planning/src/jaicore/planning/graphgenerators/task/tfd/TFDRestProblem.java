@@ -1,34 +1,221 @@
 package jaicore.planning.graphgenerators.task.tfd;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import jaicore.logic.fol.structure.Literal;
 import jaicore.logic.fol.structure.Monom;
 
+/**
+ * The rest problem of a TFD node, i.e. its state and the tasks that remain to be solved.
+ *
+ * The state is either given explicitly or as the difference to the state of a parent rest problem. In the latter case, only the
+ * literals that are actually deleted or added are stored, and the state is materialized on demand by replaying these differences
+ * starting from the closest ancestor whose state is available. Materialized states are kept softly, so they can be reclaimed under
+ * memory pressure. Size and hash code of such states are derived from the parent, so hashing a rest problem does not materialize its
+ * state.
+ *
+ * States obtained from a rest problem must not be modified.
+ *
+ * @author fmohr
+ *
+ */
 public class TFDRestProblem implements Serializable {
 
 	private static final long serialVersionUID = 6946349883053172033L;
 	private final Monom state;
+	private final TFDRestProblem parent;
+	private final Collection<Literal> deletedLiterals;
+	private final Collection<Literal> addedLiterals;
+	private final int stateSize;
+	private final int stateHashCode;
 	private final List<Literal> remainingTasks;
+	private transient volatile SoftReference<Monom> materializedState;
 
 	public TFDRestProblem(Monom state, List<Literal> remainingTasks) {
 		super();
 		this.state = state;
+		this.parent = null;
+		this.deletedLiterals = Collections.emptyList();
+		this.addedLiterals = Collections.emptyList();
+		this.stateSize = -1;
+		this.stateHashCode = 0;
 		this.remainingTasks = remainingTasks;
 	}
 
+	/**
+	 * Creates a rest problem whose state is the state of the parent without the deleted and with the added literals (a literal that is
+	 * both deleted and added is contained).
+	 *
+	 * @param parent
+	 *            The rest problem whose state is modified
+	 * @param deletedLiterals
+	 *            The literals to be removed from the state of the parent
+	 * @param addedLiterals
+	 *            The literals to be added to the state of the parent
+	 * @param remainingTasks
+	 *            The remaining tasks
+	 */
+	public TFDRestProblem(TFDRestProblem parent, Collection<Literal> deletedLiterals, Collection<Literal> addedLiterals, List<Literal> remainingTasks) {
+		super();
+		Monom parentState = parent.getState();
+
+		/* only store the literals that actually change the state of the parent */
+		Set<Literal> effectivelyAddedLiterals = new LinkedHashSet<>();
+		for (Literal l : addedLiterals) {
+			if (!parentState.contains(l)) {
+				effectivelyAddedLiterals.add(l);
+			}
+		}
+		Set<Literal> effectivelyDeletedLiterals = new LinkedHashSet<>();
+		if (!deletedLiterals.isEmpty()) {
+			Set<Literal> added = addedLiterals instanceof Set ? (Set<Literal>) addedLiterals : new HashSet<>(addedLiterals);
+			for (Literal l : deletedLiterals) {
+				if (parentState.contains(l) && !added.contains(l)) {
+					effectivelyDeletedLiterals.add(l);
+				}
+			}
+		}
+
+		/* if the state does not change, refer to the closest ancestor that defines it */
+		if (effectivelyAddedLiterals.isEmpty() && effectivelyDeletedLiterals.isEmpty()) {
+			TFDRestProblem base = parent;
+			while (!base.isExplicit() && !base.isDelta()) {
+				base = base.parent;
+			}
+			this.state = base.state;
+			this.parent = base.isExplicit() ? null : base;
+			this.deletedLiterals = Collections.emptyList();
+			this.addedLiterals = Collections.emptyList();
+			this.stateSize = parent.getStateSize();
+			this.stateHashCode = parent.getStateHashCode();
+		} else {
+			this.state = null;
+			this.parent = parent;
+			this.deletedLiterals = new ArrayList<>(effectivelyDeletedLiterals);
+			this.addedLiterals = new ArrayList<>(effectivelyAddedLiterals);
+			int hashCode = parent.getStateHashCode();
+			for (Literal l : effectivelyDeletedLiterals) {
+				hashCode -= l.hashCode();
+			}
+			for (Literal l : effectivelyAddedLiterals) {
+				hashCode += l.hashCode();
+			}
+			this.stateSize = parent.getStateSize() - effectivelyDeletedLiterals.size() + effectivelyAddedLiterals.size();
+			this.stateHashCode = hashCode;
+		}
+		this.remainingTasks = remainingTasks;
+	}
+
+	private TFDRestProblem(TFDRestProblem problem, List<Literal> remainingTasks) {
+		super();
+		this.state = problem.state;
+		this.parent = problem.parent;
+		this.deletedLiterals = problem.deletedLiterals;
+		this.addedLiterals = problem.addedLiterals;
+		this.stateSize = problem.stateSize;
+		this.stateHashCode = problem.stateHashCode;
+		this.materializedState = problem.materializedState;
+		this.remainingTasks = remainingTasks;
+	}
+
+	/**
+	 * @param remainingTasks
+	 * @return A rest problem with the same state as this one (sharing its representation) but the given remaining tasks.
+	 */
+	public TFDRestProblem withRemainingTasks(List<Literal> remainingTasks) {
+		return new TFDRestProblem(this, remainingTasks);
+	}
+
+	private boolean isExplicit() {
+		return this.parent == null;
+	}
+
+	private boolean isDelta() {
+		return !this.deletedLiterals.isEmpty() || !this.addedLiterals.isEmpty();
+	}
+
+	/**
+	 * @return the state of the rest problem if it is explicit or currently materialized, otherwise null
+	 */
+	private Monom getAvailableState() {
+		if (this.isExplicit()) {
+			return this.state;
+		}
+		if (!this.isDelta()) {
+			return this.parent.getAvailableState();
+		}
+		SoftReference<Monom> reference = this.materializedState;
+		return reference != null ? reference.get() : null;
+	}
+
 	public Monom getState() {
-		return state;
+		Monom availableState = this.getAvailableState();
+		if (availableState != null) {
+			return availableState;
+		}
+		if (!this.isDelta()) {
+			return this.parent.getState();
+		}
+
+		/* go up to the closest ancestor whose state is available and replay the changes from there */
+		Deque<TFDRestProblem> changes = new ArrayDeque<>();
+		TFDRestProblem current = this;
+		Monom baseState;
+		do {
+			if (current.isDelta()) {
+				changes.push(current);
+			}
+			current = current.parent;
+			baseState = current.getAvailableState();
+		} while (baseState == null);
+		Monom materialized = new Monom(baseState, false);
+		for (TFDRestProblem change : changes) {
+			materialized.removeAll(change.deletedLiterals);
+			materialized.addAll(change.addedLiterals);
+		}
+		this.materializedState = new SoftReference<>(materialized);
+		return materialized;
+	}
+
+	private int getStateSize() {
+		if (this.isExplicit()) {
+			return this.state == null ? 0 : this.state.size();
+		}
+		return this.stateSize;
+	}
+
+	private int getStateHashCode() {
+		if (this.isExplicit()) {
+			return this.state == null ? 0 : this.state.hashCode();
+		}
+		return this.stateHashCode;
 	}
 
 	public List<Literal> getRemainingTasks() {
 		return remainingTasks;
 	}
-	
+
+	/**
+	 * Rest problems are serialized with an explicit state, which avoids serializing the chain of ancestors.
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return this.isExplicit() ? this : new TFDRestProblem(this.getState(), this.remainingTasks);
+	}
+
 	@Override
 	public String toString() {
-		return "TFDRestProblem [state=" + state + ", remainingTasks=" + remainingTasks + "]";
+		return "TFDRestProblem [state=" + getState() + ", remainingTasks=" + remainingTasks + "]";
 	}
 
 	@Override
@@ -36,7 +223,7 @@ public class TFDRestProblem implements Serializable {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((remainingTasks == null) ? 0 : remainingTasks.hashCode());
-		result = prime * result + ((state == null) ? 0 : state.hashCode());
+		result = prime * result + getStateHashCode();
 		return result;
 	}
 
@@ -54,11 +241,9 @@ public class TFDRestProblem implements Serializable {
 				return false;
 		} else if (!remainingTasks.equals(other.remainingTasks))
 			return false;
-		if (state == null) {
-			if (other.state != null)
-				return false;
-		} else if (!state.equals(other.state))
+		if (getStateSize() != other.getStateSize() || getStateHashCode() != other.getStateHashCode())
 			return false;
-		return true;
+		Monom state = getState();
+		return state == null ? other.getState() == null : state.equals(other.getState());
 	}
 }
@@ -0,0 +1,242 @@
+package jaicore.planning.graphgenerators.task.tfd;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jaicore.logic.fol.structure.Literal;
+
+/**
+ * An immutable list of remaining tasks that is represented as a chain of cells. Removing the first task and prepending tasks does not
+ * copy the list, so the task lists of a node and its successors share all but their first elements.
+ *
+ * Each cell knows the priority of its task (given by a numbered prefix like "1_" in the task name) and whether the list starting at
+ * the cell is ordered by these priorities. This makes re-establishing the order after prepending new tasks cheap.
+ *
+ * @author agent
+ *
+ */
+public class TFDTaskList extends AbstractList<Literal> implements Serializable {
+
+	private static final long serialVersionUID = -3427893145602214872L;
+	private static final Pattern PRIORITY_PATTERN = Pattern.compile("(\\d+)_");
+	private static final long NO_PRIORITY = Long.MAX_VALUE;
+
+	private static final TFDTaskList EMPTY = new TFDTaskList();
+
+	private final Literal head;
+	private final TFDTaskList tail;
+	private final int size;
+	private final long priority;
+	private final boolean orderedByPriority;
+	private final int hashCode;
+	private final int powerOfPrime; // 31^size, used to derive the list hash code of a prepended list
+
+	private TFDTaskList() {
+		this.head = null;
+		this.tail = null;
+		this.size = 0;
+		this.priority = NO_PRIORITY;
+		this.orderedByPriority = true;
+		this.hashCode = 1;
+		this.powerOfPrime = 1;
+	}
+
+	private TFDTaskList(final Literal head, final TFDTaskList tail) {
+		this.head = head;
+		this.tail = tail;
+		this.size = tail.size + 1;
+		this.priority = getPriority(head);
+		this.orderedByPriority = tail.orderedByPriority && (tail.isEmpty() || this.priority <= tail.priority);
+
+		/* this equals the hash code defined in List.hashCode() */
+		this.hashCode = tail.hashCode + tail.powerOfPrime * (30 + (head == null ? 0 : head.hashCode()));
+		this.powerOfPrime = tail.powerOfPrime * 31;
+	}
+
+	public static TFDTaskList empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * @param tasks
+	 * @return A task list with the given tasks; if the given list already is a task list, it is returned itself.
+	 */
+	public static TFDTaskList of(final List<Literal> tasks) {
+		if (tasks instanceof TFDTaskList) {
+			return (TFDTaskList) tasks;
+		}
+		return EMPTY.prependAll(tasks);
+	}
+
+	private static long getPriority(final Literal task) {
+		Matcher m = PRIORITY_PATTERN.matcher(task.getPropertyName());
+		return m.find() ? Integer.valueOf(m.group(1)) : NO_PRIORITY;
+	}
+
+	public Literal getHead() {
+		if (this.isEmpty()) {
+			throw new NoSuchElementException("The task list is empty.");
+		}
+		return this.head;
+	}
+
+	public TFDTaskList getTail() {
+		if (this.isEmpty()) {
+			throw new NoSuchElementException("The task list is empty.");
+		}
+		return this.tail;
+	}
+
+	public TFDTaskList prepend(final Literal task) {
+		return new TFDTaskList(task, this);
+	}
+
+	/**
+	 * @param tasks
+	 * @return A task list that starts with the given tasks (in their order) followed by the tasks of this list.
+	 */
+	public TFDTaskList prependAll(final List<Literal> tasks) {
+		TFDTaskList list = this;
+		for (int i = tasks.size() - 1; i >= 0; i--) {
+			list = list.prepend(tasks.get(i));
+		}
+		return list;
+	}
+
+	/**
+	 * Orders the tasks by the numbers in their prefixes. Tasks with a smaller number come first, tasks without a number come last,
+	 * and tasks with the same number keep their relative order.
+	 *
+	 * Only the part of the list before the longest ordered suffix is sorted, and it is then merged with that suffix. The suffix is
+	 * only copied as far as necessary.
+	 *
+	 * @return A list with the same tasks ordered by priority; if this list already is ordered, it is returned itself.
+	 */
+	public TFDTaskList orderedByPriority() {
+		if (this.orderedByPriority) {
+			return this;
+		}
+
+		/* collect the tasks before the ordered suffix and sort them (stable) */
+		List<TFDTaskList> unorderedCells = new ArrayList<>();
+		TFDTaskList orderedSuffix = this;
+		while (!orderedSuffix.orderedByPriority) {
+			unorderedCells.add(orderedSuffix);
+			orderedSuffix = orderedSuffix.tail;
+		}
+		Collections.sort(unorderedCells, (c1, c2) -> Long.compare(c1.priority, c2.priority));
+
+		/* merge the sorted tasks with the suffix; on equal priorities, the tasks of the unordered part come first */
+		List<Literal> mergedTasks = new ArrayList<>();
+		for (TFDTaskList cell : unorderedCells) {
+			while (!orderedSuffix.isEmpty() && orderedSuffix.priority < cell.priority) {
+				mergedTasks.add(orderedSuffix.head);
+				orderedSuffix = orderedSuffix.tail;
+			}
+			mergedTasks.add(cell.head);
+		}
+		return orderedSuffix.prependAll(mergedTasks);
+	}
+
+	public boolean isOrderedByPriority() {
+		return this.orderedByPriority;
+	}
+
+	@Override
+	public Literal get(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		TFDTaskList current = this;
+		for (int i = 0; i < index; i++) {
+			current = current.tail;
+		}
+		return current.head;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public Iterator<Literal> iterator() {
+		return new Iterator<Literal>() {
+			private TFDTaskList current = TFDTaskList.this;
+
+			@Override
+			public boolean hasNext() {
+				return !this.current.isEmpty();
+			}
+
+			@Override
+			public Literal next() {
+				if (this.current.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				Literal task = this.current.head;
+				this.current = this.current.tail;
+				return task;
+			}
+		};
+	}
+
+	/**
+	 * List iterators work on a snapshot of the list, which is valid since the list is immutable. This avoids the quadratic effort of
+	 * the default list iterator, which accesses elements by index.
+	 */
+	@Override
+	public ListIterator<Literal> listIterator(final int index) {
+		return Collections.unmodifiableList(Arrays.asList(this.toArray(new Literal[this.size]))).listIterator(index);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TFDTaskList)) {
+			return super.equals(obj);
+		}
+		TFDTaskList other = (TFDTaskList) obj;
+		if (this.size != other.size || this.hashCode != other.hashCode) {
+			return false;
+		}
+		TFDTaskList current = this;
+		while (current != other && !current.isEmpty()) {
+			if (!current.head.equals(other.head)) {
+				return false;
+			}
+			current = current.tail;
+			other = other.tail;
+		}
+		return true;
+	}
+
+	/**
+	 * Task lists are serialized as array lists, which avoids a recursion over the cells.
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return new ArrayList<>(this);
+	}
+}
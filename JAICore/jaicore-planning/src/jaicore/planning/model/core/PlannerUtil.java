@@ -101,30 +101,69 @@ public class PlannerUtil {
 	}
 
 	public static void updateState(Monom state, Action appliedAction) {
+		if (!(appliedAction.getOperation() instanceof StripsOperation) && !(appliedAction.getOperation() instanceof CEOperation)) {
+			System.err.println("No support for operations of class " + appliedAction.getOperation().getClass());
+			return;
+		}
+
+		/* the effects must be determined before any of them is applied */
+		Collection<Literal> toRemove = getDeleteListInState(state, appliedAction);
+		Collection<Literal> toAdd = getAddListInState(state, appliedAction);
+		state.removeAll(toRemove);
+		state.addAll(toAdd);
+	}
 
-		/* apply effects of action (STRIPS) */
+	/**
+	 * Determines the literals that are removed from the given state when applying the action. The state is not modified.
+	 *
+	 * @param state
+	 *            The state in which the action is applied
+	 * @param appliedAction
+	 *            The applied action
+	 * @return The literals deleted by the action in this state
+	 */
+	public static Collection<Literal> getDeleteListInState(Monom state, Action appliedAction) {
+
+		/* effects of action (STRIPS) */
 		if (appliedAction.getOperation() instanceof StripsOperation) {
-			Action a = new StripsAction((StripsOperation) appliedAction.getOperation(), appliedAction.getGrounding());
-			state.removeAll(((StripsAction) a).getDeleteList());
-			state.addAll(((StripsAction) a).getAddList());
+			return new StripsAction((StripsOperation) appliedAction.getOperation(), appliedAction.getGrounding()).getDeleteList();
 		}
 
-		/* apply effects of action (ConditionalEffect operations) */
-		else if (appliedAction.getOperation() instanceof CEOperation) {
+		/* effects of action (ConditionalEffect operations) */
+		Collection<Literal> toRemove = new ArrayList<>();
+		if (appliedAction.getOperation() instanceof CEOperation) {
 			CEAction a = new CEAction((CEOperation) appliedAction.getOperation(), appliedAction.getGrounding());
-			Map<CNFFormula, Monom> addLists = a.getAddLists();
-
-			/* determine literals to remove */
 			Map<CNFFormula, Monom> deleteLists = a.getDeleteLists();
-			Collection<Literal> toRemove = new ArrayList<>();
 			for (CNFFormula condition : deleteLists.keySet()) {
 				if (condition.entailedBy(state)) {
 					toRemove.addAll(deleteLists.get(condition));
 				}
 			}
+		}
+		return toRemove;
+	}
 
-			/* determine literals to add */
-			Collection<Literal> toAdd = new ArrayList<>();
+	/**
+	 * Determines the literals that are added to the given state when applying the action. The state is not modified.
+	 *
+	 * @param state
+	 *            The state in which the action is applied
+	 * @param appliedAction
+	 *            The applied action
+	 * @return The literals added by the action in this state
+	 */
+	public static Collection<Literal> getAddListInState(Monom state, Action appliedAction) {
+
+		/* effects of action (STRIPS) */
+		if (appliedAction.getOperation() instanceof StripsOperation) {
+			return new StripsAction((StripsOperation) appliedAction.getOperation(), appliedAction.getGrounding()).getAddList();
+		}
+
+		/* effects of action (ConditionalEffect operations) */
+		Collection<Literal> toAdd = new ArrayList<>();
+		if (appliedAction.getOperation() instanceof CEOperation) {
+			CEAction a = new CEAction((CEOperation) appliedAction.getOperation(), appliedAction.getGrounding());
+			Map<CNFFormula, Monom> addLists = a.getAddLists();
 			for (CNFFormula condition : addLists.keySet()) {
 
 				/* evaluate interpreted predicates */
@@ -151,14 +190,8 @@ public class PlannerUtil {
 					toAdd.addAll(addLists.get(condition));
 				}
 			}
-
-			/* now conduct update */
-			state.removeAll(toRemove);
-			state.addAll(toAdd);
-
-		} else {
-			System.err.println("No support for operations of class " + appliedAction.getOperation().getClass());
 		}
+		return toAdd;
 	}
 
 	public static Monom getStateAfterPlanExecution(Monom initState, Plan<?> plan) {
@@ -0,0 +1,107 @@
+package jaicore.planning.graphgenerators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import jaicore.logic.fol.structure.Literal;
+import jaicore.logic.fol.structure.Monom;
+import jaicore.planning.graphgenerators.task.tfd.TFDRestProblem;
+import jaicore.planning.graphgenerators.task.tfd.TFDTaskList;
+
+public class TFDRestProblemTest {
+
+	/**
+	 * The ordering of remaining tasks as it was done by the TFD graph generator before task lists were introduced.
+	 */
+	private static List<Literal> orderByPrefixes(final List<Literal> tasks) {
+		List<Literal> unorderedLiterals = new ArrayList<>();
+		Map<Integer, List<Literal>> orderedLiterals = new HashMap<>();
+		for (Literal t : tasks) {
+			Matcher m = Pattern.compile("(\\d+)_").matcher(t.getPropertyName());
+			if (m.find()) {
+				orderedLiterals.computeIfAbsent(Integer.valueOf(m.group(1)), k -> new ArrayList<>()).add(t);
+			} else {
+				unorderedLiterals.add(t);
+			}
+		}
+		List<Literal> newLiteralList = new ArrayList<>();
+		orderedLiterals.keySet().stream().sorted().forEach(order -> newLiteralList.addAll(orderedLiterals.get(order)));
+		newLiteralList.addAll(unorderedLiterals);
+		return newLiteralList;
+	}
+
+	private static Literal randomTask(final Random random, final int id) {
+		int prefix = random.nextInt(4);
+		return new Literal((prefix == 0 ? "" : prefix + "_") + "task" + id + "('x')");
+	}
+
+	@Test
+	public void testTaskListIsOrderedLikeBefore() {
+		Random random = new Random(0);
+		int id = 0;
+		for (int run = 0; run < 100; run++) {
+
+			/* simulate a sequence of decompositions, each replacing the first task by some new ones */
+			List<Literal> expected = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				expected.add(randomTask(random, id++));
+			}
+			TFDTaskList list = TFDTaskList.of(new ArrayList<>(expected));
+			assertEquals(expected, list);
+			assertEquals(expected.hashCode(), list.hashCode());
+			for (int step = 0; step < 20 && !expected.isEmpty(); step++) {
+				List<Literal> newTasks = new ArrayList<>();
+				int numberOfNewTasks = random.nextInt(4);
+				for (int i = 0; i < numberOfNewTasks; i++) {
+					newTasks.add(randomTask(random, id++));
+				}
+				expected.remove(0);
+				expected.addAll(0, newTasks);
+				expected = orderByPrefixes(expected);
+				list = list.getTail().prependAll(newTasks).orderedByPriority();
+				assertEquals(expected, list);
+				assertEquals(list, expected);
+				assertEquals(expected.hashCode(), list.hashCode());
+			}
+		}
+	}
+
+	@Test
+	public void testStateIsDerivedFromParent() {
+		Monom init = new Monom("a('1') & b('1') & c('1')");
+		TFDRestProblem root = new TFDRestProblem(init, TFDTaskList.empty());
+
+		/* c is deleted and added, so it remains; a is deleted; d is added */
+		TFDRestProblem child = new TFDRestProblem(root, Arrays.asList(new Literal("a('1')"), new Literal("c('1')")), Arrays.asList(new Literal("c('1')"), new Literal("d('1')")),
+				TFDTaskList.empty());
+		Monom expectedChildState = new Monom("b('1') & c('1') & d('1')");
+		assertEquals(expectedChildState, child.getState());
+		assertEquals(init, new Monom("a('1') & b('1') & c('1')"));
+
+		/* the rest problem equals one with an explicit state, also without materializing its own state */
+		TFDRestProblem grandChild = new TFDRestProblem(child, Arrays.asList(new Literal("b('1')")), Collections.emptyList(), TFDTaskList.empty());
+		TFDRestProblem explicitGrandChild = new TFDRestProblem(new Monom("c('1') & d('1')"), new ArrayList<>());
+		assertEquals(explicitGrandChild.hashCode(), grandChild.hashCode());
+		assertEquals(explicitGrandChild, grandChild);
+		assertEquals(grandChild, explicitGrandChild);
+		assertNotEquals(child, grandChild);
+
+		/* rest problems without changes share the state of their ancestor */
+		TFDRestProblem unchanged = new TFDRestProblem(grandChild, Collections.emptyList(), Arrays.asList(new Literal("d('1')")), TFDTaskList.empty());
+		assertSame(grandChild.getState(), unchanged.getState());
+		assertSame(grandChild.getState(), unchanged.withRemainingTasks(TFDTaskList.of(Arrays.asList(new Literal("t('1')")))).getState());
+	}
+}
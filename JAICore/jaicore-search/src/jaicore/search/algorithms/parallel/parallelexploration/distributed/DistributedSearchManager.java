@@ -98,7 +98,7 @@ public class DistributedSearchManager<T, A, V extends Comparable<V>> {
 					}
 
 					/* wait some time to see whether new results are there */
-					Thread.sleep(500);
+					communicationLayer.waitForResults(500);
 				}
 			} catch (InterruptedException e) { }
 		}
@@ -0,0 +1,102 @@
+package jaicore.search.algorithms.parallel.parallelexploration.distributed;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.NodeContentCodec;
+import jaicore.search.model.travesaltree.Node;
+
+/**
+ * Encodes batches of nodes for the transfer between master and coworkers. The nodes of all batches of a message and their ancestors are written as one
+ * table in which every node refers to its parent by its position. Hence, ancestors shared by several nodes are written only once. Of each node, only the
+ * point, the goal flag, and the internal label are transferred.
+ *
+ * @author agent
+ *
+ */
+class NodeBatchCodec<T, V extends Comparable<V>> {
+
+	private final NodeContentCodec<T, V> contentCodec;
+
+	NodeBatchCodec(final NodeContentCodec<T, V> contentCodec) {
+		super();
+		this.contentCodec = contentCodec;
+	}
+
+	void write(final List<Collection<Node<T, V>>> batches, final ObjectOutput out) throws IOException {
+
+		/* create the table of nodes such that every node occurs after its parent */
+		Map<Node<T, V>, Integer> indices = new IdentityHashMap<>();
+		List<Node<T, V>> table = new ArrayList<>();
+		Deque<Node<T, V>> unknownAncestors = new ArrayDeque<>();
+		for (Collection<Node<T, V>> batch : batches) {
+			for (Node<T, V> node : batch) {
+				for (Node<T, V> current = node; current != null && !indices.containsKey(current); current = current.getParent()) {
+					unknownAncestors.push(current);
+				}
+				while (!unknownAncestors.isEmpty()) {
+					Node<T, V> ancestor = unknownAncestors.pop();
+					indices.put(ancestor, table.size());
+					table.add(ancestor);
+				}
+			}
+		}
+
+		/* write the table */
+		out.writeInt(table.size());
+		for (Node<T, V> node : table) {
+			out.writeInt(node.getParent() != null ? indices.get(node.getParent()) : -1);
+			this.contentCodec.writePoint(node.getPoint(), out);
+			out.writeBoolean(node.isGoal());
+			V label = node.getInternalLabel();
+			out.writeBoolean(label != null);
+			if (label != null) {
+				this.contentCodec.writeLabel(label, out);
+			}
+		}
+
+		/* write the batches as references into the table */
+		for (Collection<Node<T, V>> batch : batches) {
+			out.writeInt(batch.size());
+			for (Node<T, V> node : batch) {
+				out.writeInt(indices.get(node));
+			}
+		}
+	}
+
+	List<Collection<Node<T, V>>> read(final int numberOfBatches, final ObjectInput in) throws IOException, ClassNotFoundException {
+
+		/* read the table */
+		int numberOfNodes = in.readInt();
+		List<Node<T, V>> table = new ArrayList<>(numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			int parentIndex = in.readInt();
+			Node<T, V> node = new Node<>(parentIndex >= 0 ? table.get(parentIndex) : null, this.contentCodec.readPoint(in));
+			node.setGoal(in.readBoolean());
+			if (in.readBoolean()) {
+				node.setInternalLabel(this.contentCodec.readLabel(in));
+			}
+			table.add(node);
+		}
+
+		/* read the batches */
+		List<Collection<Node<T, V>>> batches = new ArrayList<>(numberOfBatches);
+		for (int i = 0; i < numberOfBatches; i++) {
+			int size = in.readInt();
+			List<Node<T, V>> batch = new ArrayList<>(size);
+			for (int j = 0; j < size; j++) {
+				batch.add(table.get(in.readInt()));
+			}
+			batches.add(batch);
+		}
+		return batches;
+	}
+}
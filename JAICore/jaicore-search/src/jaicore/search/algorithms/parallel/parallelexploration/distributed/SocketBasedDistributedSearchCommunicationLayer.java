@@ -0,0 +1,560 @@
+package jaicore.search.algorithms.parallel.parallelexploration.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.DistributedSearchCommunicationLayer;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.NodeContentCodec;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.SerializableGraphGenerator;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.SerializableNodeEvaluator;
+import jaicore.search.algorithms.standard.bestfirst.nodeevaluation.INodeEvaluator;
+import jaicore.search.model.travesaltree.Node;
+
+/**
+ * Communication layer in which the master listens on a TCP socket to which the coworkers connect. All sockets of a layer are served by a single thread using
+ * non-blocking IO. Messages are pushed to the other side as soon as they are created: jobs are put into the job queue of the coworker and results wake up
+ * threads waiting in {@link #waitForResults(long)}. Messages that are created while the socket is busy are written together.
+ *
+ * Each message is a frame consisting of its length and its content. Nodes are encoded with a {@link NodeBatchCodec}, i.e. only their points, goal flags and
+ * internal labels are transferred, and ancestors shared by several nodes are transferred only once. The points and labels are encoded by a
+ * {@link NodeContentCodec}, which uses Java serialization unless another codec is given.
+ *
+ * @author agent
+ *
+ */
+public class SocketBasedDistributedSearchCommunicationLayer<T, A, V extends Comparable<V>> implements DistributedSearchCommunicationLayer<T, A, V> {
+
+	private static final Logger logger = LoggerFactory.getLogger(SocketBasedDistributedSearchCommunicationLayer.class);
+
+	/* message types */
+	private static final byte MSG_REGISTER = 1;
+	private static final byte MSG_UNREGISTER = 2;
+	private static final byte MSG_ATTACH = 3;
+	private static final byte MSG_DETACH = 4;
+	private static final byte MSG_JOB = 5;
+	private static final byte MSG_RESULT = 6;
+	private static final byte MSG_GRAPH_GENERATOR = 7;
+	private static final byte MSG_NODE_EVALUATOR = 8;
+
+	private static final int LENGTH_FIELD_SIZE = 4;
+	private static final int INITIAL_READ_BUFFER_SIZE = 1 << 16;
+
+	private interface MessageContentWriter {
+		public void write(ObjectOutput out) throws IOException;
+	}
+
+	private static class Connection {
+		private final SocketChannel channel;
+		private final Queue<ByteBuffer> outgoingFrames = new ArrayDeque<>(); // guarded by itself
+		private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+
+		public Connection(final SocketChannel channel) {
+			super();
+			this.channel = channel;
+		}
+	}
+
+	private final boolean isMaster;
+	private final NodeBatchCodec<T, V> nodeCodec;
+	private final Selector selector;
+	private final ServerSocketChannel serverChannel;
+	private final Connection masterConnection;
+	private final Queue<Connection> connectionsWithNewFrames = new ConcurrentLinkedQueue<>();
+	private final Thread selectorThread = new Thread(this::serveSockets, "SocketBasedDistributedSearchCommunicationLayer");
+	private volatile boolean closed;
+
+	/* master state */
+	private final Map<String, Connection> coworkerConnections = new ConcurrentHashMap<>();
+	private final BlockingQueue<String> newCoworkers = new LinkedBlockingQueue<>();
+	private final Map<String, DistributedComputationResult<T, V>> results = new HashMap<>(); // guarded by itself
+	private boolean resultsReceivedSinceLastWait; // guarded by results
+
+	/* coworker state */
+	private final Map<String, Semaphore> registerTickets = new ConcurrentHashMap<>();
+	private final Map<String, BlockingQueue<Collection<Node<T, V>>>> jobQueues = new ConcurrentHashMap<>();
+	private final CountDownLatch graphGeneratorReceived = new CountDownLatch(1);
+	private final CountDownLatch nodeEvaluatorReceived = new CountDownLatch(1);
+
+	/* state of both sides */
+	private final Set<String> attachedCoworkers = ConcurrentHashMap.newKeySet();
+	private volatile byte[] serializedGraphGenerator;
+	private volatile byte[] serializedNodeEvaluator;
+
+	/**
+	 * Creates the communication layer of the master, which listens on the given address, or of a coworker, which connects to the master at the given address.
+	 */
+	public SocketBasedDistributedSearchCommunicationLayer(final InetSocketAddress address, final boolean isMaster) throws IOException {
+		this(address, isMaster, new NodeContentCodec<T, V>() {
+		});
+	}
+
+	public SocketBasedDistributedSearchCommunicationLayer(final InetSocketAddress address, final boolean isMaster, final NodeContentCodec<T, V> contentCodec) throws IOException {
+		super();
+		this.isMaster = isMaster;
+		this.nodeCodec = new NodeBatchCodec<>(contentCodec);
+		this.selector = Selector.open();
+		if (isMaster) {
+			this.serverChannel = ServerSocketChannel.open();
+			this.serverChannel.configureBlocking(false);
+			this.serverChannel.bind(address);
+			this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+			this.masterConnection = null;
+			logger.info("Master listening on {}", this.serverChannel.getLocalAddress());
+		} else {
+			this.serverChannel = null;
+			SocketChannel channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			this.masterConnection = new Connection(channel);
+			boolean connected = channel.connect(address);
+			channel.register(this.selector, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this.masterConnection);
+		}
+		this.selectorThread.setDaemon(true);
+		this.selectorThread.start();
+	}
+
+	/**
+	 * @return The address the master listens on, which is useful if the layer has been created for port 0
+	 */
+	public SocketAddress getAddress() throws IOException {
+		return this.isMaster ? this.serverChannel.getLocalAddress() : this.masterConnection.channel.getRemoteAddress();
+	}
+
+	/* selector thread */
+
+	private void serveSockets() {
+		try {
+			while (!this.closed) {
+				this.selector.select();
+				Connection connection;
+				while ((connection = this.connectionsWithNewFrames.poll()) != null) {
+					SelectionKey key = connection.channel.keyFor(this.selector);
+					if (key != null && key.isValid() && (key.interestOps() & SelectionKey.OP_CONNECT) == 0) {
+						this.writeOrClose(connection, key);
+					}
+				}
+				Iterator<SelectionKey> iterator = this.selector.selectedKeys().iterator();
+				while (iterator.hasNext()) {
+					SelectionKey key = iterator.next();
+					iterator.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					try {
+						if (key.isAcceptable()) {
+							this.accept();
+						} else {
+							connection = (Connection) key.attachment();
+							if (key.isConnectable()) {
+								if (!connection.channel.finishConnect()) {
+									continue;
+								}
+								key.interestOps(SelectionKey.OP_READ);
+								logger.info("Connected to master at {}", connection.channel.getRemoteAddress());
+								this.write(connection, key);
+							}
+							if (key.isValid() && key.isReadable()) {
+								this.read(connection);
+							}
+							if (key.isValid() && key.isWritable()) {
+								this.write(connection, key);
+							}
+						}
+					} catch (IOException e) {
+						logger.error("Closing connection due to communication error: {}", e.getMessage());
+						this.closeConnection(key);
+					}
+				}
+			}
+
+			/* write messages that have been created right before the layer has been closed */
+			for (SelectionKey key : this.selector.keys()) {
+				if (key.isValid() && key.attachment() != null) {
+					this.writeOrClose((Connection) key.attachment(), key);
+				}
+			}
+		} catch (ClosedSelectorException e) {
+			logger.info("Selector has been closed.");
+		} catch (IOException e) {
+			logger.error("Communication layer stops due to an IO error: {}", e.getMessage());
+		} finally {
+			for (SelectionKey key : this.selector.keys()) {
+				try {
+					key.channel().close();
+				} catch (IOException e) {
+					logger.warn("Could not close channel {}: {}", key.channel(), e.getMessage());
+				}
+			}
+			try {
+				this.selector.close();
+			} catch (IOException e) {
+				logger.warn("Could not close selector: {}", e.getMessage());
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = this.serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.register(this.selector, SelectionKey.OP_READ, new Connection(channel));
+		logger.info("Accepted connection from {}", channel.getRemoteAddress());
+	}
+
+	private void closeConnection(final SelectionKey key) {
+		key.cancel();
+		Connection connection = (Connection) key.attachment();
+		try {
+			connection.channel.close();
+		} catch (IOException e) {
+			logger.warn("Could not close connection {}: {}", connection.channel, e.getMessage());
+		}
+
+		/* coworkers on a closed connection are not attached anymore */
+		if (this.isMaster) {
+			for (String coworker : new ArrayList<>(this.coworkerConnections.keySet())) {
+				if (this.coworkerConnections.get(coworker) == connection) {
+					logger.info("Lost connection to coworker {}", coworker);
+					this.coworkerConnections.remove(coworker);
+					this.newCoworkers.remove(coworker);
+					this.attachedCoworkers.remove(coworker);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes all pending frames of the connection at once and registers interest in writing if not all of them could be written.
+	 */
+	private void write(final Connection connection, final SelectionKey key) throws IOException {
+		ByteBuffer[] frames;
+		synchronized (connection.outgoingFrames) {
+			frames = connection.outgoingFrames.toArray(new ByteBuffer[connection.outgoingFrames.size()]);
+		}
+		if (frames.length > 0) {
+			connection.channel.write(frames);
+		}
+		synchronized (connection.outgoingFrames) {
+			while (!connection.outgoingFrames.isEmpty() && !connection.outgoingFrames.peek().hasRemaining()) {
+				connection.outgoingFrames.poll();
+			}
+			key.interestOps(connection.outgoingFrames.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+	}
+
+	private void writeOrClose(final Connection connection, final SelectionKey key) {
+		try {
+			this.write(connection, key);
+		} catch (IOException e) {
+			logger.error("Closing connection due to communication error: {}", e.getMessage());
+			this.closeConnection(key);
+		}
+	}
+
+	private void read(final Connection connection) throws IOException {
+		if (connection.channel.read(connection.readBuffer) < 0) {
+			throw new IOException("Connection has been closed by the other side.");
+		}
+		ByteBuffer buffer = connection.readBuffer;
+		buffer.flip();
+		while (buffer.remaining() >= LENGTH_FIELD_SIZE) {
+			int length = buffer.getInt(buffer.position());
+			if (buffer.remaining() < LENGTH_FIELD_SIZE + length) {
+
+				/* grow the buffer if the frame does not fit into it */
+				if (buffer.capacity() < LENGTH_FIELD_SIZE + length) {
+					ByteBuffer largerBuffer = ByteBuffer.allocate(LENGTH_FIELD_SIZE + length);
+					largerBuffer.put(buffer);
+					largerBuffer.flip();
+					connection.readBuffer = buffer = largerBuffer;
+				}
+				break;
+			}
+			buffer.getInt();
+			byte[] content = new byte[length];
+			buffer.get(content);
+			this.processMessage(connection, content);
+		}
+		buffer.compact();
+	}
+
+	private void processMessage(final Connection connection, final byte[] content) throws IOException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(content))) {
+			byte type = in.readByte();
+			String coworker = in.readUTF();
+			logger.debug("Received message of type {} for coworker {}", type, coworker);
+			switch (type) {
+			case MSG_REGISTER:
+				this.coworkerConnections.put(coworker, connection);
+				this.newCoworkers.add(coworker);
+				break;
+			case MSG_UNREGISTER:
+				this.coworkerConnections.remove(coworker);
+				this.newCoworkers.remove(coworker);
+				this.attachedCoworkers.remove(coworker);
+				break;
+			case MSG_ATTACH:
+				this.attachedCoworkers.add(coworker);
+				Semaphore ticket = this.registerTickets.remove(coworker);
+				if (ticket != null) {
+					ticket.release();
+				}
+				break;
+			case MSG_DETACH:
+				this.attachedCoworkers.remove(coworker);
+				break;
+			case MSG_JOB:
+				this.getJobQueue(coworker).add(this.nodeCodec.read(1, in).get(0));
+				break;
+			case MSG_RESULT:
+				List<Collection<Node<T, V>>> openAndSolutions = this.nodeCodec.read(2, in);
+				DistributedComputationResult<T, V> result = new DistributedComputationResult<>(coworker, openAndSolutions.get(0), openAndSolutions.get(1));
+				synchronized (this.results) {
+					this.results.put(coworker, result);
+					this.resultsReceivedSinceLastWait = true;
+					this.results.notifyAll();
+				}
+				break;
+			case MSG_GRAPH_GENERATOR:
+				this.serializedGraphGenerator = (byte[]) in.readObject();
+				this.graphGeneratorReceived.countDown();
+				break;
+			case MSG_NODE_EVALUATOR:
+				this.serializedNodeEvaluator = (byte[]) in.readObject();
+				this.nodeEvaluatorReceived.countDown();
+				break;
+			default:
+				throw new IOException("Unknown message type " + type);
+			}
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Could not decode message, because a class is not on the classpath.", e);
+		}
+	}
+
+	/* message creation */
+
+	private void send(final Connection connection, final byte type, final String coworker, final MessageContentWriter writer) {
+		if (connection == null) {
+			logger.error("Cannot send message of type {} for coworker {}, because there is no connection to it.", type, coworker);
+			return;
+		}
+		ByteBuffer frame;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			bytes.write(new byte[LENGTH_FIELD_SIZE]);
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeByte(type);
+				out.writeUTF(coworker);
+				writer.write(out);
+			}
+			frame = ByteBuffer.wrap(bytes.toByteArray());
+			frame.putInt(0, frame.capacity() - LENGTH_FIELD_SIZE);
+		} catch (IOException e) {
+			logger.error("Could not encode message of type {} for coworker {}: {}", type, coworker, e.getMessage());
+			return;
+		}
+		synchronized (connection.outgoingFrames) {
+			connection.outgoingFrames.add(frame);
+		}
+		this.connectionsWithNewFrames.add(connection);
+		this.selector.wakeup();
+	}
+
+	private void sendToCoworker(final String coworker, final byte type, final MessageContentWriter writer) {
+		this.send(this.coworkerConnections.get(coworker), type, coworker, writer);
+	}
+
+	private void sendToMaster(final String coworker, final byte type, final MessageContentWriter writer) {
+		this.send(this.masterConnection, type, coworker, writer);
+	}
+
+	private static byte[] serialize(final Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return in.readObject();
+		}
+	}
+
+	private BlockingQueue<Collection<Node<T, V>>> getJobQueue(final String coworker) {
+		return this.jobQueues.computeIfAbsent(coworker, c -> new LinkedBlockingQueue<>());
+	}
+
+	/* master operations */
+
+	@Override
+	public void init() {
+		synchronized (this.results) {
+			this.results.clear();
+		}
+	}
+
+	@Override
+	public Collection<String> detectNewCoworkers() {
+		List<String> coworkers = new ArrayList<>();
+		this.newCoworkers.drainTo(coworkers);
+		for (String coworker : coworkers) {
+			logger.info("Recognized coworker {}", coworker);
+		}
+		return coworkers;
+	}
+
+	@Override
+	public void createNewJobForCoworker(final String coworker, final Collection<Node<T, V>> nodes) {
+		logger.info("Sending job for {}: {}", coworker, nodes);
+		this.sendToCoworker(coworker, MSG_JOB, out -> this.nodeCodec.write(Collections.singletonList(nodes), out));
+	}
+
+	@Override
+	public void attachCoworker(final String coworker) {
+		this.attachedCoworkers.add(coworker);
+		byte[] graphGenerator = this.serializedGraphGenerator;
+		if (graphGenerator != null) {
+			this.sendToCoworker(coworker, MSG_GRAPH_GENERATOR, out -> out.writeObject(graphGenerator));
+		}
+		byte[] nodeEvaluator = this.serializedNodeEvaluator;
+		if (nodeEvaluator != null) {
+			this.sendToCoworker(coworker, MSG_NODE_EVALUATOR, out -> out.writeObject(nodeEvaluator));
+		}
+		this.sendToCoworker(coworker, MSG_ATTACH, out -> {
+		});
+	}
+
+	@Override
+	public void detachCoworker(final String coworker) {
+		this.attachedCoworkers.remove(coworker);
+		this.sendToCoworker(coworker, MSG_DETACH, out -> {
+		});
+	}
+
+	@Override
+	public DistributedComputationResult<T, V> readResult(final String coworker) {
+		synchronized (this.results) {
+			return this.results.remove(coworker);
+		}
+	}
+
+	@Override
+	public void waitForResults(final long timeoutInMS) throws InterruptedException {
+		synchronized (this.results) {
+			if (!this.resultsReceivedSinceLastWait) {
+				this.results.wait(timeoutInMS);
+			}
+			this.resultsReceivedSinceLastWait = false;
+		}
+	}
+
+	@Override
+	public void setGraphGenerator(final SerializableGraphGenerator<T, A> generator) throws Exception {
+		byte[] graphGenerator = serialize(generator);
+		this.serializedGraphGenerator = graphGenerator;
+		for (String coworker : this.attachedCoworkers) {
+			this.sendToCoworker(coworker, MSG_GRAPH_GENERATOR, out -> out.writeObject(graphGenerator));
+		}
+	}
+
+	@Override
+	public void setNodeEvaluator(final SerializableNodeEvaluator<T, V> evaluator) throws Exception {
+		byte[] nodeEvaluator = serialize(evaluator);
+		this.serializedNodeEvaluator = nodeEvaluator;
+		for (String coworker : this.attachedCoworkers) {
+			this.sendToCoworker(coworker, MSG_NODE_EVALUATOR, out -> out.writeObject(nodeEvaluator));
+		}
+	}
+
+	/* coworker operations */
+
+	@Override
+	public void register(final String coworker) throws InterruptedException {
+		this.attachedCoworkers.remove(coworker);
+		Semaphore ticket = new Semaphore(0);
+		this.registerTickets.put(coworker, ticket);
+		this.sendToMaster(coworker, MSG_REGISTER, out -> {
+		});
+		ticket.acquire();
+	}
+
+	@Override
+	public void unregister(final String coworker) {
+		this.registerTickets.remove(coworker);
+		this.sendToMaster(coworker, MSG_UNREGISTER, out -> {
+		});
+	}
+
+	@Override
+	public boolean isAttached(final String coworker) {
+		return this.attachedCoworkers.contains(coworker);
+	}
+
+	@Override
+	public Collection<Node<T, V>> nextJob(final String coworker) throws InterruptedException {
+		return this.getJobQueue(coworker).take();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public SerializableGraphGenerator<T, A> getGraphGenerator() throws Exception {
+		this.graphGeneratorReceived.await();
+		return (SerializableGraphGenerator<T, A>) deserialize(this.serializedGraphGenerator);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public INodeEvaluator<T, V> getNodeEvaluator() throws Exception {
+		this.nodeEvaluatorReceived.await();
+		return (INodeEvaluator<T, V>) deserialize(this.serializedNodeEvaluator);
+	}
+
+	@Override
+	public void reportResult(final String coworker, final DistributedComputationResult<T, V> result) {
+		this.sendToMaster(coworker, MSG_RESULT, out -> this.nodeCodec.write(Arrays.asList(result.getOpen(), result.getSolutions()), out));
+	}
+
+	@Override
+	public void close() {
+		this.closed = true;
+		this.selector.wakeup();
+	}
+}
@@ -21,6 +21,13 @@ public interface DistributedSearchCommunicationLayer<T,A,V extends Comparable<V>
 	public void setGraphGenerator(SerializableGraphGenerator<T, A> generator) throws Exception;
 	public void setNodeEvaluator(SerializableNodeEvaluator<T, V> evaluator) throws Exception;
 	
+	/**
+	 * Blocks until new results may be available or the given time has passed. Communication layers that are notified about new results may return early, all others just wait.
+	 */
+	public default void waitForResults(long timeoutInMS) throws InterruptedException {
+		Thread.sleep(timeoutInMS);
+	}
+	
 	/* coworker operations */
 	public void register(String coworker) throws InterruptedException; // registers the coworker on the bus and blocks him until it becomes attached
 	public void unregister(String coworker);
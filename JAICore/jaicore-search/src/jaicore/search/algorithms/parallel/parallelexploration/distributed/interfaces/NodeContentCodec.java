@@ -0,0 +1,35 @@
+package jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Writes and reads the points and labels of nodes that are exchanged between master and coworkers. The default implementations rely on Java serialization;
+ * implementations for concrete node types may use the primitive write and read operations in order to obtain a more compact encoding.
+ *
+ * @author agent
+ *
+ * @param <T> type of the points
+ * @param <V> type of the node labels
+ */
+public interface NodeContentCodec<T, V extends Comparable<V>> {
+
+	public default void writePoint(T point, ObjectOutput out) throws IOException {
+		out.writeObject(point);
+	}
+
+	@SuppressWarnings("unchecked")
+	public default T readPoint(ObjectInput in) throws IOException, ClassNotFoundException {
+		return (T) in.readObject();
+	}
+
+	public default void writeLabel(V label, ObjectOutput out) throws IOException {
+		out.writeObject(label);
+	}
+
+	@SuppressWarnings("unchecked")
+	public default V readLabel(ObjectInput in) throws IOException, ClassNotFoundException {
+		return (V) in.readObject();
+	}
+}
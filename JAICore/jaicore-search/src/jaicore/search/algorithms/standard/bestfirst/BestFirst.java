@@ -470,7 +470,7 @@ public class BestFirst<I extends GraphSearchWithSubpathEvaluationsInput<N, A, V>
 			} else {
 				BestFirst.this.logger.info("Not inserting node {} because computation of f-value timed out.", node);
 			}
-			if (!node.getAnnotations().containsKey("fError")) {
+			if (node.getAnnotation("fError") == null) {
 				node.setAnnotation("fError", "f-computer returned NULL");
 			}
 			return;
@@ -0,0 +1,560 @@
+package jaicore.search.algorithms.standard.bestfirst;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.eventbus.Subscribe;
+
+import jaicore.basic.ILoggingCustomizable;
+import jaicore.basic.algorithm.AlgorithmExecutionCanceledException;
+import jaicore.basic.algorithm.events.AlgorithmEvent;
+import jaicore.basic.algorithm.events.AlgorithmInitializedEvent;
+import jaicore.basic.algorithm.exceptions.AlgorithmException;
+import jaicore.graphvisualizer.events.graphEvents.GraphInitializedEvent;
+import jaicore.graphvisualizer.events.graphEvents.NodeReachedEvent;
+import jaicore.graphvisualizer.events.graphEvents.NodeTypeSwitchEvent;
+import jaicore.logging.LoggerUtil;
+import jaicore.search.algorithms.standard.bestfirst.events.EvaluatedSearchSolutionCandidateFoundEvent;
+import jaicore.search.algorithms.standard.bestfirst.events.NodeAnnotationEvent;
+import jaicore.search.algorithms.standard.bestfirst.events.NodeExpansionCompletedEvent;
+import jaicore.search.algorithms.standard.bestfirst.events.NodeExpansionJobSubmittedEvent;
+import jaicore.search.algorithms.standard.bestfirst.events.SolutionAnnotationEvent;
+import jaicore.search.algorithms.standard.bestfirst.events.SuccessorComputationCompletedEvent;
+import jaicore.search.algorithms.standard.bestfirst.nodeevaluation.DecoratingNodeEvaluator;
+import jaicore.search.algorithms.standard.bestfirst.nodeevaluation.ICancelableNodeEvaluator;
+import jaicore.search.algorithms.standard.bestfirst.nodeevaluation.IGraphDependentNodeEvaluator;
+import jaicore.search.algorithms.standard.bestfirst.nodeevaluation.INodeEvaluator;
+import jaicore.search.algorithms.standard.bestfirst.nodeevaluation.ISolutionReportingNodeEvaluator;
+import jaicore.search.algorithms.standard.opencollections.ConcurrentOpenList;
+import jaicore.search.core.interfaces.AOptimalPathInORGraphSearch;
+import jaicore.search.core.interfaces.GraphGenerator;
+import jaicore.search.model.other.EvaluatedSearchGraphPath;
+import jaicore.search.model.travesaltree.Node;
+import jaicore.search.model.travesaltree.NodeExpansionDescription;
+import jaicore.search.probleminputs.GraphSearchWithSubpathEvaluationsInput;
+import jaicore.search.structure.graphgenerator.MultipleRootGenerator;
+import jaicore.search.structure.graphgenerator.NodeGoalTester;
+import jaicore.search.structure.graphgenerator.PathGoalTester;
+import jaicore.search.structure.graphgenerator.RootGenerator;
+import jaicore.search.structure.graphgenerator.SingleRootGenerator;
+import jaicore.search.structure.graphgenerator.SuccessorGenerator;
+
+/**
+ * Best first search in which several workers select, expand, and evaluate nodes at the same time.
+ *
+ * In {@link BestFirst}, a single thread selects the nodes to be expanded, and helper threads only attach the successors; all of them synchronize over locks on OPEN and the job counter. Here, each of the cpus workers runs the whole
+ * select-expand-evaluate cycle on its own. OPEN is a {@link ConcurrentOpenList}, and EXPANDING and CLOSED are concurrent maps, so workers only ever wait if OPEN is temporarily empty while other workers are still expanding.
+ *
+ * Since several nodes are expanded at the same time, the expansion order is only approximately best first. Parent discarding is not supported; the search assumes that the graph is a tree.
+ *
+ * The iterator of the algorithm returns the solution events; all other events are posted over the event bus only.
+ *
+ * @author agent
+ *
+ * @param <I>
+ * @param <N>
+ * @param <A>
+ * @param <V>
+ */
+public class ParallelBestFirst<I extends GraphSearchWithSubpathEvaluationsInput<N, A, V>, N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSearch<I, N, A, V, Node<N, V>, A> {
+
+	private static final long IDLE_WAIT_IN_NS = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final int EVENT_POLL_INTERVAL_IN_MS = 10;
+
+	private Logger logger = LoggerFactory.getLogger(ParallelBestFirst.class);
+	private String loggerName;
+
+	/* problem definition */
+	protected final GraphGenerator<N, A> graphGenerator;
+	protected final RootGenerator<N> rootGenerator;
+	protected final SuccessorGenerator<N, A> successorGenerator;
+	protected final PathGoalTester<N> pathGoalTester;
+	protected final NodeGoalTester<N> nodeGoalTester;
+	protected final INodeEvaluator<N, V> nodeEvaluator;
+
+	/* automatically derived auxiliary variables */
+	protected final boolean checkGoalPropertyOnEntirePath;
+	private final boolean solutionReportingNodeEvaluator;
+	private final boolean cancelableNodeEvaluator;
+
+	/* general algorithm state and statistics */
+	private final AtomicInteger createdCounter = new AtomicInteger();
+	private final AtomicInteger expandedCounter = new AtomicInteger();
+	private final BlockingQueue<EvaluatedSearchSolutionCandidateFoundEvent<N, A, V>> pendingSolutionFoundEvents = new LinkedBlockingQueue<>();
+	private volatile Throwable exceptionOfWorker;
+
+	/* search graph model */
+	protected final Map<N, Node<N, V>> ext2int = new ConcurrentHashMap<>();
+	private final ConcurrentOpenList<N, V> open = new ConcurrentOpenList<>();
+	private final Map<N, Thread> expanding = new ConcurrentHashMap<>(); // EXPANDING contains the nodes being expanded and the threads doing this job
+	private final Set<N> closed = ConcurrentHashMap.newKeySet(); // CLOSED contains only node but not paths
+
+	/* parallelization */
+	private ExecutorService pool;
+	private int numberOfWorkers;
+	private final AtomicInteger pendingNodes = new AtomicInteger(); // nodes on OPEN or being expanded; once this is 0, no node can ever be added to OPEN again
+	private final AtomicInteger runningWorkers = new AtomicInteger();
+
+	public ParallelBestFirst(final I problem) {
+		this(problem, ConfigFactory.create(IBestFirstConfig.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	public ParallelBestFirst(final I problem, final IBestFirstConfig config) {
+		super(problem, config);
+		if (config.parentDiscarding() != BestFirst.ParentDiscarding.NONE) {
+			throw new IllegalArgumentException("Parallel best first search does not support parent discarding.");
+		}
+		this.graphGenerator = problem.getGraphGenerator();
+		this.rootGenerator = this.graphGenerator.getRootGenerator();
+		this.successorGenerator = this.graphGenerator.getSuccessorGenerator();
+		this.checkGoalPropertyOnEntirePath = !(this.graphGenerator.getGoalTester() instanceof NodeGoalTester);
+		if (this.checkGoalPropertyOnEntirePath) {
+			this.nodeGoalTester = null;
+			this.pathGoalTester = (PathGoalTester<N>) this.graphGenerator.getGoalTester();
+		} else {
+			this.nodeGoalTester = (NodeGoalTester<N>) this.graphGenerator.getGoalTester();
+			this.pathGoalTester = null;
+		}
+
+		/* if the node evaluator is graph dependent, communicate the generator to it */
+		this.nodeEvaluator = problem.getNodeEvaluator();
+		if (this.nodeEvaluator == null) {
+			throw new IllegalArgumentException("Cannot work with node evaulator that is null");
+		} else if (this.nodeEvaluator instanceof DecoratingNodeEvaluator<?, ?>) {
+			DecoratingNodeEvaluator<N, V> castedEvaluator = (DecoratingNodeEvaluator<N, V>) this.nodeEvaluator;
+			if (castedEvaluator.isGraphDependent()) {
+				this.logger.info("{} is a graph dependent node evaluator. Setting its graph generator now ...", castedEvaluator);
+				castedEvaluator.setGenerator(this.graphGenerator);
+			}
+			if (castedEvaluator.isSolutionReporter()) {
+				this.logger.info("{} is a solution reporter. Register the search algo in its event bus", castedEvaluator);
+				castedEvaluator.registerSolutionListener(this);
+				this.solutionReportingNodeEvaluator = true;
+			} else {
+				this.solutionReportingNodeEvaluator = false;
+			}
+		} else {
+			if (this.nodeEvaluator instanceof IGraphDependentNodeEvaluator) {
+				this.logger.info("{} is a graph dependent node evaluator. Setting its graph generator now ...", this.nodeEvaluator);
+				((IGraphDependentNodeEvaluator<N, A, V>) this.nodeEvaluator).setGenerator(this.graphGenerator);
+			}
+
+			/* if the node evaluator is a solution reporter, register in his event bus */
+			if (this.nodeEvaluator instanceof ISolutionReportingNodeEvaluator) {
+				this.logger.info("{} is a solution reporter. Register the search algo in its event bus", this.nodeEvaluator);
+				((ISolutionReportingNodeEvaluator<N, V>) this.nodeEvaluator).registerSolutionListener(this);
+				this.solutionReportingNodeEvaluator = true;
+			} else {
+				this.solutionReportingNodeEvaluator = false;
+			}
+		}
+		this.cancelableNodeEvaluator = this.nodeEvaluator instanceof ICancelableNodeEvaluator;
+	}
+
+	/** BLOCK A: Internal behavior of the algorithm **/
+
+	private class Worker implements Runnable {
+
+		@Override
+		public void run() {
+			try {
+				while (!ParallelBestFirst.this.isStopCriterionSatisfied() && !Thread.currentThread().isInterrupted()) {
+
+					/*
+					 * a node remains pending until its successors have been counted, so a single
+					 * read of 0 means that OPEN is empty and no worker is expanding a node
+					 */
+					Node<N, V> node = ParallelBestFirst.this.open.poll();
+					if (node == null) {
+						if (ParallelBestFirst.this.pendingNodes.get() == 0) {
+							ParallelBestFirst.this.logger.debug("OPEN is empty and no other worker is expanding a node. Leaving worker loop.");
+							return;
+						}
+						LockSupport.parkNanos(IDLE_WAIT_IN_NS);
+						continue;
+					}
+					try {
+						ParallelBestFirst.this.expandNode(node);
+					} finally {
+						ParallelBestFirst.this.pendingNodes.decrementAndGet();
+					}
+				}
+			} catch (InterruptedException e) {
+				ParallelBestFirst.this.logger.info("Worker has been interrupted, finishing execution.");
+			} catch (AlgorithmExecutionCanceledException e) {
+				ParallelBestFirst.this.logger.info("Node evaluator has been canceled, finishing execution.");
+			} catch (Throwable e) {
+				if (!ParallelBestFirst.this.isShutdownInitialized()) {
+					ParallelBestFirst.this.logger.error("Worker has observed an exception:\n{}", LoggerUtil.getExceptionInfo(e));
+					ParallelBestFirst.this.exceptionOfWorker = e;
+				}
+			} finally {
+				ParallelBestFirst.this.runningWorkers.decrementAndGet();
+			}
+		}
+	}
+
+	protected void expandNode(final Node<N, V> expandedNode) throws InterruptedException, AlgorithmExecutionCanceledException {
+		this.expanding.put(expandedNode.getPoint(), Thread.currentThread());
+		this.beforeExpansion(expandedNode);
+		this.post(new NodeTypeSwitchEvent<Node<N, V>>(expandedNode, "or_expanding"));
+		this.logger.info("Expanding node {} with f-value {}", expandedNode, expandedNode.getInternalLabel());
+
+		/* compute the successors in the underlying graph */
+		List<NodeExpansionDescription<N, A>> successorDescriptions = this.successorGenerator.generateSuccessors(expandedNode.getPoint());
+		this.post(new SuccessorComputationCompletedEvent<>(expandedNode, successorDescriptions));
+
+		/* create, label, and insert the successors */
+		for (NodeExpansionDescription<N, A> successorDescription : successorDescriptions) {
+			if (this.isStopCriterionSatisfied()) {
+				break;
+			}
+			Node<N, V> newNode = this.newNode(expandedNode, successorDescription.getTo());
+			if (!this.labelNode(newNode)) {
+				continue;
+			}
+			this.post(new NodeTypeSwitchEvent<>(newNode, "or_" + (newNode.isGoal() ? "solution" : "open")));
+			if (newNode.isGoal()) {
+
+				/* if the node evaluator has not reported the solution already anyway, register the solution */
+				if (!this.solutionReportingNodeEvaluator) {
+					this.registerSolution(new EvaluatedSearchGraphPath<>(newNode.externalPath(), null, newNode.getInternalLabel()));
+				}
+			} else {
+				this.logger.debug("Inserting successor {} of {} to OPEN. F-Value is {}", newNode, expandedNode, newNode.getInternalLabel());
+				this.pendingNodes.incrementAndGet();
+				this.open.add(newNode);
+			}
+		}
+
+		/* update statistics and send closed notifications */
+		this.expanding.remove(expandedNode.getPoint());
+		this.closed.add(expandedNode.getPoint());
+		this.expandedCounter.incrementAndGet();
+		this.post(new NodeTypeSwitchEvent<Node<N, V>>(expandedNode, "or_closed"));
+		this.post(new NodeExpansionJobSubmittedEvent<>(expandedNode, successorDescriptions));
+		this.post(new NodeExpansionCompletedEvent<>(expandedNode));
+		this.afterExpansion(expandedNode);
+	}
+
+	protected Node<N, V> newNode(final Node<N, V> parent, final N t2) {
+
+		/* create new node and check whether it is a goal */
+		Node<N, V> newNode = new Node<>(parent, t2);
+		this.ext2int.put(t2, newNode);
+		if (this.checkGoalPropertyOnEntirePath ? this.pathGoalTester.isGoal(newNode.externalPath()) : this.nodeGoalTester.isGoal(newNode.getPoint())) {
+			newNode.setGoal(true);
+		}
+		this.createdCounter.incrementAndGet();
+
+		/* send events for this new node */
+		if (parent == null) {
+			this.post(new GraphInitializedEvent<Node<N, V>>(newNode));
+		} else {
+			this.post(new NodeReachedEvent<Node<N, V>>(parent, newNode, "or_" + (newNode.isGoal() ? "solution" : "created")));
+		}
+		return newNode;
+	}
+
+	/**
+	 * Computes the f-value of the node and stores it in the node.
+	 *
+	 * @param node
+	 *            The node to be labeled
+	 * @return true iff the node has received a label and should be kept
+	 * @throws InterruptedException
+	 * @throws AlgorithmExecutionCanceledException
+	 */
+	protected boolean labelNode(final Node<N, V> node) throws InterruptedException, AlgorithmExecutionCanceledException {
+		V label;
+		long startComputation = System.currentTimeMillis();
+		try {
+			label = this.nodeEvaluator.f(node);
+		} catch (InterruptedException | AlgorithmExecutionCanceledException e) {
+			throw e;
+		} catch (TimeoutException e) {
+			this.logger.debug("Node evaluation of {} has timed out.", node);
+			node.setAnnotation("fError", e);
+			this.post(new NodeTypeSwitchEvent<>(node, "or_timedout"));
+			return false;
+		} catch (Throwable e) {
+			this.logger.error("Observed an exception during computation of f:\n{}", LoggerUtil.getExceptionInfo(e));
+			node.setAnnotation("fError", e);
+			this.post(new NodeTypeSwitchEvent<>(node, "or_ffail"));
+			return false;
+		}
+		node.setAnnotation("fTime", System.currentTimeMillis() - startComputation);
+
+		/* if no label was computed, prune the node */
+		if (label == null) {
+			this.logger.info("Not inserting node {} since its label is missing!", node);
+			node.setAnnotation("fError", "f-computer returned NULL");
+			this.post(new NodeTypeSwitchEvent<>(node, "or_pruned"));
+			return false;
+		}
+		node.setInternalLabel(label);
+		return true;
+	}
+
+	/**
+	 * This method setups the graph by inserting the root nodes.
+	 *
+	 * @throws InterruptedException
+	 * @throws AlgorithmExecutionCanceledException
+	 */
+	protected void initGraph() throws InterruptedException, AlgorithmExecutionCanceledException {
+		List<N> roots = new ArrayList<>();
+		if (this.rootGenerator instanceof MultipleRootGenerator) {
+			roots.addAll(((MultipleRootGenerator<N>) this.rootGenerator).getRoots());
+		} else {
+			roots.add(((SingleRootGenerator<N>) this.rootGenerator).getRoot());
+		}
+		for (N n0 : roots) {
+			Node<N, V> root = this.newNode(null, n0);
+			if (!this.labelNode(root)) {
+				throw new IllegalArgumentException("The node evaluator has assigned NULL to the root node, which impedes an initialization of the search graph. Node evaluator: " + this.nodeEvaluator);
+			}
+			this.logger.info("Labeled root with {}", root.getInternalLabel());
+			this.pendingNodes.incrementAndGet();
+			this.open.add(root);
+		}
+	}
+
+	private void startWorkers(final int numberOfWorkers) {
+		if (numberOfWorkers < 1) {
+			throw new IllegalArgumentException("Number of threads should be at least 1 for " + this.getClass().getName());
+		}
+		this.numberOfWorkers = numberOfWorkers;
+		AtomicInteger counter = new AtomicInteger(0);
+		this.pool = Executors.newFixedThreadPool(numberOfWorkers, r -> {
+			Thread t = new Thread(r);
+			t.setName("ParallelBestFirst-worker-" + counter.incrementAndGet());
+			return t;
+		});
+		this.runningWorkers.set(numberOfWorkers);
+		for (int i = 0; i < numberOfWorkers; i++) {
+			this.pool.submit(new Worker());
+		}
+	}
+
+	@Override
+	protected synchronized EvaluatedSearchSolutionCandidateFoundEvent<N, A, V> registerSolution(final EvaluatedSearchGraphPath<N, A, V> solutionPath) {
+		EvaluatedSearchSolutionCandidateFoundEvent<N, A, V> solutionEvent = super.registerSolution(solutionPath); // this emits an event on the event bus
+		this.pendingSolutionFoundEvents.add(solutionEvent);
+		return solutionEvent;
+	}
+
+	@Override
+	protected void shutdown() {
+		if (this.isShutdownInitialized()) {
+			return;
+		}
+		this.logger.info("Invoking shutdown routine ...");
+		super.shutdown();
+
+		/* stop the workers */
+		if (this.pool != null) {
+			this.logger.info("Triggering shutdown of worker pool with interrupt");
+			this.pool.shutdownNow();
+			try {
+				this.pool.awaitTermination(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				this.logger.warn("Got interrupted during shutdown!");
+			}
+			if (!this.pool.isTerminated()) {
+				this.logger.error("Worker pool has not been shutdown correctly!");
+			} else {
+				this.logger.info("Worker pool has been shut down.");
+			}
+		}
+
+		/* cancel node evaluator */
+		if (this.cancelableNodeEvaluator) {
+			this.logger.info("Canceling node evaluator.");
+			((ICancelableNodeEvaluator) this.nodeEvaluator).cancel();
+		}
+		this.logger.info("Shutdown completed");
+	}
+
+	@Subscribe
+	public void receiveSolutionCandidateEvent(final EvaluatedSearchSolutionCandidateFoundEvent<N, A, V> solutionEvent) {
+		try {
+			this.logger.info("Received solution with f-value {} and annotations {}", solutionEvent.getSolutionCandidate().getScore(), solutionEvent.getSolutionCandidate().getAnnotations());
+			this.registerSolution(solutionEvent.getSolutionCandidate()); // unpack this solution and plug it into the registration process
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Subscribe
+	public void receiveSolutionCandidateAnnotationEvent(final SolutionAnnotationEvent<N, A, V> event) {
+		try {
+			this.logger.debug("Received solution annotation: {}", event);
+			this.post(event);
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Subscribe
+	public void receiveNodeAnnotationEvent(final NodeAnnotationEvent<N> event) {
+		try {
+			N nodeExt = event.getNode();
+			this.logger.debug("Received annotation {} with value {} for node {}", event.getAnnotationName(), event.getAnnotationValue(), event.getNode());
+			if (!this.ext2int.containsKey(nodeExt)) {
+				throw new IllegalArgumentException("Received annotation for a node I don't know!");
+			}
+			Node<N, V> nodeInt = this.ext2int.get(nodeExt);
+			nodeInt.setAnnotation(event.getAnnotationName(), event.getAnnotationValue());
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	/** BLOCK B: Controlling the algorithm from the outside **/
+
+	@Override
+	public AlgorithmEvent nextWithException() throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException, AlgorithmException {
+		switch (this.getState()) {
+		case created: {
+			this.logger.info("Initializing ParallelBestFirst search {} with {} CPUs and a timeout of {}ms", this, this.getConfig().cpus(), this.getConfig().timeout());
+			this.initGraph();
+			AlgorithmInitializedEvent event = this.activate();
+			this.startWorkers(this.getConfig().cpus());
+			return event;
+		}
+		case active: {
+
+			/* wait until a worker reports a solution or all workers have finished */
+			while (true) {
+				EvaluatedSearchSolutionCandidateFoundEvent<N, A, V> event;
+				try {
+					event = this.pendingSolutionFoundEvents.poll(EVENT_POLL_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt(); // re-set the flag so that checkTermination shuts the algorithm down and throws the exception
+					event = null;
+				}
+				if (event != null) {
+					return event; // these already have been posted over the event bus but are now returned to the controller for respective handling
+				}
+				this.checkTermination();
+				if (this.exceptionOfWorker != null) {
+					this.unregisterThreadAndShutdown();
+					throw new AlgorithmException(this.exceptionOfWorker, "A worker of the parallel best first search has failed.");
+				}
+				if (this.runningWorkers.get() == 0) {
+					event = this.pendingSolutionFoundEvents.poll();
+					if (event != null) {
+						return event;
+					}
+					this.logger.info("All workers have finished and there are no pending solutions. Expanded {} nodes. Setting state to inactive.", this.expandedCounter.get());
+					return this.terminate();
+				}
+			}
+		}
+		default:
+			throw new IllegalStateException("ParallelBestFirst search is in state " + this.getState() + " in which next must not be called!");
+		}
+	}
+
+	/** BLOCK C: Hooks **/
+
+	protected void beforeExpansion(final Node<N, V> node) {
+	}
+
+	protected void afterExpansion(final Node<N, V> node) {
+	}
+
+	/** BLOCK D: Getters and Setters **/
+
+	public INodeEvaluator<N, V> getNodeEvaluator() {
+		return this.nodeEvaluator;
+	}
+
+	public int getNumberOfWorkers() {
+		return this.numberOfWorkers;
+	}
+
+	/**
+	 * @return A snapshot of the nodes currently on OPEN
+	 */
+	public List<Node<N, V>> getOpen() {
+		return Collections.unmodifiableList(new ArrayList<>(this.open));
+	}
+
+	public Node<N, V> getInternalRepresentationOf(final N node) {
+		return this.ext2int.get(node);
+	}
+
+	public boolean isClosed(final N node) {
+		return this.closed.contains(node);
+	}
+
+	public boolean isBeingExpanded(final N node) {
+		return this.expanding.containsKey(node);
+	}
+
+	/**
+	 * Check how many times a node was expanded.
+	 *
+	 * @return A counter of how many times a node was expanded.
+	 */
+	public int getExpandedCounter() {
+		return this.expandedCounter.get();
+	}
+
+	public int getCreatedCounter() {
+		return this.createdCounter.get();
+	}
+
+	public V getFValue(final N node) {
+		return this.ext2int.get(node).getInternalLabel();
+	}
+
+	public Map<String, Object> getNodeAnnotations(final N node) {
+		return this.ext2int.get(node).getAnnotations();
+	}
+
+	public Object getNodeAnnotation(final N node, final String annotation) {
+		return this.ext2int.get(node).getAnnotation(annotation);
+	}
+
+	@Override
+	public String getLoggerName() {
+		return this.loggerName;
+	}
+
+	@Override
+	public void setLoggerName(final String name) {
+		this.logger.info("Switching logger from {} to {}", this.logger.getName(), name);
+		this.loggerName = name;
+		this.logger = LoggerFactory.getLogger(name);
+		this.logger.info("Activated logger {} with name {}", name, this.logger.getName());
+		if (this.nodeEvaluator instanceof ILoggingCustomizable) {
+			((ILoggingCustomizable) this.nodeEvaluator).setLoggerName(name + ".nodeeval");
+		}
+		super.setLoggerName(this.loggerName + "._orgraphsearch");
+	}
+
+	@Override
+	public IBestFirstConfig getConfig() {
+		return (IBestFirstConfig) super.getConfig();
+	}
+}
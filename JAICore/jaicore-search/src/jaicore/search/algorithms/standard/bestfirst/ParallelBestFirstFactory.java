@@ -0,0 +1,33 @@
+package jaicore.search.algorithms.standard.bestfirst;
+
+import jaicore.search.core.interfaces.IOptimalPathInORGraphSearchFactory;
+import jaicore.search.core.interfaces.StandardORGraphSearchFactory;
+import jaicore.search.model.other.EvaluatedSearchGraphPath;
+import jaicore.search.model.travesaltree.Node;
+import jaicore.search.probleminputs.GraphSearchWithSubpathEvaluationsInput;
+
+public class ParallelBestFirstFactory<P extends GraphSearchWithSubpathEvaluationsInput<N, A, V>, N, A, V extends Comparable<V>> extends StandardORGraphSearchFactory<P, EvaluatedSearchGraphPath<N, A, V>, N, A, V, Node<N, V>, A>
+		implements IOptimalPathInORGraphSearchFactory<P, N, A, V, Node<N, V>, A> {
+
+	private String loggerName;
+
+	@Override
+	public ParallelBestFirst<P, N, A, V> getAlgorithm() {
+		if (getProblemInput().getGraphGenerator() == null)
+			throw new IllegalStateException("Cannot produce ParallelBestFirst searches before the graph generator is set in the problem.");
+		if (getProblemInput().getNodeEvaluator() == null)
+			throw new IllegalStateException("Cannot produce ParallelBestFirst searches before the node evaluator is set.");
+		ParallelBestFirst<P, N, A, V> search = new ParallelBestFirst<>(getProblemInput());
+		if (loggerName != null && loggerName.length() > 0)
+			search.setLoggerName(loggerName);
+		return search;
+	}
+
+	public String getLoggerName() {
+		return loggerName;
+	}
+
+	public void setLoggerName(String loggerName) {
+		this.loggerName = loggerName;
+	}
+}
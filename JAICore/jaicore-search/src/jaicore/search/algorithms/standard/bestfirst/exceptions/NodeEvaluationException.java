@@ -8,4 +8,8 @@ public class NodeEvaluationException extends AlgorithmException {
 	public NodeEvaluationException(String message) {
 		super(message);
 	}
+
+	public NodeEvaluationException(Throwable cause, String message) {
+		super(cause, message);
+	}
 }
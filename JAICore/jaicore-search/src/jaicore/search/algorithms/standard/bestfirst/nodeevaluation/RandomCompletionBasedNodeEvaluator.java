@@ -12,11 +12,19 @@ import java.util.Random;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -59,10 +67,11 @@ public class RandomCompletionBasedNodeEvaluator<T, V extends Comparable<V>> impl
 	private long totalDeadline = -1;
 
 	protected Set<List<T>> unsuccessfulPaths = Collections.synchronizedSet(new HashSet<>());
-	protected Set<List<T>> postedSolutions = new HashSet<>();
-	protected Map<List<T>, Integer> timesToComputeEvaluations = new HashMap<>();
+	protected Set<List<T>> postedSolutions = Collections.synchronizedSet(new HashSet<>());
+	protected Map<List<T>, Integer> timesToComputeEvaluations = new ConcurrentHashMap<>();
 
 	protected Map<List<T>, V> scoresOfSolutionPaths = new ConcurrentHashMap<>();
+	private final Map<List<T>, FutureTask<V>> evaluationsOfSolutionPaths = new ConcurrentHashMap<>(); // the first thread asking for the score of a path evaluates it, all others wait for the result
 	protected Map<Node<T, ?>, V> fValues = new ConcurrentHashMap<>();
 	protected Map<String, Integer> ppFails = new ConcurrentHashMap<>();
 	protected Map<String, Integer> plFails = new ConcurrentHashMap<>();
@@ -84,9 +93,19 @@ public class RandomCompletionBasedNodeEvaluator<T, V extends Comparable<V>> impl
 	protected final ISolutionEvaluator<T, V> solutionEvaluator;
 	protected IUncertaintySource<T, V> uncertaintySource;
 	protected transient SolutionEventBus<T> eventBus = new SolutionEventBus<>();
-	private final Map<List<T>, V> bestKnownScoreUnderNodeInCompleterGraph = new HashMap<>();
+	private final Map<List<T>, V> bestKnownScoreUnderNodeInCompleterGraph = new ConcurrentHashMap<>();
 	private boolean visualizeSubSearch;
 
+	/* parallel evaluation of the completions of a node */
+	private int threadsForCompletionEvaluation = 1;
+	private transient ExecutorService completionEvaluationPool;
+
+	private static class SamplingStatistics {
+		private int samples; // completions that have been evaluated without exception
+		private int attempts; // completions that have been drawn
+		private int exceptions; // completions whose evaluation has failed with an exception
+	}
+
 	public RandomCompletionBasedNodeEvaluator(final Random random, final int samples, final ISolutionEvaluator<T, V> solutionEvaluator) {
 		this(random, samples, solutionEvaluator, -1, -1);
 	}
@@ -193,100 +212,82 @@ public class RandomCompletionBasedNodeEvaluator<T, V extends Comparable<V>> impl
 				List<V> evaluations = new ArrayList<>();
 				List<List<T>> completedPaths = new ArrayList<>();
 				logger.info("Now drawing {} successful examples but no more than {}", samples, maxSamples);
-				for (; i < this.samples; i++) {
-
-					if (Thread.currentThread().isInterrupted()) {
-						logger.info("Thread ist interrupted, canceling RDFS");
-						break;
-					}
-					if (System.currentTimeMillis() >= deadline) {
-						logger.info("Deadline for random completions hit! Finishing node evaluation.");
-						break;
-					}
-
-					/* complete the current path by the dfs-solution; we assume that this goes in almost constant time */
-					List<T> pathCompletion = null;
-					List<T> completedPath = null;
-					synchronized (completer) {
-
-						if (completer.isCanceled()) {
-							logger.info("Completer has been canceled (perhaps due a cancel on the evaluator). Canceling RDFS");
-							break;
-						}
-						completedPath = new ArrayList<>(n.externalPath());
-
-						logger.info("Starting search for next solution ...");
-
-						SearchGraphPath<T, String> solutionPathFromN = null;
-						try {
-							solutionPathFromN = completer.nextSolutionUnderNode(n.getPoint());
-						} catch (AlgorithmExecutionCanceledException e) {
-							logger.info("Completer has been canceled. Returning control.");
+				if (this.completionEvaluationPool != null) {
+					SamplingStatistics statistics = this.drawAndEvaluateCompletionsInParallel(n, deadline, evaluations, completedPaths);
+					i = statistics.samples;
+					j = statistics.attempts;
+					countedExceptions = statistics.exceptions;
+				} else {
+					for (; i < this.samples; i++) {
+
+						if (Thread.currentThread().isInterrupted()) {
+							logger.info("Thread ist interrupted, canceling RDFS");
 							break;
 						}
-						if (solutionPathFromN == null) {
-							logger.info("No completion was found for path {}.", path);
+						if (System.currentTimeMillis() >= deadline) {
+							logger.info("Deadline for random completions hit! Finishing node evaluation.");
 							break;
 						}
-						logger.info("Found solution {}", solutionPathFromN);
-						pathCompletion = new ArrayList<>(solutionPathFromN.getNodes());
-						pathCompletion.remove(0);
-						completedPath.addAll(pathCompletion);
-					}
-					completedPaths.add(completedPath);
 
-					/* evaluate the found solution */
-					AtomicBoolean nodeEvaluationTimedOut = new AtomicBoolean(false);
-					Thread executingThread = Thread.currentThread();
-					TimerTask abortionTask = new TimerTask() {
+						/* complete the current path by the dfs-solution; we assume that this goes in almost constant time */
+						List<T> pathCompletion = null;
+						List<T> completedPath = null;
+						synchronized (completer) {
 
-						@Override
-						public void run() {
+							if (completer.isCanceled()) {
+								logger.info("Completer has been canceled (perhaps due a cancel on the evaluator). Canceling RDFS");
+								break;
+							}
+							completedPath = new ArrayList<>(n.externalPath());
 
-							/* if the executing thread has not been interrupted from outside */
-							if (!executingThread.isInterrupted()) {
-								logger.info("Sending an controlled interrupt to the evaluating thread to get it back here.");
-								nodeEvaluationTimedOut.set(true);
-								executingThread.interrupt();
+							logger.info("Starting search for next solution ...");
+
+							SearchGraphPath<T, String> solutionPathFromN = null;
+							try {
+								solutionPathFromN = completer.nextSolutionUnderNode(n.getPoint());
+							} catch (AlgorithmExecutionCanceledException e) {
+								logger.info("Completer has been canceled. Returning control.");
+								break;
+							}
+							if (solutionPathFromN == null) {
+								logger.info("No completion was found for path {}.", path);
+								break;
 							}
+							logger.info("Found solution {}", solutionPathFromN);
+							pathCompletion = new ArrayList<>(solutionPathFromN.getNodes());
+							pathCompletion.remove(0);
+							completedPath.addAll(pathCompletion);
 						}
-					};
-					long timeoutForJob = Math.min(deadline - System.currentTimeMillis(), totalDeadline - System.currentTimeMillis());
-					if (timeoutForJob < 0)
-						break;
-					if (timeoutForSingleCompletionEvaluationInMS > 0 && timeoutForSingleCompletionEvaluationInMS < timeoutForJob)
-						timeoutForJob = timeoutForSingleCompletionEvaluationInMS;
-					if (timeoutTimer == null)
-						timeoutTimer = new Timer("RandomCompletion-Timeouter");
-					timeoutTimer.schedule(abortionTask, timeoutForJob);
-					j++;
-					try {
-						V val = this.getFValueOfSolutionPath(completedPath);
-						if (val != null) {
-							evaluations.add(val);
-							updateMapOfBestScoreFoundSoFar(completedPath, val);
-						} else
-							logger.warn("Got NULL result as score for path {}", completedPath);
-					} catch (InterruptedException e) {
-						boolean intentionalInterrupt = nodeEvaluationTimedOut.get();
-						logger.info("Recognized {} interrupt", intentionalInterrupt ? "intentional" : "external");
-						if (!intentionalInterrupt) {
-							abortionTask.cancel();
+						completedPaths.add(completedPath);
+
+						/* evaluate the found solution */
+						long timeoutForJob = Math.min(deadline - System.currentTimeMillis(), totalDeadline - System.currentTimeMillis());
+						if (timeoutForJob < 0)
+							break;
+						if (timeoutForSingleCompletionEvaluationInMS > 0 && timeoutForSingleCompletionEvaluationInMS < timeoutForJob)
+							timeoutForJob = timeoutForSingleCompletionEvaluationInMS;
+						j++;
+						try {
+							V val = this.evaluateCompletionWithTimeout(completedPath, timeoutForJob);
+							if (val != null) {
+								evaluations.add(val);
+								updateMapOfBestScoreFoundSoFar(completedPath, val);
+							} else
+								logger.warn("Got NULL result as score for path {}", completedPath);
+						} catch (InterruptedException e) {
+							logger.info("Recognized external interrupt");
 							throw e;
-						} else {
-							Thread.interrupted(); // set interrupted to false
-						}
-					} catch (Exception ex) {
-						if (j == maxSamples) {
-							logger.warn("Too many retry attempts, giving up.");
-							throw new NodeEvaluationException("Error in the evaluation of a node!");
-						} else {
-							countedExceptions++;
-							logger.error("Could not evaluate solution candidate ... retry another completion. {}", LoggerUtil.getExceptionInfo(ex));
-							i--;
+						} catch (Exception ex) {
+							if (j == maxSamples) {
+								logger.warn("Too many retry attempts, giving up.");
+								throw new NodeEvaluationException("Error in the evaluation of a node!");
+							} else {
+								countedExceptions++;
+								logger.error("Could not evaluate solution candidate ... retry another completion. {}", LoggerUtil.getExceptionInfo(ex));
+								i--;
+							}
 						}
 					}
-					abortionTask.cancel();
 				}
 
 				/* the only reason why we have no score at this point is that all evaluations have failed with exception or were interrupted */
@@ -360,75 +361,276 @@ public class RandomCompletionBasedNodeEvaluator<T, V extends Comparable<V>> impl
 		return f;
 	}
 
-	private void updateMapOfBestScoreFoundSoFar(List<T> nodeInCompleterGraph, V scoreOnOriginalBenchmark) {
-		V bestKnownScore = bestKnownScoreUnderNodeInCompleterGraph.get(nodeInCompleterGraph);
-		if (bestKnownScore == null || scoreOnOriginalBenchmark.compareTo(bestKnownScore) < 0) {
-			bestKnownScoreUnderNodeInCompleterGraph.put(nodeInCompleterGraph, scoreOnOriginalBenchmark);
-			if (nodeInCompleterGraph.size() > 1)
-				updateMapOfBestScoreFoundSoFar(nodeInCompleterGraph.subList(0, nodeInCompleterGraph.size() - 1), scoreOnOriginalBenchmark);
+	/**
+	 * Draws the completions of the node one after another but evaluates them concurrently on the completion evaluation pool. As long as samples are missing, new completions are drawn whenever an evaluation finishes, so at
+	 * most as many evaluations run at the same time as there are samples or threads in the pool. Evaluations still running at the deadline are canceled.
+	 *
+	 * @param n
+	 *            The node whose completions are evaluated
+	 * @param deadline
+	 *            The timestamp until which the evaluation of the node must be finished
+	 * @param evaluations
+	 *            The list to which the scores of the evaluated completions are added
+	 * @param completedPaths
+	 *            The list to which the drawn completions are added
+	 * @return statistics about the number of drawn and successfully evaluated completions
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 * @throws NodeEvaluationException
+	 */
+	private SamplingStatistics drawAndEvaluateCompletionsInParallel(final Node<T, ?> n, final long deadline, final List<V> evaluations, final List<List<T>> completedPaths)
+			throws InterruptedException, TimeoutException, NodeEvaluationException {
+		SamplingStatistics statistics = new SamplingStatistics();
+		final int maxSamples = this.samples * 2;
+		final long deadlineForEvaluations = this.totalDeadline > 0 ? Math.min(deadline, this.totalDeadline) : deadline;
+		CompletionService<V> completionService = new ExecutorCompletionService<>(this.completionEvaluationPool);
+		Map<Future<V>, List<T>> pendingEvaluations = new HashMap<>();
+		Set<List<T>> drawnCompletions = new HashSet<>();
+		boolean noMoreCompletions = false;
+		try {
+			while (statistics.samples < this.samples) {
+
+				/* draw completions until there is one evaluation for every missing sample */
+				while (!noMoreCompletions && statistics.samples + pendingEvaluations.size() < this.samples && statistics.attempts < maxSamples) {
+					if (Thread.currentThread().isInterrupted()) {
+						throw new InterruptedException("Node evaluation interrupted");
+					}
+					List<T> completedPath = this.drawCompletion(n);
+					if (completedPath == null) {
+						noMoreCompletions = true;
+						break;
+					}
+					statistics.attempts++;
+					if (!drawnCompletions.add(completedPath)) {
+						logger.debug("Completion {} has been drawn before, not evaluating it again.", completedPath);
+						continue;
+					}
+					completedPaths.add(completedPath);
+					pendingEvaluations.put(completionService.submit(() -> this.evaluateCompletion(completedPath, deadlineForEvaluations)), completedPath);
+				}
+				if (pendingEvaluations.isEmpty()) {
+					break;
+				}
+
+				/* wait for the next evaluation to finish */
+				long remainingTime = deadlineForEvaluations - System.currentTimeMillis();
+				Future<V> finishedEvaluation = remainingTime > 0 ? completionService.poll(remainingTime, TimeUnit.MILLISECONDS) : null;
+				if (finishedEvaluation == null) {
+					logger.info("Deadline for random completions hit! Canceling {} pending evaluations and finishing node evaluation.", pendingEvaluations.size());
+					break;
+				}
+				List<T> completedPath = pendingEvaluations.remove(finishedEvaluation);
+				try {
+					V val = finishedEvaluation.get();
+					statistics.samples++;
+					if (val != null) {
+						evaluations.add(val);
+						updateMapOfBestScoreFoundSoFar(completedPath, val);
+					} else
+						logger.warn("Got NULL result as score for path {}", completedPath);
+				} catch (ExecutionException e) {
+					statistics.exceptions++;
+					if (statistics.attempts >= maxSamples && pendingEvaluations.isEmpty()) {
+						logger.warn("Too many retry attempts, giving up.");
+						throw new NodeEvaluationException("Error in the evaluation of a node!");
+					}
+					logger.error("Could not evaluate solution candidate ... retry another completion. {}", LoggerUtil.getExceptionInfo(e.getCause()));
+				}
+			}
+		} finally {
+			for (Future<V> pendingEvaluation : pendingEvaluations.keySet()) {
+				pendingEvaluation.cancel(true);
+			}
 		}
+		return statistics;
 	}
 
-	protected V getFValueOfSolutionPath(final List<T> path) throws InterruptedException, NodeEvaluationException {
-		boolean knownPath = this.scoresOfSolutionPaths.containsKey(path);
-		if (!knownPath) {
-			if (this.unsuccessfulPaths.contains(path)) {
-				logger.warn("Asking again for the reevaluation of a path that was evaluated unsuccessfully in a previous run; returning NULL: {}", path);
+	private List<T> drawCompletion(final Node<T, ?> n) throws InterruptedException, TimeoutException {
+		synchronized (completer) {
+			if (completer.isCanceled()) {
+				logger.info("Completer has been canceled (perhaps due a cancel on the evaluator). Canceling RDFS");
 				return null;
 			}
-			logger.info("Associated plan is new. Calling solution evaluator {} to compute f-value for complete path {}", solutionEvaluator, path);
-
-			/* compute value of solution */
-			long start = System.currentTimeMillis();
-			V val = null;
+			List<T> completedPath = new ArrayList<>(n.externalPath());
+			SearchGraphPath<T, String> solutionPathFromN = null;
 			try {
-				val = this.solutionEvaluator.evaluateSolution(path);
-			} catch (InterruptedException e) {
-				logger.info("Computing the solution quality of {} was interrupted.", path);
-				throw e;
-			} catch (Throwable e) {
-				logger.error("Computing the solution quality of {} failed due to an exception. Here is the trace:\n\t{}\n\t{}\n\t{}", path, e.getClass().getName(), e.getMessage(),
-						Arrays.asList(e.getStackTrace()).stream().map(n -> "\n\t" + n.toString()).collect(Collectors.toList()));
-				this.unsuccessfulPaths.add(path);
-				throw new NodeEvaluationException(e.getMessage());
+				solutionPathFromN = completer.nextSolutionUnderNode(n.getPoint());
+			} catch (AlgorithmExecutionCanceledException e) {
+				logger.info("Completer has been canceled. Returning control.");
+				return null;
 			}
-			long duration = System.currentTimeMillis() - start;
-
-			/* at this point, the value should not be NULL */
-			logger.info("Result: {}, Size: {}", val, this.scoresOfSolutionPaths.size());
-			if (val == null) {
-				logger.warn("The solution evaluator has returned NULL, which should not happen.");
-				this.unsuccessfulPaths.add(path);
+			if (solutionPathFromN == null) {
+				logger.info("No completion was found for path {}.", n.externalPath());
 				return null;
 			}
+			logger.info("Found solution {}", solutionPathFromN);
+			List<T> pathCompletion = new ArrayList<>(solutionPathFromN.getNodes());
+			pathCompletion.remove(0);
+			completedPath.addAll(pathCompletion);
+			return completedPath;
+		}
+	}
 
-			this.scoresOfSolutionPaths.put(path, val);
-			this.timesToComputeEvaluations.put(path, (int) duration);
-			this.postSolution(path);
-		} else {
-			logger.info("Associated plan is known. Reading score from cache.");
-			if (logger.isTraceEnabled()) {
-				for (List<T> existingPath : this.scoresOfSolutionPaths.keySet()) {
-					if (existingPath.equals(path)) {
-						logger.trace("The following plans appear equal:\n\t{}\n\t{}", existingPath, path);
-					}
+	/**
+	 * Evaluates a completion on a thread of the completion evaluation pool. If the evaluation exceeds the timeout for single completions or the deadline, it is canceled and NULL is returned.
+	 */
+	private V evaluateCompletion(final List<T> completedPath, final long deadlineForEvaluations) throws InterruptedException, NodeEvaluationException {
+		long timeoutForJob = deadlineForEvaluations - System.currentTimeMillis();
+		if (timeoutForJob <= 0) {
+			return null;
+		}
+		if (timeoutForSingleCompletionEvaluationInMS > 0 && timeoutForSingleCompletionEvaluationInMS < timeoutForJob)
+			timeoutForJob = timeoutForSingleCompletionEvaluationInMS;
+		return this.evaluateCompletionWithTimeout(completedPath, timeoutForJob);
+	}
+
+	/**
+	 * Evaluates a completion on the current thread. The evaluation runs as a task of its own, which the timer cancels once the timeout is exceeded. Since a task only interrupts the thread while it is running, a timeout can
+	 * never hit a later evaluation on the same (pooled) thread, and the interrupt of a cancellation is consumed before returning. If the thread had already been interrupted from outside when the timeout hit, the interrupt is
+	 * restored.
+	 *
+	 * @return the score of the completion or NULL if the evaluation has timed out
+	 */
+	private V evaluateCompletionWithTimeout(final List<T> completedPath, final long timeoutForJob) throws InterruptedException, NodeEvaluationException {
+		FutureTask<V> evaluation = new FutureTask<>(() -> this.getFValueOfSolutionPath(completedPath));
+		Thread evaluatingThread = Thread.currentThread();
+		AtomicBoolean interruptedBeforeTimeout = new AtomicBoolean();
+		TimerTask abortionTask = new TimerTask() {
+
+			@Override
+			public void run() {
+				interruptedBeforeTimeout.set(evaluatingThread.isInterrupted());
+				if (evaluation.cancel(true)) {
+					logger.info("Canceled the evaluation of completion {} to get the evaluating thread back here.", completedPath);
 				}
 			}
-			if (!this.postedSolutions.contains(path)) {
-				throw new IllegalStateException("Reading cached score of a plan whose path has not been posted as a solution! Are there several paths to a plan?");
+		};
+		this.getTimeoutTimer().schedule(abortionTask, timeoutForJob);
+		try {
+			evaluation.run();
+		} finally {
+			abortionTask.cancel();
+		}
+		if (evaluation.isCancelled()) {
+			Thread.interrupted(); // the interrupt of the timer was meant for the canceled evaluation only
+			if (interruptedBeforeTimeout.get()) {
+				Thread.currentThread().interrupt();
+			}
+			logger.info("Evaluation of completion {} timed out.", completedPath);
+			return null;
+		}
+		try {
+			return evaluation.get();
+		} catch (ExecutionException e) {
+			throw this.getExceptionOfFailedEvaluation(e);
+		}
+	}
+
+	/**
+	 * Unwraps the exception of an evaluation that has failed, rethrowing interrupts and unchecked exceptions as they are.
+	 */
+	private NodeEvaluationException getExceptionOfFailedEvaluation(final ExecutionException e) throws InterruptedException {
+		Throwable cause = e.getCause();
+		if (cause instanceof InterruptedException) {
+			throw (InterruptedException) cause;
+		}
+		if (cause instanceof NodeEvaluationException) {
+			return (NodeEvaluationException) cause;
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new NodeEvaluationException(cause, cause.getMessage());
+	}
+
+	private synchronized Timer getTimeoutTimer() {
+		if (timeoutTimer == null)
+			timeoutTimer = new Timer("RandomCompletion-Timeouter");
+		return timeoutTimer;
+	}
+
+	private void updateMapOfBestScoreFoundSoFar(List<T> nodeInCompleterGraph, V scoreOnOriginalBenchmark) {
+		for (List<T> node = nodeInCompleterGraph; !node.isEmpty(); node = node.subList(0, node.size() - 1)) {
+			V bestKnownScore = bestKnownScoreUnderNodeInCompleterGraph.merge(node, scoreOnOriginalBenchmark, (oldScore, newScore) -> newScore.compareTo(oldScore) < 0 ? newScore : oldScore);
+
+			/* if the score is no improvement for this node, it is none for its ancestors either */
+			if (bestKnownScore != scoreOnOriginalBenchmark)
+				return;
+		}
+	}
+
+	/**
+	 * Returns the score of a solution path. Every path is evaluated only once even if several threads ask for it at the same time: the first thread claims the evaluation and all others wait for its result. If the evaluating thread
+	 * is interrupted, the claim is released, and a waiting thread evaluates the path instead.
+	 */
+	protected V getFValueOfSolutionPath(final List<T> path) throws InterruptedException, NodeEvaluationException {
+		while (true) {
+			if (this.unsuccessfulPaths.contains(path)) {
+				logger.warn("Asking again for the reevaluation of a path that was evaluated unsuccessfully in a previous run; returning NULL: {}", path);
+				return null;
+			}
+			FutureTask<V> evaluation = new FutureTask<>(() -> this.evaluateSolutionPath(path));
+			FutureTask<V> existingEvaluation = this.evaluationsOfSolutionPaths.putIfAbsent(path, evaluation);
+			if (existingEvaluation == null) {
+				evaluation.run();
+			} else {
+				logger.info("Associated plan is known. Reading score from cache.");
+				evaluation = existingEvaluation;
+			}
+			try {
+				V score = evaluation.get();
+				logger.info("Determined value {} for path {}.", score, path);
+				return score;
+			} catch (ExecutionException e) {
+				if (existingEvaluation == null || !(e.getCause() instanceof InterruptedException)) {
+					throw this.getExceptionOfFailedEvaluation(e);
+				}
+				logger.info("Evaluation of {} by another thread was interrupted. Claiming it again.", path);
 			}
 		}
-		V score = this.scoresOfSolutionPaths.get(path);
-		assert score != null : "Stored scores must never be null";
-		logger.info("Determined value {} for path {}.", score, path);
-		return score;
+	}
+
+	private V evaluateSolutionPath(final List<T> path) throws InterruptedException, NodeEvaluationException {
+		logger.info("Associated plan is new. Calling solution evaluator {} to compute f-value for complete path {}", solutionEvaluator, path);
+
+		/* compute value of solution */
+		long start = System.currentTimeMillis();
+		V val = null;
+		try {
+			val = this.solutionEvaluator.evaluateSolution(path);
+		} catch (InterruptedException e) {
+			logger.info("Computing the solution quality of {} was interrupted.", path);
+			this.evaluationsOfSolutionPaths.remove(path); // the path has not been evaluated, so another thread may do so
+			throw e;
+		} catch (Throwable e) {
+			logger.error("Computing the solution quality of {} failed due to an exception. Here is the trace:\n\t{}\n\t{}\n\t{}", path, e.getClass().getName(), e.getMessage(),
+					Arrays.asList(e.getStackTrace()).stream().map(n -> "\n\t" + n.toString()).collect(Collectors.toList()));
+			this.unsuccessfulPaths.add(path);
+			throw new NodeEvaluationException(e.getMessage());
+		}
+		long duration = System.currentTimeMillis() - start;
+
+		/* at this point, the value should not be NULL */
+		logger.info("Result: {}, Size: {}", val, this.scoresOfSolutionPaths.size());
+		if (val == null) {
+			logger.warn("The solution evaluator has returned NULL, which should not happen.");
+			this.unsuccessfulPaths.add(path);
+			return null;
+		}
+
+		this.scoresOfSolutionPaths.put(path, val);
+		this.timesToComputeEvaluations.put(path, (int) duration);
+		this.postSolution(path);
+		return val;
 	}
 
 	protected void postSolution(final List<T> solution) {
-		if (this.postedSolutions.contains(solution)) {
+		if (!this.postedSolutions.add(solution)) {
 			throw new IllegalArgumentException("Solution " + solution.toString() + " already posted!");
 		}
-		this.postedSolutions.add(solution);
 		// List<CEOCAction> plan = CEOCSTNUtil.extractPlanFromSolutionPath(solution);
 		try {
 
@@ -491,12 +693,43 @@ public class RandomCompletionBasedNodeEvaluator<T, V extends Comparable<V>> impl
 		completer.cancel();
 		if (timeoutTimer != null)
 			timeoutTimer.cancel();
+		if (completionEvaluationPool != null)
+			completionEvaluationPool.shutdownNow();
 	}
 
 	public void setNumberOfRandomCompletions(final int randomCompletions) {
 		this.samples = randomCompletions;
 	}
 
+	/**
+	 * Sets the number of threads that evaluate the random completions of a node at the same time. The completions are still drawn one after another from the completer, but with more than one thread their evaluation runs on a
+	 * bounded pool, and the evaluation of a node is finished once enough completions have been evaluated or the deadline is hit.
+	 *
+	 * @param threads
+	 *            Number of threads for the evaluation of completions; 1 means that completions are evaluated on the thread that asks for the f-value
+	 */
+	public void setNumberOfThreadsForCompletionEvaluation(final int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads for completion evaluation must be at least 1.");
+		}
+		if (this.completionEvaluationPool != null) {
+			throw new IllegalStateException("The number of threads for completion evaluation can only be set once.");
+		}
+		this.threadsForCompletionEvaluation = threads;
+		if (threads > 1) {
+			AtomicInteger counter = new AtomicInteger(0);
+			this.completionEvaluationPool = Executors.newFixedThreadPool(threads, r -> {
+				Thread t = new Thread(r, "RandomCompletion-Evaluator-" + counter.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	public int getNumberOfThreadsForCompletionEvaluation() {
+		return this.threadsForCompletionEvaluation;
+	}
+
 	@Override
 	public void setUncertaintySource(IUncertaintySource<T, V> uncertaintySource) {
 		this.uncertaintySource = uncertaintySource;
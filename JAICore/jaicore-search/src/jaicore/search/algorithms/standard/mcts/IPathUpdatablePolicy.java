@@ -5,4 +5,21 @@ import java.util.List;
 public interface IPathUpdatablePolicy<T,A,V extends Comparable<V>> extends IPolicy<T, A, V> {
 	
 	public void updatePath(List<T> path, V playout);
+
+	/**
+	 * Informs the policy that a playout along the given path has been started but its score is not known yet. Policies used with several
+	 * playout threads should treat such a path pessimistically (virtual loss) in order to steer concurrent selections to other parts of the tree.
+	 *
+	 * @param path The path of the pending playout
+	 */
+	public default void addVirtualLoss(List<T> path) {
+	}
+
+	/**
+	 * Reverts a previous call of {@link #addVirtualLoss(List)} for the given path, which must happen before or after the path is updated with its true score.
+	 *
+	 * @param path The path of the finished playout
+	 */
+	public default void removeVirtualLoss(List<T> path) {
+	}
 }
@@ -6,8 +6,18 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +49,11 @@ import jaicore.search.structure.graphgenerator.SuccessorGenerator;
 /**
  * MCTS algorithm implementation.
  *
+ * If the algorithm is configured with more than one CPU, the playouts are drawn and evaluated by that many worker threads. The
+ * workers share the tree, which is only modified while holding a lock, whereas the (usually expensive) evaluations of the playouts
+ * run concurrently. Pending playouts are announced to the tree policy as virtual loss, so that concurrent selections are spread over
+ * the tree. The same path is never evaluated twice at the same time; a worker that draws a path under evaluation waits for its score.
+ *
  * @author Felix Mohr
  */
 public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSearch<GraphSearchWithPathEvaluationsInput<N, A, V>, N, A, V, Node<N, V>, A> implements IPolicy<N, A, V> {
@@ -69,6 +84,15 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 	protected final LabeledGraph<N, A> exploredGraph;
 	private final Collection<N> deadLeafNodes = new HashSet<>();
 
+	/* parallelization */
+	private static final long POLL_INTERVAL_FOR_SOLUTIONS = 100;
+	private final Lock treeLock = new ReentrantLock();
+	private final Map<List<N>, CompletableFuture<V>> playoutsUnderEvaluation = new HashMap<>();
+	private final BlockingQueue<EvaluatedSearchGraphPath<N, A, V>> pendingSolutions = new LinkedBlockingQueue<>();
+	private final AtomicInteger activeWorkers = new AtomicInteger();
+	private ExecutorService pool;
+	private volatile Throwable exceptionOfWorker;
+
 	public MCTS(final GraphSearchWithPathEvaluationsInput<N, A, V> problem, final IPathUpdatablePolicy<N, A, V> treePolicy, final IPolicy<N, A, V> defaultPolicy) {
 		super(problem);
 		this.graphGenerator = problem.getGraphGenerator();
@@ -104,7 +128,7 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 		/* if all children of the current node have been used at least once child that has not been used in a playout, just use any of them according to the tree policy */
 		boolean currentNodeIsDeadEnd = false;
 		while (!(childrenOfCurrent = this.exploredGraph.getSuccessors(current)).isEmpty() && (SetUtil.difference(childrenOfCurrent, this.nodesConsideredInAPlayout)).isEmpty()) {
-			this.checkTermination();
+			this.checkTerminationDuringPlayout();
 			this.logger.debug("Using tree policy to compute choice for successor of {} among {}", current, childrenOfCurrent);
 			List<A> availableActions = new ArrayList<>();
 			Map<A, N> successorStates = new HashMap<>();
@@ -143,7 +167,7 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 				SetUtil.difference(childrenOfCurrent, this.nodesConsideredInAPlayout));
 
 		/* ask the tree policy among one of the remaining options */
-		this.checkTermination();
+		this.checkTerminationDuringPlayout();
 		if (!currentNodeIsDeadEnd) {
 			Map<A, N> successorStates = new HashMap<>();
 			if (this.unexpandedNodes.contains(current)) {
@@ -168,7 +192,7 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 
 		/* use default policy to proceed to a goal node */
 		while (!currentNodeIsDeadEnd && !this.isGoal(current)) {
-			this.checkTermination();
+			this.checkTerminationDuringPlayout();
 			Map<A, N> successorStates = new HashMap<>();
 			this.logger.debug("Determining possible moves for {}.", current);
 			if (this.unexpandedNodes.contains(current)) {
@@ -201,7 +225,7 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 	}
 
 	private Map<A, N> expandNode(final N node) throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException {
-		this.checkTermination();
+		this.checkTerminationDuringPlayout();
 		if (!this.unexpandedNodes.contains(node)) {
 			throw new IllegalArgumentException();
 		}
@@ -211,11 +235,11 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 		try {
 			availableActions = this.successorGenerator.generateSuccessors(node);
 		} catch (InterruptedException e) {
-			this.checkTermination();
+			this.checkTerminationDuringPlayout();
 		}
 		Map<A, N> successorStates = new HashMap<>();
 		for (NodeExpansionDescription<N, A> d : availableActions) {
-			this.checkTermination();
+			this.checkTerminationDuringPlayout();
 			successorStates.put(d.getAction(), d.getTo());
 			this.logger.debug("Adding edge {} -> {} with label {}", d.getFrom(), d.getTo(), d.getAction());
 			this.exploredGraph.addItem(d.getTo());
@@ -230,6 +254,159 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 		return this.nodeGoalTester.isGoal(node);
 	}
 
+	private void checkTerminationDuringPlayout() throws InterruptedException, AlgorithmExecutionCanceledException, TimeoutException {
+
+		/* playout workers must not shut down the algorithm themselves; they are stopped by the thread that runs the algorithm */
+		if (this.pool == null) {
+			this.checkTermination();
+		} else if (Thread.currentThread().isInterrupted() || this.isStopCriterionSatisfied()) {
+			throw new InterruptedException();
+		}
+	}
+
+	private void startPlayoutWorkers(final int numberOfWorkers) {
+		this.logger.info("Starting {} playout workers.", numberOfWorkers);
+		AtomicInteger counter = new AtomicInteger(0);
+		this.pool = Executors.newFixedThreadPool(numberOfWorkers, r -> {
+			Thread t = new Thread(r);
+			t.setName("MCTS-playout-worker-" + counter.incrementAndGet());
+			return t;
+		});
+		this.activeWorkers.set(numberOfWorkers);
+		for (int i = 0; i < numberOfWorkers; i++) {
+			this.pool.submit(this::runPlayoutWorker);
+		}
+	}
+
+	/**
+	 * Repeatedly draws a playout, evaluates it, and back-propagates its score until the graph has been exhausted or the algorithm is
+	 * stopped. Solutions are not registered by the workers but handed over to the thread that runs the algorithm.
+	 */
+	private void runPlayoutWorker() {
+		try {
+			while (!this.isStopCriterionSatisfied() && this.exceptionOfWorker == null) {
+				List<N> path;
+				V playoutScore;
+				CompletableFuture<V> evaluation;
+				boolean isEvaluatedByThisWorker = false;
+
+				/* draw a playout and register it as pending */
+				this.treeLock.lockInterruptibly();
+				try {
+					if (this.unexpandedNodes.isEmpty()) {
+						this.logger.info("Stopping playout worker as all nodes have been expanded.");
+						return;
+					}
+					path = this.getPlayout();
+					if (this.scoreCache.containsKey(path)) {
+						playoutScore = this.scoreCache.get(path);
+						this.logger.debug("Looking up score {} for the already evaluated path {}", playoutScore, path);
+						this.treePolicy.updatePath(path, playoutScore);
+						continue;
+					}
+					evaluation = this.playoutsUnderEvaluation.get(path);
+					if (evaluation == null) {
+						evaluation = new CompletableFuture<>();
+						this.playoutsUnderEvaluation.put(path, evaluation);
+						isEvaluatedByThisWorker = true;
+					}
+					this.treePolicy.addVirtualLoss(path);
+				} finally {
+					this.treeLock.unlock();
+				}
+
+				/* evaluate the playout or wait for the worker that is evaluating it */
+				if (isEvaluatedByThisWorker) {
+					this.logger.debug("Obtained path {}. Now starting computation of the score for this playout.", path);
+					try {
+						playoutScore = this.playoutSimulator.evaluateSolution(path);
+					} catch (Exception e) {
+						evaluation.completeExceptionally(e);
+						throw e;
+					}
+					evaluation.complete(playoutScore);
+				} else {
+					this.logger.debug("Path {} is being evaluated by another worker. Waiting for its score.", path);
+					playoutScore = evaluation.get();
+				}
+
+				/* back-propagate the score */
+				this.treeLock.lockInterruptibly();
+				try {
+					this.treePolicy.removeVirtualLoss(path);
+					this.treePolicy.updatePath(path, playoutScore);
+					if (isEvaluatedByThisWorker) {
+						this.scoreCache.put(path, playoutScore);
+						this.playoutsUnderEvaluation.remove(path);
+					}
+				} finally {
+					this.treeLock.unlock();
+				}
+				if (isEvaluatedByThisWorker && this.isGoal(path.get(path.size() - 1))) {
+					this.pendingSolutions.add(new EvaluatedSearchGraphPath<>(path, null, playoutScore));
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			this.logger.info("Stopping playout worker, because it has been interrupted or the evaluation it has been waiting for has failed.");
+		} catch (Exception e) {
+			if (!this.isStopCriterionSatisfied()) {
+				this.exceptionOfWorker = e;
+			}
+		} finally {
+			this.activeWorkers.decrementAndGet();
+		}
+	}
+
+	private AlgorithmEvent nextWithParallelPlayouts() throws InterruptedException, AlgorithmExecutionCanceledException, AlgorithmException {
+		if (this.pool == null) {
+			this.startPlayoutWorkers(this.getConfig().cpus());
+		}
+		try {
+			this.registerActiveThread();
+			while (true) {
+				this.checkTermination();
+				EvaluatedSearchGraphPath<N, A, V> solution = this.pendingSolutions.poll(POLL_INTERVAL_FOR_SOLUTIONS, TimeUnit.MILLISECONDS);
+				if (solution != null) {
+					return this.registerSolution(solution);
+				}
+				Throwable e = this.exceptionOfWorker;
+				if (e instanceof TimeoutException) {
+					throw (TimeoutException) e;
+				} else if (e instanceof AlgorithmExecutionCanceledException) {
+					throw (AlgorithmExecutionCanceledException) e;
+				} else if (e != null) {
+					this.unregisterThreadAndShutdown();
+					throw new AlgorithmException(e, "Could not evaluate playout!");
+				}
+				if (this.activeWorkers.get() == 0 && this.pendingSolutions.isEmpty()) {
+					this.logger.info("Finishing MCTS as all nodes have been expanded; the search graph has been exhausted.");
+					return this.terminate();
+				}
+			}
+		} catch (TimeoutException e) {
+			this.unregisterThreadAndShutdown();
+			Thread.interrupted(); // unset interrupted flag
+			this.logger.info("Finishing MCTS due to timeout.");
+			return this.terminate();
+		} finally {
+
+			/* unregister this thread in order to avoid interruptions */
+			this.unregisterActiveThread();
+		}
+	}
+
+	@Override
+	protected void shutdown() {
+		if (this.isShutdownInitialized()) {
+			return;
+		}
+		super.shutdown();
+		if (this.pool != null) {
+			this.logger.info("Interrupting playout workers.");
+			this.pool.shutdownNow();
+		}
+	}
+
 	@Override
 	public A getAction(final N node, final Map<A, N> actionsWithSuccessors) {
 
@@ -255,6 +432,9 @@ public class MCTS<N, A, V extends Comparable<V>> extends AOptimalPathInORGraphSe
 			if (this.playoutSimulator == null) {
 				throw new IllegalStateException("no simulator has been set!");
 			}
+			if (this.getConfig().cpus() > 1) {
+				return this.nextWithParallelPlayouts();
+			}
 			this.logger.debug("Next algorithm iteration. Number of unexpanded nodes: {}", this.unexpandedNodes.size());
 			try {
 				this.registerActiveThread();
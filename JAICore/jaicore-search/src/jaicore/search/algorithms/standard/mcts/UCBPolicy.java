@@ -6,10 +6,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * UCB1 tree policy. The policy is thread-safe, and it supports virtual loss: as long as a playout through a node is pending, the node is
+ * treated as if the playout had returned the worst score observed so far. This way, concurrent playouts are spread over the tree instead
+ * of all following the currently most promising path.
+ */
 public class UCBPolicy<T,A> implements IPathUpdatablePolicy<T,A,Double> {
 	
 	private static final Logger logger = LoggerFactory.getLogger(UCBPolicy.class);
@@ -24,26 +28,65 @@ public class UCBPolicy<T,A> implements IPathUpdatablePolicy<T,A,Double> {
 	}
 	
 	class NodeLabel {
-		private final DescriptiveStatistics scores = new DescriptiveStatistics();
+		private double sumOfScores;
 		private int visits;
+		private int virtualVisits;
+
+		private int getVisitsIncludingVirtualOnes() {
+			return visits + virtualVisits;
+		}
+
+		/**
+		 * @return The mean score where pending playouts count with the worst observed score or NaN if there is no information about the node
+		 */
+		private double getMeanIncludingVirtualLoss() {
+			if (virtualVisits == 0 || Double.isNaN(worstObservedScore)) {
+				return visits > 0 ? sumOfScores / visits : Double.NaN;
+			}
+			return (sumOfScores + virtualVisits * worstObservedScore) / (visits + virtualVisits);
+		}
+
+		@Override
+		public String toString() {
+			return "NodeLabel [mean=" + (visits > 0 ? sumOfScores / visits : Double.NaN) + ", visits=" + visits + ", virtualVisits=" + virtualVisits + "]";
+		}
 	}
 	
 	private final Map<T, NodeLabel> labels = new HashMap<>();
+	private double worstObservedScore = Double.NaN;
 
-	public void updatePath(List<T> path, Double score) {
+	public synchronized void updatePath(List<T> path, Double score) {
 		logger.info("Updating path {} with score {}", path, score);
+		if (Double.isNaN(worstObservedScore) || (maximize ? score < worstObservedScore : score > worstObservedScore)) {
+			worstObservedScore = score;
+		}
 		for (T node : path) {
-			if (!labels.containsKey(node)) {
-				labels.put(node, new NodeLabel());
-			}
-			NodeLabel label = labels.get(node);
+			NodeLabel label = labels.computeIfAbsent(node, n -> new NodeLabel());
 			label.visits++;
-			label.scores.addValue(score);
+			label.sumOfScores += score;
+		}
+	}
+
+	@Override
+	public synchronized void addVirtualLoss(List<T> path) {
+		for (T node : path) {
+			labels.computeIfAbsent(node, n -> new NodeLabel()).virtualVisits++;
+		}
+	}
+
+	@Override
+	public synchronized void removeVirtualLoss(List<T> path) {
+		for (T node : path) {
+			NodeLabel label = labels.get(node);
+			if (label == null || label.virtualVisits == 0) {
+				throw new IllegalStateException("Cannot remove virtual loss from node " + node + ", because no virtual loss has been added to it.");
+			}
+			label.virtualVisits--;
 		}
 	}
 	
 	@Override
-	public A getAction(T node, Map<A,T> actionsWithTheirSuccessors) {
+	public synchronized A getAction(T node, Map<A,T> actionsWithTheirSuccessors) {
 		logger.info("Deriving action for node {}. Options are: {}", node, actionsWithTheirSuccessors);
 		Collection<A> possibleActions = actionsWithTheirSuccessors.keySet();
 		
@@ -58,21 +101,37 @@ public class UCBPolicy<T,A> implements IPathUpdatablePolicy<T,A,Double> {
 		}
 		
 		/* otherwise, play best action */
-		double best = maximize ? 0 : Double.MAX_VALUE;
+		double best = maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
 		logger.debug("All actions have been tried. Label is: {}", labels.get(node));
-		int n = labels.get(node).visits;
+		int n = labels.get(node).getVisitsIncludingVirtualOnes();
 		A choice = null;
+		A leastVisitedAction = null;
+		int visitsOfLeastVisitedAction = Integer.MAX_VALUE;
 		for (A action : possibleActions) {
 			T child = actionsWithTheirSuccessors.get(action);
 			NodeLabel label = labels.get(child);
-			logger.info("Considering action {} whose successor state has stats {} and {} visits", action, label.scores.getMean(), label.visits);
-			double ucb = label.scores.getMean() + (maximize ? 1 : -1) * Math.sqrt(2 * Math.log(n) / label.visits);
+			int visits = label.getVisitsIncludingVirtualOnes();
+			if (visits < visitsOfLeastVisitedAction) {
+				leastVisitedAction = action;
+				visitsOfLeastVisitedAction = visits;
+			}
+			double mean = label.getMeanIncludingVirtualLoss();
+			logger.info("Considering action {} whose successor state has stats {} and {} visits", action, mean, visits);
+			if (Double.isNaN(mean)) {
+				continue;
+			}
+			double ucb = mean + (maximize ? 1 : -1) * Math.sqrt(2 * Math.log(n) / visits);
 			if (maximize && (ucb > best) || !maximize && (ucb < best)) {
 				best = ucb;
 				choice = action;
 			}
 		}
 		
+		/* if no successor has been evaluated yet (which can only happen while playouts are pending), choose the one with fewest pending playouts */
+		if (choice == null) {
+			choice = leastVisitedAction;
+		}
+		
 		/* quick sanity check */
 		if (choice == null)
 			throw new IllegalStateException("Would return null, but this must not be the case!");
@@ -0,0 +1,133 @@
+package jaicore.search.algorithms.standard.opencollections;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jaicore.search.model.travesaltree.Node;
+
+/**
+ * An OPEN list that can be read and modified by several threads at the same time without a global lock.
+ *
+ * The nodes are kept in a skip list ordered by their f-value; ties are broken by insertion order. An additional index from the nodes to their entries in the skip list allows to remove arbitrary nodes. Whoever removes a node from
+ * this index owns the removal, so every node is returned by at most one call of poll or remove even if these are invoked concurrently. A node is inserted into the skip list within the atomic insertion into the index, so a
+ * concurrent poll or remove of the node waits until both are done.
+ *
+ * The f-value of a node must not be changed while it is on OPEN. The size is only exact if there are no concurrent modifications.
+ *
+ * @author agent
+ *
+ * @param <N>
+ * @param <V>
+ */
+public class ConcurrentOpenList<N, V extends Comparable<V>> extends AbstractQueue<Node<N, V>> {
+
+	private static class Entry<N, V extends Comparable<V>> implements Comparable<Entry<N, V>> {
+		private final Node<N, V> node;
+		private final V label;
+		private final long id;
+
+		public Entry(final Node<N, V> node, final long id) {
+			super();
+			this.node = node;
+			this.label = node.getInternalLabel();
+			this.id = id;
+		}
+
+		@Override
+		public int compareTo(final Entry<N, V> o) {
+			int comparison = this.label.compareTo(o.label);
+			return comparison != 0 ? comparison : Long.compare(this.id, o.id);
+		}
+	}
+
+	private final ConcurrentSkipListSet<Entry<N, V>> entries = new ConcurrentSkipListSet<>();
+	private final Map<Node<N, V>, Entry<N, V>> index = new ConcurrentHashMap<>();
+	private final AtomicLong insertionCounter = new AtomicLong();
+	private final AtomicInteger size = new AtomicInteger();
+
+	@Override
+	public boolean offer(final Node<N, V> node) {
+		if (node == null) {
+			throw new IllegalArgumentException("Cannot add NULL as a node to OPEN");
+		}
+		if (node.getInternalLabel() == null) {
+			throw new IllegalArgumentException("Cannot insert nodes with value NULL into OPEN!");
+		}
+		boolean[] added = { false };
+		this.index.computeIfAbsent(node, n -> {
+			Entry<N, V> entry = new Entry<>(n, this.insertionCounter.getAndIncrement());
+			this.entries.add(entry);
+			this.size.incrementAndGet();
+			added[0] = true;
+			return entry;
+		});
+		return added[0];
+	}
+
+	@Override
+	public Node<N, V> poll() {
+		Entry<N, V> entry;
+		while ((entry = this.entries.pollFirst()) != null) {
+			if (this.index.remove(entry.node, entry)) {
+				this.size.decrementAndGet();
+				return entry.node;
+			}
+			/* otherwise the node has been removed via remove(Object) concurrently, so try the next one */
+		}
+		return null;
+	}
+
+	@Override
+	public Node<N, V> peek() {
+		for (Entry<N, V> entry : this.entries) {
+			if (this.index.get(entry.node) == entry) {
+				return entry.node;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		Entry<N, V> entry = this.index.remove(o);
+		if (entry == null) {
+			return false;
+		}
+		this.entries.remove(entry);
+		this.size.decrementAndGet();
+		return true;
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return this.index.containsKey(o);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.index.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return Math.max(0, this.size.get());
+	}
+
+	@Override
+	public void clear() {
+		Node<N, V> node;
+		do {
+			node = this.poll();
+		} while (node != null);
+	}
+
+	@Override
+	public Iterator<Node<N, V>> iterator() {
+		return this.entries.stream().filter(e -> this.index.get(e.node) == e).map(e -> e.node).iterator();
+	}
+}
@@ -1,17 +1,36 @@
 package jaicore.search.model.travesaltree;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+/**
+ * A node of the traversal tree.
+ *
+ * The internal label (the f-value) is stored in a dedicated field. If the label is a {@link Double}, it is additionally kept as a primitive, so that nodes can be compared without unboxing. All other annotations are kept in a
+ * single array of alternating keys and values, which is only allocated once the first annotation is set. Since there are rarely more than a handful of annotations per node, a linear scan is cheaper than hashing here.
+ *
+ * For compatibility, the internal label is still visible as the annotation "f", i.e. it can be read and written through {@link #getAnnotation(String)}, {@link #setAnnotation(String, Object)} and {@link #getAnnotations()}.
+ */
 public class Node<T, V extends Comparable<V>> implements Serializable, Comparable<Node<T, V>> {
 	private static final long serialVersionUID = -7608088086719059550L;
+	private static final String LABEL_ANNOTATION = "f";
+	private static final int INITIAL_ANNOTATION_CAPACITY = 2;
+
 	private final T externalLabel;
 	private boolean goal;
 	protected Node<T, V> parent;
-	private final Map<String, Object> annotations = new HashMap<>(); // for nodes effectively examined
+	private V internalLabel;
+	private double internalLabelAsDouble = Double.NaN;
+	private boolean internalLabelIsDouble;
+	private Object[] annotations; // alternating keys and values, allocated on demand
+	private int numberOfAnnotations;
 
 	public Node(Node<T, V> parent, T point) {
 		super();
@@ -27,29 +46,192 @@ public class Node<T, V extends Comparable<V>> implements Serializable, Comparabl
 		return externalLabel;
 	}
 
-	@SuppressWarnings("unchecked")
 	public V getInternalLabel() {
-		return (V)annotations.get("f");
+		return internalLabel;
+	}
+
+	/**
+	 * @return true iff the internal label is a {@link Double}, so that it can be obtained via {@link #getInternalLabelAsDouble()}
+	 */
+	public boolean hasDoubleInternalLabel() {
+		return internalLabelIsDouble;
+	}
+
+	/**
+	 * @return the internal label as a primitive double; NaN if no label has been set or the label is not a {@link Double}
+	 */
+	public double getInternalLabelAsDouble() {
+		return internalLabelAsDouble;
 	}
-	
+
 	public void setParent(Node<T,V> newParent) {
 		this.parent = newParent;
 	}
-	
+
 	public void setInternalLabel(V internalLabel) {
-		this.setAnnotation("f", internalLabel);
+		this.internalLabel = internalLabel;
+		if (internalLabel instanceof Double) {
+			this.internalLabelAsDouble = (Double) internalLabel;
+			this.internalLabelIsDouble = true;
+		} else {
+			this.internalLabelAsDouble = Double.NaN;
+			this.internalLabelIsDouble = false;
+		}
 	}
-	
+
+	@SuppressWarnings("unchecked")
 	public void setAnnotation(String annotationName, Object annotationValue) {
-		this.annotations.put(annotationName, annotationValue);
+		if (annotationName.equals(LABEL_ANNOTATION)) {
+			this.setInternalLabel((V) annotationValue);
+			return;
+		}
+		int index = this.indexOfAnnotation(annotationName);
+		if (index >= 0) {
+			this.annotations[index + 1] = annotationValue;
+			return;
+		}
+		if (this.annotations == null) {
+			this.annotations = new Object[2 * INITIAL_ANNOTATION_CAPACITY];
+		} else if (2 * this.numberOfAnnotations == this.annotations.length) {
+			Object[] enlargedAnnotations = new Object[2 * this.annotations.length];
+			System.arraycopy(this.annotations, 0, enlargedAnnotations, 0, this.annotations.length);
+			this.annotations = enlargedAnnotations;
+		}
+		this.annotations[2 * this.numberOfAnnotations] = annotationName;
+		this.annotations[2 * this.numberOfAnnotations + 1] = annotationValue;
+		this.numberOfAnnotations++;
 	}
-	
+
 	public Object getAnnotation(String annotationName) {
-		return this.annotations.get(annotationName);
+		if (annotationName.equals(LABEL_ANNOTATION)) {
+			return this.internalLabel;
+		}
+		int index = this.indexOfAnnotation(annotationName);
+		return index >= 0 ? this.annotations[index + 1] : null;
+	}
+
+	private Object removeAnnotation(String annotationName) {
+		if (annotationName.equals(LABEL_ANNOTATION)) {
+			V formerLabel = this.internalLabel;
+			this.setInternalLabel(null);
+			return formerLabel;
+		}
+		int index = this.indexOfAnnotation(annotationName);
+		if (index < 0) {
+			return null;
+		}
+		Object formerValue = this.annotations[index + 1];
+		int last = 2 * (this.numberOfAnnotations - 1);
+		this.annotations[index] = this.annotations[last];
+		this.annotations[index + 1] = this.annotations[last + 1];
+		this.annotations[last] = null;
+		this.annotations[last + 1] = null;
+		this.numberOfAnnotations--;
+		return formerValue;
+	}
+
+	private int indexOfAnnotation(String annotationName) {
+		for (int i = 0; i < this.numberOfAnnotations; i++) {
+			Object key = this.annotations[2 * i];
+			if (key == annotationName || key.equals(annotationName)) {
+				return 2 * i;
+			}
+		}
+		return -1;
 	}
-	
+
+	/**
+	 * @return a view on the annotations of the node including the internal label, which is contained under the key "f" if it is set. Changes to the view are written through to the node.
+	 */
 	public Map<String,Object> getAnnotations() {
-		return this.annotations;
+		return new AnnotationView();
+	}
+
+	private class AnnotationView extends AbstractMap<String, Object> {
+
+		@Override
+		public Object get(Object key) {
+			return key instanceof String ? getAnnotation((String) key) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			if (!(key instanceof String)) {
+				return false;
+			}
+			return key.equals(LABEL_ANNOTATION) ? internalLabel != null : indexOfAnnotation((String) key) >= 0;
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			Object formerValue = getAnnotation(key);
+			setAnnotation(key, value);
+			return formerValue;
+		}
+
+		@Override
+		public Object remove(Object key) {
+			return key instanceof String ? removeAnnotation((String) key) : null;
+		}
+
+		@Override
+		public int size() {
+			return numberOfAnnotations + (internalLabel != null ? 1 : 0);
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+
+				@Override
+				public int size() {
+					return AnnotationView.this.size();
+				}
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					return new Iterator<Entry<String, Object>>() {
+						private int next = internalLabel != null ? -1 : 0;
+						private String lastKey;
+
+						@Override
+						public boolean hasNext() {
+							return next < numberOfAnnotations;
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							if (!hasNext()) {
+								throw new NoSuchElementException();
+							}
+							lastKey = next < 0 ? LABEL_ANNOTATION : (String) annotations[2 * next];
+							next++;
+							return new SimpleEntry<String, Object>(lastKey, getAnnotation(lastKey)) {
+								private static final long serialVersionUID = 1L;
+
+								@Override
+								public Object setValue(Object value) {
+									super.setValue(value);
+									return AnnotationView.this.put(getKey(), value);
+								}
+							};
+						}
+
+						@Override
+						public void remove() {
+							if (lastKey == null) {
+								throw new IllegalStateException();
+							}
+							removeAnnotation(lastKey);
+							if (!lastKey.equals(LABEL_ANNOTATION)) {
+								next--; // the last annotation has been moved to the position of the removed one
+							}
+							lastKey = null;
+						}
+					};
+				}
+			};
+		}
 	}
 
 	public boolean isGoal() {
@@ -82,6 +264,9 @@ public class Node<T, V extends Comparable<V>> implements Serializable, Comparabl
 
 	@Override
 	public int compareTo(Node<T, V> o) {
+		if (this.internalLabelIsDouble && o.internalLabelIsDouble) {
+			return Double.compare(this.internalLabelAsDouble, o.internalLabelAsDouble);
+		}
 		return this.getInternalLabel().compareTo(o.getInternalLabel());
 	}
 
@@ -98,7 +283,7 @@ public class Node<T, V extends Comparable<V>> implements Serializable, Comparabl
 		else
 			s += "null";
 		s += ", annotations=";
-		s += annotations;
+		s += getAnnotations();
 		s += "]";
 
 //		return "Node [ref=" + this.toString() + ", externalLabel=" + externalLabel + ", goal=" + goal + ", parentRef=" + parent.toString() + ", annotations=" + annotations + "]";
@@ -107,6 +292,6 @@ public class Node<T, V extends Comparable<V>> implements Serializable, Comparabl
 
 	@Override
 	public String toString() {
-		return "Node [externalLabel=" + externalLabel + ", goal=" + goal + ", annotations=" + annotations + "]";
+		return "Node [externalLabel=" + externalLabel + ", goal=" + goal + ", annotations=" + getAnnotations() + "]";
 	}
-}
\ No newline at end of file
+}
@@ -19,8 +19,13 @@ public class GraphSearchProblemInputToGeneralEvaluatedTraversalTreeViaRDFS<N, A,
 	private final int numSamples;
 	private final int timeoutForSingleCompletionEvaluationInMS;
 	private final int timeoutForNodeEvaluationInMS;
+	private final int threadsForCompletionEvaluation;
 
 	public GraphSearchProblemInputToGeneralEvaluatedTraversalTreeViaRDFS(INodeEvaluator<N, V> preferredNodeEvaluator, Predicate<N> preferredNodeEvaluatorForRandomCompletion, int seed, int numSamples, int timeoutForSingleCompletionEvaluationInMS, int timeoutForNodeEvaluationInMS) {
+		this(preferredNodeEvaluator, preferredNodeEvaluatorForRandomCompletion, seed, numSamples, timeoutForSingleCompletionEvaluationInMS, timeoutForNodeEvaluationInMS, 1);
+	}
+
+	public GraphSearchProblemInputToGeneralEvaluatedTraversalTreeViaRDFS(INodeEvaluator<N, V> preferredNodeEvaluator, Predicate<N> preferredNodeEvaluatorForRandomCompletion, int seed, int numSamples, int timeoutForSingleCompletionEvaluationInMS, int timeoutForNodeEvaluationInMS, int threadsForCompletionEvaluation) {
 		super();
 		this.preferredNodeEvaluator = preferredNodeEvaluator;
 		this.prioritizedNodesInRandomCompletion = preferredNodeEvaluatorForRandomCompletion;
@@ -28,6 +33,7 @@ public class GraphSearchProblemInputToGeneralEvaluatedTraversalTreeViaRDFS<N, A,
 		this.numSamples = numSamples;
 		this.timeoutForSingleCompletionEvaluationInMS = timeoutForSingleCompletionEvaluationInMS;
 		this.timeoutForNodeEvaluationInMS = timeoutForNodeEvaluationInMS;
+		this.threadsForCompletionEvaluation = threadsForCompletionEvaluation;
 	}
 
 	public INodeEvaluator<N, V> getPreferredNodeEvaluator() {
@@ -46,9 +52,14 @@ public class GraphSearchProblemInputToGeneralEvaluatedTraversalTreeViaRDFS<N, A,
 		return numSamples;
 	}
 
+	public int getThreadsForCompletionEvaluation() {
+		return threadsForCompletionEvaluation;
+	}
+
 	@Override
 	public GraphSearchWithSubpathEvaluationsInput<N, A, V> transform(GraphSearchWithPathEvaluationsInput<N, A, V> problem) {
 		RandomCompletionBasedNodeEvaluator<N, V> rc = new RandomCompletionBasedNodeEvaluator<>(new Random(seed), numSamples, problem.getPathEvaluator(), timeoutForSingleCompletionEvaluationInMS, timeoutForNodeEvaluationInMS, prioritizedNodesInRandomCompletion);
+		rc.setNumberOfThreadsForCompletionEvaluation(threadsForCompletionEvaluation);
 		return new GraphSearchWithSubpathEvaluationsInput<>(problem.getGraphGenerator(), new AlternativeNodeEvaluator<>(preferredNodeEvaluator, rc));
 	}
 
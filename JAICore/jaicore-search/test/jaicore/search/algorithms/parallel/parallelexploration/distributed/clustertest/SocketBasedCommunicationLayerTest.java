@@ -0,0 +1,165 @@
+package jaicore.search.algorithms.parallel.parallelexploration.distributed.clustertest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.DistributedComputationResult;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.SocketBasedDistributedSearchCommunicationLayer;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.DistributedSearchCommunicationLayer;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.NodeContentCodec;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.SerializableGraphGenerator;
+import jaicore.search.algorithms.parallel.parallelexploration.distributed.interfaces.SerializableNodeEvaluator;
+import jaicore.search.algorithms.standard.bestfirst.nodeevaluation.INodeEvaluator;
+import jaicore.search.model.travesaltree.Node;
+import jaicore.search.model.travesaltree.NodeExpansionDescription;
+
+/**
+ * Exchanges jobs between a master and a coworker over the {@link SocketBasedDistributedSearchCommunicationLayer}. The master sends a batch of nodes of
+ * the search space of {@link DistributedBestFirstClusterTesterGenerator}, the coworker expands them with the graph generator and node evaluator obtained
+ * over the communication layer, and sends the successors back as open nodes, which are used as the next job.
+ *
+ * @author agent
+ *
+ */
+public class SocketBasedCommunicationLayerTest {
+
+	private static final String COWORKER = "cw1";
+	private static final int BATCH_SIZE = 8;
+	private static final int SIZE = (int) Math.pow(2, 25);
+	private static final int MAX_DEPTH = 20;
+	private static final int ROUNDS = 50;
+
+	private static class TestNodeCodec implements NodeContentCodec<TestNode, Integer> {
+
+		@Override
+		public void writePoint(final TestNode point, final ObjectOutput out) throws IOException {
+			out.writeInt(point.min);
+			out.writeInt(point.max);
+		}
+
+		@Override
+		public TestNode readPoint(final ObjectInput in) throws IOException {
+			return new TestNode(in.readInt(), in.readInt());
+		}
+
+		@Override
+		public void writeLabel(final Integer label, final ObjectOutput out) throws IOException {
+			out.writeInt(label);
+		}
+
+		@Override
+		public Integer readLabel(final ObjectInput in) throws IOException {
+			return in.readInt();
+		}
+	}
+
+	private Thread startCoworker(final DistributedSearchCommunicationLayer<TestNode, String, Integer> layer, final AtomicReference<Exception> coworkerException) {
+		Thread coworker = new Thread(() -> {
+			try {
+				layer.register(COWORKER);
+				SerializableGraphGenerator<TestNode, String> graphGenerator = null;
+				INodeEvaluator<TestNode, Integer> nodeEvaluator = null;
+				while (true) {
+					Collection<Node<TestNode, Integer>> nodes = layer.nextJob(COWORKER);
+					if (nodes.isEmpty()) {
+						break;
+					}
+					if (graphGenerator == null) {
+						graphGenerator = layer.getGraphGenerator();
+						nodeEvaluator = layer.getNodeEvaluator();
+					}
+					List<Node<TestNode, Integer>> open = new ArrayList<>();
+					for (Node<TestNode, Integer> node : nodes) {
+						for (NodeExpansionDescription<TestNode, String> successor : graphGenerator.getSuccessorGenerator().generateSuccessors(node.getPoint())) {
+							Node<TestNode, Integer> child = new Node<>(node, successor.getTo());
+							child.setInternalLabel(nodeEvaluator.f(child));
+							open.add(child);
+						}
+					}
+					layer.reportResult(COWORKER, new DistributedComputationResult<>(COWORKER, open, Collections.emptyList()));
+				}
+			} catch (Exception e) {
+				coworkerException.set(e);
+			} finally {
+				layer.unregister(COWORKER);
+			}
+		});
+		coworker.start();
+		return coworker;
+	}
+
+	private void exchangeJobs(final DistributedSearchCommunicationLayer<TestNode, String, Integer> master, final DistributedSearchCommunicationLayer<TestNode, String, Integer> coworkerLayer) throws Exception {
+
+		/* set up master and coworker */
+		master.init();
+		master.setGraphGenerator(new DistributedBestFirstClusterTesterGenerator(SIZE, 12345678));
+		master.setNodeEvaluator((SerializableNodeEvaluator<TestNode, Integer>) n -> -1 * n.externalPath().size());
+		AtomicReference<Exception> coworkerException = new AtomicReference<>();
+		Thread coworker = this.startCoworker(coworkerLayer, coworkerException);
+		while (!master.detectNewCoworkers().contains(COWORKER)) {
+			Thread.sleep(10);
+		}
+		master.attachCoworker(COWORKER);
+
+		/* send jobs */
+		List<Node<TestNode, Integer>> job = Arrays.asList(new Node<>(null, new TestNode(0, SIZE)));
+		for (int i = 0; i < ROUNDS; i++) {
+			master.createNewJobForCoworker(COWORKER, job);
+			DistributedComputationResult<TestNode, Integer> result;
+			while ((result = master.readResult(COWORKER)) == null) {
+				assertNull(coworkerException.get());
+				master.waitForResults(500);
+			}
+
+			/* check the result and use some of the successors as the next job; restart from the root before reaching the leaves */
+			assertEquals(2 * job.size(), result.getOpen().size());
+			Node<TestNode, Integer> successor = result.getOpen().iterator().next();
+			assertEquals(job.get(0).externalPath().size() + 1, successor.externalPath().size());
+			assertEquals(-1 * successor.externalPath().size(), (int) successor.getInternalLabel());
+			assertEquals(0, successor.externalPath().get(0).min);
+			job = new ArrayList<>(new ArrayList<>(result.getOpen()).subList(0, Math.min(BATCH_SIZE, result.getOpen().size())));
+			if (job.get(0).externalPath().size() > MAX_DEPTH) {
+				job = Arrays.asList(new Node<>(null, new TestNode(0, SIZE)));
+			}
+		}
+
+		/* shut down */
+		master.createNewJobForCoworker(COWORKER, Collections.emptyList());
+		coworker.join();
+		master.detachCoworker(COWORKER);
+		master.close();
+		coworkerLayer.close();
+		assertNull(coworkerException.get());
+	}
+
+	@Test
+	public void testSocketBasedCommunication() throws Exception {
+		SocketBasedDistributedSearchCommunicationLayer<TestNode, String, Integer> master = new SocketBasedDistributedSearchCommunicationLayer<>(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), true);
+		InetSocketAddress address = (InetSocketAddress) master.getAddress();
+		assertNotNull(address);
+		this.exchangeJobs(master, new SocketBasedDistributedSearchCommunicationLayer<>(address, false));
+	}
+
+	@Test
+	public void testSocketBasedCommunicationWithCompactCodec() throws Exception {
+		SocketBasedDistributedSearchCommunicationLayer<TestNode, String, Integer> master = new SocketBasedDistributedSearchCommunicationLayer<>(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), true,
+				new TestNodeCodec());
+		InetSocketAddress address = (InetSocketAddress) master.getAddress();
+		this.exchangeJobs(master, new SocketBasedDistributedSearchCommunicationLayer<>(address, false, new TestNodeCodec()));
+	}
+}
@@ -0,0 +1,202 @@
+package jaicore.search.algorithms.standard.bestfirst.nodeevaluation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.eventbus.Subscribe;
+
+import jaicore.search.algorithms.standard.bestfirst.events.EvaluatedSearchSolutionCandidateFoundEvent;
+import jaicore.search.core.interfaces.ISolutionEvaluator;
+import jaicore.search.model.travesaltree.Node;
+import jaicore.search.model.travesaltree.NodeExpansionDescription;
+import jaicore.search.testproblems.nqueens.NQueenGenerator;
+import jaicore.search.testproblems.nqueens.QueenNode;
+
+public class RandomCompletionBasedNodeEvaluatorTester {
+
+	private static final int DIMENSION = 5; // the 5-queens problem has 10 solutions
+	private static final int SAMPLES = 20;
+
+	/**
+	 * Scores a board by its positions read as a number and counts how often each solution is evaluated.
+	 */
+	private static class CountingEvaluator implements ISolutionEvaluator<QueenNode, Double> {
+		private final Map<List<QueenNode>, AtomicInteger> evaluations = new ConcurrentHashMap<>();
+
+		@Override
+		public Double evaluateSolution(final List<QueenNode> solutionPath) throws InterruptedException {
+			this.evaluations.computeIfAbsent(solutionPath, p -> new AtomicInteger()).incrementAndGet();
+			Thread.sleep(100);
+			return score(solutionPath);
+		}
+
+		@Override
+		public boolean doesLastActionAffectScoreOfAnySubsequentSolution(final List<QueenNode> partialSolutionPath) {
+			return true;
+		}
+
+		@Override
+		public void cancel() {
+		}
+	}
+
+	private static double score(final List<QueenNode> solutionPath) {
+		double score = 0;
+		for (int position : solutionPath.get(solutionPath.size() - 1).getPositions()) {
+			score = score * DIMENSION + position;
+		}
+		return score;
+	}
+
+	private static RandomCompletionBasedNodeEvaluator<QueenNode, Double> createEvaluator(final CountingEvaluator solutionEvaluator, final int threads) {
+		RandomCompletionBasedNodeEvaluator<QueenNode, Double> evaluator = new RandomCompletionBasedNodeEvaluator<>(new Random(0), SAMPLES, solutionEvaluator);
+		evaluator.setNumberOfThreadsForCompletionEvaluation(threads);
+		evaluator.setTotalDeadline(System.currentTimeMillis() + 60000);
+		evaluator.setGenerator(new NQueenGenerator(DIMENSION));
+		return evaluator;
+	}
+
+	private static List<Node<QueenNode, Double>> getGoalNodes(final NQueenGenerator generator, final Node<QueenNode, Double> node) throws InterruptedException {
+		List<Node<QueenNode, Double>> goalNodes = new ArrayList<>();
+		if (generator.getGoalTester().isGoal(node.getPoint())) {
+			node.setGoal(true);
+			goalNodes.add(node);
+			return goalNodes;
+		}
+		for (NodeExpansionDescription<QueenNode, String> successor : generator.getSuccessorGenerator().generateSuccessors(node.getPoint())) {
+			goalNodes.addAll(getGoalNodes(generator, new Node<>(node, successor.getTo())));
+		}
+		return goalNodes;
+	}
+
+	@Test
+	public void testThatConcurrentlyRequestedSolutionsAreEvaluatedOnce() throws Exception {
+		CountingEvaluator solutionEvaluator = new CountingEvaluator();
+		RandomCompletionBasedNodeEvaluator<QueenNode, Double> evaluator = createEvaluator(solutionEvaluator, 4);
+		AtomicInteger postedSolutions = new AtomicInteger();
+		evaluator.registerSolutionListener(new Object() {
+			@Subscribe
+			public void receiveSolution(final EvaluatedSearchSolutionCandidateFoundEvent<QueenNode, String, Double> event) {
+				postedSolutions.incrementAndGet();
+			}
+		});
+
+		/* ask for the f-value of the root, whose completions are evaluated in parallel, while the goal nodes are evaluated as well */
+		NQueenGenerator generator = new NQueenGenerator(DIMENSION);
+		Node<QueenNode, Double> root = new Node<>(null, generator.getRootGenerator().getRoot());
+		List<Node<QueenNode, Double>> goalNodes = getGoalNodes(generator, new Node<>(null, generator.getRootGenerator().getRoot()));
+		List<Callable<Double>> requests = new ArrayList<>();
+		requests.add(() -> evaluator.f(root));
+		for (Node<QueenNode, Double> goalNode : goalNodes) {
+			requests.add(() -> evaluator.f(goalNode));
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(requests.size());
+		try {
+			for (Future<Double> f : pool.invokeAll(requests)) {
+				f.get();
+			}
+		} finally {
+			pool.shutdownNow();
+			evaluator.cancel();
+		}
+
+		assertEquals(10, goalNodes.size());
+		assertEquals(goalNodes.size(), solutionEvaluator.evaluations.size());
+		for (Map.Entry<List<QueenNode>, AtomicInteger> evaluations : solutionEvaluator.evaluations.entrySet()) {
+			assertEquals("Solution " + evaluations.getKey() + " has been evaluated more than once.", 1, evaluations.getValue().get());
+		}
+		assertEquals(goalNodes.size(), postedSolutions.get());
+	}
+
+	@Test
+	public void testThatParallelEvaluationYieldsSequentialFValue() throws Exception {
+		NQueenGenerator generator = new NQueenGenerator(DIMENSION);
+		double best = Double.MAX_VALUE;
+		for (Node<QueenNode, Double> goalNode : getGoalNodes(generator, new Node<>(null, generator.getRootGenerator().getRoot()))) {
+			best = Math.min(best, score(goalNode.externalPath()));
+		}
+
+		/* as there are more samples than solutions, both evaluators see all solutions under the root */
+		RandomCompletionBasedNodeEvaluator<QueenNode, Double> sequentialEvaluator = createEvaluator(new CountingEvaluator(), 1);
+		RandomCompletionBasedNodeEvaluator<QueenNode, Double> parallelEvaluator = createEvaluator(new CountingEvaluator(), 4);
+		try {
+			double sequentialF = sequentialEvaluator.f(new Node<>(null, generator.getRootGenerator().getRoot()));
+			double parallelF = parallelEvaluator.f(new Node<>(null, generator.getRootGenerator().getRoot()));
+			assertEquals(best, sequentialF, 0);
+			assertEquals(sequentialF, parallelF, 0);
+		} finally {
+			sequentialEvaluator.cancel();
+			parallelEvaluator.cancel();
+		}
+	}
+
+	@Test
+	public void testThatExternalInterruptSurvivesTimeoutOfCompletion() throws Exception {
+		/* the evaluation ignores interrupts and runs longer than the timeout of 100ms for a single completion */
+		CountDownLatch evaluationStarted = new CountDownLatch(1);
+		ISolutionEvaluator<QueenNode, Double> solutionEvaluator = new ISolutionEvaluator<QueenNode, Double>() {
+
+			@Override
+			public Double evaluateSolution(final List<QueenNode> solutionPath) {
+				evaluationStarted.countDown();
+				long end = System.currentTimeMillis() + 500;
+				while (System.currentTimeMillis() < end) {
+					/* busy waiting keeps the interrupt flag */
+				}
+				return score(solutionPath);
+			}
+
+			@Override
+			public boolean doesLastActionAffectScoreOfAnySubsequentSolution(final List<QueenNode> partialSolutionPath) {
+				return true;
+			}
+
+			@Override
+			public void cancel() {
+			}
+		};
+		RandomCompletionBasedNodeEvaluator<QueenNode, Double> evaluator = new RandomCompletionBasedNodeEvaluator<>(new Random(0), 1, solutionEvaluator, 100, -1);
+		evaluator.setTotalDeadline(System.currentTimeMillis() + 60000);
+		NQueenGenerator generator = new NQueenGenerator(DIMENSION);
+		evaluator.setGenerator(generator);
+
+		/* interrupt the evaluating thread from outside before the timeout hits */
+		AtomicBoolean interruptObserved = new AtomicBoolean();
+		Thread evaluatingThread = new Thread(() -> {
+			try {
+				evaluator.f(new Node<>(null, generator.getRootGenerator().getRoot()));
+			} catch (InterruptedException e) {
+				interruptObserved.set(true);
+			} catch (Exception e) {
+				/* the node may have no score as its only completion has timed out */
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				interruptObserved.set(true);
+			}
+		});
+		try {
+			evaluatingThread.start();
+			evaluationStarted.await();
+			evaluatingThread.interrupt();
+			evaluatingThread.join();
+		} finally {
+			evaluator.cancel();
+		}
+		assertTrue("The external interrupt has been swallowed by the timeout of the completion.", interruptObserved.get());
+	}
+}
@@ -0,0 +1,78 @@
+package jaicore.search.model.travesaltree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+public class NodeTester {
+
+	@Test
+	public void testThatInternalLabelIsVisibleAsAnnotation() {
+		Node<String, Double> node = new Node<>(null, "a");
+		assertTrue(node.getAnnotations().isEmpty());
+		assertFalse(node.hasDoubleInternalLabel());
+		node.setInternalLabel(2.5);
+		assertEquals(2.5, node.getAnnotation("f"));
+		assertEquals(2.5, node.getAnnotations().get("f"));
+		assertEquals(2.5, node.getInternalLabelAsDouble(), 0);
+		node.setAnnotation("f", 3.0);
+		assertEquals(3.0, node.getInternalLabel(), 0);
+		assertEquals(3.0, node.getInternalLabelAsDouble(), 0);
+		node.getAnnotations().put("f", 4.0);
+		assertEquals(4.0, node.getInternalLabel(), 0);
+	}
+
+	@Test
+	public void testAnnotations() {
+		Node<String, Double> node = new Node<>(null, "a");
+		Map<String, Object> expected = new HashMap<>();
+		for (int i = 0; i < 10; i++) {
+			node.setAnnotation("a" + i, i);
+			expected.put("a" + i, i);
+		}
+		node.setAnnotation("a3", "overwritten");
+		expected.put("a3", "overwritten");
+		node.setInternalLabel(1.0);
+		expected.put("f", 1.0);
+		assertEquals(expected, node.getAnnotations());
+		assertEquals(expected.hashCode(), node.getAnnotations().hashCode());
+
+		/* remove via the view and via its iterator */
+		assertEquals(5, node.getAnnotations().remove("a5"));
+		expected.remove("a5");
+		Iterator<Entry<String, Object>> it = node.getAnnotations().entrySet().iterator();
+		while (it.hasNext()) {
+			String key = it.next().getKey();
+			if (key.equals("f") || key.equals("a1") || key.equals("a9")) {
+				it.remove();
+				expected.remove(key);
+			}
+		}
+		assertEquals(expected, node.getAnnotations());
+		assertNull(node.getInternalLabel());
+		assertNull(node.getAnnotation("a9"));
+		assertEquals("overwritten", node.getAnnotation("a3"));
+	}
+
+	@Test
+	public void testComparison() {
+		Node<String, Double> n1 = new Node<>(null, "a");
+		Node<String, Double> n2 = new Node<>(null, "b");
+		n1.setInternalLabel(1.0);
+		n2.setInternalLabel(2.0);
+		assertTrue(n1.compareTo(n2) < 0);
+		assertTrue(n2.compareTo(n1) > 0);
+		n2.setInternalLabel(1.0);
+		assertEquals(0, n1.compareTo(n2));
+		n2.setInternalLabel(Double.NaN);
+		assertEquals(n1.getInternalLabel().compareTo(n2.getInternalLabel()), n1.compareTo(n2));
+	}
+}
@@ -0,0 +1,183 @@
+package hasco.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.CacheBuilder;
+
+import hasco.model.ComponentInstance;
+import hasco.model.ComponentInstanceFingerprint;
+import jaicore.basic.IObjectEvaluator;
+import jaicore.basic.algorithm.exceptions.ObjectEvaluationFailedException;
+
+/**
+ * Makes sure that each component instance is evaluated at most once per evaluation context (usually the evaluator). Component
+ * instances are identified by their {@link ComponentInstance#getFingerprint() fingerprint}.
+ *
+ * If a component instance is requested while it is being evaluated by another thread, the request waits for that evaluation
+ * instead of starting a second one. Results of finished evaluations are kept in memory, and so are failures
+ * ({@link ObjectEvaluationFailedException}), since they would only be reproduced. If an evaluation is aborted by a timeout, an
+ * interrupt, or any other exception, nothing is memorized, and one of the waiting requests takes over the evaluation.
+ *
+ * At most a given number of evaluations is memorized; beyond that, the least recently used ones are forgotten. Requests that
+ * are already waiting for an evaluation that is forgotten still receive its result.
+ *
+ * @author agent
+ *
+ * @param <V>
+ */
+public class EvaluationCoordinator<V extends Comparable<V>> {
+
+	private static final Logger logger = LoggerFactory.getLogger(EvaluationCoordinator.class);
+
+	/** The default maximum number of memorized evaluations. */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	private final ConcurrentMap<EvaluationKey, CompletableFuture<V>> evaluations;
+	private final LongAdder requestedEvaluations = new LongAdder();
+	private final LongAdder performedEvaluations = new LongAdder();
+	private final LongAdder savedEvaluations = new LongAdder();
+
+	public EvaluationCoordinator() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param maximumSize
+	 *            The maximum number of evaluations (including running ones) that are memorized.
+	 */
+	public EvaluationCoordinator(final long maximumSize) {
+		this.evaluations = CacheBuilder.newBuilder().maximumSize(maximumSize).<EvaluationKey, CompletableFuture<V>>build().asMap();
+	}
+
+	/**
+	 * Evaluates the component instance with the given evaluator unless it has been or is being evaluated in the same context.
+	 *
+	 * @param context
+	 *            The context of the evaluation; requests are only merged if their contexts are equal.
+	 * @param componentInstance
+	 *            The component instance to evaluate.
+	 * @param evaluator
+	 *            The evaluator used if the component instance has not been evaluated in the context yet.
+	 * @return The score of the component instance
+	 */
+	public V evaluate(final Object context, final ComponentInstance componentInstance, final IObjectEvaluator<ComponentInstance, V> evaluator) throws TimeoutException, InterruptedException, ObjectEvaluationFailedException {
+		this.requestedEvaluations.increment();
+		EvaluationKey key = new EvaluationKey(context, componentInstance.getFingerprint());
+		while (true) {
+			CompletableFuture<V> evaluation = new CompletableFuture<>();
+			CompletableFuture<V> existingEvaluation = this.evaluations.putIfAbsent(key, evaluation);
+
+			/* if there is no evaluation for this key yet, conduct it */
+			if (existingEvaluation == null) {
+				return this.conductEvaluation(key, evaluation, componentInstance, evaluator);
+			}
+
+			/* otherwise wait for the existing evaluation */
+			try {
+				V score = existingEvaluation.get();
+				this.savedEvaluations.increment();
+				logger.debug("Reusing score {} of {}", score, componentInstance);
+				return score;
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof ObjectEvaluationFailedException) {
+					this.savedEvaluations.increment();
+					throw (ObjectEvaluationFailedException) e.getCause();
+				}
+				logger.debug("The evaluation of {} that has been waited for has been aborted, trying again.", componentInstance);
+			} catch (CancellationException e) {
+				logger.debug("The evaluation of {} that has been waited for has been canceled, trying again.", componentInstance);
+			}
+		}
+	}
+
+	private V conductEvaluation(final EvaluationKey key, final CompletableFuture<V> evaluation, final ComponentInstance componentInstance, final IObjectEvaluator<ComponentInstance, V> evaluator)
+			throws TimeoutException, InterruptedException, ObjectEvaluationFailedException {
+		this.performedEvaluations.increment();
+		boolean memorized = false;
+		try {
+			V score = evaluator.evaluate(componentInstance);
+			evaluation.complete(score);
+			memorized = true;
+			return score;
+		} catch (ObjectEvaluationFailedException e) {
+			evaluation.completeExceptionally(e);
+			memorized = true;
+			throw e;
+		} finally {
+			if (!memorized) {
+				/* release waiting threads, one of which will take over */
+				this.evaluations.remove(key, evaluation);
+				evaluation.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * @param evaluator
+	 *            The evaluator to wrap, which also serves as context.
+	 * @return An evaluator that evaluates component instances via this coordinator using the given evaluator.
+	 */
+	public IObjectEvaluator<ComponentInstance, V> getCoordinatedEvaluator(final IObjectEvaluator<ComponentInstance, V> evaluator) {
+		return componentInstance -> this.evaluate(evaluator, componentInstance, evaluator);
+	}
+
+	/**
+	 * @return The number of evaluations that have been requested.
+	 */
+	public long getNumberOfRequestedEvaluations() {
+		return this.requestedEvaluations.sum();
+	}
+
+	/**
+	 * @return The number of evaluations that have actually been conducted (including aborted ones).
+	 */
+	public long getNumberOfPerformedEvaluations() {
+		return this.performedEvaluations.sum();
+	}
+
+	/**
+	 * @return The number of requests that have been answered by an evaluation conducted for another request.
+	 */
+	public long getNumberOfSavedEvaluations() {
+		return this.savedEvaluations.sum();
+	}
+
+	/**
+	 * Forgets all results. Evaluations that are currently running are not affected.
+	 */
+	public void clear() {
+		this.evaluations.entrySet().removeIf(e -> e.getValue().isDone());
+	}
+
+	private static class EvaluationKey {
+		private final Object context;
+		private final ComponentInstanceFingerprint fingerprint;
+
+		EvaluationKey(final Object context, final ComponentInstanceFingerprint fingerprint) {
+			this.context = context;
+			this.fingerprint = fingerprint;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (this.context == null ? 0 : this.context.hashCode()) + this.fingerprint.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof EvaluationKey)) {
+				return false;
+			}
+			EvaluationKey other = (EvaluationKey) obj;
+			return (this.context == null ? other.context == null : this.context.equals(other.context)) && this.fingerprint.equals(other.fingerprint);
+		}
+	}
+}
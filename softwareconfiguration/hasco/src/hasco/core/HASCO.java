@@ -19,6 +19,7 @@ import hasco.model.ParameterRefinementConfiguration;
 import hasco.optimizingfactory.SoftwareConfigurationAlgorithm;
 import hasco.reduction.HASCOReduction;
 import jaicore.basic.ILoggingCustomizable;
+import jaicore.basic.IObjectEvaluator;
 import jaicore.basic.algorithm.AlgorithmExecutionCanceledException;
 import jaicore.basic.algorithm.AlgorithmProblemTransformer;
 import jaicore.basic.algorithm.events.AlgorithmEvent;
@@ -85,6 +86,8 @@ public class HASCO<ISearch extends GraphSearchInput<N, A>, N, A, V extends Compa
 	/* runtime variables of algorithm */
 	private boolean searchCreatedAndInitialized = false;
 	private final TimeRecordingEvaluationWrapper<V> timeGrabbingEvaluationWrapper;
+	private final EvaluationCoordinator<V> evaluationCoordinator = new EvaluationCoordinator<>();
+	private final IObjectEvaluator<ComponentInstance, V> coordinatedEvaluator;
 
 	public HASCO(final RefinementConfiguredSoftwareConfigurationProblem<V> configurationProblem, final IHASCOPlanningGraphGeneratorDeriver<N, A> planningGraphGeneratorDeriver,
 			final IOptimalPathInORGraphSearchFactory<ISearch, N, A, V, ?, ?> searchFactory, final AlgorithmProblemTransformer<GraphSearchWithPathEvaluationsInput<N, A, V>, ISearch> searchProblemTransformer) {
@@ -97,7 +100,8 @@ public class HASCO<ISearch extends GraphSearchInput<N, A>, N, A, V extends Compa
 		this.searchFactory = searchFactory;
 		this.searchProblemTransformer = searchProblemTransformer;
 		this.timeGrabbingEvaluationWrapper = new TimeRecordingEvaluationWrapper<>(configurationProblem.getCompositionEvaluator());
-		this.setInput(new RefinementConfiguredSoftwareConfigurationProblem<>(new SoftwareConfigurationProblem<V>(configurationProblem.getComponents(), configurationProblem.getRequiredInterface(), this.timeGrabbingEvaluationWrapper),
+		this.coordinatedEvaluator = this.evaluationCoordinator.getCoordinatedEvaluator(this.timeGrabbingEvaluationWrapper);
+		this.setInput(new RefinementConfiguredSoftwareConfigurationProblem<>(new SoftwareConfigurationProblem<V>(configurationProblem.getComponents(), configurationProblem.getRequiredInterface(), this.coordinatedEvaluator),
 				configurationProblem.getParamRefinementConfig()));
 	}
 
@@ -197,7 +201,7 @@ public class HASCO<ISearch extends GraphSearchInput<N, A>, N, A, V extends Compa
 					ComponentInstance objectInstance = Util.getSolutionCompositionForPlan(this.getInput().getComponents(), this.planningProblem.getCorePlanningProblem().getInit(), plan, true);
 					V score;
 					try {
-						score = this.timeGrabbingEvaluationWrapper.hasEvaluationForComponentInstance(objectInstance) ? solutionEvent.getSolutionCandidate().getScore() : this.timeGrabbingEvaluationWrapper.evaluate(objectInstance);
+						score = this.timeGrabbingEvaluationWrapper.hasEvaluationForComponentInstance(objectInstance) ? solutionEvent.getSolutionCandidate().getScore() : this.coordinatedEvaluator.evaluate(objectInstance);
 					} catch (ObjectEvaluationFailedException e) {
 						throw new AlgorithmException(e, "Could not evaluate component instance.");
 					}
@@ -210,6 +214,8 @@ public class HASCO<ISearch extends GraphSearchInput<N, A>, N, A, V extends Compa
 					return hascoSolutionEvent;
 				}
 			}
+			this.logger.info("Evaluated {} of {} requested component instances, saved {} evaluations.", this.evaluationCoordinator.getNumberOfPerformedEvaluations(),
+					this.evaluationCoordinator.getNumberOfRequestedEvaluations(), this.evaluationCoordinator.getNumberOfSavedEvaluations());
 			return this.terminate();
 		}
 		default:
@@ -263,8 +269,15 @@ public class HASCO<ISearch extends GraphSearchInput<N, A>, N, A, V extends Compa
 		throw new IllegalStateException("Could not complete initialization");
 	}
 
+	/**
+	 * @return the coordinator through which all component instances are evaluated, which also counts the saved evaluations
+	 */
+	public EvaluationCoordinator<V> getEvaluationCoordinator() {
+		return this.evaluationCoordinator;
+	}
+
 	public HASCORunReport<V> getReport() {
-		return new HASCORunReport<>(this.listOfAllRecognizedSolutions);
+		return new HASCORunReport<>(this.listOfAllRecognizedSolutions, this.evaluationCoordinator.getNumberOfSavedEvaluations());
 	}
 
 	@Override
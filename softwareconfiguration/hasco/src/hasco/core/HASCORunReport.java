@@ -4,13 +4,26 @@ import java.util.List;
 
 public class HASCORunReport<V extends Comparable<V>> {
 	private final List<HASCOSolutionCandidate<V>> solutionCandidates;
+	private final long numberOfSavedEvaluations;
 
 	public HASCORunReport(List<HASCOSolutionCandidate<V>> solutionCandidates) {
+		this(solutionCandidates, 0);
+	}
+
+	public HASCORunReport(List<HASCOSolutionCandidate<V>> solutionCandidates, long numberOfSavedEvaluations) {
 		super();
 		this.solutionCandidates = solutionCandidates;
+		this.numberOfSavedEvaluations = numberOfSavedEvaluations;
 	}
 
 	public List<HASCOSolutionCandidate<V>> getSolutionCandidates() {
 		return solutionCandidates;
 	}
+
+	/**
+	 * @return the number of evaluations of component instances that have been answered by another evaluation of the same component instance
+	 */
+	public long getNumberOfSavedEvaluations() {
+		return numberOfSavedEvaluations;
+	}
 }
@@ -1,6 +1,6 @@
 package hasco.core;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
@@ -11,7 +11,7 @@ import jaicore.basic.algorithm.exceptions.ObjectEvaluationFailedException;
 public class TimeRecordingEvaluationWrapper<V extends Comparable<V>> implements IObjectEvaluator<ComponentInstance, V> {
 
 	private final IObjectEvaluator<ComponentInstance, V> baseEvaluator;
-	private final Map<ComponentInstance, Integer> consumedTimes = new HashMap<>();
+	private final Map<ComponentInstance, Integer> consumedTimes = new ConcurrentHashMap<>();
 
 	public TimeRecordingEvaluationWrapper(IObjectEvaluator<ComponentInstance, V> baseEvaluator) {
 		super();
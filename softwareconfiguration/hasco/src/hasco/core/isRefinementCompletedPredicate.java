@@ -70,8 +70,8 @@ public class isRefinementCompletedPredicate implements EvaluablePredicate {
 		for (Parameter param : component.getParameters()) {
 			String containerOfParam = componentParamContainers.get(param.getName());
 			String currentValueOfParam = groundComponent.getParameterValue(param);
-			boolean variableHasBeenSet = state.contains(new Literal("overwritten('" + containerOfParam + "')"));
-			boolean variableHasBeenClosed = state.contains(new Literal("closed('" + containerOfParam + "')"));
+			boolean variableHasBeenSet = state.contains(new Literal("overwritten", new ConstantParam(containerOfParam)));
+			boolean variableHasBeenClosed = state.contains(new Literal("closed", new ConstantParam(containerOfParam)));
 			assert variableHasBeenSet == groundComponent.getParametersThatHaveBeenSetExplicitly().contains(param);
 			assert !variableHasBeenClosed || variableHasBeenSet : "Parameter " + param.getName() + " of component " + component.getName() + " with default domain " + param.getDefaultDomain() + " has been closed but no value has been set.";
 			
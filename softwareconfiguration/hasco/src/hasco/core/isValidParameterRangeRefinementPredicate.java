@@ -60,7 +60,7 @@ public class isValidParameterRangeRefinementPredicate implements EvaluablePredic
 		String currentParamValue = partialGrounding[4].getName(); // this is not really used, because the current value is again read from the state
 		logger.info("Determining positive evaluations for isValidParameterRangeRefinementPredicate({},{},{},{},{},{})", componentName, componentIdentifier, parameterName, containerName,
 				currentParamValue, partialGrounding[5]);
-		boolean hasBeenSetBefore = state.contains(new Literal("overwritten('" + containerName + "')"));
+		boolean hasBeenSetBefore = state.contains(new Literal("overwritten", new ConstantParam(containerName)));
 
 		/* determine component instance and the true domain of parameter */
 		ComponentInstance instance = Util.getComponentInstanceFromState(components, state, componentIdentifier, false);
@@ -72,6 +72,18 @@ public class ComponentInstance {
 		return this.satisfactionOfRequiredInterfaces;
 	}
 
+	/**
+	 * Returns the structural fingerprint of this component instance, which is meant to be used as a key for caches. Since the parameter
+	 * values and the satisfied required interfaces can be modified via their maps, the fingerprint is not memoized but computed in a
+	 * single pass over the composition on every call.
+	 *
+	 * @return the fingerprint of this component instance
+	 */
+	@JsonIgnore
+	public ComponentInstanceFingerprint getFingerprint() {
+		return ComponentInstanceFingerprint.of(this);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
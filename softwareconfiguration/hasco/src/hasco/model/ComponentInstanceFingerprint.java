@@ -0,0 +1,145 @@
+package hasco.model;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A 128 bit fingerprint of the structure of a {@link ComponentInstance}, i.e. of the name of its component, its parameter values,
+ * and (recursively) the component instances that satisfy its required interfaces. The fingerprint does not depend on the order of
+ * the entries in the maps, so structurally equal component instances have the same fingerprint.
+ *
+ * The fingerprint is computed without serializing the component instance and is meant to be used as a key for caches. It is not a
+ * cryptographic hash.
+ *
+ * @author agent
+ *
+ */
+public final class ComponentInstanceFingerprint {
+	private static final long SEED_HIGH = 0x9e3779b97f4a7c15L;
+	private static final long SEED_LOW = 0xc2b2ae3d27d4eb4fL;
+	private static final long MULTIPLIER_HIGH = 0xff51afd7ed558ccdL;
+	private static final long MULTIPLIER_LOW = 0xc4ceb9fe1a85ec53L;
+	private static final long PARAMETER_TAG = 0x165667b19e3779f9L;
+	private static final long INTERFACE_TAG = 0x27d4eb2f165667c5L;
+	private static final long NULL_VALUE = 0x85ebca6b0b3a6a1dL;
+
+	private final long high;
+	private final long low;
+
+	public ComponentInstanceFingerprint(final long high, final long low) {
+		super();
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * Computes the fingerprint of the given component instance, including the fingerprints of the component instances satisfying the
+	 * required interfaces.
+	 *
+	 * @param instance
+	 * @return the fingerprint of the instance
+	 */
+	static ComponentInstanceFingerprint of(final ComponentInstance instance) {
+		String name = instance.getComponent() != null ? instance.getComponent().getName() : null;
+		long high = hash(name, SEED_HIGH, MULTIPLIER_HIGH);
+		long low = hash(name, SEED_LOW, MULTIPLIER_LOW);
+
+		/* parameter values; entries are combined by addition, which is independent of their order */
+		long parametersHigh = 0;
+		long parametersLow = 0;
+		Map<String, String> parameterValues = instance.getParameterValues();
+		if (parameterValues != null) {
+			for (Entry<String, String> parameter : parameterValues.entrySet()) {
+				parametersHigh += hash(parameter.getValue(), hash(parameter.getKey(), SEED_HIGH ^ PARAMETER_TAG, MULTIPLIER_HIGH), MULTIPLIER_HIGH);
+				parametersLow += hash(parameter.getValue(), hash(parameter.getKey(), SEED_LOW ^ PARAMETER_TAG, MULTIPLIER_LOW), MULTIPLIER_LOW);
+			}
+		}
+
+		/* satisfied required interfaces */
+		long interfacesHigh = 0;
+		long interfacesLow = 0;
+		Map<String, ComponentInstance> satisfactionOfRequiredInterfaces = instance.getSatisfactionOfRequiredInterfaces();
+		if (satisfactionOfRequiredInterfaces != null) {
+			for (Entry<String, ComponentInstance> requiredInterface : satisfactionOfRequiredInterfaces.entrySet()) {
+				ComponentInstance provider = requiredInterface.getValue();
+				ComponentInstanceFingerprint providerFingerprint = provider != null ? of(provider) : null;
+				long providerHigh = providerFingerprint != null ? providerFingerprint.high : NULL_VALUE;
+				long providerLow = providerFingerprint != null ? providerFingerprint.low : NULL_VALUE;
+				interfacesHigh += mix(hash(requiredInterface.getKey(), SEED_HIGH ^ INTERFACE_TAG, MULTIPLIER_HIGH) + providerHigh * MULTIPLIER_HIGH);
+				interfacesLow += mix(hash(requiredInterface.getKey(), SEED_LOW ^ INTERFACE_TAG, MULTIPLIER_LOW) + providerLow * MULTIPLIER_LOW);
+			}
+		}
+
+		high = mix(high ^ mix(parametersHigh + PARAMETER_TAG) ^ Long.rotateLeft(mix(interfacesHigh + INTERFACE_TAG), 31));
+		low = mix(low ^ mix(parametersLow + PARAMETER_TAG) ^ Long.rotateLeft(mix(interfacesLow + INTERFACE_TAG), 31));
+		return new ComponentInstanceFingerprint(high, low);
+	}
+
+	/**
+	 * Hashes the characters of the string into the given seed.
+	 */
+	private static long hash(final String s, final long seed, final long multiplier) {
+		if (s == null) {
+			return mix(seed ^ NULL_VALUE);
+		}
+		long h = seed;
+		for (int i = 0; i < s.length(); i++) {
+			h = (h ^ s.charAt(i)) * multiplier;
+		}
+		return mix(h ^ s.length());
+	}
+
+	/**
+	 * The finalization step of MurmurHash3.
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	public long getHigh() {
+		return this.high;
+	}
+
+	public long getLow() {
+		return this.low;
+	}
+
+	/**
+	 * @return the fingerprint as a string of 32 hexadecimal digits
+	 */
+	public String toHexString() {
+		char[] digits = new char[32];
+		for (int i = 0; i < 16; i++) {
+			digits[15 - i] = Character.forDigit((int) (this.high >>> (4 * i)) & 0xf, 16);
+			digits[31 - i] = Character.forDigit((int) (this.low >>> (4 * i)) & 0xf, 16);
+		}
+		return new String(digits);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (this.low ^ (this.low >>> 32));
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ComponentInstanceFingerprint)) {
+			return false;
+		}
+		ComponentInstanceFingerprint other = (ComponentInstanceFingerprint) obj;
+		return this.high == other.high && this.low == other.low;
+	}
+
+	@Override
+	public String toString() {
+		return this.toHexString();
+	}
+}
@@ -22,6 +22,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.Subscribe;
 
+import hasco.core.EvaluationCoordinator;
 import hasco.core.HASCOSolutionCandidate;
 import hasco.core.RefinementConfiguredSoftwareConfigurationProblem;
 import hasco.model.ComponentInstance;
@@ -58,6 +59,7 @@ public class TwoPhaseHASCO extends SoftwareConfigurationAlgorithm<TwoPhaseSoftwa
 
 	/* state variables during the run */
 	private final Queue<HASCOSolutionCandidate<Double>> phase1ResultQueue = new LinkedBlockingQueue<>();
+	private final EvaluationCoordinator<Double> selectionEvaluationCoordinator = new EvaluationCoordinator<>();
 
 	/* statistics */
 	private long timeOfStart = -1;
@@ -249,7 +251,7 @@ public class TwoPhaseHASCO extends SoftwareConfigurationAlgorithm<TwoPhaseSoftwa
 	}
 
 	protected HASCOSolutionCandidate<Double> selectModel() {
-		final IObjectEvaluator<ComponentInstance, Double> evaluator = this.getInput().getSelectionBenchmark();
+		final IObjectEvaluator<ComponentInstance, Double> evaluator = this.selectionEvaluationCoordinator.getCoordinatedEvaluator(this.getInput().getSelectionBenchmark());
 		final HASCOSolutionCandidate<Double> bestSolution = this.phase1ResultQueue.stream().min((s1, s2) -> s1.getScore().compareTo(s2.getScore())).get();
 		double scoreOfBestSolution = bestSolution.getScore();
 
@@ -375,7 +377,8 @@ public class TwoPhaseHASCO extends SoftwareConfigurationAlgorithm<TwoPhaseSoftwa
 			this.logger.info("Waiting for termination of {} threads that compute the selection scores.", n);
 			sem.acquire(n);
 			long endOfPhase2 = System.currentTimeMillis();
-			this.logger.info("Finished phase 2 within {}ms net. Total runtime was {}ms. ", endOfPhase2 - startOfPhase2, endOfPhase2 - this.timeOfStart);
+			this.logger.info("Finished phase 2 within {}ms net. Total runtime was {}ms. Saved {} duplicate evaluations.", endOfPhase2 - startOfPhase2, endOfPhase2 - this.timeOfStart,
+					this.selectionEvaluationCoordinator.getNumberOfSavedEvaluations());
 			this.logger.debug("Shutting down thread pool");
 			pool.shutdownNow();
 			pool.awaitTermination(5, TimeUnit.SECONDS);
@@ -494,8 +497,16 @@ public class TwoPhaseHASCO extends SoftwareConfigurationAlgorithm<TwoPhaseSoftwa
 		return this.hasco.getGraphGenerator();
 	}
 
+	/**
+	 * @return the number of evaluations of component instances in both phases that have been answered by another evaluation of the same component instance
+	 */
+	public long getNumberOfSavedEvaluations() {
+		long savedInPhase1 = this.hasco != null ? this.hasco.getEvaluationCoordinator().getNumberOfSavedEvaluations() : 0;
+		return savedInPhase1 + this.selectionEvaluationCoordinator.getNumberOfSavedEvaluations();
+	}
+
 	public TwoPhaseHASCOReport getReort() {
-		return new TwoPhaseHASCOReport(this.phase1ResultQueue.size(), this.secondsSpentInPhase1, this.selectedHASCOSolution);
+		return new TwoPhaseHASCOReport(this.phase1ResultQueue.size(), this.secondsSpentInPhase1, this.selectedHASCOSolution, this.getNumberOfSavedEvaluations());
 	}
 
 	@Override
@@ -6,12 +6,18 @@ public class TwoPhaseHASCOReport {
 	private final int numSolutionsInPhase1;
 	private final int durationPhase1;
 	private final HASCOSolutionCandidate<Double> returnedSolution;
+	private final long numberOfSavedEvaluations;
 
 	public TwoPhaseHASCOReport(int numSolutionsInPhase1, int durationPhase1, HASCOSolutionCandidate<Double> returnedSolution) {
+		this(numSolutionsInPhase1, durationPhase1, returnedSolution, 0);
+	}
+
+	public TwoPhaseHASCOReport(int numSolutionsInPhase1, int durationPhase1, HASCOSolutionCandidate<Double> returnedSolution, long numberOfSavedEvaluations) {
 		super();
 		this.numSolutionsInPhase1 = numSolutionsInPhase1;
 		this.durationPhase1 = durationPhase1;
 		this.returnedSolution = returnedSolution;
+		this.numberOfSavedEvaluations = numberOfSavedEvaluations;
 	}
 
 	public int getNumSolutionsInPhase1() {
@@ -25,4 +31,8 @@ public class TwoPhaseHASCOReport {
 	public HASCOSolutionCandidate<Double> getReturnedSolution() {
 		return returnedSolution;
 	}
+
+	public long getNumberOfSavedEvaluations() {
+		return numberOfSavedEvaluations;
+	}
 }
@@ -0,0 +1,88 @@
+package hasco.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import hasco.model.Component;
+import hasco.model.ComponentInstance;
+import hasco.model.ComponentInstanceFingerprint;
+
+public class ComponentInstanceFingerprintTest {
+
+	private static ComponentInstance createPipeline(final boolean reversedOrder, final String classifierParamValue) {
+		Map<String, String> searcherParams = new LinkedHashMap<>();
+		Map<String, String> classifierParams = new LinkedHashMap<>();
+		if (reversedOrder) {
+			searcherParams.put("N", "10");
+			searcherParams.put("T", "0.5");
+			classifierParams.put("M", "2");
+			classifierParams.put("C", classifierParamValue);
+		} else {
+			searcherParams.put("T", "0.5");
+			searcherParams.put("N", "10");
+			classifierParams.put("C", classifierParamValue);
+			classifierParams.put("M", "2");
+		}
+		ComponentInstance searcher = new ComponentInstance(new Component("weka.attributeSelection.Ranker"), searcherParams, new HashMap<>());
+		ComponentInstance evaluator = new ComponentInstance(new Component("weka.attributeSelection.InfoGainAttributeEval"), new HashMap<>(), new HashMap<>());
+		ComponentInstance classifier = new ComponentInstance(new Component("weka.classifiers.trees.J48"), classifierParams, new HashMap<>());
+		Map<String, ComponentInstance> interfaces = new LinkedHashMap<>();
+		if (reversedOrder) {
+			interfaces.put("classifier", classifier);
+			interfaces.put("evaluator", evaluator);
+			interfaces.put("searcher", searcher);
+		} else {
+			interfaces.put("searcher", searcher);
+			interfaces.put("evaluator", evaluator);
+			interfaces.put("classifier", classifier);
+		}
+		return new ComponentInstance(new Component("pipeline"), new HashMap<>(), interfaces);
+	}
+
+	@Test
+	public void testFingerprintIsIndependentOfOrder() {
+		assertEquals(createPipeline(false, "0.25").getFingerprint(), createPipeline(true, "0.25").getFingerprint());
+	}
+
+	@Test
+	public void testFingerprintDependsOnStructure() {
+		ComponentInstance pipeline = createPipeline(false, "0.25");
+		assertNotEquals(pipeline.getFingerprint(), createPipeline(false, "0.3").getFingerprint());
+
+		/* swap the providers of two interfaces */
+		Map<String, ComponentInstance> swappedInterfaces = new HashMap<>(pipeline.getSatisfactionOfRequiredInterfaces());
+		swappedInterfaces.put("searcher", pipeline.getSatisfactionOfRequiredInterfaces().get("evaluator"));
+		swappedInterfaces.put("evaluator", pipeline.getSatisfactionOfRequiredInterfaces().get("searcher"));
+		assertNotEquals(pipeline.getFingerprint(), new ComponentInstance(pipeline.getComponent(), pipeline.getParameterValues(), swappedInterfaces).getFingerprint());
+
+		/* move a parameter value to another key */
+		Map<String, String> params1 = new HashMap<>();
+		params1.put("A", "1");
+		params1.put("B", "2");
+		Map<String, String> params2 = new HashMap<>();
+		params2.put("A", "2");
+		params2.put("B", "1");
+		Component component = new Component("c");
+		assertNotEquals(new ComponentInstance(component, params1, new HashMap<>()).getFingerprint(), new ComponentInstance(component, params2, new HashMap<>()).getFingerprint());
+	}
+
+	@Test
+	public void testFingerprintReflectsModifications() {
+		ComponentInstance pipeline = createPipeline(false, "0.25");
+		ComponentInstanceFingerprint fingerprint = pipeline.getFingerprint();
+		assertEquals(fingerprint, pipeline.getFingerprint());
+		assertEquals(32, fingerprint.toHexString().length());
+
+		/* modify a parameter of a component instance satisfying a required interface */
+		pipeline.getSatisfactionOfRequiredInterfaces().get("classifier").getParameterValues().put("C", "0.3");
+		assertNotEquals(fingerprint, pipeline.getFingerprint());
+		assertEquals(createPipeline(false, "0.3").getFingerprint(), pipeline.getFingerprint());
+		assertEquals(fingerprint, new ComponentInstanceFingerprint(fingerprint.getHigh(), fingerprint.getLow()));
+	}
+}
@@ -0,0 +1,129 @@
+package hasco.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import hasco.core.EvaluationCoordinator;
+import hasco.model.Component;
+import hasco.model.ComponentInstance;
+import jaicore.basic.IObjectEvaluator;
+import jaicore.basic.algorithm.exceptions.ObjectEvaluationFailedException;
+
+public class EvaluationCoordinatorTest {
+
+	private static ComponentInstance createComponentInstance(final String name) {
+		return new ComponentInstance(new Component(name), new HashMap<>(), new HashMap<>());
+	}
+
+	@Test
+	public void testConcurrentRequestsAreEvaluatedOnce() throws Exception {
+		int threads = 8;
+		AtomicInteger evaluations = new AtomicInteger();
+		CountDownLatch allRequested = new CountDownLatch(threads);
+		IObjectEvaluator<ComponentInstance, Double> evaluator = ci -> {
+			evaluations.incrementAndGet();
+			allRequested.await();
+			return 0.5;
+		};
+		EvaluationCoordinator<Double> coordinator = new EvaluationCoordinator<>();
+		IObjectEvaluator<ComponentInstance, Double> coordinatedEvaluator = coordinator.getCoordinatedEvaluator(evaluator);
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Double>> scores = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			scores.add(pool.submit(() -> {
+				ComponentInstance ci = createComponentInstance("a"); // a structurally equal but distinct object per request
+				allRequested.countDown();
+				return coordinatedEvaluator.evaluate(ci);
+			}));
+		}
+		for (Future<Double> score : scores) {
+			assertEquals(0.5, score.get(), 0);
+		}
+		pool.shutdown();
+
+		/* a finished evaluation is served from memory */
+		assertEquals(0.5, coordinatedEvaluator.evaluate(createComponentInstance("a")), 0);
+		assertEquals(1, evaluations.get());
+		assertEquals(threads + 1, coordinator.getNumberOfRequestedEvaluations());
+		assertEquals(threads, coordinator.getNumberOfSavedEvaluations());
+
+		/* another component instance and another context are evaluated separately */
+		coordinatedEvaluator.evaluate(createComponentInstance("b"));
+		coordinator.getCoordinatedEvaluator(ci -> 0.5).evaluate(createComponentInstance("a"));
+		assertEquals(2, evaluations.get());
+		assertEquals(threads, coordinator.getNumberOfSavedEvaluations());
+	}
+
+	@Test
+	public void testOnlyFailuresAreMemorized() throws Exception {
+		AtomicInteger evaluations = new AtomicInteger();
+		IObjectEvaluator<ComponentInstance, Double> evaluator = ci -> {
+			int evaluation = evaluations.incrementAndGet();
+			if (ci.getComponent().getName().equals("failing")) {
+				throw new ObjectEvaluationFailedException(null, "Evaluation failed");
+			}
+			if (evaluation == 1) {
+				throw new TimeoutException();
+			}
+			return 1.0;
+		};
+		EvaluationCoordinator<Double> coordinator = new EvaluationCoordinator<>();
+		IObjectEvaluator<ComponentInstance, Double> coordinatedEvaluator = coordinator.getCoordinatedEvaluator(evaluator);
+
+		/* a timeout is not memorized */
+		try {
+			coordinatedEvaluator.evaluate(createComponentInstance("a"));
+			fail("Expected a timeout.");
+		} catch (TimeoutException e) {
+			/* expected */
+		}
+		assertEquals(1.0, coordinatedEvaluator.evaluate(createComponentInstance("a")), 0);
+		assertEquals(2, evaluations.get());
+
+		/* a failure is memorized */
+		for (int i = 0; i < 2; i++) {
+			try {
+				coordinatedEvaluator.evaluate(createComponentInstance("failing"));
+				fail("Expected a failure.");
+			} catch (ObjectEvaluationFailedException e) {
+				/* expected */
+			}
+		}
+		assertEquals(3, evaluations.get());
+		assertEquals(1, coordinator.getNumberOfSavedEvaluations());
+	}
+
+	@Test
+	public void testNumberOfMemorizedEvaluationsIsBounded() throws Exception {
+		AtomicInteger evaluations = new AtomicInteger();
+		EvaluationCoordinator<Double> coordinator = new EvaluationCoordinator<>(2);
+		IObjectEvaluator<ComponentInstance, Double> coordinatedEvaluator = coordinator.getCoordinatedEvaluator(ci -> {
+			evaluations.incrementAndGet();
+			return 0.5;
+		});
+
+		/* the least recently used evaluation is forgotten */
+		coordinatedEvaluator.evaluate(createComponentInstance("a"));
+		coordinatedEvaluator.evaluate(createComponentInstance("b"));
+		coordinatedEvaluator.evaluate(createComponentInstance("a"));
+		coordinatedEvaluator.evaluate(createComponentInstance("c"));
+		assertEquals(3, evaluations.get());
+		coordinatedEvaluator.evaluate(createComponentInstance("a"));
+		assertEquals(3, evaluations.get());
+		coordinatedEvaluator.evaluate(createComponentInstance("b"));
+		assertEquals(4, evaluations.get());
+	}
+}
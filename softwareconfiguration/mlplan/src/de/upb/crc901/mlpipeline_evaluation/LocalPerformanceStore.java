@@ -0,0 +1,129 @@
+package de.upb.crc901.mlpipeline_evaluation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embedded, file-backed store for performance values that works without a database server. Each value is appended as a line
+ * <code>hash TAB score</code> to the file, and the whole file is read into memory when the store is opened. Lines that cannot be
+ * parsed (e.g. if the process died while writing) are skipped.
+ *
+ * The store is thread-safe.
+ *
+ * @author agent
+ *
+ */
+public class LocalPerformanceStore implements Closeable {
+	/** Logger for controlled output. */
+	private static final Logger logger = LoggerFactory.getLogger(LocalPerformanceStore.class);
+
+	private final File file;
+	private final Map<String, Double> scores = new ConcurrentHashMap<>();
+	private final BufferedWriter writer;
+
+	/**
+	 * Opens the store in the given file, which is created if it does not exist yet.
+	 *
+	 * @param file - The file the performance values are kept in.
+	 * @throws IOException - If the file cannot be read or opened for writing.
+	 */
+	public LocalPerformanceStore(File file) throws IOException {
+		this.file = file;
+		if (file.exists()) {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int separator = line.indexOf('\t');
+					try {
+						if (separator > 0) {
+							this.scores.putIfAbsent(line.substring(0, separator), Double.parseDouble(line.substring(separator + 1)));
+							continue;
+						}
+					} catch (NumberFormatException e) {
+						/* handled below */
+					}
+					logger.warn("Skipping malformed line in {}: {}", file, line);
+				}
+			}
+			logger.info("Loaded {} performance values from {}", this.scores.size(), file);
+		} else if (file.getAbsoluteFile().getParentFile() != null) {
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		}
+		this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+		if (!endsWithLineBreak(file)) {
+			this.writer.newLine(); // do not append to a truncated line
+		}
+	}
+
+	private static boolean endsWithLineBreak(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			if (raf.length() == 0) {
+				return true;
+			}
+			raf.seek(raf.length() - 1);
+			int lastByte = raf.read();
+			return lastByte == '\n' || lastByte == '\r';
+		}
+	}
+
+	/**
+	 * @param hash - Hash of the evaluation.
+	 * @return The score stored for the hash or an empty optional.
+	 */
+	public Optional<Double> get(String hash) {
+		return Optional.ofNullable(this.scores.get(hash));
+	}
+
+	/**
+	 * Stores the score for the hash unless there already is a score for it.
+	 *
+	 * @param hash  - Hash of the evaluation.
+	 * @param score - The score achieved in the evaluation.
+	 * @return true iff the score has been added.
+	 * @throws IOException - If the score cannot be written to the file.
+	 */
+	public boolean put(String hash, double score) throws IOException {
+		if (this.scores.putIfAbsent(hash, score) != null) {
+			return false;
+		}
+		synchronized (this.writer) {
+			this.writer.write(hash + "\t" + score);
+			this.writer.newLine();
+			this.writer.flush();
+		}
+		return true;
+	}
+
+	/**
+	 * @return The number of stored performance values.
+	 */
+	public int size() {
+		return this.scores.size();
+	}
+
+	public File getFile() {
+		return this.file;
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (this.writer) {
+			this.writer.close();
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package de.upb.crc901.mlpipeline_evaluation;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -9,10 +10,16 @@ import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.xml.bind.annotation.adapters.HexBinaryAdapter;
 
@@ -20,10 +27,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import hasco.model.ComponentInstance;
+import hasco.serialization.HASCOJacksonModule;
 import jaicore.basic.SQLAdapter;
+import jaicore.ml.cache.Instruction;
 import jaicore.ml.cache.ReproducibleInstances;
 
 /**
@@ -31,7 +43,27 @@ import jaicore.ml.cache.ReproducibleInstances;
  * performance values in a database. json to reproduce the
  * {@link ReproducibleInstances} is saved as well as the solution that produced
  * the performance value.
- * 
+ *
+ * The performance values are cached in three tiers, which are queried in this
+ * order:
+ * <ol>
+ * <li>an in-memory LRU cache,</li>
+ * <li>an optional {@link LocalPerformanceStore}, i.e. a local file that works
+ * without a database server,</li>
+ * <li>the optional database table.</li>
+ * </ol>
+ * New performance values are written to the first two tiers immediately, while
+ * they are written to the database asynchronously in batches. Pending values
+ * are written when the adapter is closed.
+ *
+ * Evaluations are identified by a hash that covers the
+ * {@link ComponentInstance#getFingerprint() fingerprint} of the composition,
+ * which is stored in the column <code>fingerprint_hash</code>. Rows written
+ * before the fingerprint was introduced only have the hash of the JSON of the
+ * composition in the column <code>hash_value</code>. They are migrated once
+ * when the adapter is created, i.e. their fingerprint hash is computed from the
+ * stored composition and trajectories.
+ *
  * @author jmhansel
  *
  */
@@ -39,12 +71,82 @@ public class PerformanceDBAdapter implements Closeable {
 	/** Logger for controlled output. */
 	private static final Logger logger = LoggerFactory.getLogger(PerformanceDBAdapter.class);
 
+	/** Default number of performance values kept in memory. */
+	public static final int DEFAULT_MEMORY_CACHE_SIZE = 100000;
+
+	/** Maximum number of rows written to the database in one statement. */
+	private static final int MAX_BATCH_SIZE = 100;
+
+	private static final String[] COLUMNS = { "composition", "train_trajectory", "test_trajectory", "loss_function", "score", "evaluation_time_ms", "evaluation_date", "fingerprint_hash" };
+
+	/** Marks the end of the write queue. */
+	private static final String[] END_OF_QUEUE = new String[0];
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	/** Mapper that is able to read the stored compositions. */
+	private static final ObjectMapper compositionReader = new ObjectMapper().registerModule(new HASCOJacksonModule());
+
+	private final Cache<String, Double> memoryCache;
+	private final LocalPerformanceStore localStore;
 	private final SQLAdapter sqlAdapter;
 	private final String performanceSampleTableName;
+	private final BlockingQueue<String[]> pendingRows = new LinkedBlockingQueue<>();
+	private final Thread writer;
+	private volatile boolean sqlAvailable;
+	private volatile boolean closed = false;
 
 	public PerformanceDBAdapter(SQLAdapter sqlAdapter, String performanceSampleTableName) {
+		this(sqlAdapter, performanceSampleTableName, null, DEFAULT_MEMORY_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates an adapter that only uses the memory and the given local store, i.e.
+	 * works without a database server.
+	 *
+	 * @param localStore - The local store.
+	 */
+	public PerformanceDBAdapter(LocalPerformanceStore localStore) {
+		this(null, null, localStore, DEFAULT_MEMORY_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates an adapter that only uses the memory and a local store in the given
+	 * file, i.e. works without a database server.
+	 *
+	 * @param localStoreFile - The file of the local store.
+	 * @throws IOException - If the local store cannot be opened.
+	 */
+	public PerformanceDBAdapter(File localStoreFile) throws IOException {
+		this(new LocalPerformanceStore(localStoreFile));
+	}
+
+	/**
+	 * @param sqlAdapter                - Adapter for the database or null if no
+	 *                                  database is used.
+	 * @param performanceSampleTableName - Name of the table the performance values
+	 *                                  are written to.
+	 * @param localStore                - Local store or null if no local store is
+	 *                                  used.
+	 * @param memoryCacheSize           - Maximum number of performance values kept
+	 *                                  in memory.
+	 */
+	public PerformanceDBAdapter(SQLAdapter sqlAdapter, String performanceSampleTableName, LocalPerformanceStore localStore, int memoryCacheSize) {
 		this.sqlAdapter = sqlAdapter;
 		this.performanceSampleTableName = performanceSampleTableName;
+		this.localStore = localStore;
+		this.memoryCache = CacheBuilder.newBuilder().maximumSize(memoryCacheSize).build();
+		this.sqlAvailable = sqlAdapter != null && this.initializeTable();
+		if (this.sqlAvailable) {
+			this.writer = new Thread(this::writePendingRows, "PerformanceDBAdapter-writer");
+			this.writer.setDaemon(true);
+			this.writer.start();
+		} else {
+			this.writer = null;
+		}
+	}
+
+	private boolean initializeTable() {
 
 		/* initialize tables if not existent */
 		try {
@@ -65,23 +167,87 @@ public class PerformanceDBAdapter implements Closeable {
 						+ " `train_trajectory` json NOT NULL,\r\n" + " `test_trajectory` json NOT NULL,\r\n"
 						+ " `loss_function` varchar(200) NOT NULL,\r\n" + " `score` double NOT NULL,\r\n"
 						+ " `evaluation_time_ms` bigint NOT NULL,\r\n"
-						+ "`evaluation_date` timestamp NULL DEFAULT NULL," + "`hash_value` char(64) NOT NULL,"
+						+ "`evaluation_date` timestamp NULL DEFAULT NULL," + "`hash_value` char(64) DEFAULT NULL,"
+						+ "`fingerprint_hash` char(64) DEFAULT NULL,"
 						+ " PRIMARY KEY (`evaluation_id`)\r\n"
 						+ ") ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8 COLLATE=utf8_bin", new ArrayList<>());
-			}
+			} else {
 
+				// tables created before the fingerprint was introduced only have the hash of
+				// the JSON of the composition, which is no longer written
+				ResultSet columns = sqlAdapter.getResultsOfQuery("SHOW COLUMNS FROM `" + this.performanceSampleTableName + "` LIKE 'fingerprint_hash'");
+				if (!columns.next()) {
+					logger.info("Adding the column for fingerprint hashes to the table for evaluations");
+					sqlAdapter.update("ALTER TABLE `" + this.performanceSampleTableName + "` ADD COLUMN `fingerprint_hash` char(64) DEFAULT NULL, MODIFY `hash_value` char(64) DEFAULT NULL");
+				}
+				this.migrateLegacyRows();
+			}
+			return true;
 		} catch (SQLException e) {
-			e.printStackTrace();
+			logger.error("Cannot access the performance table, only using the local caches.", e);
+			return false;
 		}
+	}
 
+	/**
+	 * Computes the fingerprint hashes of the rows that only have the hash of the
+	 * JSON of their composition and writes them in batches. Rows whose
+	 * composition or trajectories cannot be read are left as they are.
+	 */
+	private void migrateLegacyRows() throws SQLException {
+		ResultSet rs = sqlAdapter.getResultsOfQuery("SELECT evaluation_id, composition, train_trajectory, test_trajectory, loss_function FROM `" + this.performanceSampleTableName + "` WHERE fingerprint_hash IS NULL");
+		Map<String, String> hashes = new LinkedHashMap<>();
+		int migratedRows = 0;
+		while (rs.next()) {
+			try {
+				ComponentInstance composition = compositionReader.readValue(rs.getString("composition"), ComponentInstance.class);
+				List<Instruction> trainTrajectory = mapper.readValue(rs.getString("train_trajectory"), new TypeReference<List<Instruction>>() {});
+				List<Instruction> testTrajectory = mapper.readValue(rs.getString("test_trajectory"), new TypeReference<List<Instruction>>() {});
+				hashes.put(rs.getString("evaluation_id"), new EvaluationDescription(composition, trainTrajectory, testTrajectory, rs.getString("loss_function")).hash);
+			} catch (IOException | NoSuchAlgorithmException e) {
+				logger.warn("Could not compute the fingerprint hash of evaluation {}, leaving it unmigrated.", rs.getString("evaluation_id"), e);
+			}
+			if (hashes.size() == MAX_BATCH_SIZE) {
+				migratedRows += this.writeFingerprintHashes(hashes);
+			}
+		}
+		migratedRows += this.writeFingerprintHashes(hashes);
+		if (migratedRows > 0) {
+			logger.info("Computed the fingerprint hashes of {} evaluations.", migratedRows);
+		}
+	}
+
+	/**
+	 * Writes the given fingerprint hashes of the given evaluations with a single
+	 * statement and clears the map.
+	 *
+	 * @return The number of written hashes.
+	 */
+	private int writeFingerprintHashes(Map<String, String> hashes) throws SQLException {
+		if (hashes.isEmpty()) {
+			return 0;
+		}
+		StringBuilder cases = new StringBuilder();
+		List<String> values = new ArrayList<>(3 * hashes.size());
+		for (Map.Entry<String, String> hash : hashes.entrySet()) {
+			cases.append(" WHEN ? THEN ?");
+			values.add(hash.getKey());
+			values.add(hash.getValue());
+		}
+		values.addAll(hashes.keySet());
+		sqlAdapter.update("UPDATE `" + this.performanceSampleTableName + "` SET fingerprint_hash = CASE evaluation_id" + cases + " END WHERE evaluation_id IN ("
+				+ String.join(", ", Collections.nCopies(hashes.size(), "?")) + ")", values);
+		int writtenHashes = hashes.size();
+		hashes.clear();
+		return writtenHashes;
 	}
 
 	/**
 	 * Checks whether there is an entry for the composition and corresponding
 	 * evaluation specified by the reproducable instances. If so, it returns the
 	 * corresponding performance score.
-	 * 
-	 * 
+	 *
+	 *
 	 * @param composition           - Solution composition.
 	 * @param reproducableInstances - Instances object that includes the trajectory,
 	 *                              i.e. all operations that have been applied to
@@ -96,27 +262,50 @@ public class PerformanceDBAdapter implements Closeable {
 	 */
 	public Optional<Double> exists(ComponentInstance composition, ReproducibleInstances reproducibleInstances,
 			ReproducibleInstances testData, String className) {
+		try {
+			return this.exists(new EvaluationDescription(composition, reproducibleInstances.getInstructions(), testData.getInstructions(), className).hash);
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			logger.error("Could not compute the hash of the evaluation.", e);
+			return Optional.empty();
+		}
+	}
+
+	private Optional<Double> exists(String hexHash) {
+
+		/* memory */
+		Double score = this.memoryCache.getIfPresent(hexHash);
+		if (score != null) {
+			return Optional.of(score);
+		}
+
+		/* local store */
+		if (this.localStore != null) {
+			Optional<Double> opt = this.localStore.get(hexHash);
+			if (opt.isPresent()) {
+				this.memoryCache.put(hexHash, opt.get());
+				return opt;
+			}
+		}
+
+		/* database */
+		if (!this.sqlAvailable) {
+			return Optional.empty();
+		}
 		Optional<Double> opt = Optional.empty();
-		ObjectMapper mapper = new ObjectMapper();
 		try {
-			String compositionString = mapper.writeValueAsString(composition);
-			String trainTrajectoryString = mapper.writeValueAsString(reproducibleInstances.getInstructions());
-			String testTrajectoryString = mapper.writeValueAsString(testData.getInstructions());
-			MessageDigest md = MessageDigest.getInstance("SHA-256");
-			md.update(compositionString.getBytes());
-			md.update(trainTrajectoryString.getBytes());
-			md.update(testTrajectoryString.getBytes());
-			md.update(className.getBytes());
-			byte[] digest = md.digest();
-			String hexHash = (new HexBinaryAdapter()).marshal(digest);
-			ResultSet rs = sqlAdapter.getResultsOfQuery(
-					"SELECT score FROM " + this.performanceSampleTableName + " WHERE hash_value = '" + hexHash + "'");
+			List<String> values = new ArrayList<>(1);
+			values.add(hexHash);
+			ResultSet rs = sqlAdapter.getResultsOfQuery("SELECT score FROM " + this.performanceSampleTableName + " WHERE fingerprint_hash = ?", values);
 			while (rs.next()) {
-				double score = rs.getDouble("score");
-				opt = Optional.of(score);
+				opt = Optional.of(rs.getDouble("score"));
 			}
-		} catch (JsonProcessingException | SQLException | NoSuchAlgorithmException e) {
-			e.printStackTrace();
+		} catch (SQLException e) {
+			logger.error("Cannot query the performance table, only using the local caches from now on.", e);
+			this.sqlAvailable = false;
+		}
+		if (opt.isPresent()) {
+			this.memoryCache.put(hexHash, opt.get());
+			this.storeLocally(hexHash, opt.get());
 		}
 		return opt;
 	}
@@ -124,7 +313,7 @@ public class PerformanceDBAdapter implements Closeable {
 	/**
 	 * Stores the composition, the trajectory and the achieved score in the
 	 * database.
-	 * 
+	 *
 	 * @param composition           - Solution composition
 	 * @param reproducableInstances - Instances object that includes the trajectory,
 	 *                              i.e. all operations that have been applied to
@@ -137,44 +326,180 @@ public class PerformanceDBAdapter implements Closeable {
 	 *                              function that was used
 	 * @param evaluationTime        - The time it took for the corresponding
 	 *                              evaluation in milliseconds
+	 * @throws IllegalStateException if the adapter has been closed
 	 */
 	public void store(ComponentInstance composition, ReproducibleInstances reproducibleInstances,
 			ReproducibleInstances testData, double score, String className, long evaluationTime) {
-		ObjectMapper mapper = new ObjectMapper();
+		if (this.closed) {
+			throw new IllegalStateException("The adapter has been closed, no more evaluations can be stored.");
+		}
+		EvaluationDescription description;
 		try {
-			String compositionString = mapper.writeValueAsString(composition);
-			String trainTrajectoryString = mapper.writeValueAsString(reproducibleInstances.getInstructions());
-			String testTrajectoryString = mapper.writeValueAsString(testData.getInstructions());
-			MessageDigest md = MessageDigest.getInstance("SHA-256");
-			md.update(compositionString.getBytes());
-			md.update(trainTrajectoryString.getBytes());
-			md.update(testTrajectoryString.getBytes());
-			md.update(className.getBytes());
-			byte[] digest = md.digest();
-			String hexHash = (new HexBinaryAdapter()).marshal(digest);
-			ResultSet rs = sqlAdapter.getResultsOfQuery(
-					"SELECT score FROM " + this.performanceSampleTableName + " WHERE hash_value = '" + hexHash + "'");
-			if (rs.next())
+			description = new EvaluationDescription(composition, reproducibleInstances.getInstructions(), testData.getInstructions(), className);
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			logger.error("Could not compute the hash of the evaluation.", e);
+			return;
+		}
+		if (this.memoryCache.getIfPresent(description.hash) != null) {
+			return;
+		}
+		this.memoryCache.put(description.hash, score);
+		boolean isNew = this.storeLocally(description.hash, score);
+		if (isNew && this.sqlAvailable) {
+			String compositionString;
+			try {
+				compositionString = mapper.writeValueAsString(composition);
+			} catch (JsonProcessingException e) {
+				logger.error("Could not serialize the composition of evaluation {}.", description.hash, e);
+				return;
+			}
+			String[] row = { compositionString, description.trainTrajectoryString, description.testTrajectoryString, className, Double.toString(score), Long.toString(evaluationTime),
+					new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(Date.from(Instant.now())), description.hash };
+			synchronized (this.pendingRows) {
+				if (this.closed) {
+					throw new IllegalStateException("The adapter has been closed while storing, evaluation " + description.hash + " is not written to the database.");
+				}
+				this.pendingRows.add(row);
+			}
+		}
+	}
+
+	/**
+	 * @return true iff there is no local store or the score was not contained in it
+	 */
+	private boolean storeLocally(String hexHash, double score) {
+		if (this.localStore == null) {
+			return true;
+		}
+		try {
+			return this.localStore.put(hexHash, score);
+		} catch (IOException e) {
+			logger.error("Could not write evaluation {} to the local store.", hexHash, e);
+			return true;
+		}
+	}
+
+	/**
+	 * Run by the writer thread until the end of the queue is reached. Writes the
+	 * pending rows in batches, omitting rows whose hash is already in the table.
+	 */
+	private void writePendingRows() {
+		List<String[]> batch = new ArrayList<>(MAX_BATCH_SIZE);
+		boolean endOfQueue = false;
+		while (!endOfQueue) {
+			try {
+				batch.add(this.pendingRows.take());
+			} catch (InterruptedException e) {
+				logger.warn("Writer has been interrupted, {} evaluations are not written to the database.", this.pendingRows.size());
+				Thread.currentThread().interrupt();
 				return;
-			Map<String, String> valueMap = new HashMap<>();
-			valueMap.put("composition", compositionString);
-			valueMap.put("train_trajectory", trainTrajectoryString);
-			valueMap.put("test_trajectory", testTrajectoryString);
-			valueMap.put("loss_function", className);
-			valueMap.put("evaluation_date",
-					new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(Date.from(Instant.now())));
-			valueMap.put("evaluation_time_ms", Long.toString(evaluationTime));
-			valueMap.put("hash_value", hexHash);
-			valueMap.put("score", Double.toString(score));
-			this.sqlAdapter.insert(this.performanceSampleTableName, valueMap);
-		} catch (JsonProcessingException | NoSuchAlgorithmException | SQLException e) {
-			e.printStackTrace();
+			}
+			this.pendingRows.drainTo(batch, MAX_BATCH_SIZE - 1);
+			endOfQueue = batch.remove(END_OF_QUEUE);
+			if (!batch.isEmpty() && this.sqlAvailable) {
+				try {
+					this.writeBatch(batch);
+				} catch (SQLException e) {
+					logger.error("Could not write {} evaluations to the database.", batch.size(), e);
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	private void writeBatch(List<String[]> batch) throws SQLException {
+
+		/* determine hashes that are already in the table */
+		StringBuilder placeholders = new StringBuilder();
+		List<String> hashes = new ArrayList<>(batch.size());
+		for (String[] row : batch) {
+			placeholders.append(placeholders.length() == 0 ? "?" : ", ?");
+			hashes.add(row[row.length - 1]);
+		}
+		Set<String> existingHashes = new HashSet<>();
+		ResultSet rs = sqlAdapter.getResultsOfQuery("SELECT fingerprint_hash FROM " + this.performanceSampleTableName + " WHERE fingerprint_hash IN (" + placeholders + ")", hashes);
+		while (rs.next()) {
+			existingHashes.add(rs.getString(1));
+		}
+
+		/* insert the other rows with a single statement */
+		StringBuilder sql = new StringBuilder("INSERT INTO " + this.performanceSampleTableName + " (" + String.join(", ", COLUMNS) + ") VALUES ");
+		String rowPlaceholders = "(" + String.join(", ", Collections.nCopies(COLUMNS.length, "?")) + ")";
+		List<String> values = new ArrayList<>();
+		for (String[] row : batch) {
+			if (existingHashes.add(row[row.length - 1])) {
+				sql.append(values.isEmpty() ? rowPlaceholders : ", " + rowPlaceholders);
+				for (String value : row) {
+					values.add(value);
+				}
+			}
+		}
+		if (!values.isEmpty()) {
+			this.sqlAdapter.insert(sql.toString(), values);
+			logger.debug("Wrote {} evaluations to the database.", values.size() / COLUMNS.length);
 		}
 	}
 
+	/**
+	 * @return The number of evaluations that have not been written to the
+	 *         database yet.
+	 */
+	public int getNumberOfPendingEvaluations() {
+		return this.pendingRows.size();
+	}
+
+	/**
+	 * Writes the pending evaluations to the database and closes the local store
+	 * and the database connection.
+	 */
 	@Override
 	public void close() throws IOException {
-		this.sqlAdapter.close();
+		synchronized (this.pendingRows) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			this.pendingRows.add(END_OF_QUEUE);
+		}
+		if (this.writer != null) {
+			try {
+				this.writer.join();
+			} catch (InterruptedException e) {
+				logger.warn("Interrupted while waiting for pending evaluations to be written.");
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (this.localStore != null) {
+			this.localStore.close();
+		}
+		if (this.sqlAdapter != null) {
+			this.sqlAdapter.close();
+		}
 	}
 
+	/**
+	 * Serialized trajectories of an evaluation together with the hash of the
+	 * evaluation. The composition enters the hash via its
+	 * {@link ComponentInstance#getFingerprint() fingerprint}, so it need not be
+	 * serialized for a lookup.
+	 */
+	private static class EvaluationDescription {
+		private final String trainTrajectoryString;
+		private final String testTrajectoryString;
+		private final String className;
+		private final String hash;
+
+		EvaluationDescription(ComponentInstance composition, List<Instruction> trainTrajectory, List<Instruction> testTrajectory, String className) throws JsonProcessingException, NoSuchAlgorithmException {
+			this.trainTrajectoryString = mapper.writeValueAsString(trainTrajectory);
+			this.testTrajectoryString = mapper.writeValueAsString(testTrajectory);
+			this.className = className;
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			md.update(composition.getFingerprint().toHexString().getBytes());
+			md.update(this.trainTrajectoryString.getBytes());
+			md.update(this.testTrajectoryString.getBytes());
+			md.update(this.className.getBytes());
+			byte[] digest = md.digest();
+			this.hash = (new HexBinaryAdapter()).marshal(digest);
+		}
+	}
 }
@@ -5,6 +5,13 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import de.upb.crc901.mlplan.multiclass.wekamlplan.weka.WEKAPipelineFactory;
 import de.upb.crc901.mlplan.multiclass.wekamlplan.weka.model.MLPipeline;
@@ -18,6 +25,9 @@ import weka.core.converters.ConverterUtils.DataSource;
 /**
  * For caching and evaluation MLPipelines.
  * 
+ * Results are kept in memory in front of the database, so that repeated lookups of a pipeline do not cause a query. New results are
+ * uploaded to the database asynchronously.
+ * 
  * @author Helena Graf
  * @author Joshua
  * @author Lukas
@@ -38,7 +48,13 @@ public class PipelineEvaluationCache {
 	private Instances data;
 	private SQLAdapter adapter;
 	private final String intermediateResultsTableName = "pgotfml_hgraf.intermediate_results";
-	private boolean useCache = true;
+	private volatile boolean useCache = true;
+	private final Cache<String, Double> results = CacheBuilder.newBuilder().maximumSize(100000).build();
+	private final ExecutorService uploader = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "PipelineEvaluationCache-uploader");
+		t.setDaemon(true);
+		return t;
+	});
 
 	/**
 	 * Construct a new cache for evaluations. The valid split and evaluation
@@ -96,9 +112,20 @@ public class PipelineEvaluationCache {
 	 *         result
 	 * @throws Exception
 	 *             If the pipeline cannot be evaluated
+	 * @throws IllegalStateException
+	 *             If the cache has been closed
 	 */
 	public double getResultOrExecuteEvaluation(ComponentInstance cI) throws Exception {
+		if (uploader.isShutdown()) {
+			throw new IllegalStateException("The cache has been closed, no more evaluations can be executed or written to the database.");
+		}
+
 		// Lookup
+		String key = getResultKey(cI);
+		Double knownResult = results.getIfPresent(key);
+		if (knownResult != null) {
+			return knownResult;
+		}
 		String serializedCI = null;
 		if (useCache && datasetOrigin != DatasetOrigin.LOCAL) {
 			System.out.println("DB Lookup");
@@ -107,6 +134,7 @@ public class PipelineEvaluationCache {
 			Double result = doDBLookUp(cI, serializedCI);
 			if (result != null) {
 				System.out.println("Return DB result");
+				results.put(key, result);
 				return result;
 			}
 		}
@@ -115,11 +143,17 @@ public class PipelineEvaluationCache {
 		System.out.println("Execute new evaluation");
 		double result = evaluate(cI);
 		System.out.println("Score: " + result);
+		results.put(key, result);
 
 		// Write back
 		if (useCache && datasetOrigin != DatasetOrigin.LOCAL) {
 			System.out.println("Write new evaluation back into DB");
-			uploadResultToDB(cI, serializedCI, result);
+			String pipeline = serializedCI != null ? serializedCI : CompositionSerializer.serializeComponentInstance(cI).toString();
+			try {
+				uploader.submit(() -> uploadResultToDB(cI, pipeline, result));
+			} catch (RejectedExecutionException e) {
+				throw new IllegalStateException("The cache has been closed while evaluating, the result is not written to the database.", e);
+			}
 		}
 
 		// Return result
@@ -193,6 +227,27 @@ public class PipelineEvaluationCache {
 		}
 	}
 
+	/**
+	 * The key of a result in memory, which consists of the fingerprint of the pipeline and the validation configuration (the other
+	 * parts of the configuration are fixed). This key is never persisted; results in the database are still identified by the
+	 * serialized pipeline, see {@link #doDBLookUp(ComponentInstance, String)}.
+	 */
+	private String getResultKey(ComponentInstance cI) {
+		String fingerprint = cI.getFingerprint().toHexString();
+		return doNotValidate() ? fingerprint : fingerprint + "\n" + valSplitTechnique + "\n" + valEvaluationTechnique + "\n" + valSeed;
+	}
+
+	/**
+	 * Waits until all results have been uploaded to the database. Afterwards, {@link #getResultOrExecuteEvaluation(ComponentInstance)} throws an
+	 * {@link IllegalStateException}.
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void close() throws InterruptedException {
+		uploader.shutdown();
+		uploader.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+	}
+
 	private boolean doNotValidate() {
 		return valSplitTechnique == null || valSplitTechnique.trim().equals("");
 	}
@@ -15,6 +15,8 @@ public interface MLPlanClassifierConfig extends TwoPhaseHASCOConfig {
 	public static final String SELECTION_MCCV_ITERATIONS = "mlplan.selection.mccvFolds";
 	public static final String SELECTION_MCCV_FOLDSIZE = "mlplan.selection.foldSize";
 	public static final String SELECTION_PORTION = "mlplan.selection.mccvPortion";
+	public static final String SEARCH_MCCV_THREADS = "mlplan.search.mccvThreads";
+	public static final String SELECTION_MCCV_THREADS = "mlplan.selection.mccvThreads";
 	
 //	public static final String TIMEOUT_PER_EVAL_IN_SECONDS = "mlplan.timeoutPerEval";
 
@@ -38,6 +40,14 @@ public interface MLPlanClassifierConfig extends TwoPhaseHASCOConfig {
 	@DefaultValue("0.3")
 	public double dataPortionForSelection();
 
+	@Key(SEARCH_MCCV_THREADS)
+	@DefaultValue("1")
+	public int numberOfThreadsForMCCVDuringSearch();
+
+	@Key(SELECTION_MCCV_THREADS)
+	@DefaultValue("1")
+	public int numberOfThreadsForMCCVDuringSelection();
+
 //	@Key(TIMEOUT_PER_EVAL_IN_SECONDS)
 //	@DefaultValue("10")
 //	public int timeoutPerNodeFComputation();
@@ -132,7 +132,7 @@ public abstract class MLPlanWekaClassifier extends AAlgorithm<Instances, Classif
 
 			/* create HASCO problem */
 			IObjectEvaluator<Classifier, Double> searchBenchmark = new MonteCarloCrossValidationEvaluator(this.evaluationMeasurementBridge, this.getConfig().numberOfMCIterationsDuringSearch(), this.dataShownToSearch,
-					this.getConfig().getMCCVTrainFoldSizeDuringSearch(), this.getConfig().randomSeed());
+					this.getConfig().getMCCVTrainFoldSizeDuringSearch(), this.getConfig().randomSeed(), this.getConfig().numberOfThreadsForMCCVDuringSearch());
 
 			IObjectEvaluator<ComponentInstance, Double> wrappedSearchBenchmark = c -> {
 				try {
@@ -142,7 +142,7 @@ public abstract class MLPlanWekaClassifier extends AAlgorithm<Instances, Classif
 						long seed = this.getConfig().randomSeed() + c.hashCode();
 
 						IObjectEvaluator<Classifier, Double> copiedSearchBenchmark = new MonteCarloCrossValidationEvaluator(bridge, this.getConfig().numberOfMCIterationsDuringSearch(), this.dataShownToSearch,
-								this.getConfig().getMCCVTrainFoldSizeDuringSearch(), seed);
+								this.getConfig().getMCCVTrainFoldSizeDuringSearch(), seed, this.getConfig().numberOfThreadsForMCCVDuringSearch());
 
 						return copiedSearchBenchmark.evaluate(this.factory.getComponentInstantiation(c));
 					}
@@ -161,7 +161,7 @@ public abstract class MLPlanWekaClassifier extends AAlgorithm<Instances, Classif
 				}
 
 				MonteCarloCrossValidationEvaluator mccv = new MonteCarloCrossValidationEvaluator(bridge, MLPlanWekaClassifier.this.getConfig().numberOfMCIterationsDuringSelection(), MLPlanWekaClassifier.this.getInput(),
-						MLPlanWekaClassifier.this.getConfig().getMCCVTrainFoldSizeDuringSelection(), this.getConfig().randomSeed());
+						MLPlanWekaClassifier.this.getConfig().getMCCVTrainFoldSizeDuringSelection(), this.getConfig().randomSeed(), this.getConfig().numberOfThreadsForMCCVDuringSelection());
 				try {
 					mccv.evaluate(this.factory.getComponentInstantiation(c));
 				} catch (ComponentInstantiationFailedException e) {
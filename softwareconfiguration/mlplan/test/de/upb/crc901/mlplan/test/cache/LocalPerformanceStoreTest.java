@@ -0,0 +1,78 @@
+package de.upb.crc901.mlplan.test.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import de.upb.crc901.mlpipeline_evaluation.LocalPerformanceStore;
+import de.upb.crc901.mlpipeline_evaluation.PerformanceDBAdapter;
+import hasco.model.Component;
+import hasco.model.ComponentInstance;
+import jaicore.ml.WekaUtil;
+import jaicore.ml.cache.ReproducibleInstances;
+import jaicore.ml.core.evaluation.measure.singlelabel.ZeroOneLoss;
+
+/**
+ * Tests the {@link PerformanceDBAdapter} without a database, i.e. only with the memory cache and a {@link LocalPerformanceStore}.
+ *
+ * @author agent
+ *
+ */
+public class LocalPerformanceStoreTest {
+
+	private static final String DATASET = "../../JAICore/jaicore-ml/testsrc/ml/orig/vowel.arff";
+
+	@Test
+	public void testStoreAndLoadWithoutDatabase() throws Exception {
+		File storeFile = File.createTempFile("performance", ".tsv");
+		storeFile.delete();
+		storeFile.deleteOnExit();
+
+		ComponentInstance composition1 = new ComponentInstance(new Component("weka.classifiers.trees.J48"), new HashMap<>(), new HashMap<>());
+		ComponentInstance composition2 = new ComponentInstance(new Component("weka.classifiers.trees.RandomForest"), new HashMap<>(), new HashMap<>());
+		ReproducibleInstances data = ReproducibleInstances.fromARFF(DATASET, "test");
+		List<ReproducibleInstances> split1 = WekaUtil.getStratifiedSplit(data, 5, 0.7);
+		List<ReproducibleInstances> split2 = WekaUtil.getStratifiedSplit(data, 4, 0.7);
+		String className = ZeroOneLoss.class.getName();
+		double score = Math.PI / 5.0;
+
+		PerformanceDBAdapter adapter = new PerformanceDBAdapter(storeFile);
+		assertFalse(adapter.exists(composition1, split1.get(0), split1.get(1), className).isPresent());
+		adapter.store(composition1, split1.get(0), split1.get(1), score, className, 100L);
+		assertEquals(score, adapter.exists(composition1, split1.get(0), split1.get(1), className).get(), 0);
+		assertFalse(adapter.exists(composition2, split1.get(0), split1.get(1), className).isPresent());
+		assertFalse(adapter.exists(composition1, split2.get(0), split2.get(1), className).isPresent());
+		adapter.close();
+
+		/* the score survives in the local store */
+		LocalPerformanceStore store = new LocalPerformanceStore(storeFile);
+		assertEquals(1, store.size());
+		adapter = new PerformanceDBAdapter(store);
+		Optional<Double> loadedScore = adapter.exists(composition1, split1.get(0), split1.get(1), className);
+		assertTrue(loadedScore.isPresent());
+		assertEquals(score, loadedScore.get(), 0);
+		adapter.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testStoreAfterCloseIsRejected() throws Exception {
+		File storeFile = File.createTempFile("performance", ".tsv");
+		storeFile.delete();
+		storeFile.deleteOnExit();
+
+		ComponentInstance composition = new ComponentInstance(new Component("weka.classifiers.trees.J48"), new HashMap<>(), new HashMap<>());
+		ReproducibleInstances data = ReproducibleInstances.fromARFF(DATASET, "test");
+		List<ReproducibleInstances> split = WekaUtil.getStratifiedSplit(data, 5, 0.7);
+
+		PerformanceDBAdapter adapter = new PerformanceDBAdapter(storeFile);
+		adapter.close();
+		adapter.store(composition, split.get(0), split.get(1), 0.5, ZeroOneLoss.class.getName(), 100L);
+	}
+}
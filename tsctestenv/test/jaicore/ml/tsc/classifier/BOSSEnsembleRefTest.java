@@ -0,0 +1,99 @@
+package jaicore.ml.tsc.classifier;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+import jaicore.basic.sets.SetUtil.Pair;
+import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.util.ClassMapper;
+import jaicore.ml.tsc.util.SimplifiedTimeSeriesLoader;
+
+/**
+ * Benchmark of the {@link BOSSEnsembleClassifier} trained and evaluated with
+ * one thread against the one trained and evaluated with all available
+ * processors on UCR datasets. Both must keep the same members and predict the
+ * same labels.
+ */
+public class BOSSEnsembleRefTest {
+
+    private static final String PATH = "./tsctestenv/data/univariate/";
+
+    private static final String ITALY_POWER_DEMAND = PATH + "ItalyPowerDemand/ItalyPowerDemand"; // 67 x 24
+
+    private static final String ECG200 = PATH + "ECG200/ECG200"; // 100 x 96
+
+    private static final String CAR = PATH + "Car/Car"; // 60 x 577
+
+    private static final int[] WORD_LENGTHS = { 8, 10, 12, 14, 16 };
+
+    private static final double[] ALPHABET = { 0, 1, 2, 3 };
+
+    private void runBenchmark(String dataset) throws Exception {
+        Pair<TimeSeriesDataset, ClassMapper> train = SimplifiedTimeSeriesLoader
+                .loadArff(new File(dataset + "_TRAIN.arff"));
+        Pair<TimeSeriesDataset, ClassMapper> test = SimplifiedTimeSeriesLoader
+                .loadArff(new File(dataset + "_TEST.arff"));
+
+        // Window lengths from 10 to the series length as in the BOSS paper.
+        int seriesLength = train.getX().getValues(0)[0].length;
+        int numberOfWindowLengths = Math.max(1, Math.min(10, seriesLength - 9));
+        int[] windowLengths = new int[numberOfWindowLengths];
+        for (int i = 0; i < numberOfWindowLengths; i++)
+            windowLengths[i] = 10 + (seriesLength - 10) * i / Math.max(1, numberOfWindowLengths - 1);
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        BOSSEnsembleClassifier sequential = new BOSSEnsembleClassifier(windowLengths, WORD_LENGTHS, ALPHABET, true,
+                BOSSEnsembleAlgorithm.DEFAULT_ACCURACY_FACTOR, 1);
+        BOSSEnsembleClassifier parallel = new BOSSEnsembleClassifier(windowLengths, WORD_LENGTHS, ALPHABET, true,
+                BOSSEnsembleAlgorithm.DEFAULT_ACCURACY_FACTOR, cpus);
+
+        long start = System.currentTimeMillis();
+        sequential.train(train.getX());
+        long sequentialTrainTime = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        List<Integer> sequentialPredictions = sequential.predict(test.getX());
+        long sequentialPredictTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        parallel.train(train.getX());
+        long parallelTrainTime = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        List<Integer> parallelPredictions = parallel.predict(test.getX());
+        long parallelPredictTime = System.currentTimeMillis() - start;
+
+        assertEquals(sequential.getEnsemble().size(), parallel.getEnsemble().size());
+        assertEquals(sequentialPredictions, parallelPredictions);
+
+        int[] targets = test.getX().getTargets();
+        int correct = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (parallelPredictions.get(i) == targets[i])
+                correct++;
+        }
+
+        System.out.println(String.format(
+                "BOSS ensemble on %s - %d of %d members, accuracy %.3f. Train: 1 thread %d ms, %d threads %d ms. Predict: 1 thread %d ms, %d threads %d ms",
+                dataset, parallel.getEnsemble().size(), parallel.getCandidates().size(),
+                (double) correct / targets.length, sequentialTrainTime, cpus, parallelTrainTime,
+                sequentialPredictTime, cpus, parallelPredictTime));
+    }
+
+    @Test
+    public void testPerformanceOnItalyPowerDemand() throws Exception {
+        runBenchmark(ITALY_POWER_DEMAND);
+    }
+
+    @Test
+    public void testPerformanceOnEcg200() throws Exception {
+        runBenchmark(ECG200);
+    }
+
+    @Test
+    public void testPerformanceOnCar() throws Exception {
+        runBenchmark(CAR);
+    }
+}
@@ -0,0 +1,83 @@
+package jaicore.ml.tsc.distances;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import jaicore.basic.sets.SetUtil.Pair;
+import jaicore.ml.tsc.dataset.TimeSeriesDataset;
+import jaicore.ml.tsc.util.ClassMapper;
+import jaicore.ml.tsc.util.ScalarDistanceUtil;
+import jaicore.ml.tsc.util.SimplifiedTimeSeriesLoader;
+
+/**
+ * Benchmark of the 1-NN search with {@link LowerBoundedDynamicTimeWarping}
+ * against an exhaustive search with {@link DynamicTimeWarping} on UCR
+ * datasets. Both searches must find nearest neighbors with the same distance.
+ */
+public class LowerBoundedDynamicTimeWarpingRefTest {
+
+    private static final String PATH = "./tsctestenv/data/univariate/";
+
+    private static final String ECG200 = PATH + "ECG200/ECG200"; // 100 x 96
+
+    private static final String SYNTHETIC_CONTROL = PATH + "SyntheticControl/SyntheticControl"; // 300 x 60
+
+    private static final String CRICKIT_X = PATH + "CricketX/CricketX"; // 390 x 300
+
+    private void runBenchmark(String dataset) throws Exception {
+        Pair<TimeSeriesDataset, ClassMapper> train = SimplifiedTimeSeriesLoader
+                .loadArff(new File(dataset + "_TRAIN.arff"));
+        Pair<TimeSeriesDataset, ClassMapper> test = SimplifiedTimeSeriesLoader
+                .loadArff(new File(dataset + "_TEST.arff"));
+        double[][] trainValues = train.getX().getValues(0);
+        double[][] testValues = test.getX().getValues(0);
+
+        // Exhaustive search.
+        DynamicTimeWarping reference = new DynamicTimeWarping(ScalarDistanceUtil.getSquaredDistance());
+        double[] referenceDistances = new double[testValues.length];
+        long referenceStart = System.currentTimeMillis();
+        for (int i = 0; i < testValues.length; i++) {
+            double bestSoFar = Double.POSITIVE_INFINITY;
+            for (double[] trainValue : trainValues)
+                bestSoFar = Math.min(bestSoFar, reference.distance(testValues[i], trainValue));
+            referenceDistances[i] = bestSoFar;
+        }
+        long referenceTime = System.currentTimeMillis() - referenceStart;
+
+        // Pruned search.
+        LowerBoundedDynamicTimeWarping own = new LowerBoundedDynamicTimeWarping(Integer.MAX_VALUE,
+                ScalarDistanceUtil.getSquaredDistance());
+        long ownStart = System.currentTimeMillis();
+        own.fit(trainValues);
+        for (int i = 0; i < testValues.length; i++) {
+            double bestSoFar = Double.POSITIVE_INFINITY;
+            for (double[] trainValue : trainValues)
+                bestSoFar = Math.min(bestSoFar, own.distance(testValues[i], trainValue, bestSoFar));
+            assertEquals(referenceDistances[i], bestSoFar, 1.0E-5);
+        }
+        long ownTime = System.currentTimeMillis() - ownStart;
+
+        System.out.println(String.format(
+                "1-NN-DTW on %s - Own: %d ms, Ref: %d ms, p = %.3f. Pruned by LB_Kim: %d, by LB_Keogh: %d, abandoned: %d, completed: %d",
+                dataset, ownTime, referenceTime, (double) ownTime / referenceTime, own.getNumberOfPrunedByKim(),
+                own.getNumberOfPrunedByKeogh(), own.getNumberOfAbandoned(), own.getNumberOfCompleted()));
+    }
+
+    @Test
+    public void testPerformanceOnEcg200() throws Exception {
+        runBenchmark(ECG200);
+    }
+
+    @Test
+    public void testPerformanceOnSyntheticControl() throws Exception {
+        runBenchmark(SYNTHETIC_CONTROL);
+    }
+
+    @Test
+    public void testPerformanceOnCricketX() throws Exception {
+        runBenchmark(CRICKIT_X);
+    }
+}